@@ -218,6 +218,30 @@ dependencies {
   testImplementation(docgen.output)
 }
 
+/**
+ * JMH micro-benchmarks live in their own source set so they are neither packaged nor run by
+ * `check`. Run them with `./gradlew jmh`, optionally passing `-PjmhIncludes=<regex>`.
+ */
+val jmh = sourceSets.create("jmh") {
+  java.srcDir("src/jmh/java")
+  compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+  runtimeClasspath += sourceSets.main.get().output + sourceSets.main.get().runtimeClasspath
+}
+
+dependencies {
+  "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+  "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+tasks.register<JavaExec>("jmh") {
+  group = "verification"
+  description = "Runs the JMH micro-benchmarks."
+  dependsOn(jmh.classesTaskName)
+  classpath = jmh.runtimeClasspath
+  mainClass.set("org.openjdk.jmh.Main")
+  args(providers.gradleProperty("jmhIncludes").getOrElse(".*"))
+}
+
 tasks.register<JavaExec>("generateDocumentationPrototype") {
   group = "documentation"
   description = "Generates the prototype English and German JavaHelp memory trees."
@@ -0,0 +1,71 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.analyze.model;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the minimization of one output of a truth table, as done for the Minimized tab of the
+ * analyzer. The functions are seeded at random: either about half of the rows are ones, or all
+ * but a few, or the ones are the rows of an adder's carry out.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true"})
+@State(Scope.Thread)
+public class MinimizerBenchmark {
+
+  @Param({"8", "12", "16"})
+  private int inputs;
+
+  @Param({"random", "dense", "carry"})
+  private String function;
+
+  private long[] desired;
+  private long[] dontCare;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    final var random = new Random(42);
+    final var half = inputs / 2;
+    desired = new long[((1 << inputs) + 63) >>> 6];
+    dontCare = new long[desired.length];
+    for (var row = 0; row < 1 << inputs; row++) {
+      final var one =
+          switch (function) {
+            case "random" -> random.nextBoolean();
+            case "dense" -> random.nextInt(50) != 0;
+            default -> ((row & ((1 << half) - 1)) + (row >>> half)) >>> half != 0;
+          };
+      if (one) desired[row >>> 6] |= 1L << row;
+    }
+  }
+
+  @Benchmark
+  public List<Implicant> minimize() {
+    return new Minimizer(inputs, desired, dontCare, null).minimize();
+  }
+}
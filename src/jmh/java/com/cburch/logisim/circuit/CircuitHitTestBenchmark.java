@@ -0,0 +1,139 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.circuit;
+
+import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.comp.ComponentDrawContext;
+import com.cburch.logisim.data.Bounds;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.file.Loader;
+import com.cburch.logisim.file.LogisimFile;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.std.gates.GatesLibrary;
+import com.cburch.logisim.tools.AddTool;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.swing.JPanel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures what the canvas does on a large sheet: the hit test of a mouse move, a rubber band
+ * selection, and painting a window sized view of the sheet. The sheet is a square of AND gates,
+ * each wired to the next one. Compares looking components up in the spatial index of the circuit
+ * with scanning all of them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true"})
+@State(Scope.Thread)
+public class CircuitHitTestBenchmark {
+
+  private static final int SPACING = 80;
+  private static final int VIEW_WIDTH = 1200;
+  private static final int VIEW_HEIGHT = 800;
+
+  @Param({"1000", "20000"})
+  public int componentCount;
+
+  @Param({"true", "false"})
+  public boolean spatialIndex;
+
+  private Circuit circuit;
+  private CircuitState state;
+  private Graphics2D graphics;
+  private ComponentDrawContext context;
+  private Location[] probes;
+  private int next;
+  private int side;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    final var file = LogisimFile.createNew(new Loader(null), null);
+    final var project = new Project(file);
+    circuit = file.getMainCircuit();
+    circuit.setProject(project);
+    circuit.spatialIndex = spatialIndex;
+
+    final var andGate = ((AddTool) new GatesLibrary().getTool("AND Gate")).getFactory();
+    final var mutation = new CircuitMutation(circuit);
+    side = (int) Math.ceil(Math.sqrt(componentCount));
+    for (var i = 0; i < componentCount; i++) {
+      final var x = SPACING * (i % side) + SPACING;
+      final var y = SPACING * (i / side) + SPACING;
+      final var gate = andGate.createComponent(Location.create(x, y, true),
+          andGate.createAttributeSet());
+      mutation.add(gate);
+      final var in = gate.getEnd(1).getLocation();
+      mutation.add(Wire.create(Location.create(x - SPACING, y, true),
+          Location.create(in.getX(), y, true)));
+    }
+    mutation.execute();
+    state = CircuitState.createRootState(project, circuit, Thread.currentThread());
+
+    final var rand = new Random(1);
+    probes = new Location[1024];
+    for (var i = 0; i < probes.length; i++) {
+      probes[i] = Location.create(rand.nextInt(side * SPACING), rand.nextInt(side * SPACING), false);
+    }
+    final var image = new BufferedImage(VIEW_WIDTH, VIEW_HEIGHT, BufferedImage.TYPE_INT_RGB);
+    graphics = image.createGraphics();
+    context = new ComponentDrawContext(new JPanel(), circuit, state, graphics, graphics);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    graphics.dispose();
+  }
+
+  private Location nextProbe() {
+    final var loc = probes[next];
+    next = (next + 1) % probes.length;
+    return loc;
+  }
+
+  @Benchmark
+  public Collection<Component> hover() {
+    return circuit.getAllContaining(nextProbe(), graphics);
+  }
+
+  @Benchmark
+  public Collection<Component> select() {
+    final var loc = nextProbe();
+    return circuit.getAllWithin(Bounds.create(loc.getX(), loc.getY(), 4 * SPACING, 3 * SPACING));
+  }
+
+  @Benchmark
+  public void paint() {
+    final var loc = nextProbe();
+    final var g = (Graphics2D) graphics.create();
+    g.clipRect(0, 0, VIEW_WIDTH, VIEW_HEIGHT);
+    g.translate(-loc.getX(), -loc.getY());
+    context.setGraphics(g);
+    circuit.draw(context, null);
+    g.dispose();
+  }
+}
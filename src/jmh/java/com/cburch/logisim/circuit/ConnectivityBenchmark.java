@@ -0,0 +1,82 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.circuit;
+
+import com.cburch.logisim.data.Location;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the latency of a single wire edit on a large circuit: each invocation adds or removes
+ * one short wire stub at the end of one of many independent wire chains and then queries the
+ * connectivity, which is what the canvas does after every mutation. Compares the incremental
+ * update of the connectivity map with a rebuild from scratch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true"})
+@State(Scope.Thread)
+public class ConnectivityBenchmark {
+
+  private static final int CHAIN_LENGTH = 10;
+
+  @Param({"1000", "10000"})
+  public int wireCount;
+
+  @Param({"true", "false"})
+  public boolean incremental;
+
+  private CircuitWires wires;
+  private Wire[] stubs;
+  private Location[] probes;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    wires = new CircuitWires();
+    wires.incrementalConnectivity = incremental;
+    final var chains = wireCount / CHAIN_LENGTH;
+    stubs = new Wire[chains];
+    probes = new Location[chains];
+    for (var c = 0; c < chains; c++) {
+      final var y = 20 * c;
+      for (var i = 0; i < CHAIN_LENGTH; i++) {
+        wires.add(Wire.create(Location.create(20 * i, y, false),
+            Location.create(20 * i + 20, y, false)));
+      }
+      probes[c] = Location.create(0, y, false);
+      stubs[c] = Wire.create(Location.create(20 * CHAIN_LENGTH, y, false),
+          Location.create(20 * CHAIN_LENGTH, y + 10, false));
+    }
+    wires.getWireBundle(probes[0]);
+  }
+
+  @Benchmark
+  public WireBundle editWire() {
+    final var c = next;
+    next = (next + 1) % stubs.length;
+    // every stub is added on the first pass over the chains and removed on the second one
+    if (!wires.add(stubs[c])) wires.remove(stubs[c]);
+    return wires.getWireBundle(probes[c]);
+  }
+}
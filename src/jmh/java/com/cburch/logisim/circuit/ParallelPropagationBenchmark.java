@@ -0,0 +1,140 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.circuit;
+
+import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.data.Value;
+import com.cburch.logisim.file.Loader;
+import com.cburch.logisim.file.LogisimFile;
+import com.cburch.logisim.instance.StdAttr;
+import com.cburch.logisim.prefs.AppPreferences;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.std.gates.GatesLibrary;
+import com.cburch.logisim.std.wiring.Pin;
+import com.cburch.logisim.std.wiring.Tunnel;
+import com.cburch.logisim.tools.AddTool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares sequential and parallel propagation on a tiled design: the main circuit holds many
+ * instances of one tile circuit, all driven by one input pin through tunnels. Each tile is made of
+ * several chains of NOT gates, so after the first step the tiles propagate independently of each
+ * other. Each invocation toggles the input and propagates until the circuit is stable.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true"})
+@State(Scope.Thread)
+public class ParallelPropagationBenchmark {
+
+  @Param({"false", "true"})
+  public boolean parallel;
+
+  @Param({"64"})
+  public int tiles;
+
+  @Param({"8"})
+  public int chains;
+
+  @Param({"32"})
+  public int chainLength;
+
+  private boolean oldParallel;
+  private CircuitState state;
+  private Component input;
+  private Value inputValue = Value.FALSE;
+
+  private static Component tunnel(Location loc) {
+    final var attrs = Tunnel.FACTORY.createAttributeSet();
+    attrs.setValue(StdAttr.LABEL, "in");
+    return Tunnel.FACTORY.createComponent(loc, attrs);
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    oldParallel = AppPreferences.SIMULATION_PARALLEL.getBoolean();
+    AppPreferences.SIMULATION_PARALLEL.setBoolean(parallel);
+
+    final var file = LogisimFile.createNew(new Loader(null), null);
+    final var project = new Project(file);
+    final var main = file.getMainCircuit();
+    main.setProject(project);
+    final var tile = new Circuit("tile", file, project);
+    file.addCircuit(tile);
+
+    final var notGate = ((AddTool) new GatesLibrary().getTool("NOT Gate")).getFactory();
+    final var proto = notGate.createComponent(Location.create(0, 0, true),
+        notGate.createAttributeSet());
+    final var dx = proto.getEnd(0).getLocation().getX() - proto.getEnd(1).getLocation().getX();
+    final var inX = proto.getEnd(1).getLocation().getX();
+
+    final var tileMutation = new CircuitMutation(tile);
+    final var x0 = 100;
+    final var y0 = 100;
+    tileMutation.add(Pin.FACTORY.createComponent(Location.create(x0, y0 - 40, true),
+        Pin.FACTORY.createAttributeSet()));
+    for (var c = 0; c < chains; c++) {
+      final var y = y0 + 40 * c;
+      tileMutation.add(Wire.create(Location.create(x0, y0 - 40, true), Location.create(x0, y, true)));
+      for (var i = 0; i < chainLength; i++) {
+        final var x = x0 - inX + i * dx;
+        tileMutation.add(notGate.createComponent(Location.create(x, y, true),
+            notGate.createAttributeSet()));
+      }
+    }
+    tileMutation.execute();
+
+    final var mainMutation = new CircuitMutation(main);
+    final var inputLoc = Location.create(40, 40, true);
+    input = Pin.FACTORY.createComponent(inputLoc, Pin.FACTORY.createAttributeSet());
+    mainMutation.add(input);
+    mainMutation.add(tunnel(inputLoc));
+    final var factory = tile.getSubcircuitFactory();
+    for (var t = 0; t < tiles; t++) {
+      final var instance = factory.createComponent(Location.create(200, 100 + 100 * t, true),
+          factory.createAttributeSet());
+      mainMutation.add(instance);
+      mainMutation.add(tunnel(instance.getEnd(0).getLocation()));
+    }
+    mainMutation.execute();
+
+    state = CircuitState.createRootState(project, main, Thread.currentThread());
+    state.getPropagator().propagate();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    AppPreferences.SIMULATION_PARALLEL.setBoolean(oldParallel);
+  }
+
+  @Benchmark
+  public boolean toggleAndPropagate() {
+    inputValue = inputValue == Value.FALSE ? Value.TRUE : Value.FALSE;
+    Pin.FACTORY.driveInputPin(state.getInstanceState(input), inputValue);
+    state.markComponentAsDirty(input);
+    return state.getPropagator().propagate();
+  }
+}
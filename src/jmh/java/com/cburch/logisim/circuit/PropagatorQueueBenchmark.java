@@ -0,0 +1,119 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.circuit;
+
+import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.data.Value;
+import com.cburch.logisim.file.Loader;
+import com.cburch.logisim.file.LogisimFile;
+import com.cburch.logisim.prefs.AppPreferences;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.std.gates.GatesLibrary;
+import com.cburch.logisim.std.wiring.Pin;
+import com.cburch.logisim.tools.AddTool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the simulator event queue implementations on a circuit made of many parallel chains
+ * of NOT gates, all driven by one input pin. Each invocation toggles the pin and propagates
+ * until the circuit is stable, so every gate produces exactly one event.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true"})
+@State(Scope.Thread)
+public class PropagatorQueueBenchmark {
+
+  @Param({
+    AppPreferences.SIM_QUEUE_PRIORITY,
+    AppPreferences.SIM_QUEUE_SPLAY,
+    AppPreferences.SIM_QUEUE_LIST_OF_QUEUES,
+    AppPreferences.SIM_QUEUE_TREE_OF_QUEUES,
+    AppPreferences.SIM_QUEUE_TIME_WHEEL
+  })
+  public String queueType;
+
+  @Param({"64"})
+  public int chains;
+
+  @Param({"256"})
+  public int chainLength;
+
+  private String oldQueueType;
+  private CircuitState state;
+  private Component input;
+  private Value inputValue = Value.FALSE;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    oldQueueType = AppPreferences.SIMULATION_QUEUE.get();
+    AppPreferences.SIMULATION_QUEUE.set(queueType);
+
+    final var file = LogisimFile.createNew(new Loader(null), null);
+    final var project = new Project(file);
+    final var circuit = file.getMainCircuit();
+    circuit.setProject(project);
+
+    final var notGate = ((AddTool) new GatesLibrary().getTool("NOT Gate")).getFactory();
+    final var proto = notGate.createComponent(Location.create(0, 0, true),
+        notGate.createAttributeSet());
+    final var dx = proto.getEnd(0).getLocation().getX() - proto.getEnd(1).getLocation().getX();
+    final var inX = proto.getEnd(1).getLocation().getX();
+
+    final var mutation = new CircuitMutation(circuit);
+    final var x0 = 100;
+    final var y0 = 100;
+    input = Pin.FACTORY.createComponent(Location.create(x0, y0 - 40, true),
+        Pin.FACTORY.createAttributeSet());
+    mutation.add(input);
+    for (var c = 0; c < chains; c++) {
+      final var y = y0 + 40 * c;
+      mutation.add(Wire.create(Location.create(x0, y0 - 40, true), Location.create(x0, y, true)));
+      for (var i = 0; i < chainLength; i++) {
+        final var x = x0 - inX + i * dx;
+        mutation.add(notGate.createComponent(Location.create(x, y, true),
+            notGate.createAttributeSet()));
+      }
+    }
+    mutation.execute();
+
+    state = CircuitState.createRootState(project, circuit, Thread.currentThread());
+    state.getPropagator().propagate();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    AppPreferences.SIMULATION_QUEUE.set(oldQueueType);
+  }
+
+  @Benchmark
+  public boolean toggleAndPropagate() {
+    inputValue = inputValue == Value.FALSE ? Value.TRUE : Value.FALSE;
+    Pin.FACTORY.driveInputPin(state.getInstanceState(input), inputValue);
+    state.markComponentAsDirty(input);
+    return state.getPropagator().propagate();
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.data;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the {@link Value} operations with their {@link PackedValue} counterparts. Each
+ * invocation applies one operation to every pair of a pool of random operands; the pool is larger
+ * than the {@link Value} cache, so the object path pays for its allocations as it would on a busy
+ * circuit. The <code>gate</code> benchmarks reduce eight inputs the way a wide AND gate does.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true"})
+@State(Scope.Thread)
+public class ValueBenchmark {
+
+  private static final int OPERANDS = 1024;
+  private static final int GATE_INPUTS = 8;
+
+  @Param({"1", "8", "32", "64"})
+  public int width;
+
+  private Value[] values;
+  private long[] packed;
+  private long[] scratch;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    final var rand = new Random(1);
+    values = new Value[OPERANDS];
+    packed = PackedValue.allocate(OPERANDS);
+    for (var i = 0; i < OPERANDS; i++) {
+      final var unknown = rand.nextInt(8) == 0 ? rand.nextLong() & rand.nextLong() : 0;
+      values[i] = Value.create(width, 0, unknown, rand.nextLong());
+      PackedValue.set(packed, i * PackedValue.SIZE, values[i]);
+    }
+    scratch = PackedValue.allocate(1);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OPERANDS)
+  public void valueAnd(Blackhole bh) {
+    for (var i = 0; i < OPERANDS; i++) bh.consume(values[i].and(values[(i + 1) % OPERANDS]));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OPERANDS)
+  public void packedAnd(Blackhole bh) {
+    for (var i = 0; i < OPERANDS; i++) {
+      PackedValue.and(packed, 0, i * PackedValue.SIZE, (i + 1) % OPERANDS * PackedValue.SIZE);
+      bh.consume(packed[PackedValue.VALUE]);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OPERANDS)
+  public void valueCombine(Blackhole bh) {
+    for (var i = 0; i < OPERANDS; i++) bh.consume(values[i].combine(values[(i + 1) % OPERANDS]));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OPERANDS)
+  public void packedCombine(Blackhole bh) {
+    for (var i = 0; i < OPERANDS; i++) {
+      PackedValue.set(scratch, 0, values[i]);
+      PackedValue.combine(scratch, 0, values[(i + 1) % OPERANDS]);
+      bh.consume(scratch[PackedValue.ERROR]);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OPERANDS)
+  public void valueNot(Blackhole bh) {
+    for (var i = 0; i < OPERANDS; i++) bh.consume(values[i].not());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OPERANDS)
+  public void packedNot(Blackhole bh) {
+    for (var i = 0; i < OPERANDS; i++) {
+      PackedValue.not(scratch, 0, 0);
+      bh.consume(scratch[PackedValue.VALUE]);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OPERANDS)
+  public void valueGate(Blackhole bh) {
+    for (var i = 0; i < OPERANDS; i++) {
+      var ret = values[i];
+      for (var j = 1; j < GATE_INPUTS; j++) ret = ret.and(values[(i + j) % OPERANDS]);
+      bh.consume(ret);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OPERANDS)
+  public void packedGate(Blackhole bh) {
+    for (var i = 0; i < OPERANDS; i++) {
+      PackedValue.set(scratch, 0, values[i]);
+      for (var j = 1; j < GATE_INPUTS; j++) PackedValue.and(scratch, 0, values[(i + j) % OPERANDS]);
+      bh.consume(PackedValue.get(width, scratch, 0));
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.file;
+
+import com.cburch.logisim.circuit.CircuitMutation;
+import com.cburch.logisim.circuit.Wire;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.std.gates.GatesLibrary;
+import com.cburch.logisim.std.memory.MemContents;
+import com.cburch.logisim.std.memory.MemoryLibrary;
+import com.cburch.logisim.std.memory.Rom;
+import com.cburch.logisim.tools.AddTool;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares opening the same project saved as .circ XML and in the binary format. The project
+ * has one large circuit of NOT gates and wires plus a ROM with a full 64K image. Besides the
+ * load time, the <code>peakHeapMegabytes</code> counter reports the highest heap use seen during
+ * a load, summed over the heap pools.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true"})
+@State(Scope.Thread)
+public class ProjectFormatBenchmark {
+
+  @Param({".circ", ".circb"})
+  public String extension;
+
+  @Param({"20000"})
+  public int components;
+
+  private File file;
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class HeapUse {
+    public double peakHeapMegabytes;
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    final var loader = new Loader(null);
+    final var project = LogisimFile.createNew(loader, null);
+    final var gates = loader.getBuiltin().getLibrary(GatesLibrary._ID);
+    final var memory = loader.getBuiltin().getLibrary(MemoryLibrary._ID);
+    project.addLibrary(gates);
+    project.addLibrary(memory);
+
+    final var mutation = new CircuitMutation(project.getMainCircuit());
+    final var notGate = ((AddTool) gates.getTool("NOT Gate")).getFactory();
+    final var columns = 200;
+    for (var i = 0; i < components; i++) {
+      final var x = 100 + 60 * (i % columns);
+      final var y = 100 + 60 * (i / columns);
+      mutation.add(notGate.createComponent(Location.create(x, y, true), notGate.createAttributeSet()));
+      mutation.add(Wire.create(Location.create(x, y + 20, true), Location.create(x + 30, y + 20, true)));
+    }
+    final var rom = ((AddTool) memory.getTool(Rom._ID)).getFactory();
+    final var romAttrs = rom.createAttributeSet();
+    final var contents = MemContents.create(16, 16, false);
+    for (var addr = 0; addr <= contents.getLastOffset(); addr++) contents.set(addr, (addr * 2654435761L) >>> 16);
+    romAttrs.setValue(Rom.CONTENTS_ATTR, contents);
+    mutation.add(rom.createComponent(Location.create(40, 40, true), romAttrs));
+    mutation.execute();
+
+    file = File.createTempFile("logisim-bench", extension);
+    if (!loader.save(project, file)) throw new IOException("could not save " + file);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Benchmark
+  public LogisimFile open(HeapUse heap) throws LoadFailedException {
+    final var pools = ManagementFactory.getMemoryPoolMXBeans();
+    for (final var pool : pools) pool.resetPeakUsage();
+    final var result = new Loader(null).openLogisimFile(file);
+    var peak = 0L;
+    for (final var pool : pools) {
+      if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+    }
+    heap.peakHeapMegabytes = Math.max(heap.peakHeapMegabytes, peak / 1e6);
+    return result;
+  }
+}
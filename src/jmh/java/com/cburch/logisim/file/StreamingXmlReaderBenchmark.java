@@ -0,0 +1,93 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.file;
+
+import com.cburch.logisim.circuit.Circuit;
+import com.cburch.logisim.circuit.CircuitMutation;
+import com.cburch.logisim.circuit.Wire;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.std.gates.GatesLibrary;
+import com.cburch.logisim.tools.AddTool;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares opening a .circ project with the DOM reader and with the streaming reader. The
+ * project has many circuits of gates and wires, so the streaming reader can build them on
+ * several threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true"})
+@State(Scope.Thread)
+public class StreamingXmlReaderBenchmark {
+
+  @Param({"false", "true"})
+  public boolean streaming;
+
+  @Param({"32"})
+  public int circuits;
+
+  @Param({"300"})
+  public int componentsPerCircuit;
+
+  private File file;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    final var loader = new Loader(null);
+    final var project = LogisimFile.createNew(loader, null);
+    final var gates = loader.getBuiltin().getLibrary(GatesLibrary._ID);
+    project.addLibrary(gates);
+    final var notGate = ((AddTool) gates.getTool("NOT Gate")).getFactory();
+    for (var c = 0; c < circuits; c++) {
+      final var circuit = c == 0 ? project.getMainCircuit() : new Circuit("circuit" + c, project, null);
+      if (c > 0) project.addCircuit(circuit);
+      final var mutation = new CircuitMutation(circuit);
+      for (var i = 0; i < componentsPerCircuit; i++) {
+        final var x = 100 + 60 * (i % 50);
+        final var y = 100 + 60 * (i / 50);
+        mutation.add(notGate.createComponent(Location.create(x, y, true), notGate.createAttributeSet()));
+        mutation.add(Wire.create(Location.create(x, y + 20, true), Location.create(x + 30, y + 20, true)));
+      }
+      mutation.execute();
+    }
+    file = File.createTempFile("logisim-bench", ".circ");
+    if (!loader.save(project, file)) throw new IOException("could not save " + file);
+    XmlReader.streamingReader = streaming;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    XmlReader.streamingReader = true;
+    file.delete();
+  }
+
+  @Benchmark
+  public LogisimFile open() throws LoadFailedException {
+    return new Loader(null).openLogisimFile(file);
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.fpga.designrulecheck;
+
+import com.cburch.logisim.circuit.Circuit;
+import com.cburch.logisim.circuit.CircuitMutation;
+import com.cburch.logisim.circuit.SplitterAttributes;
+import com.cburch.logisim.circuit.SplitterFactory;
+import com.cburch.logisim.circuit.Wire;
+import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.data.BitWidth;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.file.Loader;
+import com.cburch.logisim.file.LogisimFile;
+import com.cburch.logisim.instance.StdAttr;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.std.gates.GatesLibrary;
+import com.cburch.logisim.std.wiring.Pin;
+import com.cburch.logisim.std.wiring.Tunnel;
+import com.cburch.logisim.tools.AddTool;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the design rule check of a sheet, which builds its netlist and checks it for short
+ * circuits and sinks without a source. The sheet is made of cells, each splitting an 8-bit input
+ * into bits, combining them with AND gates and joining the results into a 4-bit output, with all
+ * connections but a few wires made by tunnels. The benchmark only uses the public interface of the
+ * netlist, so it can be run unchanged on earlier versions to compare them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true"})
+@State(Scope.Thread)
+public class NetlistBuildBenchmark {
+
+  private static final int CELL_WIDTH = 600;
+  private static final int CELL_HEIGHT = 400;
+  private static final int GATES = 4;
+
+  @Param({"50", "500"})
+  public int cellCount;
+
+  private Circuit circuit;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    final var file = LogisimFile.createNew(new Loader(null), null);
+    final var project = new Project(file);
+    circuit = file.getMainCircuit();
+    circuit.setProject(project);
+    project.setCurrentCircuit(circuit);
+
+    final var andGate = ((AddTool) new GatesLibrary().getTool("AND Gate")).getFactory();
+    final var mutation = new CircuitMutation(circuit);
+    final var side = (int) Math.ceil(Math.sqrt(cellCount));
+    for (var i = 0; i < cellCount; i++) {
+      final var x = CELL_WIDTH * (i % side);
+      final var y = CELL_HEIGHT * (i / side) + CELL_HEIGHT / 2;
+      mutation.add(pin("a" + i, 2 * GATES, false, Location.create(x, y, true)));
+      mutation.add(Wire.create(Location.create(x, y, true), Location.create(x + 40, y, true)));
+      final var split = splitter(2 * GATES, Location.create(x + 40, y, true));
+      mutation.add(split);
+      for (var bit = 1; bit <= 2 * GATES; bit++) {
+        mutation.add(tunnel("b" + i + "_" + bit, split.getEnd(bit).getLocation()));
+      }
+      for (var g = 0; g < GATES; g++) {
+        final var out = Location.create(x + 300, y + 60 * g, true);
+        final var gate = andGate.createComponent(out, andGate.createAttributeSet());
+        mutation.add(gate);
+        mutation.add(tunnel("b" + i + "_" + (2 * g + 1), gate.getEnd(1).getLocation()));
+        mutation.add(tunnel("b" + i + "_" + (2 * g + 2), gate.getEnd(2).getLocation()));
+        final var result = Location.create(x + 340, y + 60 * g, true);
+        mutation.add(Wire.create(out, result));
+        mutation.add(tunnel("t" + i + "_" + g, result));
+      }
+      final var bus = Location.create(x + 460, y, true);
+      final var join = splitter(GATES, bus);
+      mutation.add(join);
+      for (var g = 0; g < GATES; g++) {
+        mutation.add(tunnel("t" + i + "_" + g, join.getEnd(g + 1).getLocation()));
+      }
+      final var q = Location.create(x + 420, bus.getY(), true);
+      mutation.add(Wire.create(q, bus));
+      mutation.add(pin("q" + i, GATES, true, q));
+    }
+    mutation.execute();
+  }
+
+  private static Component pin(String label, int width, boolean output, Location loc) {
+    final var attrs = Pin.FACTORY.createAttributeSet();
+    attrs.setValue(StdAttr.LABEL, label);
+    attrs.setValue(StdAttr.WIDTH, BitWidth.create(width));
+    attrs.setValue(Pin.ATTR_TYPE, output ? Pin.OUTPUT : Pin.INPUT);
+    return Pin.FACTORY.createComponent(loc, attrs);
+  }
+
+  private static Component splitter(int width, Location loc) {
+    final var attrs = SplitterFactory.instance.createAttributeSet();
+    attrs.setValue(SplitterAttributes.ATTR_FANOUT, width);
+    attrs.setValue(SplitterAttributes.ATTR_WIDTH, BitWidth.create(width));
+    return SplitterFactory.instance.createComponent(loc, attrs);
+  }
+
+  private static Component tunnel(String label, Location loc) {
+    final var attrs = Tunnel.FACTORY.createAttributeSet();
+    attrs.setValue(StdAttr.LABEL, label);
+    return Tunnel.FACTORY.createComponent(loc, attrs);
+  }
+
+  @Benchmark
+  public int designRuleCheck() {
+    return circuit.getNetList().designRuleCheckResult(true, new ArrayList<>());
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.gui.hex;
+
+import com.cburch.logisim.std.memory.MemContents;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how fast a memory image is loaded from disk, with HexStreamReader and with the plain
+ * HexReader. Besides the time per load, the <code>megabytes</code> counter reports the file
+ * throughput in MB/s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true"})
+@State(Scope.Thread)
+public class HexFileBenchmark {
+
+  @Param({
+    "v3.0 hex words plain",
+    "v3.0 hex words addressed",
+    "v3.0 hex bytes plain big-endian",
+    "v2.0 raw",
+    "Binary data little-endian"
+  })
+  public String format;
+
+  @Param({"true", "false"})
+  public boolean streaming;
+
+  @Param({"20"})
+  public int addrBits;
+
+  @Param({"32"})
+  public int width;
+
+  private File file;
+  private MemContents dst;
+
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class Throughput {
+    public double megabytes;
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    final var rng = new Random(42);
+    final var src = MemContents.create(addrBits, width, false);
+    for (long addr = 0; addr <= src.getLastOffset(); addr++) {
+      src.set(addr, rng.nextLong());
+    }
+    file = File.createTempFile("logisim-bench", ".dat");
+    HexFile.save(file, src, format);
+    dst = MemContents.create(addrBits, width, false);
+    HexFile.streamingReader = streaming;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    HexFile.streamingReader = true;
+    file.delete();
+  }
+
+  @Benchmark
+  public MemContents open(Throughput throughput) throws IOException {
+    HexFile.open(dst, file, format);
+    throughput.megabytes += file.length() / 1e6;
+    return dst;
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.gui.log;
+
+import com.cburch.logisim.circuit.Circuit;
+import com.cburch.logisim.circuit.CircuitMutation;
+import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.data.BitWidth;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.data.Value;
+import com.cburch.logisim.file.Loader;
+import com.cburch.logisim.file.LogisimFile;
+import com.cburch.logisim.instance.StdAttr;
+import com.cburch.logisim.std.wiring.Pin;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of appending to a log signal and of looking up its value at a random time,
+ * once the signal holds 10M samples of an 8-bit bus. With <code>historyLimit</code> set, the
+ * signal is a ring buffer that is already full, so appends replace the oldest samples.
+ *
+ * <p><code>summarizeColumns</code> and <code>iterateAll</code> compare the two ways of drawing the
+ * whole history zoomed out to 2000 pixels: one summary per pixel column, or every sample.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true", "-Xmx4g"})
+@State(Scope.Thread)
+public class SignalBenchmark {
+
+  @Param({"10000000"})
+  public int samples;
+
+  @Param({"0", "1000000"})
+  public int historyLimit;
+
+  private static final int COLUMNS = 2000;
+
+  private Signal signal;
+  private Value[] values;
+  private long seed = 42;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    final var file = LogisimFile.createNew(new Loader(null), null);
+    final Circuit circuit = file.getMainCircuit();
+    final var attrs = Pin.FACTORY.createAttributeSet();
+    attrs.setValue(StdAttr.WIDTH, BitWidth.create(8));
+    final var pin = Pin.FACTORY.createComponent(Location.create(100, 100, true), attrs);
+    final var mutation = new CircuitMutation(circuit);
+    mutation.add(pin);
+    mutation.execute();
+    final var info = new SignalInfo(circuit, new Component[] {pin}, null);
+
+    values = new Value[256];
+    for (var i = 0; i < values.length; i++) values[i] = Value.createKnown(8, i);
+    signal = new Signal(0, info, values[0], 1, 0, historyLimit);
+    for (var i = 1; i < samples; i++) signal.extend(values[i & 0xff], 1 + (i & 3));
+  }
+
+  private long random() {
+    seed = seed * 6364136223846793005L + 1442695040888963407L;
+    return seed >>> 1;
+  }
+
+  @Benchmark
+  public void append() {
+    next++;
+    signal.extend(values[next & 0xff], 1 + (next & 3));
+  }
+
+  @Benchmark
+  public long summarizeColumns() {
+    final var start = signal.omittedDataTime();
+    final var span = signal.getEndTime() - start;
+    final var summary = new Signal.Summary();
+    var transitions = 0L;
+    for (var x = 0; x < COLUMNS; x++) {
+      signal.summarize(start + span * x / COLUMNS, start + span * (x + 1) / COLUMNS, summary);
+      transitions += summary.transitions;
+    }
+    return transitions;
+  }
+
+  @Benchmark
+  public long iterateAll() {
+    final var cur = signal.new Iterator(signal.omittedDataTime());
+    var count = 0L;
+    while (cur.value != null) {
+      count++;
+      if (!cur.advance()) break;
+    }
+    return count;
+  }
+
+  @Benchmark
+  public Value lookup() {
+    final var start = signal.omittedDataTime();
+    return signal.getValue(start + random() % (signal.getEndTime() - start));
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.soc.data;
+
+import com.cburch.logisim.instance.InstanceComponent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Bus transactions per second when the answering slave is found by asking every slave, as the bus
+ * did before, and by the {@link SocBusSlaveIndex}. The bus holds one memory and a number of small
+ * peripherals; most accesses go to the memory, the rest to random peripherals.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true"})
+@State(Scope.Thread)
+public class SocBusDispatchBenchmark {
+
+  private static final int TRANSACTIONS = 1024;
+
+  @Param({"4", "16", "64"})
+  public int slaveCount;
+
+  private List<SocBusSlaveInterface> slaves;
+  private SocBusSlaveIndex index;
+  private SocBusTransaction[] transactions;
+
+  private record Slave(int start, int size) implements SocBusSlaveInterface {
+    @Override
+    public boolean canHandleTransaction(SocBusTransaction trans) {
+      final var addr = SocSupport.convUnsignedInt(trans.getAddress());
+      final var first = SocSupport.convUnsignedInt(start);
+      return addr >= first && addr < first + size;
+    }
+
+    @Override
+    public void handleTransaction(SocBusTransaction trans) {
+      trans.setReadData(start);
+    }
+
+    @Override
+    public Integer getStartAddress() {
+      return start;
+    }
+
+    @Override
+    public Integer getMemorySize() {
+      return size;
+    }
+
+    @Override
+    public String getName() {
+      return "slave";
+    }
+
+    @Override
+    public void registerListener(SocBusSlaveListener l) {}
+
+    @Override
+    public void removeListener(SocBusSlaveListener l) {}
+
+    @Override
+    public InstanceComponent getComponent() {
+      return null;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    final var rand = new Random(1);
+    slaves = new ArrayList<>();
+    slaves.add(new Slave(0, 0x10000));
+    for (var i = 1; i < slaveCount; i++) slaves.add(new Slave(0x80000000 + i * 0x100, 0x40));
+    Collections.shuffle(slaves, rand);
+    index = new SocBusSlaveIndex(slaves);
+    transactions = new SocBusTransaction[TRANSACTIONS];
+    for (var i = 0; i < TRANSACTIONS; i++) {
+      final var addr =
+          rand.nextInt(4) != 0
+              ? rand.nextInt(0x4000) << 2
+              : 0x80000000 + (1 + rand.nextInt(slaveCount - 1)) * 0x100 + (rand.nextInt(16) << 2);
+      transactions[i] =
+          new SocBusTransaction(
+              SocBusTransaction.READ_TRANSACTION, addr, 0, SocBusTransaction.WORD_ACCESS, this);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TRANSACTIONS)
+  public void scan(Blackhole bh) {
+    for (final var trans : transactions) {
+      var responders = 0;
+      SocBusSlaveInterface responder = null;
+      for (var i = 0; i < slaves.size(); i++) {
+        if (slaves.get(i).canHandleTransaction(trans)) {
+          responders++;
+          responder = slaves.get(i);
+        }
+      }
+      if (responders == 1) responder.handleTransaction(trans);
+      bh.consume(trans.getReadData());
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TRANSACTIONS)
+  public void index(Blackhole bh) {
+    for (final var trans : transactions) {
+      final var slave = index.find(trans.getAddress());
+      if (slave != null && slave.canHandleTransaction(trans)) slave.handleTransaction(trans);
+      bh.consume(trans.getReadData());
+    }
+  }
+}
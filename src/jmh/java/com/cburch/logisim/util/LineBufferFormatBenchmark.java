@@ -0,0 +1,65 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Formatting a typical line of generated HDL, with positional and named placeholders, by the
+ * templates of {@link LineBuffer} and by replacing each pair with a regular expression as was done
+ * before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true"})
+@State(Scope.Thread)
+public class LineBufferFormatBenchmark {
+
+  private static final String FORMAT =
+      "{{assign}} {{1}}{{<}}{{2}}{{>}} {{=}} {{3}} {{and}} {{4}} {{or}} {{not}}({{5}});";
+
+  private final LineBuffer.Pairs pairs =
+      LineBuffer.Pairs.fromArgs("s_result", "3", "s_input_a", "s_input_b", "s_enable")
+          .pair("assign", "assign")
+          .pair("<", "[")
+          .pair(">", "]")
+          .pair("=", "=")
+          .pair("and", "&")
+          .pair("or", "|")
+          .pair("not", "~");
+
+  @Benchmark
+  public String template() {
+    return LineBuffer.applyPairs(FORMAT, pairs);
+  }
+
+  @Benchmark
+  public String regex() {
+    var format = FORMAT;
+    for (final var set : pairs.getContainer().entrySet()) {
+      final var searchRegExp = String.format("\\{\\{\\s*%s\\s*\\}\\}", set.getKey());
+      final var replacement = Matcher.quoteReplacement(set.getValue().toString());
+      format = format.replaceAll(searchRegExp, replacement);
+    }
+    return format;
+  }
+}
@@ -61,21 +61,11 @@ public class Implicant implements Comparable<Implicant> {
     }
   }
 
-  private static int getNrOfOnes(int value, int nrOfBits) {
-    var nrOfOnes = 0;
-    var mask = 1;
-    for (var bitIndex = 0; bitIndex < nrOfBits; bitIndex++) {
-      if ((value & mask) != 0) nrOfOnes++;
-      mask <<= 1;
-    }
-    return nrOfOnes;
-  }
-
   private static void report(JTextArea out, String info) {
     if (out != null) out.append(info);
   }
 
-  private static String getGroupRepresentation(int value, int dontCares, int nrOfBits) {
+  static String getGroupRepresentation(int value, int dontCares, int nrOfBits) {
     final var result = new StringBuffer();
     var mask = 1 << (nrOfBits - 1);
     while (mask > 0) {
@@ -97,293 +87,31 @@ public class Implicant implements Comparable<Implicant> {
     final var desiredTerm = format == AnalyzerModel.FORMAT_SUM_OF_PRODUCTS ? Entry.ONE : Entry.ZERO;
     final var skippedTerm = desiredTerm == Entry.ONE ? Entry.ZERO : Entry.ONE;
     final var nrOfInputs = table.getInputColumnCount();
-    final var oneHotTable = new HashSet<Integer>();
-    var mask = 1;
-    for (var bitIndex = 0; bitIndex < nrOfInputs; bitIndex++) {
-      oneHotTable.add(mask);
-      mask <<= 1;
-    }
-
-    // Here we define the first table with all desired terms (minterms or maxterms) and we add also the don´t cares
-    // for the primes we have the group (key) and the min/maxterms in this group (HashSet)
-    final var primes = new HashMap<Implicant, HashSet<Implicant>>();
-    final var essentialPrimes = new ArrayList<Implicant>();
-    // for the currentTable and the nextTable the key is the number of ones in the min/maxterms (groupid)
-    // the HashMap keeps track of the group (key) implicant and the number of min/max terms in this group (HashSet)
-    final var currentTable = new HashMap<Integer, HashMap<Implicant, HashSet<Implicant>>>();
-    final var newTable = new HashMap<Integer, HashMap<Implicant, HashSet<Implicant>>>();
-    // for terms to cover is the "key" the min/maxterms that need to be covered, and the ArrayList
-    // the set of prime covers that cover the key
-    final var termsToCover = new HashMap<Implicant, ArrayList<Implicant>>();
+    // the desired terms (minterms or maxterms) and the don't cares, as bitsets over the rows
+    final var words = (table.getRowCount() + 63) >>> 6;
+    final var desiredTerms = new long[words];
+    final var dontCareTerms = new long[words];
     var allDontCare = true;
     for (var inputCombination = 0; inputCombination < table.getRowCount(); inputCombination++) {
       final var term = table.getOutputEntry(inputCombination, outputVariableIndex);
       if (term == skippedTerm) {
         allDontCare = false;
-        continue;
-      }
-      final var nrOfOnes = getNrOfOnes(inputCombination, nrOfInputs);
-      final var isDontCare = term != desiredTerm;
-      final var implicant = new Implicant(inputCombination, isDontCare);
-      final var implicantsSet = new HashSet<Implicant>();
-      if (!isDontCare) {
-        termsToCover.put(implicant, new ArrayList<>());
-        implicantsSet.add(implicant);
+      } else if (term == desiredTerm) {
+        desiredTerms[inputCombination >>> 6] |= 1L << inputCombination;
         allDontCare = false;
+      } else {
+        dontCareTerms[inputCombination >>> 6] |= 1L << inputCombination;
       }
-      if (!newTable.containsKey(nrOfOnes)) {
-        newTable.put(nrOfOnes, new HashMap<>());
-      }
-      newTable.get(nrOfOnes).put(implicant, implicantsSet);
     }
 
     if (allDontCare) return Collections.emptyList();
-    // In case the number of inputs is bigger than approx. 8 inputs, this
-    // algorithm takes a long time. To prevent "freezing" of logisim, we
-    // only perform an optimization for systems with more than 6 inputs on
-    // user request. Otherwise we exit here and return the set of min/maxterms
+    // For tables with more inputs the minimization can take a few seconds and its result is a
+    // heuristic one. To prevent "freezing" of logisim, we only perform it on user request.
     if ((nrOfInputs > MAXIMAL_NR_OF_INPUTS_FOR_AUTO_MINIMAL_FORM) && (outputArea == null)) {
       return Collections.emptyList();
     }
     report(outputArea, String.format("\n%s\n", S.fmt("implicantOutputName", variable)));
-    // Here the real work starts, we determine all primes
-    var couldMerge = false;
-    var groupSize = 2;
-    do {
-      report(outputArea, String.format("\n%s", S.fmt("implicantGroupSize", groupSize)));
-      var nrOfPrimes = 0L;
-      couldMerge = false;
-      currentTable.clear();
-      currentTable.putAll(newTable);
-      newTable.clear();
-      var minimalKey = Integer.MAX_VALUE;
-      var maximalKey = 0;
-      for (var key : currentTable.keySet()) {
-        if (key < minimalKey) minimalKey = key;
-        if (key > maximalKey) maximalKey = key;
-      }
-      for (var key = minimalKey; key < maximalKey; key++) {
-        if (currentTable.containsKey(key) && currentTable.containsKey(key + 1)) {
-          // we see if we can merge terms
-          for (var termGroup1 : currentTable.get(key).keySet()) {
-            for (var termGroup2 : currentTable.get(key + 1).keySet()) {
-              if (termGroup1.unknowns != termGroup2.unknowns) continue;
-              final var differenceMask = termGroup1.values ^ termGroup2.values;
-              if (oneHotTable.contains(differenceMask)) {
-                final var dontCareMask = termGroup1.unknowns | differenceMask;
-                final var newValue = (termGroup1.values & differenceMask) == 0 ? termGroup1.values : termGroup2.values;
-                final var isDontCareGroup = termGroup1.isDontCare && termGroup2.isDontCare;
-                final var newImplicant = new Implicant(dontCareMask, newValue, isDontCareGroup);
-                final var newImplicantTerms = new HashSet<Implicant>();
-                couldMerge = true;
-                termGroup1.isPrime = termGroup2.isPrime = false;
-                newImplicantTerms.addAll(currentTable.get(key).get(termGroup1));
-                newImplicantTerms.addAll(currentTable.get(key + 1).get(termGroup2));
-                var found = false;
-                if (newTable.containsKey(key)) {
-                  // see if the new implicant already is in the set
-                  for (final var implicant : newTable.get(key).keySet()) {
-                    found |= (implicant.values == newValue) && (implicant.unknowns == dontCareMask);
-                  }
-                  if (!found) newTable.get(key).put(newImplicant, newImplicantTerms);
-                } else {
-                  newTable.put(key, new HashMap<>());
-                  newTable.get(key).put(newImplicant, newImplicantTerms);
-                }
-              }
-            }
-          }
-        }
-      }
-      // now we add the primes to the set
-      for (final var key : currentTable.keySet()) {
-        for (final var implicant : currentTable.get(key).keySet()) {
-          if (implicant.isPrime && !implicant.isDontCare) {
-            primes.put(implicant, currentTable.get(key).get(implicant));
-            if ((nrOfPrimes % 16L) == 0L) report(outputArea, "\n");
-            report(outputArea, String.format("%s ",
-                  getGroupRepresentation(implicant.values, implicant.unknowns, nrOfInputs)));
-            nrOfPrimes++;
-          }
-        }
-      }
-      if (nrOfPrimes == 0) report(outputArea, String.format("\n%s", S.get("implicantNoneFound")));
-      groupSize <<= 1;
-    } while (couldMerge);
-
-    // we build now the table, with for each term which prime it covers
-    for (final var prime : primes.keySet()) {
-      for (final var term : termsToCover.keySet()) {
-        if (primes.get(prime).contains(term)) termsToCover.get(term).add(prime);
-      }
-    }
-    // finally we have to find the essential primes
-    var couldDoRowReduction = false;
-    var couldDoColumnReduction = false;
-
-    report(outputArea, String.format("\n%s", S.get("implicantColumRowReduction")));
-    var nrEssentialPrimes = 0L;
-    do {
-      couldDoRowReduction = false;
-      couldDoColumnReduction = false;
-      final var termsToRemove = new ArrayList<Implicant>();
-      // we first try a column reduction
-      for (final var term : termsToCover.keySet()) {
-        final var termInfo = termsToCover.get(term);
-        if (termInfo.size() == 1) {
-          // we found a prime cover, as this cover only covers this term
-          final var prime = termInfo.get(0);
-          if (!primes.containsKey(prime)) continue;
-          for (final var terms : primes.get(prime)) {
-            for (final var currentPrime : primes.keySet()) {
-              if (currentPrime.equals(prime)) continue;
-              couldDoColumnReduction |= primes.get(currentPrime).contains(terms);
-              primes.get(currentPrime).remove(terms);
-            }
-            termsToRemove.add(terms);
-          }
-          essentialPrimes.add(prime);
-          primes.remove(prime);
-          if ((nrEssentialPrimes++ % 16L) == 0) report(outputArea, "\n");
-          report(outputArea, String.format(" %s", getGroupRepresentation(prime.values, prime.unknowns, nrOfInputs)));
-        }
-      }
-      // we do the cleanup
-      for (final var term : termsToRemove) termsToCover.remove(term);
-      // now we perform the row reduction
-      // first we look for empty primes
-      final var primesToRemove = new HashSet<Implicant>();
-      final var primeHierarchy = new HashMap<Integer, HashSet<Implicant>>();
-      final var nrOfElementGroups = new ArrayList<Integer>();
-      for (final var prime : primes.keySet()) {
-        final var primeElements = primes.get(prime);
-        if (primeElements.isEmpty()) {
-          primesToRemove.add(prime);
-          couldDoRowReduction = true;
-        } else {
-          final var nrOfElements = primeElements.size();
-          if (!primeHierarchy.containsKey(nrOfElements)) {
-            primeHierarchy.put(nrOfElements, new HashSet<>());
-          }
-          primeHierarchy.get(nrOfElements).add(prime);
-          if (!nrOfElementGroups.contains(nrOfElements)) {
-            nrOfElementGroups.add(nrOfElements);
-          }
-        }
-      }
-      Collections.sort(nrOfElementGroups);
-      if (!nrOfElementGroups.isEmpty()) {
-        for (var mergeGroupId = nrOfElementGroups.size() - 1; mergeGroupId > 0; mergeGroupId--) {
-          for (final var bigPrime : primeHierarchy.get(nrOfElementGroups.get(mergeGroupId))) {
-            if (primesToRemove.contains(bigPrime)) continue;
-            for (var checkGroupId = mergeGroupId - 1; checkGroupId >= 0; checkGroupId--) {
-              for (final var smallPrime : primeHierarchy.get(nrOfElementGroups.get(checkGroupId))) {
-                if (primesToRemove.contains(smallPrime)) continue;
-                if (primes.get(bigPrime).containsAll(primes.get(smallPrime))) {
-                  couldDoRowReduction = true;
-                  primesToRemove.add(smallPrime);
-                }
-              }
-            }
-          }
-        }
-      }
-      for (final var prime : primesToRemove) {
-        primes.remove(prime);
-        for (final var element : termsToCover.keySet()) termsToCover.get(element).remove(prime);
-      }
-    } while (couldDoRowReduction || couldDoColumnReduction);
-
-    // It is possible that we still have multiple covers left.
-    // The minimal cover can be found using Petrick's method
-    if (!termsToCover.isEmpty()) {
-      final var simplificationExpression = new ArrayList<HashSet<HashSet<Implicant>>>();
-
-      // Populate the HashSet in order to begin Petrick's method
-      for (final var term : termsToCover.keySet()) {
-        final var group = new HashSet<HashSet<Implicant>>();
-        for (final var impl : termsToCover.get(term)) {
-          final var impli = new HashSet<Implicant>();
-          impli.add(impl);
-          group.add(impli);
-        }
-        simplificationExpression.add(group);
-      }
-
-      do {
-        for (int i = 0; i < simplificationExpression.size(); i++) {
-          final var first = simplificationExpression.get(i);
-          if (i + 1 >= simplificationExpression.size()) { // If there is only one left, skip it
-            break;
-          }
-          final var second = simplificationExpression.remove(i + 1);
-
-          // If there are two elements left, then combine them
-          final var group = new HashSet<HashSet<Implicant>>();
-          for (final var firstConj : first) {
-            for (final var secondConj : second) {
-              final var conj = new HashSet<Implicant>();
-              conj.addAll(firstConj);
-              conj.addAll(secondConj);
-              group.add(conj);
-            }
-          }
-          simplificationExpression.set(i, group);
-        }
-
-        // After combining elements, apply reductions
-        for (final var group : simplificationExpression) {
-          final var implGrpToRemove = new ArrayList<HashSet<Implicant>>();
-          for (final var conj1 : group) {
-            if (implGrpToRemove.contains(conj1)) continue;
-            for (final var conj2 : group) {
-              if (conj1 == conj2 || implGrpToRemove.contains(conj2)) continue;
-              if (conj2.containsAll(conj1)) {
-                implGrpToRemove.add(conj2);
-                continue;
-              }
-              if (conj1.containsAll(conj2)) {
-                implGrpToRemove.add(conj1);
-                break;
-              }
-            }
-          }
-          if (!implGrpToRemove.isEmpty()) {
-            group.removeAll(implGrpToRemove);
-          }
-        }
-      } while (simplificationExpression.size() > 1);
-
-      // Get the possible covers, only one can element can be left in the ArrayList here
-      final var resGroup = simplificationExpression.get(0);
-
-      final var results = new HashMap<Integer, ArrayList<HashSet<Implicant>>>();
-      for (final var grp : resGroup) {
-        if (results.get(grp.size()) == null) {
-          results.put(grp.size(), new ArrayList<>());
-        }
-        results.get(grp.size()).add(grp);
-      }
-
-      final var minimumPrimes = results.get(Collections.min(results.keySet()));
-      // Select cheapest prime covers now, meaning the ones with most total unknowns
-      final var costMap = new HashMap<Integer, ArrayList<HashSet<Implicant>>>();
-
-      for (final var cover : minimumPrimes) {
-        final var unknown = cover.stream().mapToInt(i -> i.getUnknownCount()).sum();
-        if (!costMap.keySet().contains(unknown)) {
-          costMap.put(unknown, new ArrayList<>());
-        }
-        costMap.get(unknown).add(cover);
-      }
-
-      final var cheapestCovers = costMap.get(Collections.max(costMap.keySet()));
-      // TODO: Return all possible covers.
-      essentialPrimes.addAll(cheapestCovers.get(0));
-    }
-
-    // TODO: Return multiple minimal covers if present (Petrick's method)
-    return essentialPrimes;
+    return new Minimizer(nrOfInputs, desiredTerms, dontCareTerms, outputArea).minimize();
   }
 
   public static Expression toExpression(int format, AnalyzerModel model, List<Implicant> implicants) {
@@ -406,29 +134,14 @@ public class Implicant implements Comparable<Implicant> {
 
   static final Implicant MINIMAL_IMPLICANT = new Implicant(0, -1);
   static final List<Implicant> MINIMAL_LIST = Collections.singletonList(MINIMAL_IMPLICANT);
-  public static final int MAXIMAL_NR_OF_INPUTS_FOR_AUTO_MINIMAL_FORM = 6;
+  public static final int MAXIMAL_NR_OF_INPUTS_FOR_AUTO_MINIMAL_FORM = 16;
 
   final int unknowns;
   final int values;
-  final boolean isDontCare;
-  boolean isPrime = true;
 
-  private Implicant(int unknowns, int values) {
+  Implicant(int unknowns, int values) {
     this.unknowns = unknowns;
     this.values = values;
-    isDontCare = false;
-  }
-
-  private Implicant(int unknowns, int values, boolean dontCareTerm) {
-    this.unknowns = unknowns;
-    this.values = values;
-    isDontCare = dontCareTerm;
-  }
-
-  private Implicant(int values, boolean dontCareTerm) {
-    this.unknowns = 0;
-    this.values = values;
-    isDontCare = dontCareTerm;
   }
 
   @Override
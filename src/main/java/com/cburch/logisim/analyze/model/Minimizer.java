@@ -0,0 +1,561 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.analyze.model;
+
+import static com.cburch.logisim.analyze.Strings.S;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.swing.JTextArea;
+
+/**
+ * Finds a minimal sum of products covering the rows of a truth table that have the desired value,
+ * using the other rows that are don't cares when it helps. The rows are kept in bitsets and the
+ * implicants as masks of the unknown inputs and the values of the others.
+ *
+ * <p>Up to {@link #MAX_EXACT_INPUTS} inputs, and above as long as there are not more than {@link
+ * #MAX_IMPLICANTS} implicants, all prime implicants are generated as in the Quine-McCluskey method
+ * and a minimal cover is selected from them: the essential primes first, then the fewest primes
+ * covering the rest with the most unknowns, as by Petrick's method; if that search takes too long,
+ * the best cover found so far is kept. Beyond that, or if more than {@link #MAX_SEARCH_TERMS} rows
+ * are left after the essential primes, an irredundant cover of primes is found with the expand,
+ * irredundant and reduce steps of the Espresso heuristic, which is not always minimal.
+ */
+final class Minimizer {
+  static final int MAX_EXACT_INPUTS = 10;
+  static final int MAX_IMPLICANTS = 1 << 19;
+  // larger cyclic covers are left to the heuristic
+  private static final int MAX_SEARCH_TERMS = 256;
+  private static final long MAX_SEARCH_NODES = 1L << 16;
+  private static final int MAX_HEURISTIC_PASSES = 4;
+
+  private final int nrOfInputs;
+  private final long[] desired;
+  private final long[] allowed;
+  private final JTextArea outputArea;
+
+  private long searchNodes;
+  private int[] bestCover;
+  private int bestUnknowns;
+  private int maxUnknowns;
+
+  /**
+   * @param desired Bitset of the rows to cover.
+   * @param dontCare Bitset of the rows that may be covered or not.
+   */
+  Minimizer(int nrOfInputs, long[] desired, long[] dontCare, JTextArea outputArea) {
+    this.nrOfInputs = nrOfInputs;
+    this.desired = desired;
+    this.outputArea = outputArea;
+    allowed = new long[desired.length];
+    for (var i = 0; i < desired.length; i++) allowed[i] = desired[i] | dontCare[i];
+  }
+
+  private static boolean get(long[] bits, int row) {
+    return (bits[row >>> 6] & (1L << row)) != 0;
+  }
+
+  private static void set(long[] bits, int row) {
+    bits[row >>> 6] |= 1L << row;
+  }
+
+  private static int[] rowsOf(long[] bits) {
+    var count = 0;
+    for (final var word : bits) count += Long.bitCount(word);
+    final var rows = new int[count];
+    var index = 0;
+    for (var i = 0; i < bits.length; i++) {
+      for (var word = bits[i]; word != 0; word &= word - 1) {
+        rows[index++] = (i << 6) + Long.numberOfTrailingZeros(word);
+      }
+    }
+    return rows;
+  }
+
+  private void report(String info) {
+    if (outputArea != null) outputArea.append(info);
+  }
+
+  private void reportImplicants(List<Implicant> implicants) {
+    for (var i = 0; i < implicants.size(); i++) {
+      if (i % 16 == 0) report("\n");
+      final var implicant = implicants.get(i);
+      report(
+          Implicant.getGroupRepresentation(implicant.values, implicant.unknowns, nrOfInputs)
+              + " ");
+    }
+  }
+
+  /** @return the implicants of a minimal or, for large tables, a near minimal cover. */
+  List<Implicant> minimize() {
+    if (rowsOf(desired).length == 0) return Collections.emptyList();
+    final var primes = computePrimes();
+    final var cover = primes == null ? null : selectCover(primes);
+    if (cover != null) return cover;
+    report(String.format("\n%s", S.get("implicantHeuristic")));
+    final var result = computeHeuristicCover();
+    reportImplicants(result);
+    return result;
+  }
+
+  /*
+   * Prime implicants. The implicants with the same unknowns are kept as a sorted array of their
+   * values. An implicant with the unknowns u | b, where b is the lowest of them, is the merge of
+   * the two implicants with the unknowns u that differ in b; as each group of implicants is only
+   * merged with itself, the groups of a size are generated in parallel.
+   */
+
+  private static Map<Integer, int[]> mergeImplicants(
+      Map<Integer, int[]> implicants, int nrOfInputs) {
+    return implicants.entrySet().parallelStream()
+        .flatMap(
+            group -> {
+              final var unknowns = (int) group.getKey();
+              final var values = group.getValue();
+              final var lowest = unknowns == 0 ? 1 << nrOfInputs : Integer.lowestOneBit(unknowns);
+              final var merged = new ArrayList<Map.Entry<Integer, int[]>>();
+              for (var bit = 1; bit < lowest; bit <<= 1) {
+                final var result = new int[values.length];
+                var count = 0;
+                for (final var value : values) {
+                  if ((value & bit) == 0 && Arrays.binarySearch(values, value | bit) >= 0) {
+                    result[count++] = value;
+                  }
+                }
+                if (count > 0) merged.add(Map.entry(unknowns | bit, Arrays.copyOf(result, count)));
+              }
+              return merged.stream();
+            })
+        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+  }
+
+  private boolean coversDesired(int unknowns, int values) {
+    var rows = unknowns;
+    while (true) {
+      if (get(desired, values | rows)) return true;
+      if (rows == 0) return false;
+      rows = (rows - 1) & unknowns;
+    }
+  }
+
+  private List<Implicant> findPrimes(Map<Integer, int[]> implicants, Map<Integer, int[]> merged) {
+    final var allInputs = (1 << nrOfInputs) - 1;
+    final var primes =
+        implicants.entrySet().parallelStream()
+            .flatMap(
+                group -> {
+                  final var unknowns = (int) group.getKey();
+                  final var found = new ArrayList<Implicant>();
+                  for (final var value : group.getValue()) {
+                    var isPrime = true;
+                    for (var bits = allInputs & ~unknowns; bits != 0 && isPrime; bits &= bits - 1) {
+                      final var bit = Integer.lowestOneBit(bits);
+                      final var bigger = merged.get(unknowns | bit);
+                      isPrime = bigger == null || Arrays.binarySearch(bigger, value & ~bit) < 0;
+                    }
+                    if (isPrime && coversDesired(unknowns, value)) {
+                      found.add(new Implicant(unknowns, value));
+                    }
+                  }
+                  return found.stream();
+                })
+            .sorted()
+            .collect(Collectors.toList());
+    return primes;
+  }
+
+  /** @return all prime implicants covering a desired row, or null if there are too many. */
+  private List<Implicant> computePrimes() {
+    final var primes = new ArrayList<Implicant>();
+    Map<Integer, int[]> implicants = new HashMap<>();
+    implicants.put(0, rowsOf(allowed));
+    long total = implicants.get(0).length;
+    for (var groupSize = 1; !implicants.isEmpty(); groupSize <<= 1) {
+      final var merged = mergeImplicants(implicants, nrOfInputs);
+      for (final var values : merged.values()) total += values.length;
+      if (nrOfInputs > MAX_EXACT_INPUTS && total > MAX_IMPLICANTS) return null;
+      report(String.format("\n%s", S.fmt("implicantGroupSize", groupSize)));
+      final var found = findPrimes(implicants, merged);
+      if (found.isEmpty()) report(String.format("\n%s", S.get("implicantNoneFound")));
+      reportImplicants(found);
+      primes.addAll(found);
+      implicants = merged;
+    }
+    return primes;
+  }
+
+  /*
+   * Minimal cover. The desired rows are the columns of the cover table.
+   */
+
+  private static int[] append(int[] array, int value) {
+    final var result = Arrays.copyOf(array, array.length + 1);
+    result[array.length] = value;
+    return result;
+  }
+
+  /**
+   * @return the primes of a minimal cover; if finding it takes too long, of the best cover found
+   *     so far; null if too many rows remain after taking the essential primes.
+   */
+  private List<Implicant> selectCover(List<Implicant> primes) {
+    final var rows = rowsOf(desired);
+    final var columnOfRow = new int[1 << nrOfInputs];
+    Arrays.fill(columnOfRow, -1);
+    for (var column = 0; column < rows.length; column++) columnOfRow[rows[column]] = column;
+    final var columnsOfPrime = new int[primes.size()][];
+    final var nrOfPrimes = new int[rows.length];
+    final var buffer = new int[rows.length];
+    for (var prime = 0; prime < primes.size(); prime++) {
+      final var unknowns = primes.get(prime).unknowns;
+      final var values = primes.get(prime).values;
+      var count = 0;
+      var bits = unknowns;
+      while (true) {
+        final var column = columnOfRow[values | bits];
+        if (column >= 0) {
+          buffer[count++] = column;
+          nrOfPrimes[column]++;
+        }
+        if (bits == 0) break;
+        bits = (bits - 1) & unknowns;
+      }
+      columnsOfPrime[prime] = Arrays.copyOf(buffer, count);
+    }
+    final var primesOfColumn = new int[rows.length][];
+    for (var column = 0; column < rows.length; column++) {
+      primesOfColumn[column] = new int[nrOfPrimes[column]];
+    }
+    Arrays.fill(nrOfPrimes, 0);
+    for (var prime = 0; prime < primes.size(); prime++) {
+      for (final var column : columnsOfPrime[prime]) {
+        primesOfColumn[column][nrOfPrimes[column]++] = prime;
+      }
+    }
+
+    // the primes that are the only ones covering a row are essential
+    report(String.format("\n%s", S.get("implicantColumRowReduction")));
+    final var cover = new ArrayList<Implicant>();
+    final var isSelected = new boolean[primes.size()];
+    final var isCovered = new boolean[rows.length];
+    for (var column = 0; column < rows.length; column++) {
+      if (primesOfColumn[column].length != 1) continue;
+      final var prime = primesOfColumn[column][0];
+      if (isSelected[prime]) continue;
+      isSelected[prime] = true;
+      cover.add(primes.get(prime));
+      for (final var covered : columnsOfPrime[prime]) isCovered[covered] = true;
+    }
+    reportImplicants(cover);
+
+    // the remaining rows and the primes covering them, as bitsets over these rows
+    final var remaining = new HashMap<Integer, Integer>();
+    for (var column = 0; column < rows.length; column++) {
+      if (!isCovered[column]) remaining.put(column, remaining.size());
+    }
+    if (remaining.isEmpty()) return cover;
+    if (remaining.size() > MAX_SEARCH_TERMS) return null;
+    final var words = (remaining.size() + 63) >>> 6;
+    final var candidates = new ArrayList<Integer>();
+    final var covers = new ArrayList<long[]>();
+    for (var prime = 0; prime < primes.size(); prime++) {
+      if (isSelected[prime]) continue;
+      final var bits = new long[words];
+      var any = false;
+      for (final var column : columnsOfPrime[prime]) {
+        final var index = remaining.get(column);
+        if (index != null) {
+          set(bits, index);
+          any = true;
+        }
+      }
+      if (any) {
+        candidates.add(prime);
+        covers.add(bits);
+      }
+    }
+    removeDominatedPrimes(primes, candidates, covers);
+
+    final var selected = searchMinimalCover(primes, candidates, covers, remaining.size());
+    if (searchNodes > MAX_SEARCH_NODES) report(String.format("\n%s", S.get("implicantGreedy")));
+    final var rest = new ArrayList<Implicant>();
+    for (final var candidate : selected) rest.add(primes.get(candidates.get(candidate)));
+    reportImplicants(rest);
+    cover.addAll(rest);
+    return cover;
+  }
+
+  private static boolean isSubset(long[] subset, long[] set) {
+    for (var i = 0; i < subset.length; i++) {
+      if ((subset[i] & ~set[i]) != 0) return false;
+    }
+    return true;
+  }
+
+  private static int count(long[] bits) {
+    var count = 0;
+    for (final var word : bits) count += Long.bitCount(word);
+    return count;
+  }
+
+  /** Removes the primes covering no more remaining rows than another with as many unknowns. */
+  private static void removeDominatedPrimes(
+      List<Implicant> primes, List<Integer> candidates, List<long[]> covers) {
+    final var isDominated = new boolean[candidates.size()];
+    for (var i = 0; i < candidates.size(); i++) {
+      final var unknowns = primes.get(candidates.get(i)).getUnknownCount();
+      for (var j = 0; j < candidates.size() && !isDominated[i]; j++) {
+        if (i == j || isDominated[j]) continue;
+        if (primes.get(candidates.get(j)).getUnknownCount() < unknowns) continue;
+        isDominated[i] = isSubset(covers.get(i), covers.get(j));
+      }
+    }
+    for (var i = candidates.size() - 1; i >= 0; i--) {
+      if (isDominated[i]) {
+        candidates.remove(i);
+        covers.remove(i);
+      }
+    }
+  }
+
+  private int[] searchMinimalCover(
+      List<Implicant> primes, List<Integer> candidates, List<long[]> covers, int nrOfRows) {
+    final var unknowns = new int[candidates.size()];
+    var maxCover = 1;
+    maxUnknowns = 0;
+    for (var i = 0; i < candidates.size(); i++) {
+      unknowns[i] = primes.get(candidates.get(i)).getUnknownCount();
+      maxCover = Math.max(maxCover, count(covers.get(i)));
+      maxUnknowns = Math.max(maxUnknowns, unknowns[i]);
+    }
+    final var candidatesOfRow = new int[nrOfRows][];
+    Arrays.fill(candidatesOfRow, new int[0]);
+    for (var i = 0; i < candidates.size(); i++) {
+      for (var row = 0; row < nrOfRows; row++) {
+        if (get(covers.get(i), row)) candidatesOfRow[row] = append(candidatesOfRow[row], i);
+      }
+    }
+    final var uncovered = new long[(nrOfRows + 63) >>> 6];
+    for (var row = 0; row < nrOfRows; row++) set(uncovered, row);
+    searchNodes = 0;
+    bestCover = null;
+    bestUnknowns = 0;
+    search(covers, unknowns, candidatesOfRow, maxCover, uncovered, nrOfRows, new int[0], 0);
+    return bestCover;
+  }
+
+  // branch and bound over the primes covering the row with the fewest of them
+  private void search(List<long[]> covers, int[] unknowns, int[][] candidatesOfRow, int maxCover,
+      long[] uncovered, int nrUncovered, int[] chosen, int chosenUnknowns) {
+    if (++searchNodes > MAX_SEARCH_NODES) return;
+    if (nrUncovered == 0) {
+      if (bestCover == null
+          || chosen.length < bestCover.length
+          || (chosen.length == bestCover.length && chosenUnknowns > bestUnknowns)) {
+        bestCover = chosen;
+        bestUnknowns = chosenUnknowns;
+      }
+      return;
+    }
+    final var lowerBound = chosen.length + (nrUncovered + maxCover - 1) / maxCover;
+    if (bestCover != null) {
+      if (lowerBound > bestCover.length) return;
+      // a cover of the same size has to gain unknowns
+      final var mostUnknowns = chosenUnknowns + (bestCover.length - chosen.length) * maxUnknowns;
+      if (lowerBound == bestCover.length && mostUnknowns <= bestUnknowns) return;
+    }
+    var row = -1;
+    for (var i = 0; i < candidatesOfRow.length; i++) {
+      if (!get(uncovered, i)) continue;
+      if (row < 0 || candidatesOfRow[i].length < candidatesOfRow[row].length) row = i;
+    }
+    final var options = candidatesOfRow[row].clone();
+    final var gains = new int[covers.size()];
+    for (final var option : options) gains[option] = countAnd(covers.get(option), uncovered);
+    final var sorted =
+        Arrays.stream(options)
+            .boxed()
+            .sorted(
+                (a, b) -> gains[a] != gains[b] ? gains[b] - gains[a] : unknowns[b] - unknowns[a])
+            .mapToInt(Integer::intValue)
+            .toArray();
+    for (final var option : sorted) {
+      final var next = uncovered.clone();
+      for (var i = 0; i < next.length; i++) next[i] &= ~covers.get(option)[i];
+      search(covers, unknowns, candidatesOfRow, maxCover, next, nrUncovered - gains[option],
+          append(chosen, option), chosenUnknowns + unknowns[option]);
+      if (searchNodes > MAX_SEARCH_NODES) return;
+    }
+  }
+
+  private static int countAnd(long[] first, long[] second) {
+    var count = 0;
+    for (var i = 0; i < first.length; i++) count += Long.bitCount(first[i] & second[i]);
+    return count;
+  }
+
+  /*
+   * Heuristic cover. Each cube is a prime implicant: its unknowns and the values of the other
+   * inputs. The number of cubes covering each row is kept to find redundant ones.
+   */
+
+  private final class HeuristicCover {
+    private final List<int[]> cubes = new ArrayList<>();
+    private final int[] coverCount = new int[1 << nrOfInputs];
+
+    private void add(int[] cube, int delta) {
+      var rows = cube[0];
+      while (true) {
+        coverCount[cube[1] | rows] += delta;
+        if (rows == 0) return;
+        rows = (rows - 1) & cube[0];
+      }
+    }
+
+    /**
+     * @return how much adding the rows of the cube helps: the number of uncovered desired rows and
+     *     then of covered ones, which may make other cubes redundant; -1 if it has a forbidden row.
+     */
+    private long gainOf(int unknowns, int values) {
+      var uncovered = 0L;
+      var covered = 0L;
+      var rows = unknowns;
+      while (true) {
+        final var row = values | rows;
+        if (!get(allowed, row)) return -1;
+        if (get(desired, row)) {
+          if (coverCount[row] == 0) uncovered++;
+          else covered++;
+        }
+        if (rows == 0) return (uncovered << 32) | covered;
+        rows = (rows - 1) & unknowns;
+      }
+    }
+
+    /**
+     * Makes the cube a prime by making inputs unknown while it covers no forbidden row, each time
+     * the input whose rows help the most.
+     */
+    private int[] expand(int unknowns, int values) {
+      var free = ((1 << nrOfInputs) - 1) & ~unknowns;
+      while (free != 0) {
+        var bestBit = 0;
+        var bestGain = -1L;
+        for (var bits = free; bits != 0; bits &= bits - 1) {
+          final var bit = Integer.lowestOneBit(bits);
+          final var gain = gainOf(unknowns, values ^ bit);
+          // a forbidden row stays in the cube once more inputs are unknown
+          if (gain < 0) free &= ~bit;
+          else if (gain > bestGain) {
+            bestGain = gain;
+            bestBit = bit;
+          }
+        }
+        if (bestGain < 0) break;
+        unknowns |= bestBit;
+        values &= ~bestBit;
+        free &= ~bestBit;
+      }
+      return new int[] {unknowns, values};
+    }
+
+    private boolean isRedundant(int[] cube) {
+      var rows = cube[0];
+      while (true) {
+        final var row = cube[1] | rows;
+        if (coverCount[row] == 1 && get(desired, row)) return false;
+        if (rows == 0) return true;
+        rows = (rows - 1) & cube[0];
+      }
+    }
+
+    private void expandAll(int[] seeds) {
+      for (final var row : seeds) {
+        if (coverCount[row] > 0) continue;
+        final var cube = expand(0, row);
+        cubes.add(cube);
+        add(cube, 1);
+      }
+    }
+
+    /** Removes the cubes all of whose desired rows are covered by others, smallest first. */
+    private void irredundant() {
+      cubes.sort((a, b) -> Integer.bitCount(a[0]) - Integer.bitCount(b[0]));
+      for (final var iterator = cubes.iterator(); iterator.hasNext(); ) {
+        final var cube = iterator.next();
+        if (isRedundant(cube)) {
+          iterator.remove();
+          add(cube, -1);
+        }
+      }
+    }
+
+    /**
+     * Shrinks each cube to the desired rows only it covers and expands it again, which may lead to
+     * other primes that make more cubes redundant.
+     */
+    private void reduceAndExpand() {
+      final var reduced = new ArrayList<int[]>();
+      cubes.sort((a, b) -> Integer.bitCount(b[0]) - Integer.bitCount(a[0]));
+      for (final var cube : cubes) {
+        add(cube, -1);
+        var first = -1;
+        var differ = 0;
+        var rows = cube[0];
+        while (true) {
+          final var row = cube[1] | rows;
+          if (coverCount[row] == 0 && get(desired, row)) {
+            if (first < 0) first = row;
+            differ |= row ^ first;
+          }
+          if (rows == 0) break;
+          rows = (rows - 1) & cube[0];
+        }
+        if (first < 0) continue;
+        final var expanded = expand(differ, first & ~differ);
+        reduced.add(expanded);
+        add(expanded, 1);
+      }
+      cubes.clear();
+      cubes.addAll(reduced);
+      irredundant();
+    }
+
+    private long cost() {
+      var literals = 0L;
+      for (final var cube : cubes) literals += nrOfInputs - Integer.bitCount(cube[0]);
+      return ((long) cubes.size() << 32) | literals;
+    }
+  }
+
+  private List<Implicant> computeHeuristicCover() {
+    final var cover = new HeuristicCover();
+    cover.expandAll(rowsOf(desired));
+    cover.irredundant();
+    var best = new ArrayList<>(cover.cubes);
+    var bestCost = cover.cost();
+    for (var pass = 0; pass < MAX_HEURISTIC_PASSES; pass++) {
+      cover.reduceAndExpand();
+      final var cost = cover.cost();
+      if (cost >= bestCost) break;
+      best = new ArrayList<>(cover.cubes);
+      bestCost = cost;
+    }
+    final var result = new ArrayList<Implicant>();
+    for (final var cube : best) result.add(new Implicant(cube[0], cube[1]));
+    Collections.sort(result);
+    return result;
+  }
+}
@@ -63,6 +63,7 @@ import java.util.Timer;
 import java.util.TimerTask;
 import java.util.TreeSet;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Circuit {
   private class EndChangedTransaction extends CircuitTransaction {
@@ -116,9 +117,15 @@ public class Circuit {
       final var toAdd = toMap(e.getData());
       final var xn = new EndChangedTransaction(comp, toRemove, toAdd);
       locker.execute(xn);
+      movedComps.add(comp);
       fireEvent(CircuitEvent.ACTION_INVALIDATE, comp);
     }
 
+    @Override
+    public void boundsChanged(ComponentEvent e) {
+      movedComps.add(e.getSource());
+    }
+
     private HashMap<Location, EndData> toMap(Object val) {
       final var map = new HashMap<Location, EndData>();
       if (val instanceof List) {
@@ -283,6 +290,12 @@ public class Circuit {
   private final SubcircuitFactory subcircuitFactory;
   private final EventSourceWeakSupport<CircuitListener> listeners = new EventSourceWeakSupport<>();
   private LinkedHashSet<Component> comps = new LinkedHashSet<>(); // doesn't include wires
+  private ComponentGrid<Component> compGrid = new ComponentGrid<>(); // the same, by location
+  // Components whose bounds changed since they were filed in compGrid. Some components change
+  // their bounds while being simulated, so they are refiled by the thread using the grid.
+  private final Set<Component> movedComps = ConcurrentHashMap.newKeySet();
+  /** Whether hit tests and painting look components up in compGrid; for benchmarks and tests. */
+  boolean spatialIndex = true;
   CircuitWires wires = new CircuitWires();
   private final List<Component> clocks = new ArrayList<>();
   private final CircuitLocker locker;
@@ -530,12 +543,19 @@ public class Circuit {
 
   private void drawComponents(ComponentDrawContext context, Collection<Component> hidden) {
     final var g = context.getGraphics();
+    final var clip = spatialIndex ? g.getClipBounds() : null;
+    final var visibleArea = clip == null ? null : Bounds.create(clip);
+    Collection<Component> visibleComps = comps;
+    if (visibleArea != null) {
+      refileMovedComponents();
+      visibleComps = compGrid.query(visibleArea);
+    }
     var gCopy = g.create();
     context.setGraphics(gCopy);
-    wires.draw(context, hidden);
+    wires.draw(context, hidden, visibleArea);
 
     if (CollectionUtil.isNullOrEmpty(hidden)) {
-      for (final var c : comps) {
+      for (final var c : visibleComps) {
         final var gNew = g.create();
         context.setGraphics(gNew);
         gCopy.dispose();
@@ -544,7 +564,7 @@ public class Circuit {
         c.draw(context);
       }
     } else {
-      for (final var c : comps) {
+      for (final var c : visibleComps) {
         if (!hidden.contains(c)) {
           final var gNew = g.create();
           context.setGraphics(gNew);
@@ -580,7 +600,7 @@ public class Circuit {
 
   public Collection<Component> getAllContaining(Location pt) {
     final var ret = new LinkedHashSet<Component>();
-    for (final var comp : getComponents()) {
+    for (final var comp : getComponentsMeeting(Bounds.create(pt))) {
       if (comp.contains(pt)) ret.add(comp);
     }
     return ret;
@@ -588,7 +608,7 @@ public class Circuit {
 
   public Collection<Component> getAllContaining(Location pt, Graphics g) {
     final var ret = new LinkedHashSet<Component>();
-    for (final var comp : getComponents()) {
+    for (final var comp : getComponentsMeeting(Bounds.create(pt))) {
       if (comp.contains(pt, g)) ret.add(comp);
     }
     return ret;
@@ -596,7 +616,7 @@ public class Circuit {
 
   public Collection<Component> getAllWithin(Bounds bds) {
     final var ret = new LinkedHashSet<Component>();
-    for (final var comp : getComponents()) {
+    for (final var comp : getComponentsMeeting(bds)) {
       if (bds.contains(comp.getBounds())) ret.add(comp);
     }
     return ret;
@@ -604,12 +624,33 @@ public class Circuit {
 
   public Collection<Component> getAllWithin(Bounds bds, Graphics g) {
     final var ret = new LinkedHashSet<Component>();
-    for (final var comp : getComponents()) {
+    for (final var comp : getComponentsMeeting(bds)) {
       if (bds.contains(comp.getBounds(g))) ret.add(comp);
     }
     return ret;
   }
 
+  /**
+   * @return the components and wires that may meet the given area, a superset of those that do;
+   *     components first, then wires, as in {@link #getComponents()}.
+   */
+  private Collection<Component> getComponentsMeeting(Bounds area) {
+    if (!spatialIndex) return getComponents();
+    refileMovedComponents();
+    final var ret = new ArrayList<Component>(compGrid.query(area));
+    ret.addAll(wires.getWiresMeeting(area));
+    return ret;
+  }
+
+  private void refileMovedComponents() {
+    if (movedComps.isEmpty()) return;
+    for (final var it = movedComps.iterator(); it.hasNext(); ) {
+      final var comp = it.next();
+      it.remove();
+      compGrid.update(comp, ComponentGrid.boundsOf(comp));
+    }
+  }
+
   public CircuitAppearance getAppearance() {
     return appearance;
   }
@@ -881,6 +922,7 @@ public class Circuit {
         final var vhdl = vhdlEntity;
         vhdl.addCircuitUsing(c, this);
       }
+      compGrid.add(c, ComponentGrid.boundsOf(c));
       c.addComponentListener(myComponentListener);
     }
     removeWrongLabels(c.getFactory().getName());
@@ -892,6 +934,8 @@ public class Circuit {
 
     final var oldComps = comps;
     comps = new LinkedHashSet<>();
+    compGrid = new ComponentGrid<>();
+    movedComps.clear();
     wires = new CircuitWires();
     clocks.clear();
     myNetList.clear();
@@ -914,6 +958,8 @@ public class Circuit {
     } else {
       wires.remove(c);
       comps.remove(c);
+      compGrid.remove(c);
+      movedComps.remove(c);
       socSim.removeComponent(c);
       final var factory = c.getFactory();
       factory.removeComponent(this, c, proj.getCircuitState(this));
@@ -17,9 +17,11 @@ import com.cburch.logisim.fpga.data.MappableResourcesContainer;
 import com.cburch.logisim.fpga.designrulecheck.CorrectLabel;
 import com.cburch.logisim.fpga.designrulecheck.Netlist;
 import com.cburch.logisim.fpga.designrulecheck.netlistComponent;
+import com.cburch.logisim.fpga.file.HdlManifest;
 import com.cburch.logisim.fpga.gui.Reporter;
 import com.cburch.logisim.fpga.hdlgenerator.AbstractHdlGeneratorFactory;
 import com.cburch.logisim.fpga.hdlgenerator.Hdl;
+import com.cburch.logisim.fpga.hdlgenerator.HdlFileQueue;
 import com.cburch.logisim.fpga.hdlgenerator.TickComponentHdlGeneratorFactory;
 import com.cburch.logisim.instance.Port;
 import com.cburch.logisim.instance.StdAttr;
@@ -91,14 +93,35 @@ public class CircuitHdlGeneratorFactory extends AbstractHdlGeneratorFactory {
 
   @Override
   public boolean generateAllHDLDescriptions(Set<String> handledComponents, String workingDir, List<String> hierarchy) {
-    return generateAllHDLDescriptions(handledComponents, workingDir, hierarchy, false);
+    return generateAllHDLDescriptions(handledComponents, workingDir, hierarchy, null);
   }
 
+  /**
+   * Generates the files of this circuit and of all components in its hierarchy.
+   *
+   * @param manifest Manifest of the export, to keep the files of components that did not change
+   *     since the last export, or null to generate all files.
+   */
   public boolean generateAllHDLDescriptions(
       Set<String> handledComponents,
       String workingDir,
       List<String> hierarchy,
-      boolean gatedInstance) {
+      HdlManifest manifest) {
+    final var files = new HdlFileQueue(manifest);
+    try {
+      return generateAllHDLDescriptions(handledComponents, workingDir, hierarchy, false, files)
+          && files.finish();
+    } finally {
+      files.close();
+    }
+  }
+
+  private boolean generateAllHDLDescriptions(
+      Set<String> handledComponents,
+      String workingDir,
+      List<String> hierarchy,
+      boolean gatedInstance,
+      HdlFileQueue files) {
     if (myCircuit == null) {
       return false;
     }
@@ -114,7 +137,7 @@ public class CircuitHdlGeneratorFactory extends AbstractHdlGeneratorFactory {
       workPath += File.separator;
     }
     myNetList.setCurrentHierarchyLevel(hierarchy);
-    /* First we handle the normal components */
+    /* First we handle the normal components, they are generated by the queue */
     for (final var thisComponent : myNetList.getNormalComponents()) {
       final var componentName =
           thisComponent.getComponent()
@@ -130,24 +153,12 @@ public class CircuitHdlGeneratorFactory extends AbstractHdlGeneratorFactory {
           return false;
         }
         if (!worker.isOnlyInlined()) {
-          if (!Hdl.writeEntity(
-              workPath + worker.getRelativeDirectory(),
-              worker.getEntity(
-                  myNetList,
-                  thisComponent.getComponent().getAttributeSet(),
-                  componentName),
-              componentName)) {
-            return false;
-          }
-          if (!Hdl.writeArchitecture(
-              workPath + worker.getRelativeDirectory(),
-              worker.getArchitecture(
-                  myNetList,
-                  thisComponent.getComponent().getAttributeSet(),
-                  componentName),
-              componentName)) {
-            return false;
-          }
+          files.generate(
+              worker,
+              myNetList,
+              thisComponent.getComponent().getAttributeSet(),
+              componentName,
+              workPath + worker.getRelativeDirectory());
         }
         handledComponents.add(componentName);
       }
@@ -170,7 +181,7 @@ public class CircuitHdlGeneratorFactory extends AbstractHdlGeneratorFactory {
           CorrectLabel.getCorrectLabel(
               thisCircuit.getComponent().getAttributeSet().getValue(StdAttr.LABEL)));
       if (!worker.generateAllHDLDescriptions(
-          handledComponents, workingDir, hierarchy, thisCircuit.isGatedInstance())) {
+          handledComponents, workingDir, hierarchy, thisCircuit.isGatedInstance(), files)) {
         return false;
       }
       hierarchy.remove(hierarchy.size() - 1);
@@ -179,24 +190,94 @@ public class CircuitHdlGeneratorFactory extends AbstractHdlGeneratorFactory {
     var componentName = CorrectLabel.getCorrectLabel(myCircuit.getName());
     if (gatedInstance) componentName = componentName.concat("_gated");
     if (!handledComponents.contains(componentName)) {
-      if (!Hdl.writeEntity(
-          workPath + getRelativeDirectory(),
-          getEntity(myNetList, null, componentName),
-          componentName)) {
-        return false;
+      final var directory = workPath + getRelativeDirectory();
+      String key = null;
+      if (files.getManifest() != null) {
+        key = getHdlKey(myNetList, componentName, hierarchy, files);
+        files.setKey(componentName, key);
       }
-
-      if (!Hdl.writeArchitecture(
-          workPath + getRelativeDirectory(),
-          getArchitecture(myNetList, null, componentName),
-          componentName)) {
-        return false;
+      // the hierarchy level of the netlist and the generators of the components are shared, so
+      // the circuit is generated here and only its files are written by the queue
+      if (!files.reuse(directory, componentName, key)) {
+        files.write(
+            directory,
+            getEntity(myNetList, null, componentName),
+            getArchitecture(myNetList, null, componentName),
+            componentName,
+            key);
       }
     }
     handledComponents.add(componentName);
     return true;
   }
 
+  /**
+   * Makes the key of the files of this circuit: a hash of its netlist as the generation sees it at
+   * this level of the hierarchy, with the keys of its subcircuits, which are made before.
+   */
+  private String getHdlKey(
+      Netlist nets, String componentName, List<String> hierarchy, HdlFileQueue files) {
+    final var key =
+        new HdlManifest.KeyBuilder()
+            .add(componentName)
+            .add(nets.projName())
+            .add(hierarchy)
+            .add(nets.requiresGlobalClockConnection())
+            .add(nets.numberOfClockTrees())
+            .add(nets.getNumberOfInputBubbles())
+            .add(nets.numberOfOutputBubbles())
+            .add(nets.numberOfInOutBubbles());
+    for (final var net : nets.getAllNets()) {
+      key.add(nets.getNetId(net)).add(net.getBitWidth()).add(net.isRootNet());
+      for (var bit = 0; bit < net.getBitWidth(); bit++) {
+        if (!net.isRootNet()) key.add(net.getBit((byte) bit));
+        key.add(nets.getClockSourceId(hierarchy, net, (byte) bit));
+      }
+      if (!net.isRootNet()) key.add(nets.getNetId(net.getParent()));
+    }
+    final var components = new ArrayList<netlistComponent>();
+    components.addAll(nets.getNormalComponents());
+    components.addAll(nets.getSubCircuits());
+    components.addAll(nets.getClockSources());
+    for (var i = 0; i < nets.getNumberOfInputPorts(); i++) components.add(nets.getInputPin(i));
+    for (var i = 0; i < nets.numberOfOutputPorts(); i++) components.add(nets.getOutputPin(i));
+    for (var i = 0; i < nets.numberOfInOutPorts(); i++) components.add(nets.getInOutPin(i));
+    for (final var comp : components) {
+      if (comp == null) {
+        key.add(null);
+        continue;
+      }
+      final var component = comp.getComponent();
+      key.add(component.getFactory().getName())
+          .add(component.getLocation())
+          .add(component.getAttributeSet())
+          .add(comp.isGatedInstance())
+          .add(comp.getLocalBubbleInputStartId())
+          .add(comp.getLocalBubbleInputEndId())
+          .add(comp.getLocalBubbleOutputStartId())
+          .add(comp.getLocalBubbleOutputEndId())
+          .add(comp.getLocalBubbleInOutStartId())
+          .add(comp.getLocalBubbleInOutEndId());
+      if (component.getFactory() instanceof SubcircuitFactory sub) {
+        var subName = CorrectLabel.getCorrectLabel(sub.getSubcircuit().getName());
+        if (comp.isGatedInstance()) subName = subName.concat("_gated");
+        key.add(files.getKey(subName));
+      }
+      for (var end = 0; end < comp.nrOfEnds(); end++) {
+        final var connection = comp.getEnd(end);
+        key.add(connection.isOutputEnd()).add(connection.getNrOfBits());
+        for (var bit = 0; bit < connection.getNrOfBits(); bit++) {
+          final var point = connection.get((byte) bit);
+          final var net = point.getParentNet();
+          key.add(net == null ? -1 : nets.getNetId(net))
+              .add(point.getParentNetBitIndex())
+              .add(point.getChildsPortIndex());
+        }
+      }
+    }
+    return key.build();
+  }
+
   /* here the private handles are defined */
   private String getBubbleIndex(netlistComponent comp, bubbleType type) {
     final var fmt = "{{<}}{{1}} {{2}} {{3}}{{>}}";
@@ -27,13 +27,15 @@ import com.cburch.logisim.std.memory.Ram;
 import com.cburch.logisim.std.memory.RamState;
 import com.cburch.logisim.std.wiring.Clock;
 import com.cburch.logisim.std.wiring.Pin;
+import com.cburch.logisim.vhdl.base.VhdlEntity;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * CircuitState holds the simulation state of a Circuit (or Subcircuit), i.e.
@@ -53,11 +55,16 @@ public class CircuitState implements InstanceData {
     @Override
     public void circuitChanged(CircuitEvent event) {
       int action = event.getAction();
+      // Any change may have voided the wire connectivity map, so let the
+      // propagator visit this state and bring its wire data up to date.
+      enqueue();
 
       if (action == CircuitEvent.ACTION_ADD) {
         /* Component was added */
-        // Nothing to do: CircuitWires.Connectivity will be voided, causing
-        // everything to be marked dirty.
+        // CircuitWires.Connectivity will be voided, causing everything to be
+        // marked dirty. A component added back (by an undo, say) must no longer
+        // be skipped by the propagator.
+        removedComponents.remove((Component) event.getData());
       } else if (action == CircuitEvent.ACTION_REMOVE) {
         /* Component was removed */
         final var comp = (Component) event.getData();
@@ -70,7 +77,7 @@ public class CircuitState implements InstanceData {
           // disconnect from tree
           final var substate = (CircuitState) getData(comp);
           if (substate != null && substate.parentComp == comp) {
-            synchronized (dirtyLock) {
+            synchronized (substatesLock) {
               substates.remove(substate);
               substatesDirty = true;
             }
@@ -86,11 +93,9 @@ public class CircuitState implements InstanceData {
           // everything to be marked dirty.
         } else {
           // Nothing else to do: CircuitWires.Connectivity will be voided, causing
-          // everything to be marked dirty.
-          synchronized (dirtyLock) {
-            while (dirtyComponents.remove(comp)) {
-            }
-          }
+          // everything to be marked dirty. The component may still be queued as
+          // dirty, so have the propagator skip it.
+          removedComponents.add(comp);
         }
       } else if (action == CircuitEvent.ACTION_CLEAR) {
         /* Whole circuit was cleared */
@@ -105,13 +110,9 @@ public class CircuitState implements InstanceData {
           }
         }
         componentData.clear();
-        synchronized (valuesLock) {
-          slowpathValues.clear(); // slow path
-          clearFastpathGrid(); // fast path
-        }
-        synchronized (dirtyLock) {
-          dirtyComponents.clear();
-          dirtyPoints.clear();
+        dirtyComponents.clear();
+        clearDirtyPoints = true;
+        synchronized (substatesLock) {
           substates.clear();
           substatesWorking = new CircuitState[0];
           substatesDirty = true;
@@ -143,7 +144,7 @@ public class CircuitState implements InstanceData {
           if (!found && compState instanceof RamState state) Ram.closeHexFrame(state);
           if (!found && compState instanceof CircuitState sub) {
             sub.parentState = null;
-            synchronized (dirtyLock) {
+            synchronized (substatesLock) {
               substates.remove(sub);
               substatesDirty = true;
             }
@@ -171,45 +172,53 @@ public class CircuitState implements InstanceData {
   private Component parentComp = null;
   // state
 
-  private CircuitWires.State wireData = null;
+  // wireData stores the values resulting from propagation *within* this
+  // circuit, i.e. the outputs of components in this circuit together with the
+  // values carried on wires and buses in this circuit, one entry per bus as
+  // numbered by the connectivity map of CircuitWires. When components embedded
+  // in this circuit are called upon to re-calculate / propagate, the components
+  // will call getValue() to pick out values from it. These are the values you
+  // would see if you stick a probe at some location on the circuit sheet. Only
+  // the propagator thread writes them; the GUI reads them without locking.
+  private volatile CircuitWires.State wireData = null;
   private final HashMap<Component, Object> componentData = new HashMap<>();
 
-  private static final int FASTPATH_GRID_WIDTH = 200;
-  private static final int FASTPATH_GRID_HEIGHT = 200;
-
-  // slowpathValues and fastpathValues store values resulting from propagation
-  // *within* this circuit, i.e. the outputs of componnents in this circuit
-  // together with the values carried on wires and buses in this circuit. When
-  // components embedded in this circuit are called upon to re-calculate /
-  // propagate, the components will call getValue() to pick out values from
-  // these data structures. These are the values you would see if you stick a
-  // probe at some location on the circuit sheet. They are protected by valuesLock.
-  /** values propagated in this circuit. Protected by valuesLock */
-  private Map<Location, Value> slowpathValues = new HashMap<>();
-  /** values propagated in this circuit. Protected by valuesLock */
-  private Value[][] fastpathValues = new Value[FASTPATH_GRID_HEIGHT][FASTPATH_GRID_WIDTH];
-  /** Protects slowPathValues and fastPathValues */
-  private final Object valuesLock = new Object();
-
-  // dirtyComponents, dirtyPoints, and substates are components being marked as dirty.
-  // They will later be shifted to the working sets to be processed.
-  // They are protected by dirtyLock
-  /** Protected by dirtyLock */
-  private ArrayList<Component> dirtyComponents = new ArrayList<>();
-  /** Protected by dirtyLock */
+  // dirtyComponents and dirtyPoints are the components and points of this
+  // circuit marked as dirty. They will later be shifted to the working sets to be
+  // processed. No locks are involved: components may be marked dirty by any
+  // thread and go through a lock-free queue, while points are only ever marked
+  // by the propagation thread itself. Whenever something is marked dirty, the
+  // state puts itself on the dirty state worklist of its Propagator (at most
+  // once until it is processed), so a propagation step only visits the states
+  // that actually have pending work.
+  /** Components marked as dirty, by any thread */
+  private final DirtyQueue<Component> dirtyComponents = new DirtyQueue<>();
+  /**
+   * Components removed from the circuit while possibly still in dirtyComponents. Adding a
+   * component back cancels its removal.
+   */
+  private final Set<Component> removedComponents = ConcurrentHashMap.newKeySet();
+  /** Points marked as dirty; only touched by the propagation thread */
   private ArrayList<Propagator.SimulatorEvent> dirtyPoints = new ArrayList<>();
-  /** Protected by dirtyLock */
-  private HashSet<CircuitState> substates = new HashSet<>();
-  /** Protects dirtyComponents, dirtyPoints, and substates */
-  private final Object dirtyLock = new Object();
+  /** Set by other threads to have the propagation thread drop dirtyPoints */
+  private volatile boolean clearDirtyPoints = false;
+  /** Whether this state is on the dirty state worklist of its Propagator */
+  private final AtomicBoolean queued = new AtomicBoolean();
 
-  // dirtyComponentsWorking, dirtyPointsWorking, and substatesWorking are those elements
-  // of this circuit that are being processed.
+  // dirtyComponentsWorking and dirtyPointsWorking are those elements of this
+  // circuit that are being processed.
   /** Components being processed. */
-  ArrayList<Component> dirtyComponentsWorking = new ArrayList<>();
+  private final ArrayList<Component> dirtyComponentsWorking = new ArrayList<>();
+  /** Components to be skipped while processing. */
+  private final HashSet<Component> removedWorking = new HashSet<>();
   /** Points being processed */
   private ArrayList<Propagator.SimulatorEvent> dirtyPointsWorking = new ArrayList<>();
-  /** Substates being processed */
+
+  /** Protected by substatesLock */
+  private HashSet<CircuitState> substates = new HashSet<>();
+  /** Protects substates */
+  private final Object substatesLock = new Object();
+  /** Substates whose clocks are being toggled */
   private CircuitState[] substatesWorking = new CircuitState[0];
   private boolean substatesDirty = true;
 
@@ -242,6 +251,19 @@ public class CircuitState implements InstanceData {
     return new CircuitState(proj, circuit, null /* make new Propagator */, thread);
   }
 
+  /**
+   * Detaches this state and its substates from the circuits and project options they listen to.
+   * To be used for throw-away states, such as the ones simulating table rows, which are not
+   * reachable from the project once discarded.
+   */
+  public void dispose() {
+    circuit.removeCircuitListener(myCircuitListener);
+    synchronized (substatesLock) {
+      for (final var sub : substates) sub.dispose();
+    }
+    if (parentState == null) base.dispose();
+  }
+
   public CircuitState cloneAsNewRootState(Thread thread) {
     final var ret = new CircuitState(proj, circuit, null, thread);
     ret.copyFrom(this);
@@ -259,8 +281,8 @@ public class CircuitState implements InstanceData {
     this.parentState = src.parentState;
     final var substateData = new HashMap<CircuitState, CircuitState>();
     this.substates = new HashSet<CircuitState>();
-    synchronized (src.dirtyLock) {
-      // note: we don't bother with our this.dirtyLock here: it isn't needed
+    synchronized (src.substatesLock) {
+      // note: we don't bother with our this.substatesLock here: it isn't needed
       // (b/c no other threads have a reference to this yet), and to avoid the
       // possibility of deadlock (though that shouldn't happen either since no
       // other threads have references to this yet).
@@ -287,27 +309,21 @@ public class CircuitState implements InstanceData {
         this.componentData.put(key, newValue);
       }
     }
-    // note: we don't bother with our this.valuesLock here: it isn't needed
-    // (b/c no other threads have a reference to this yet), and to avoid the
-    // possibility of deadlock (though that shouldn't happen either since no
-    // other threads have references to this yet).
-    this.slowpathValues.clear(); // slow path
-    synchronized (src.valuesLock) {
-      this.slowpathValues.putAll(src.slowpathValues); // slow path
-      for (var y = 0; y < FASTPATH_GRID_HEIGHT; y++) { // fast path
-        System.arraycopy(src.fastpathValues[y], 0, this.fastpathValues[y], 0, FASTPATH_GRID_WIDTH);
+    markComponentsDirty(src.dirtyComponents.snapshot());
+    // Dirty points only exist in the middle of a propagation step, and only the
+    // propagation thread of src may look at them. Events are pooled by their
+    // Propagator, so the copy needs its own instances.
+    if (src.base.isPropagatorThread()) {
+      for (final var ev : src.dirtyPoints) {
+        this.dirtyPoints.add(ev.cloneFor(this));
       }
+      enqueue();
     }
-    synchronized (src.dirtyLock) {
-      // note: we don't bother with our this.dirtyLock here: it isn't needed
-      // (b/c no other threads have a reference to this yet), and to avoid the
-      // possibility of deadlock (though that shouldn't happen either since no
-      // other threads have references to this yet).
-      this.dirtyComponents.addAll(src.dirtyComponents);
-      this.dirtyPoints.addAll(src.dirtyPoints);
-    }
-    if (src.wireData != null) {
-      this.wireData = circuit.wires.newState(this); // all buses will be marked as dirty
+    final var srcWireData = src.wireData;
+    if (srcWireData != null) {
+      final var data = circuit.wires.newState(this); // all buses will be marked as dirty
+      data.copyValues(srcWireData);
+      this.wireData = data;
     }
   }
 
@@ -385,29 +401,7 @@ public class CircuitState implements InstanceData {
   }
 
   public Value getValue(Location p) {
-    Value value = null;
-    if (p.x >= 0 && p.y >= 0
-        && p.x % 10 == 0 && p.y % 10 == 0
-        && p.x < FASTPATH_GRID_WIDTH * 10
-        && p.y < FASTPATH_GRID_HEIGHT * 10) {
-      // fast path
-      final var x = p.x / 10;
-      final var y = p.y / 10;
-      synchronized (valuesLock) {
-        value = fastpathValues[y][x];
-        if (value == null) {
-          value = CircuitWires.getBusValue(this, p);
-        }
-      }
-    } else {
-      // slow path
-      synchronized (valuesLock) {
-        value = slowpathValues.get(p);
-        if (value == null) {
-          value = CircuitWires.getBusValue(this, p);
-        }
-      }
-    }
+    final var value = CircuitWires.getBusValue(this, p);
     return value != null ? value : Value.createUnknown(circuit.getWidth(p));
   }
 
@@ -420,45 +414,103 @@ public class CircuitState implements InstanceData {
   }
 
   private void markAllComponentsDirty() {
-    synchronized (dirtyLock) {
-      dirtyComponents.addAll(circuit.getNonWires());
-    }
+    markComponentsDirty(circuit.getNonWires());
   }
 
   public void markComponentAsDirty(Component comp) {
-    synchronized (dirtyLock) {
-      dirtyComponents.add(comp);
-    }
+    dirtyComponents.add(comp);
+    enqueue();
   }
 
   public void markComponentsDirty(Collection<Component> comps) {
-    synchronized (dirtyLock) {
-      dirtyComponents.addAll(comps);
-    }
+    if (comps.isEmpty()) return;
+    dirtyComponents.addAll(comps);
+    enqueue();
   }
 
+  /** Must be called from the propagation thread. */
   void markPointAsDirty(Propagator.SimulatorEvent ev) {
-    synchronized (dirtyLock) {
-      dirtyPoints.add(ev);
-    }
+    dirtyPoints.add(ev);
+    enqueue();
+  }
+
+  /**
+   * Puts this state on the dirty state worklist of its Propagator, unless it is there already.
+   * Must be called after the pending work has been recorded: the Propagator clears the flag
+   * before it takes the work, so nothing can slip through in between.
+   */
+  private void enqueue() {
+    if (!queued.get() && queued.compareAndSet(false, true)) base.markStateDirty(this);
+  }
+
+  /** Called by the Propagator when it takes this state off the worklist. */
+  void dequeued() {
+    queued.set(false);
   }
 
   void processDirtyComponents() {
+    takeDirtyComponents();
+    propagateDirtyComponents();
+  }
+
+  /**
+   * Moves the dirty components to the working set.
+   *
+   * @return whether propagating them only touches this state; see isSelfContained().
+   */
+  boolean takeDirtyComponents() {
     if (!dirtyComponentsWorking.isEmpty()) {
       throw new IllegalStateException("INTERNAL ERROR: dirtyComponentsWorking not empty");
     }
-    synchronized (dirtyLock) {
-      final var other = dirtyComponents;
-      dirtyComponents = dirtyComponentsWorking; // dirtyComponents is now empty
-      dirtyComponentsWorking = other; // working set is now ready to process
-      if (substatesDirty) {
-        substatesDirty = false;
-        substatesWorking = substates.toArray(substatesWorking);
+    dirtyComponents.drainTo(dirtyComponentsWorking);
+    if (!removedComponents.isEmpty()) {
+      for (final var it = removedComponents.iterator(); it.hasNext(); ) {
+        removedWorking.add(it.next());
+        it.remove();
       }
     }
+    for (final var comp : dirtyComponentsWorking) {
+      if (!isSelfContained(comp)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns whether propagating <code>comp</code> only reads and writes this state, so that it may
+   * run concurrently with the components of other states. Subcircuits drive the pins of their
+   * substate, pins of a substate propagate into the parent state, and VHDL entities all talk to
+   * the one external simulator of the project.
+   */
+  private boolean isSelfContained(Component comp) {
+    final var factory = comp.getFactory();
+    return !(factory instanceof SubcircuitFactory)
+        && !(factory instanceof VhdlEntity)
+        && !(factory instanceof Pin && parentState != null);
+  }
+
+  /** Puts the components taken by takeDirtyComponents() back, when they cannot be propagated. */
+  void untakeDirtyComponents() {
+    // the removals still apply to the components put back, and to those marked dirty since
+    removedComponents.addAll(removedWorking);
+    removedWorking.clear();
+    if (dirtyComponentsWorking.isEmpty()) return;
+    dirtyComponents.addAll(dirtyComponentsWorking);
+    dirtyComponentsWorking.clear();
+  }
+
+  /** Propagates the components moved to the working set by takeDirtyComponents(). */
+  void propagateDirtyComponents() {
+    final var profile = base.getProfile();
     try { // comp.propagate() can fail if external (or std) library is buggy
       for (final var comp : dirtyComponentsWorking) {
-        comp.propagate(this);
+        if (!removedWorking.isEmpty() && removedWorking.contains(comp)) continue;
+        if (profile == null) {
+          comp.propagate(this);
+        } else {
+          final var start = System.nanoTime();
+          comp.propagate(this);
+          profile.componentPropagated(comp.getFactory(), System.nanoTime() - start);
+        }
         // pin values also get propagated to parent state
         if (comp.getFactory() instanceof Pin && parentState != null) {
           parentComp.propagate(parentState);
@@ -466,26 +518,41 @@ public class CircuitState implements InstanceData {
       }
     } finally {
       dirtyComponentsWorking.clear();
-    }
-    for (final var substate : substatesWorking) {
-      if (substate == null) break;
-      substate.processDirtyComponents();
+      removedWorking.clear();
     }
   }
 
+  /** @return whether components or points were marked dirty since they were last taken. */
+  boolean hasDirtyWork() {
+    return !dirtyComponents.isEmpty() || !dirtyPoints.isEmpty();
+  }
+
+  /** Puts this state back on the worklist if it got dirty while off it; see Propagator. */
+  void requeueIfDirty() {
+    if (hasDirtyWork()) enqueue();
+  }
+
   void processDirtyPoints() {
+    propagateDirtyPoints();
+    recycleDirtyPoints();
+  }
+
+  /**
+   * Applies the dirty points to the wires of this circuit. Only touches this state, so that the
+   * points of different states may be propagated concurrently.
+   */
+  void propagateDirtyPoints() {
     if (!dirtyPointsWorking.isEmpty()) {
       throw new IllegalStateException("INTERNAL ERROR: dirtyPointsWorking not empty");
     }
-    synchronized (dirtyLock) {
-      final var other = dirtyPoints;
-      dirtyPoints = dirtyPointsWorking; // dirtyPoints is now empty
-      dirtyPointsWorking = other; // working set is now ready to process
-      if (substatesDirty) {
-        substatesDirty = false;
-        substatesWorking = substates.toArray(substatesWorking);
-      }
+    if (clearDirtyPoints) {
+      clearDirtyPoints = false;
+      base.recycleEvents(dirtyPoints);
+      dirtyPoints.clear();
     }
+    final var other = dirtyPoints;
+    dirtyPoints = dirtyPointsWorking; // dirtyPoints is now empty
+    dirtyPointsWorking = other; // working set is now ready to process
     // Note: When a new wire map is created (because wires or splitters have
     // changed, for example), we need to mark all the splitter locations as
     // dirty. This used to be handled here by detecting when the map was voided,
@@ -497,12 +564,12 @@ public class CircuitState implements InstanceData {
     // the wire map itself when it is created (which is done by CircuitWires
     // carefully in a thread-safe way).
     circuit.wires.propagate(this, dirtyPointsWorking);
-    dirtyPointsWorking.clear();
+  }
 
-    for (final var substate : substatesWorking) {
-      if (substate == null) break;
-      substate.processDirtyPoints();
-    }
+  /** Returns the points applied by propagateDirtyPoints() to the event pool. */
+  void recycleDirtyPoints() {
+    base.recycleEvents(dirtyPointsWorking);
+    dirtyPointsWorking.clear();
   }
 
   public void reset() {
@@ -520,13 +587,9 @@ public class CircuitState implements InstanceData {
         componentData.put(comp, null);
       }
     }
-    synchronized (valuesLock) {
-      slowpathValues.clear(); // slow path
-      clearFastpathGrid(); // fast path
-    }
-    synchronized (dirtyLock) {
-      dirtyComponents.clear();
-      dirtyPoints.clear();
+    dirtyComponents.clear();
+    clearDirtyPoints = true;
+    synchronized (substatesLock) {
       for (final var sub : substates) {
         sub.reset();
       }
@@ -539,7 +602,7 @@ public class CircuitState implements InstanceData {
     if (oldState != null && oldState.parentComp == comp) {
       // fixme: Does this ever happen?
       System.out.println("fixme: removed stale circuitstate... should never happen");
-      synchronized (dirtyLock) {
+      synchronized (substatesLock) {
         substates.remove(oldState);
         substatesDirty = true;
       }
@@ -547,7 +610,7 @@ public class CircuitState implements InstanceData {
       oldState.parentComp = null;
     }
     final var newState = new CircuitState(proj, circ, base);
-    synchronized (dirtyLock) {
+    synchronized (substatesLock) {
       substates.add(newState);
       substatesDirty = true;
     }
@@ -571,7 +634,7 @@ public class CircuitState implements InstanceData {
       // but don't need to add to substates, b/c it should already be there
       sub.parentComp = comp;
       final var old = (CircuitState) componentData.put(comp, data);
-      synchronized (dirtyLock) {
+      synchronized (substatesLock) {
         if (old != null) {
           substates.remove(old);
           old.parentState = null;
@@ -579,8 +642,8 @@ public class CircuitState implements InstanceData {
         sub.parentState = this;
         substates.add(sub);
         substatesDirty = true;
-        dirtyComponents.add(comp);
       }
+      markComponentAsDirty(comp);
     } else {
       componentData.put(comp, data);
     }
@@ -600,30 +663,9 @@ public class CircuitState implements InstanceData {
     base.setValue(this, pt, val, cause, delay);
   }
 
-  /** precondition: valuesLock held */
-  private void clearFastpathGrid() {
-    for (var y = 0; y < FASTPATH_GRID_HEIGHT; y++) {
-      for (var x = 0; x < FASTPATH_GRID_WIDTH; x++) {
-        fastpathValues[y][x] = null;
-      }
-    }
-  }
-
-  /** for CircuitWires - to set value at point */
+  /** for CircuitWires - to note that the bus through the points now carries v */
   void setValueByWire(Value v, Location[] points, CircuitWires.BusConnection[] connections) {
     for (final var p : points) {
-      if (p.x >= 0 && p.y >= 0
-          && p.x % 10 == 0 && p.y % 10 == 0
-          && p.x < FASTPATH_GRID_WIDTH * 10
-          && p.y < FASTPATH_GRID_HEIGHT * 10) {
-        synchronized (valuesLock) {
-          fastpath(p, v);
-        }
-      } else {
-        synchronized (valuesLock) {
-          slowpath(p, v);
-        }
-      }
       base.locationTouched(this, p);
     }
     for (final var bc : connections) {
@@ -633,46 +675,6 @@ public class CircuitState implements InstanceData {
     }
   }
 
-  /** for CircuitWires - to set value at point */
-  void clearValuesByWire() {
-    synchronized (valuesLock) {
-      slowpathValues.clear(); // slow path
-      clearFastpathGrid(); // fast path
-    }
-  }
-
-  /** precondition: valuesLock held */
-  private boolean fastpath(Location p, Value v) {
-    final var x = p.x / 10;
-    final var y = p.y / 10;
-    if (v == Value.NIL) {
-      if (fastpathValues[y][x] != null) {
-        fastpathValues[y][x] = null;
-        return true;
-      } else {
-        return false;
-      }
-    } else {
-      if (!v.equals(fastpathValues[y][x])) {
-        fastpathValues[y][x] = v;
-        return true;
-      } else {
-        return false;
-      }
-    }
-  }
-
-  /** precondition: valuesLock held */
-  private boolean slowpath(Location p, Value v) {
-    if (v == Value.NIL) {
-      final var old = slowpathValues.remove(p);
-      return (old != null && old != Value.NIL);
-    } else {
-      final var old = slowpathValues.put(p, v);
-      return !v.equals(old);
-    }
-  }
-
   void setWireData(CircuitWires.State data) {
     wireData = data;
   }
@@ -704,7 +706,7 @@ public class CircuitState implements InstanceData {
       }
     }
 
-    synchronized (dirtyLock) {
+    synchronized (substatesLock) {
       if (substatesDirty) {
         substatesDirty = false;
         substatesWorking = substates.toArray(substatesWorking);
@@ -30,10 +30,12 @@ import com.cburch.logisim.util.IteratorUtil;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.swing.SwingUtilities;
@@ -87,6 +89,14 @@ public class CircuitWires {
     /** All locations touched by a wire bundle */
     ArrayList<Location> allLocations = new ArrayList<>();
 
+    /**
+     * The final bundles in a fixed order, and the index mapping each of their points to the
+     * position of the bundle in this array. These are set once the bundles are complete and are
+     * shared by all States using this connectivity map.
+     */
+    WireBundle[] bundleList = new WireBundle[0];
+    LocationIndex bundleIndex = new LocationIndex(0);
+
     /** All components except wires, splitters, and pull resistors */
     ArrayList<Component> allComponents = new ArrayList<>();
 
@@ -267,6 +277,9 @@ public class CircuitWires {
     /** State.buses[idx] will hold this ValuedBus */
     int idx;
 
+    /** Position of the bundle in Connectivity.bundleList; never changes. */
+    final int slot;
+
     /** Negative for invalid width */
     int width;
 
@@ -296,12 +309,26 @@ public class CircuitWires {
 
     ValuedBus(int i, WireBundle wb, Connectivity cmap) {
       idx = i;
+      slot = i;
       filterComponents(cmap, wb.xpoints); // initializes locations[] and connections[]
       width = wb.threads == null ? -1 : wb.getWidth().getWidth();
       pullVal = wb.getPullValue();
       dirty = true;
     }
 
+    /** Takes over the clean bus <code>prev</code>, whose bundle was kept by a new connectivity map. */
+    ValuedBus(int i, ValuedBus prev) {
+      idx = i;
+      slot = i;
+      locations = prev.locations;
+      connections = prev.connections;
+      width = prev.width;
+      pullVal = prev.pullVal;
+      localDrivenValue = prev.localDrivenValue;
+      busVal = prev.busVal;
+      dirty = false;
+    }
+
     void filterComponents(Connectivity cmap, Location[] xpoints) {
       final var locs = new ArrayList<Location>();
       final var conns = new ArrayList<BusConnection>();
@@ -385,41 +412,89 @@ public class CircuitWires {
   static class State {
     /** Original source of connectivity info */
     private Connectivity connectivity; // original source of connectivity info
-    HashMap<Location, ValuedBus> busAt = new HashMap<>();
+    /** The buses ordered by ValuedBus.idx: dirty buses first. */
     ValuedBus[] buses;
+    /** The buses ordered by ValuedBus.slot, as numbered by connectivity.bundleIndex. */
+    final ValuedBus[] busAtSlot;
+    /**
+     * Last stable value of each bus, by slot, as seen by components and the GUI. Written by the
+     * propagator thread only; other threads may read it without locking, since Values are
+     * immutable.
+     */
+    final Value[] values;
     int numDirty;
+    /**
+     * Components whose connections may have changed since the previous State: all of them,
+     * unless buses could be taken over from the previous State.
+     */
+    final Collection<Component> changedComponents;
     static final ValuedBus[] EMPTY_DEPENDENCIES = new ValuedBus[0];
 
 
     State(Connectivity cm, State prev) {
       connectivity = cm;
       HashMap<WireBundle, ValuedBus> allBuses = new HashMap<>();
-      HashMap<ValuedBus, WireBundle> srcBuses = new HashMap<>();
-      // initialize buses[] and busAt<>
-      buses = new ValuedBus[connectivity.bundles.size()];
-      int idx = 0;
-      for (final var wb : connectivity.bundles) {
-        final var vb = new ValuedBus(idx++, wb, connectivity);
-        buses[vb.idx] = vb;
-        for (final var loc : wb.xpoints) {
-          ValuedBus old = busAt.put(loc, vb);
-          if (old != null) {
-            throw new IllegalStateException("oops, two wires occupy same location");
-          }
+      // Buses whose bundle survived an incremental connectivity update keep their
+      // values; only the others have to be recomputed.
+      final var prevBuses = new HashMap<WireBundle, ValuedBus>();
+      if (prev != null) {
+        final var prevBundles = prev.connectivity.bundleList;
+        for (var slot = 0; slot < prevBundles.length; slot++) {
+          if (!prev.busAtSlot[slot].dirty) prevBuses.put(prevBundles[slot], prev.busAtSlot[slot]);
+        }
+      }
+      // initialize buses[], dirty buses first
+      final var bundles = connectivity.bundleList;
+      busAtSlot = new ValuedBus[bundles.length];
+      values = new Value[bundles.length];
+      final var kept = new HashSet<ValuedBus>();
+      for (var slot = 0; slot < bundles.length; slot++) {
+        final var old = prevBuses.remove(bundles[slot]);
+        final ValuedBus vb;
+        if (old != null) {
+          vb = new ValuedBus(slot, old);
+          values[slot] = prev.values[old.slot];
+          kept.add(old);
+        } else {
+          vb = new ValuedBus(slot, bundles[slot], connectivity);
         }
-        allBuses.put(wb, vb);
-        srcBuses.put(vb, wb);
+        busAtSlot[slot] = vb;
+        allBuses.put(bundles[slot], vb);
+      }
+      buses = new ValuedBus[bundles.length];
+      numDirty = 0;
+      for (final var vb : busAtSlot) {
+        if (vb.dirty) buses[numDirty++] = vb;
+      }
+      var idx = numDirty;
+      for (final var vb : busAtSlot) {
+        if (!vb.dirty) buses[idx++] = vb;
+      }
+      for (var i = 0; i < buses.length; i++) buses[i].idx = i;
+      if (kept.isEmpty()) {
+        changedComponents = cm.allComponents;
+      } else {
+        // components connected to a bus that is new or gone
+        final var changed = new HashSet<Component>();
+        for (var i = 0; i < numDirty; i++) {
+          for (final var bc : buses[i].connections) changed.add(bc.component);
+        }
+        for (final var vb : prev.busAtSlot) {
+          if (kept.contains(vb)) continue;
+          for (final var bc : vb.connections) changed.add(bc.component);
+        }
+        changedComponents = changed;
       }
       // create threads for all buses that need them
       HashMap<WireThread, ValuedThread> allThreads = new HashMap<>();
       for (final var vb : buses) {
-        vb.makeThreads(srcBuses.get(vb).threads, allBuses, allThreads);
+        vb.makeThreads(bundles[vb.slot].threads, allBuses, allThreads);
       }
       // initialize BusConnection driven values from previous State, if any,
       // but only if they are not sinks (or pins, which always count as sinks)
       if (prev != null) {
-        for (final var vb : buses) {
-          for (final var bc : vb.connections) {
+        for (var i = 0; i < numDirty; i++) {
+          for (final var bc : buses[i].connections) {
             if (!bc.isSink) {
               bc.drivenValue = prev.getDrivenValue(bc.component, bc.location);
             }
@@ -445,12 +520,35 @@ public class CircuitWires {
           vb.dependentBuses = deps.toArray(new ValuedBus[size]);
         }
       }
-      // mark all dirty: recomputes values and triggers component propagation
-      numDirty = buses.length;
+      // buses not taken over are dirty: recomputes values and triggers component propagation
+    }
+
+    /** @return the bus passing through <code>loc</code>, or null. */
+    ValuedBus busAt(Location loc) {
+      final var slot = connectivity.bundleIndex.get(loc);
+      return slot == LocationIndex.NONE ? null : busAtSlot[slot];
+    }
+
+    /**
+     * @return the value at <code>loc</code>, or null if there is no bus there or it has not
+     *     been computed yet.
+     */
+    Value getValue(Location loc) {
+      final var slot = connectivity.bundleIndex.get(loc);
+      if (slot == LocationIndex.NONE) return null;
+      final var v = values[slot];
+      return v != null ? v : busAtSlot[slot].busVal;
+    }
+
+    /** Takes over the values of <code>src</code> if it uses the same connectivity map. */
+    void copyValues(State src) {
+      if (src != null && src.connectivity == connectivity) {
+        System.arraycopy(src.values, 0, values, 0, values.length);
+      }
     }
 
     Value getDrivenValue(Component c, Location loc) {
-      final var vb = busAt.get(loc);
+      final var vb = busAt(loc);
       if (vb == null) return null;
       for (final var bc : vb.connections) {
         if (bc.component.equals(c) && bc.location.equals(loc)) {
@@ -504,6 +602,7 @@ public class CircuitWires {
 
   // Elements of the circuit, organized by type.
   private HashSet<Wire> wires = new HashSet<>(); // Components of type Wire
+  private final ComponentGrid<Wire> wireGrid = new ComponentGrid<>(); // the same, by location
   private HashSet<Splitter> splitters = new HashSet<>(); // Components of type Splitter
   private HashSet<Component> tunnels = new HashSet<>(); // Components having Tunnel factory
   private HashSet<Component> pulls = new HashSet<>(); // Components having PullResistor factory
@@ -516,6 +615,16 @@ public class CircuitWires {
 
   private volatile Connectivity masterConnectivity = null;
 
+  // The connectivity map is updated incrementally: the locations of all components
+  // added, removed or changed since previousConnectivity was built are collected
+  // in changedLocations, and only the bundles through them are rebuilt. Like
+  // masterConnectivity, these are only touched by the AWT thread (and main/startup).
+  private Connectivity previousConnectivity = null;
+  private HashSet<Location> changedLocations = new HashSet<>();
+  private boolean rebuildConnectivity = false;
+  /** Whether to try updating the connectivity map incrementally; for benchmarks and tests. */
+  boolean incrementalConnectivity = true;
+
   private TunnelListener tunnelListener = new TunnelListener();
 
   private class TunnelListener implements AttributeListener {
@@ -528,6 +637,7 @@ public class CircuitWires {
     public void attributeValueChanged(AttributeEvent e) {
       final var attr = e.getAttribute();
       if (attr == StdAttr.LABEL || attr == PullResistor.ATTR_PULL_TYPE) {
+        rebuildConnectivity = true;
         voidConnectivity();
       }
     }
@@ -535,8 +645,6 @@ public class CircuitWires {
 
   CircuitWires() {}
 
-  // NOTE: this could be made much more efficient in most cases to
-  // avoid voiding the connectivity map.
   boolean add(Component comp) {
     var added = true;
     if (comp instanceof Wire wire) {
@@ -557,19 +665,21 @@ public class CircuitWires {
     }
     if (added) {
       points.add(comp);
-      voidConnectivity();
+      voidConnectivity(comp);
     }
     return added;
   }
 
   void add(Component comp, EndData end) {
     points.add(comp, end);
+    changedLocations.add(end.getLocation());
     voidConnectivity();
   }
 
   private boolean addWire(Wire w) {
     final var added = wires.add(w);
     if (!added) return false;
+    wireGrid.add(w, ComponentGrid.boundsOf(w));
 
     if (bounds != Bounds.EMPTY_BOUNDS) { // update bounds
       bounds = bounds.add(w.e0).add(w.e1);
@@ -577,13 +687,24 @@ public class CircuitWires {
     return true;
   }
 
-  /** To be called by getConnectivity() only */
-  private void computeConnectivity(Connectivity ret) {
+  /**
+   * To be called by getConnectivity() only. Builds the connectivity map from scratch if
+   * <code>scope</code> is null. Otherwise <code>ret</code> already holds the bundles of the previous
+   * map that are not affected by the edit, and only the bundles through the locations in
+   * <code>scope</code> are built; see computeScope().
+   */
+  private void computeConnectivity(Connectivity ret, Set<Location> scope) {
+    final Collection<Component> scopedComponents = scoped(components, scope);
+    final Collection<Wire> scopedWires = scoped(wires, scope);
+    final Collection<Splitter> scopedSplitters = scoped(splitters, scope);
+    final Collection<Component> scopedTunnels = scoped(tunnels, scope);
+    final Collection<Component> scopedPulls = scoped(pulls, scope);
+
     // create bundles corresponding to wires and tunnels
-    connectComponents(ret);
-    connectWires(ret);
-    connectTunnels(ret);
-    connectPullResistors(ret);
+    connectComponents(ret, scopedComponents, scope);
+    connectWires(ret, scopedWires);
+    connectTunnels(ret, scopedTunnels);
+    connectPullResistors(ret, scopedPulls, scopedComponents, scope);
 
     // merge any WireBundle objects united by previous steps
     for (final var it = ret.getBundles().iterator(); it.hasNext(); ) {
@@ -600,7 +721,7 @@ public class CircuitWires {
     }
 
     // make a WireBundle object for each end of a splitter
-    for (final var spl : splitters) {
+    for (final var spl : scopedSplitters) {
       final var ends = new ArrayList<>(spl.getEnds());
       for (final var end : ends) {
         final var p = end.getLocation();
@@ -611,8 +732,9 @@ public class CircuitWires {
 
     // set the width for each bundle whose size is known
     // based on components
-    for (final var p : ret.getBundlePoints()) {
+    for (final var p : scope == null ? ret.getBundlePoints() : scope) {
       final var pb = ret.getBundleAt(p);
+      if (pb == null) continue;
       final var width = points.getWidth(p);
       if (width != BitWidth.UNKNOWN) {
         pb.setWidth(width, p);
@@ -620,7 +742,7 @@ public class CircuitWires {
     }
 
     // determine the bundles at the end of each splitter
-    for (final var spl : splitters) {
+    for (final var spl : scopedSplitters) {
       final var ends = new ArrayList<>(spl.getEnds());
       int index = -1;
       for (final var end : ends) {
@@ -635,7 +757,11 @@ public class CircuitWires {
     }
 
     // finish constructing the bundles, start constructing the threads
+    // (bundles kept from the previous map are already finished)
+    final var newBundles = new ArrayList<WireBundle>();
     for (final var b : ret.getBundles()) {
+      if (b.tempPoints == null) continue;
+      newBundles.add(b);
       b.xpoints = b.tempPoints.toArray(new Location[b.tempPoints.size()]);
       b.tempPoints = null;
       BitWidth width = b.getWidth();
@@ -649,7 +775,7 @@ public class CircuitWires {
     }
 
     // unite threads going through splitters
-    for (final var spl : splitters) {
+    for (final var spl : scopedSplitters) {
       synchronized (spl) {
         final var splAttrs = (SplitterAttributes) spl.getAttributeSet();
         final var bitEnd = splAttrs.bitEnd;
@@ -679,7 +805,7 @@ public class CircuitWires {
     }
 
     // merge any threads united by previous step
-    for (final var wireBundle : ret.getBundles()) {
+    for (final var wireBundle : newBundles) {
       if (wireBundle.threads != null) {
         for (int i = 0; i < wireBundle.threads.length; i++) {
           final var thr = wireBundle.threads[i].getRepresentative();
@@ -690,7 +816,7 @@ public class CircuitWires {
     }
 
     // finish constructing the threads
-    for (final var b : ret.getBundles()) {
+    for (final var b : newBundles) {
       if (b.threads != null) {
         for (final var t : b.threads) {
           t.finishConstructing();
@@ -700,6 +826,21 @@ public class CircuitWires {
 
     // All bundles are made, all threads are now sewn together.
 
+    // Number the bundles densely, so that States can keep per-bus data in flat arrays.
+    final var bundleList = ret.getBundles().toArray(new WireBundle[0]);
+    var pointCount = 0;
+    for (final var b : bundleList) pointCount += b.xpoints.length;
+    final var bundleIndex = new LocationIndex(pointCount);
+    for (var i = 0; i < bundleList.length; i++) {
+      for (final var loc : bundleList[i].xpoints) {
+        if (bundleIndex.put(loc, i) != LocationIndex.NONE) {
+          throw new IllegalStateException("oops, two wires occupy same location");
+        }
+      }
+    }
+    ret.bundleList = bundleList;
+    ret.bundleIndex = bundleIndex;
+
     // Record all interesting components so they can be marked as dirty when
     // this wire connectivity map is used to initialize a new State.
     ret.allComponents.addAll(components);
@@ -712,7 +853,7 @@ public class CircuitWires {
     // they can be used to filter out uninteresting points when this wire bundle
     // map is used to initialize a new State. We also need to know which
     // interesting components are at those locations.
-    for (final var p : ret.allLocations) {
+    for (final var p : scope == null ? ret.allLocations : scope) {
       ArrayList<Component> a = null;
       for (final var comp : points.getComponents(p)) {
         if ((comp instanceof Wire) || (comp instanceof Splitter)) continue;
@@ -723,6 +864,8 @@ public class CircuitWires {
       }
       if (a != null) {
         ret.componentsAtLocations.put(p, a);
+      } else if (scope != null) {
+        ret.componentsAtLocations.remove(p);
       }
     }
 
@@ -741,9 +884,122 @@ public class CircuitWires {
     }
   }
 
-  private void connectPullResistors(Connectivity ret) {
+  /**
+   * Returns the elements of <code>all</code> having a point in <code>scope</code>, or all of them
+   * if <code>scope</code> is null.
+   */
+  private <T extends Component> Collection<T> scoped(Set<T> all, Set<Location> scope) {
+    if (scope == null) return all;
+    final var ret = new HashSet<T>();
+    for (final var loc : scope) {
+      for (final var comp : points.getComponents(loc)) {
+        if (all.contains(comp)) {
+          @SuppressWarnings("unchecked")
+          final var t = (T) comp;
+          ret.add(t);
+        }
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Determines the locations whose bundles must be rebuilt after the components at the
+   * <code>changed</code> locations were edited. Starting from the changed locations, the scope
+   * grows to every point of the previous bundles through them, to all ends of the wires and
+   * splitters touching them, and to all tunnels sharing a label with a tunnel in the scope. Bundles
+   * outside the scope are then exactly the same as in the previous map, and so are the threads
+   * running through them.
+   */
+  private Set<Location> computeScope(Connectivity old, Set<Location> changed) {
+    final var scope = new HashSet<Location>();
+    final var work = new ArrayList<Location>(changed);
+    final var closedBundles = new HashSet<WireBundle>();
+    HashMap<String, ArrayList<Location>> tunnelSets = null;
+    while (!work.isEmpty()) {
+      final var loc = work.remove(work.size() - 1);
+      if (!scope.add(loc)) continue;
+      final var oldBundle = old.getBundleAt(loc);
+      if (oldBundle != null && closedBundles.add(oldBundle)) {
+        work.addAll(Arrays.asList(oldBundle.xpoints));
+      }
+      for (final var comp : points.getComponents(loc)) {
+        if (comp instanceof Wire wire) {
+          work.add(wire.e0);
+          work.add(wire.e1);
+        } else if (comp instanceof Splitter) {
+          for (final var end : comp.getEnds()) work.add(end.getLocation());
+        } else if (tunnels.contains(comp)) {
+          if (tunnelSets == null) tunnelSets = getTunnelSets(tunnels);
+          final var label = comp.getAttributeSet().getValue(StdAttr.LABEL).trim();
+          final var tunnelSet = tunnelSets.get(label);
+          if (tunnelSet != null) work.addAll(tunnelSet);
+        }
+      }
+    }
+    return scope;
+  }
+
+  /** Builds the connectivity map, reusing the previous one if the edits since then allow it. */
+  private Connectivity computeConnectivity() {
+    final var old = previousConnectivity;
+    final var changed = changedLocations;
+    final var rebuild = rebuildConnectivity;
+    changedLocations = new HashSet<>();
+    rebuildConnectivity = false;
+    if (incrementalConnectivity && !rebuild && old != null && old.isValid()) {
+      for (final var spl : splitters) {
+        // splitters reconfigured without changing their ends have lost their bundles
+        for (final var b : spl.wireData.endBundle) {
+          if (b == null) {
+            for (final var end : spl.getEnds()) changed.add(end.getLocation());
+            break;
+          }
+        }
+      }
+      final var scope = computeScope(old, changed);
+      if (scope.size() * 2 < old.pointBundles.size()) {
+        try {
+          final var ret = new Connectivity();
+          for (final var b : old.bundles) {
+            if (scope.contains(b.xpoints[0])) continue;
+            ret.bundles.add(b);
+            for (final var loc : b.xpoints) ret.setBundleAt(loc, b);
+          }
+          ret.componentsAtLocations.putAll(old.componentsAtLocations);
+          computeConnectivity(ret, scope);
+          return ret;
+        } catch (RuntimeException e) {
+          logger.debug("incremental connectivity update failed, rebuilding: {}", e.toString());
+        }
+      }
+    }
+    final var ret = new Connectivity();
+    computeConnectivity(ret, null);
+    return ret;
+  }
+
+  private static HashMap<String, ArrayList<Location>> getTunnelSets(Collection<Component> tunnels) {
+    final var tunnelSets = new HashMap<String, ArrayList<Location>>();
+    for (final var comp : tunnels) {
+      final var label = comp.getAttributeSet().getValue(StdAttr.LABEL).trim();
+      if (!label.equals("")) {
+        final var tunnelSet = tunnelSets.computeIfAbsent(label, k -> new ArrayList<>(3));
+        tunnelSet.add(comp.getLocation());
+      }
+    }
+    return tunnelSets;
+  }
+
+  private static boolean inScope(Set<Location> scope, Location loc) {
+    return scope == null || scope.contains(loc);
+  }
+
+  private void connectPullResistors(Connectivity ret, Collection<Component> pulls,
+      Collection<Component> components, Set<Location> scope) {
     for (final var comp : pulls) {
       final var loc = comp.getEnd(0).getLocation();
+      if (!inScope(scope, loc)) continue;
       var b = ret.getBundleAt(loc);
       if (b == null) {
         b = ret.createBundleAt(loc);
@@ -759,6 +1015,7 @@ public class CircuitWires {
         if (pullPorts != null) {
           for (final var portIndex : pullPorts.keySet()) {
             final var loc = comp.getEnd(portIndex).getLocation();
+            if (!inScope(scope, loc)) continue;
             var b = ret.getBundleAt(loc);
             if (b == null) {
               b = ret.createBundleAt(loc);
@@ -772,16 +1029,9 @@ public class CircuitWires {
     }
   }
 
-  private void connectTunnels(Connectivity ret) {
+  private void connectTunnels(Connectivity ret, Collection<Component> tunnels) {
     // determine the sets of tunnels
-    final var tunnelSets = new HashMap<String, ArrayList<Location>>();
-    for (final var comp : tunnels) {
-      final var label = comp.getAttributeSet().getValue(StdAttr.LABEL).trim();
-      if (!label.equals("")) {
-        final var tunnelSet = tunnelSets.computeIfAbsent(label, k -> new ArrayList<>(3));
-        tunnelSet.add(comp.getLocation());
-      }
-    }
+    final var tunnelSets = getTunnelSets(tunnels);
 
     // now connect the bundles that are tunnelled together
     for (ArrayList<Location> tunnelSet : tunnelSets.values()) {
@@ -813,13 +1063,15 @@ public class CircuitWires {
     }
   }
 
-  private void connectComponents(Connectivity ret) {
+  private void connectComponents(Connectivity ret, Collection<Component> components,
+      Set<Location> scope) {
     // make a WireBundle object for each output or bidirectional port
     // of a component
     for (final var comp : components) {
       for (final var e : comp.getEnds()) {
         if (e.getType() == EndData.INPUT_ONLY) continue;
         Location loc = e.getLocation();
+        if (!inScope(scope, loc)) continue;
         var b = ret.getBundleAt(loc);
         if (b == null) {
           b = ret.createBundleAt(loc);
@@ -830,7 +1082,7 @@ public class CircuitWires {
     }
   }
 
-  private void connectWires(Connectivity ret) {
+  private void connectWires(Connectivity ret, Collection<Wire> wires) {
     // make a WireBundle object for each tree of connected wires
     for (final var wire : wires) {
       final var bundleA = ret.getBundleAt(wire.e0);
@@ -855,18 +1107,20 @@ public class CircuitWires {
     if (s == null) {
       return Value.NIL; // fallback, probably wrong, who cares
     }
-    final var vb = s.busAt.get(loc);
-    if (vb == null) {
-      return Value.NIL; // fallback, probably wrong, who cares
-    }
-    final var v = vb.busVal;
+    final var v = s.getValue(loc);
     if (v == null) {
       return Value.NIL; // fallback, probably wrong, who cares
     }
     return v;
   }
 
-  void draw(ComponentDrawContext context, Collection<Component> hidden) {
+  /**
+   * Draws the wires and the dots where they join. If <code>visibleArea</code> is not null, only
+   * those that may be seen in it are drawn.
+   */
+  void draw(ComponentDrawContext context, Collection<Component> hidden, Bounds visibleArea) {
+    final Collection<Wire> visibleWires =
+        visibleArea == null ? wires : wireGrid.query(visibleArea);
     final var showState = context.getShowState();
     final var state = context.getCircuitState();
     final var g = (Graphics2D) context.getGraphics();
@@ -877,7 +1131,7 @@ public class CircuitWires {
     final var cmap = getConnectivity();
     final var isValid = cmap.isValid();
     if (CollectionUtil.isNullOrEmpty(hidden)) {
-      for (final var wire : wires) {
+      for (final var wire : visibleWires) {
         final var s = wire.e0;
         final var t = wire.e1;
         final var wb = cmap.getBundleAt(s);
@@ -924,7 +1178,7 @@ public class CircuitWires {
       }
 
       for (final var loc : points.getAllLocations()) {
-        if (points.getComponentCount(loc) > 2) {
+        if (isVisible(loc, visibleArea) && points.getComponentCount(loc) > 2) {
           final var wb = cmap.getBundleAt(loc);
           if (wb != null) {
             var color = Color.BLACK;
@@ -949,7 +1203,7 @@ public class CircuitWires {
         }
       }
     } else {
-      for (final var wire : wires) {
+      for (final var wire : visibleWires) {
         if (!hidden.contains(wire)) {
           final var s = wire.e0;
           final var t = wire.e1;
@@ -976,7 +1230,7 @@ public class CircuitWires {
       // the problem is minor, and hidden only exists for a short
       // while at a time anyway.
       for (final var loc : points.getAllLocations()) {
-        if (points.getComponentCount(loc) > 2) {
+        if (isVisible(loc, visibleArea) && points.getComponentCount(loc) > 2) {
           var icount = 0;
           for (final var comp : points.getComponents(loc)) {
             if (!hidden.contains(comp)) ++icount;
@@ -1003,6 +1257,10 @@ public class CircuitWires {
     }
   }
 
+  private static boolean isVisible(Location loc, Bounds visibleArea) {
+    return visibleArea == null || visibleArea.contains(loc, ComponentGrid.MARGIN);
+  }
+
   // There are only two threads that need to use the connectivity map, I think:
   // the AWT event thread, and the simulation worker thread.
   // AWT does modifications to the components and wires, then voids the
@@ -1029,15 +1287,18 @@ public class CircuitWires {
     if (map != null) return map;
     if (SwingUtilities.isEventDispatchThread()) {
       // AWT event thread.
-      final var ret = new Connectivity();
       try {
-        computeConnectivity(ret);
+        final var ret = computeConnectivity();
+        previousConnectivity = ret;
         masterConnectivity = ret; // volatile write by AWT thread
+        return ret;
       } catch (Exception t) {
-        ret.invalidate();
         logger.error(t.getLocalizedMessage());
+        previousConnectivity = null;
+        final var ret = new Connectivity();
+        ret.invalidate();
+        return ret;
       }
-      return ret;
     } else {
       // Simulation thread.
       try {
@@ -1090,6 +1351,11 @@ public class CircuitWires {
     return wires;
   }
 
+  /** @return the wires that may meet the given area, a superset of those that do. */
+  List<Wire> getWiresMeeting(Bounds area) {
+    return wireGrid.query(area);
+  }
+
   WireSet getWireSet(Wire start) {
     final var wireBundle = getWireBundle(start.e0);
     if (wireBundle == null) return WireSet.EMPTY;
@@ -1110,13 +1376,12 @@ public class CircuitWires {
       // if it is outdated, we need to compute for all threads
       s = new State(map, s);
       circState.setWireData(s);
-      // Note: all buses are already marked as dirty.
+      // Note: all new buses are already marked as dirty.
       // But some component ports that were previously connected to buses
       // might no longer be connected to those same buses (or might not
       // be connected to any bus), and vice versa. So we should mark all
-      // components as dirty.
-      circState.clearValuesByWire();
-      circState.markComponentsDirty(map.allComponents);
+      // components touching a new or removed bus as dirty.
+      circState.markComponentsDirty(s.changedComponents);
     }
 
     // make note of updates from simulator
@@ -1127,7 +1392,7 @@ public class CircuitWires {
       final var cause = ev.cause;
       final var val = ev.val;
 
-      final var vb = s.busAt.get(p);
+      final var vb = s.busAt(p);
       if (vb == null) {
         // todo: we could keep track of the affected components here
       } else if (vb.width <= 0) {
@@ -1153,6 +1418,8 @@ public class CircuitWires {
       }
     }
 
+    final var profile = circState.getPropagator().getProfile();
+    if (profile != null) profile.wiresPropagated(s.numDirty);
     if (s.numDirty <= 0) return;
 
     // recompute localDrivenValue for each dirty bus
@@ -1174,6 +1441,7 @@ public class CircuitWires {
       final var old = vb.busVal;
       final var val = vb.recalculate();
       if (Value.equal(old, val)) continue;
+      s.values[vb.slot] = val;
       circState.setValueByWire(val, vb.locations, vb.connections);
     }
     s.numDirty = 0;
@@ -1224,16 +1492,18 @@ public class CircuitWires {
       }
     }
     points.remove(comp);
-    voidConnectivity();
+    voidConnectivity(comp);
   }
 
   void remove(Component comp, EndData end) {
     points.remove(comp, end);
+    changedLocations.add(end.getLocation());
     voidConnectivity();
   }
 
   private void removeWire(Wire w) {
     if (!wires.remove(w)) return;
+    wireGrid.remove(w);
 
     if (bounds != Bounds.EMPTY_BOUNDS) {
       // bounds is valid - invalidate if endpoint on border
@@ -1247,6 +1517,13 @@ public class CircuitWires {
   void replace(Component comp, EndData oldEnd, EndData newEnd) {
     points.remove(comp, oldEnd);
     points.add(comp, newEnd);
+    changedLocations.add(oldEnd.getLocation());
+    changedLocations.add(newEnd.getLocation());
+    voidConnectivity();
+  }
+
+  private void voidConnectivity(Component comp) {
+    for (final var end : comp.getEnds()) changedLocations.add(end.getLocation());
     voidConnectivity();
   }
 
@@ -0,0 +1,607 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.circuit;
+
+import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.comp.EndData;
+import com.cburch.logisim.data.Attribute;
+import com.cburch.logisim.data.AttributeSet;
+import com.cburch.logisim.data.Value;
+import com.cburch.logisim.file.Options;
+import com.cburch.logisim.instance.Instance;
+import com.cburch.logisim.instance.InstanceComponent;
+import com.cburch.logisim.instance.InstanceData;
+import com.cburch.logisim.instance.InstanceFactory;
+import com.cburch.logisim.instance.InstanceState;
+import com.cburch.logisim.instance.Port;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.std.wiring.Pin;
+import com.cburch.logisim.std.wiring.Tunnel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+
+/**
+ * A zero-delay simulation engine for a complete circuit hierarchy, intended for headless runs
+ * where no GUI observes the individual propagation steps.
+ *
+ * <p>The hierarchy below a root {@link CircuitState} is flattened into bit-level nets (one per
+ * {@link WireThread}, merged across subcircuit boundaries) whose values are kept in three bit
+ * planes. Combinational components are sorted topologically once, so settling the circuit
+ * evaluates every affected component exactly once in level order instead of going through the
+ * event queue. Sequential components are evaluated afterwards with their outputs buffered, which
+ * makes all of them sample the same net values, as on a real clock edge.
+ *
+ * <p>Only components exposing the {@link CompiledPropagation} feature are supported. Compilation
+ * throws <code>UnsupportedOperationException</code> with a readable reason for anything else
+ * (combinational loops, three-state or bidirectional drivers, pull resistors, width errors, ...)
+ * so that callers can fall back to the regular {@link Propagator}. Instance data is shared with
+ * the original circuit state, hence memories and registers stay visible to the caller.
+ */
+public class CompiledNetlist {
+
+  private static final int PIN_DRIVER = -2;
+
+  private static final class Node {
+    final Component comp;
+    final Instance instance;
+    final InstanceFactory factory;
+    final CompiledPropagation feature;
+    final CircuitState state;
+    final boolean[] connected;
+    final int[][] ports;
+    InstanceData data; // cached, shared with the circuit state
+
+    Node(Component comp, CompiledPropagation feature, CircuitState state, int[][] ports) {
+      this.comp = comp;
+      this.instance = ((InstanceComponent) comp).getInstance();
+      this.factory = (InstanceFactory) comp.getFactory();
+      this.feature = feature;
+      this.state = state;
+      this.ports = ports;
+      final var ends = comp.getEnds();
+      connected = new boolean[ends.size()];
+      for (var i = 0; i < connected.length; i++) {
+        connected[i] = state.getCircuit().isConnected(ends.get(i).getLocation(), comp);
+      }
+    }
+
+    boolean isOutput(int port) {
+      return comp.getEnd(port).getType() == EndData.OUTPUT_ONLY;
+    }
+  }
+
+  /** Gives a component access to its nets while it is being evaluated. */
+  private final class NodeState implements InstanceState {
+    private Node node;
+
+    @Override
+    public CircuitState createCircuitSubstateFor(Circuit circ) {
+      throw new UnsupportedOperationException("createCircuitSubstateFor");
+    }
+
+    @Override
+    public void fireInvalidated() {
+      // nothing is displayed in a compiled run
+    }
+
+    @Override
+    public AttributeSet getAttributeSet() {
+      return node.instance.getAttributeSet();
+    }
+
+    @Override
+    public <E> E getAttributeValue(Attribute<E> attr) {
+      return node.instance.getAttributeValue(attr);
+    }
+
+    @Override
+    public InstanceData getData() {
+      // the data may have been created through the circuit state after compilation
+      if (node.data == null) node.data = (InstanceData) node.state.getData(node.comp);
+      return node.data;
+    }
+
+    @Override
+    public InstanceFactory getFactory() {
+      return node.factory;
+    }
+
+    @Override
+    public Instance getInstance() {
+      return node.instance;
+    }
+
+    @Override
+    public int getPortIndex(Port port) {
+      return node.instance.getPorts().indexOf(port);
+    }
+
+    @Override
+    public Value getPortValue(int portIndex) {
+      return read(node.ports[portIndex]);
+    }
+
+    @Override
+    public Project getProject() {
+      return project;
+    }
+
+    @Override
+    public int getTickCount() {
+      return tickCount;
+    }
+
+    @Override
+    public boolean isCircuitRoot() {
+      return !node.state.isSubstate();
+    }
+
+    @Override
+    public boolean isPortConnected(int portIndex) {
+      return node.connected[portIndex];
+    }
+
+    @Override
+    public void setData(InstanceData value) {
+      node.data = value;
+      node.state.setData(node.comp, value);
+    }
+
+    @Override
+    public void setPort(int portIndex, Value value, int delay) {
+      write(node.ports[portIndex], value);
+    }
+  }
+
+  private final Project project;
+  private final int simLimit;
+  private final NodeState nodeState = new NodeState();
+
+  /* Built by the compiler; combinational nodes come first, in topological order. */
+  private Node[] nodes;
+  private int combinationalCount;
+  private int[][] readers;
+  private final HashMap<Instance, int[]> pins = new HashMap<>();
+
+  /* Net values: bit n of each plane belongs to net n. */
+  private long[] values;
+  private long[] unknowns;
+  private long[] errors;
+  private long[] nextValues;
+  private long[] nextUnknowns;
+  private long[] nextErrors;
+  private boolean buffered;
+  private final BitSet dirty = new BitSet();
+
+  private int tickCount;
+  private boolean oscillating;
+
+  private CompiledNetlist(CircuitState root) {
+    this.project = root.getProject();
+    this.simLimit = project.getOptions().getAttributeSet().getValue(Options.ATTR_SIM_LIMIT);
+    this.tickCount = root.getPropagator().getTickCount();
+  }
+
+  /**
+   * Builds a compiled netlist for the given root state and settles it.
+   *
+   * @throws UnsupportedOperationException if the circuit cannot be compiled, with the reason as
+   *     message.
+   */
+  public static CompiledNetlist compile(CircuitState root) {
+    if (root.isSubstate()) throw new IllegalArgumentException("root state expected");
+    final var ret = new CompiledNetlist(root);
+    new Compiler(ret).compile(root);
+    ret.settle();
+    return ret;
+  }
+
+  /** @return the number of bit-level nets of the flattened circuit. */
+  public int getNetCount() {
+    return readers.length;
+  }
+
+  /** @return the number of components evaluated by this engine. */
+  public int getNodeCount() {
+    return nodes.length;
+  }
+
+  public int getTickCount() {
+    return tickCount;
+  }
+
+  public boolean isOscillating() {
+    return oscillating;
+  }
+
+  /** @return the value of a pin of the root circuit. */
+  public Value getPinValue(Instance pin) {
+    final var nets = pins.get(pin);
+    if (nets == null) throw new IllegalArgumentException("not a pin of the root circuit");
+    return read(nets);
+  }
+
+  /**
+   * Advances all clocks by one half cycle, like {@link Propagator#toggleClocks()}, and settles
+   * the circuit.
+   *
+   * @return false if the circuit oscillates.
+   */
+  public boolean tick() {
+    tickCount++;
+    for (var i = combinationalCount; i < nodes.length; i++) {
+      nodeState.node = nodes[i];
+      if (nodes[i].feature.tick(nodeState)) dirty.set(i);
+    }
+    return settle();
+  }
+
+  /**
+   * Evaluates the dirty components until no net changes anymore.
+   *
+   * @return false if the circuit did not become stable within the simulation limit.
+   */
+  public boolean settle() {
+    for (var round = 0; round < simLimit; round++) {
+      // readers of a combinational node always come after it, so one sweep settles them all
+      var i = dirty.nextSetBit(0);
+      while (i >= 0 && i < combinationalCount) {
+        dirty.clear(i);
+        evaluate(nodes[i]);
+        i = dirty.nextSetBit(i + 1);
+      }
+      if (dirty.isEmpty()) {
+        oscillating = false;
+        return true;
+      }
+      System.arraycopy(values, 0, nextValues, 0, values.length);
+      System.arraycopy(unknowns, 0, nextUnknowns, 0, unknowns.length);
+      System.arraycopy(errors, 0, nextErrors, 0, errors.length);
+      buffered = true;
+      for (i = dirty.nextSetBit(combinationalCount); i >= 0; i = dirty.nextSetBit(i + 1)) {
+        dirty.clear(i);
+        evaluate(nodes[i]);
+      }
+      buffered = false;
+      commit();
+    }
+    oscillating = true;
+    return false;
+  }
+
+  private void evaluate(Node node) {
+    nodeState.node = node;
+    node.factory.propagate(nodeState);
+  }
+
+  /** Makes the buffered writes of the sequential nodes visible and marks their readers. */
+  private void commit() {
+    for (var w = 0; w < values.length; w++) {
+      var diff = (values[w] ^ nextValues[w]) | (unknowns[w] ^ nextUnknowns[w])
+          | (errors[w] ^ nextErrors[w]);
+      while (diff != 0) {
+        final var bit = Long.numberOfTrailingZeros(diff);
+        diff &= diff - 1;
+        markReaders((w << 6) + bit);
+      }
+    }
+    var swap = values;
+    values = nextValues;
+    nextValues = swap;
+    swap = unknowns;
+    unknowns = nextUnknowns;
+    nextUnknowns = swap;
+    swap = errors;
+    errors = nextErrors;
+    nextErrors = swap;
+  }
+
+  private void markReaders(int net) {
+    for (final var r : readers[net]) dirty.set(r);
+  }
+
+  private Value read(int[] nets) {
+    if (nets.length == 1) return read(nets[0]);
+    if (nets.length == 0) return Value.NIL;
+    var err = 0L;
+    var unk = 0L;
+    var val = 0L;
+    for (var i = 0; i < nets.length; i++) {
+      final var word = nets[i] >> 6;
+      final var mask = 1L << nets[i];
+      final var bit = 1L << i;
+      if ((errors[word] & mask) != 0) err |= bit;
+      else if ((unknowns[word] & mask) != 0) unk |= bit;
+      else if ((values[word] & mask) != 0) val |= bit;
+    }
+    return Value.create_unsafe(nets.length, err, unk, val);
+  }
+
+  private Value read(int net) {
+    final var word = net >> 6;
+    final var mask = 1L << net;
+    if ((errors[word] & mask) != 0) return Value.ERROR;
+    if ((unknowns[word] & mask) != 0) return Value.UNKNOWN;
+    return (values[word] & mask) != 0 ? Value.TRUE : Value.FALSE;
+  }
+
+  private void write(int[] nets, Value value) {
+    final var width = value == null ? 0 : value.getWidth();
+    final var vals = buffered ? nextValues : values;
+    final var unks = buffered ? nextUnknowns : unknowns;
+    final var errs = buffered ? nextErrors : errors;
+    for (var i = 0; i < nets.length; i++) {
+      final var bit = i < width ? value.get(i) : Value.UNKNOWN;
+      final var net = nets[i];
+      final var word = net >> 6;
+      final var mask = 1L << net;
+      final var v = bit == Value.TRUE ? mask : 0L;
+      final var u = bit == Value.UNKNOWN ? mask : 0L;
+      final var e = bit == Value.ERROR ? mask : 0L;
+      if ((vals[word] & mask) == v && (unks[word] & mask) == u && (errs[word] & mask) == e) {
+        continue;
+      }
+      vals[word] = (vals[word] & ~mask) | v;
+      unks[word] = (unks[word] & ~mask) | u;
+      errs[word] = (errs[word] & ~mask) | e;
+      if (!buffered) markReaders(net);
+    }
+  }
+
+  /** Flattens a circuit hierarchy into the arrays of a CompiledNetlist. */
+  private static final class Compiler {
+    private final CompiledNetlist netlist;
+    private final ArrayList<Node> nodeList = new ArrayList<>();
+    private final ArrayList<Instance> inputPins = new ArrayList<>();
+    private CircuitState root;
+    private int[] parent = new int[256];
+    private int netCount;
+
+    Compiler(CompiledNetlist netlist) {
+      this.netlist = netlist;
+    }
+
+    void compile(CircuitState root) {
+      this.root = root;
+      flatten(root, null);
+      final var dense = renumber();
+      final var driver = new int[dense];
+      Arrays.fill(driver, -1);
+      for (final var pin : inputPins) {
+        for (final var net : netlist.pins.get(pin)) driver[net] = PIN_DRIVER;
+      }
+      for (var n = 0; n < nodeList.size(); n++) {
+        final var node = nodeList.get(n);
+        for (var p = 0; p < node.ports.length; p++) {
+          if (!node.isOutput(p)) continue;
+          for (final var net : node.ports[p]) {
+            if (driver[net] != -1) throw unsupported("multiple drivers on a net", node.comp);
+            driver[net] = n;
+          }
+        }
+      }
+      netlist.nodes = levelize(driver);
+      buildReaders(dense);
+      final var words = (dense + 63) >> 6;
+      netlist.values = new long[words];
+      netlist.unknowns = new long[words];
+      netlist.errors = new long[words];
+      netlist.nextValues = new long[words];
+      netlist.nextUnknowns = new long[words];
+      netlist.nextErrors = new long[words];
+      Arrays.fill(netlist.unknowns, -1L);
+      for (final var pin : inputPins) {
+        netlist.write(netlist.pins.get(pin), Pin.FACTORY.getValue(root.getInstanceState(pin)));
+      }
+      netlist.dirty.set(0, netlist.nodes.length);
+    }
+
+    private void flatten(CircuitState state, HashMap<Instance, int[]> bindings) {
+      final var threadNets = new HashMap<WireThread, Integer>();
+      for (final var comp : state.getCircuit().getNonWires()) {
+        if (comp instanceof Splitter || comp.getEnds().isEmpty()) continue;
+        final var factory = comp.getFactory();
+        if (factory instanceof Tunnel) continue;
+        if (!(comp instanceof InstanceComponent instComp)) throw unsupported("component", comp);
+        if (factory instanceof Pin) {
+          final var pin = instComp.getInstance();
+          final var nets = portNets(threadNets, state, comp, 0);
+          if (bindings != null) {
+            final var outer = bindings.get(pin);
+            if (outer == null || outer.length != nets.length) throw unsupported("width", comp);
+            for (var i = 0; i < nets.length; i++) union(nets[i], outer[i]);
+          } else {
+            netlist.pins.put(pin, nets);
+            if (Pin.FACTORY.isInputPin(pin)) inputPins.add(pin);
+          }
+          continue;
+        }
+        if (factory instanceof SubcircuitFactory sub) {
+          final var substate = sub.getSubstate(state, comp);
+          if (substate == null) throw unsupported("subcircuit state", comp);
+          final var subPins = ((CircuitAttributes) comp.getAttributeSet()).getPinInstances();
+          final var subBindings = new HashMap<Instance, int[]>();
+          for (var i = 0; i < subPins.length; i++) {
+            subBindings.put(subPins[i], portNets(threadNets, state, comp, i));
+          }
+          flatten(substate, subBindings);
+          continue;
+        }
+        var feature = (CompiledPropagation) comp.getFeature(CompiledPropagation.class);
+        if (feature == null && isSink(comp)) feature = CompiledPropagation.SEQUENTIAL;
+        if (feature == null || factory.hasThreeStateDrivers(comp.getAttributeSet())) {
+          throw unsupported("component", comp);
+        }
+        final var ends = comp.getEnds();
+        final var ports = new int[ends.size()][];
+        for (var i = 0; i < ports.length; i++) {
+          if (ends.get(i).getType() == EndData.INPUT_OUTPUT) {
+            throw unsupported("bidirectional port", comp);
+          }
+          ports[i] = portNets(threadNets, state, comp, i);
+        }
+        nodeList.add(new Node(comp, feature, state, ports));
+      }
+    }
+
+    /** Components only observing their inputs (probes, displays, ...) cannot change any net. */
+    private static boolean isSink(Component comp) {
+      for (final var end : comp.getEnds()) {
+        if (end.getType() != EndData.INPUT_ONLY) return false;
+      }
+      return true;
+    }
+
+    private int[] portNets(HashMap<WireThread, Integer> threadNets, CircuitState state,
+        Component comp, int index) {
+      final var end = comp.getEnd(index);
+      final var width = end.getWidth().getWidth();
+      final var nets = new int[width];
+      final var bundle = state.getCircuit().wires.getWireBundle(end.getLocation());
+      if (bundle == null) {
+        for (var i = 0; i < width; i++) nets[i] = newNet();
+        return nets;
+      }
+      if (!bundle.isValid() || bundle.threads == null || bundle.threads.length != width) {
+        throw unsupported("width", comp);
+      }
+      for (var i = 0; i < width; i++) {
+        final var thread = bundle.threads[i];
+        for (final var b : thread.bundle) {
+          if (b.getPullValue() != Value.UNKNOWN) throw unsupported("pull resistor", comp);
+        }
+        var net = threadNets.get(thread);
+        if (net == null) {
+          net = newNet();
+          threadNets.put(thread, net);
+        }
+        nets[i] = net;
+      }
+      return nets;
+    }
+
+    private int newNet() {
+      if (netCount == parent.length) parent = Arrays.copyOf(parent, 2 * netCount);
+      parent[netCount] = netCount;
+      return netCount++;
+    }
+
+    private int find(int net) {
+      while (parent[net] != net) {
+        parent[net] = parent[parent[net]];
+        net = parent[net];
+      }
+      return net;
+    }
+
+    private void union(int a, int b) {
+      parent[find(a)] = find(b);
+    }
+
+    /** Replaces the net numbers by dense numbers of the merged nets. */
+    private int renumber() {
+      final var ids = new int[netCount];
+      Arrays.fill(ids, -1);
+      var dense = 0;
+      for (var n = 0; n < netCount; n++) {
+        final var rep = find(n);
+        if (ids[rep] < 0) ids[rep] = dense++;
+        ids[n] = ids[rep];
+      }
+      for (final var node : nodeList) {
+        for (final var nets : node.ports) {
+          for (var i = 0; i < nets.length; i++) nets[i] = ids[nets[i]];
+        }
+      }
+      for (final var nets : netlist.pins.values()) {
+        for (var i = 0; i < nets.length; i++) nets[i] = ids[nets[i]];
+      }
+      return dense;
+    }
+
+    /** Orders the combinational nodes topologically (Kahn), followed by the sequential ones. */
+    private Node[] levelize(int[] driver) {
+      final var count = nodeList.size();
+      final var successors = new ArrayList<ArrayList<Integer>>(count);
+      final var inDegree = new int[count];
+      for (var n = 0; n < count; n++) successors.add(new ArrayList<>());
+      for (var n = 0; n < count; n++) {
+        final var node = nodeList.get(n);
+        if (node.feature.isSequential()) continue;
+        for (var p = 0; p < node.ports.length; p++) {
+          if (node.isOutput(p)) continue;
+          for (final var net : node.ports[p]) {
+            final var d = driver[net];
+            if (d < 0 || nodeList.get(d).feature.isSequential()) continue;
+            if (d == n) throw unsupported("combinational loop", node.comp);
+            successors.get(d).add(n);
+            inDegree[n]++;
+          }
+        }
+      }
+      final var order = new ArrayList<Node>(count);
+      final var queue = new ArrayList<Integer>();
+      var combinational = 0;
+      for (var n = 0; n < count; n++) {
+        if (nodeList.get(n).feature.isSequential()) continue;
+        combinational++;
+        if (inDegree[n] == 0) queue.add(n);
+      }
+      for (var head = 0; head < queue.size(); head++) {
+        final int n = queue.get(head);
+        order.add(nodeList.get(n));
+        for (final int s : successors.get(n)) {
+          if (--inDegree[s] == 0) queue.add(s);
+        }
+      }
+      if (order.size() != combinational) {
+        for (var n = 0; n < count; n++) {
+          if (inDegree[n] > 0) throw unsupported("combinational loop", nodeList.get(n).comp);
+        }
+      }
+      netlist.combinationalCount = combinational;
+      for (final var node : nodeList) {
+        if (node.feature.isSequential()) order.add(node);
+      }
+      return order.toArray(new Node[0]);
+    }
+
+    private void buildReaders(int netCount) {
+      final var lists = new int[netCount][];
+      final var sizes = new int[netCount];
+      final var nodes = netlist.nodes;
+      for (var n = 0; n < nodes.length; n++) {
+        final var node = nodes[n];
+        for (var p = 0; p < node.ports.length; p++) {
+          if (node.isOutput(p)) continue;
+          for (final var net : node.ports[p]) {
+            final var size = sizes[net];
+            if (size > 0 && lists[net][size - 1] == n) continue;
+            if (lists[net] == null) lists[net] = new int[2];
+            else if (size == lists[net].length) lists[net] = Arrays.copyOf(lists[net], 2 * size);
+            lists[net][size] = n;
+            sizes[net]++;
+          }
+        }
+      }
+      netlist.readers = new int[netCount][];
+      for (var net = 0; net < netCount; net++) {
+        netlist.readers[net] = sizes[net] == 0 ? new int[0] : Arrays.copyOf(lists[net], sizes[net]);
+      }
+    }
+
+    private UnsupportedOperationException unsupported(String reason, Component comp) {
+      return new UnsupportedOperationException(
+          reason + ": " + comp.getFactory().getName() + " " + comp.getLocation());
+    }
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.circuit;
+
+import com.cburch.logisim.instance.InstanceState;
+
+/**
+ * Instance feature announcing that a component can be evaluated by the {@link CompiledNetlist}
+ * engine. Such a component must compute its outputs from its inputs (and its instance data) in
+ * <code>propagate</code> only, and it must tolerate being evaluated with zero delay.
+ *
+ * <p>Combinational components are evaluated in topological order, so all of their non-output
+ * ports are treated as inputs that the outputs depend on. Sequential components are evaluated
+ * once per settle round with their outputs buffered, which breaks feedback loops through them.
+ */
+public interface CompiledPropagation {
+  /** Feature of components whose outputs depend only on their current inputs. */
+  CompiledPropagation COMBINATIONAL = () -> false;
+
+  /** Feature of components keeping internal state, such as flip-flops and registers. */
+  CompiledPropagation SEQUENTIAL = () -> true;
+
+  /** @return true if the outputs do not follow the inputs within the same settle round. */
+  boolean isSequential();
+
+  /**
+   * Called once for every clock tick, before the circuit is settled. Components acting as clock
+   * sources update their instance data here.
+   *
+   * @return true if the component has to be evaluated again because of the tick.
+   */
+  default boolean tick(InstanceState state) {
+    return false;
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.circuit;
+
+import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.data.Bounds;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A uniform grid over the canvas, used by the circuit to find the components near a point or in
+ * an area without looking at all the others: hit tests, rubber band selection and painting only
+ * what is visible.
+ *
+ * <p>Each element is filed in every cell its bounds meet, under the bounds given when it was added
+ * or last updated; the owner has to update them when the element moves or grows. Elements meeting
+ * more than {@link #MAX_CELLS} cells are kept in a separate list that every query looks at. Queries
+ * return the elements in the order they were first added, which for components is the order they
+ * are drawn in.
+ */
+final class ComponentGrid<E> {
+  private static final int CELL_SHIFT = 7; // cells of 128 x 128 pixels
+  private static final int MAX_CELLS = 64;
+  // Components may be hit or drawn a little outside their bounds, and labels are measured here
+  // with other font metrics than on the canvas; the margin covers both.
+  static final int MARGIN = 10;
+
+  private static Graphics measureGraphics = null;
+
+  private static final class Entry<E> {
+    final E element;
+    final long order;
+    int x0;
+    int y0;
+    int x1; // inclusive
+    int y1; // inclusive
+
+    Entry(E element, long order) {
+      this.element = element;
+      this.order = order;
+    }
+
+    boolean meets(int qx0, int qy0, int qx1, int qy1) {
+      return x0 <= qx1 && qx0 <= x1 && y0 <= qy1 && qy0 <= y1;
+    }
+
+    boolean isLarge() {
+      final var cols = (long) (x1 >> CELL_SHIFT) - (x0 >> CELL_SHIFT) + 1;
+      final var rows = (long) (y1 >> CELL_SHIFT) - (y0 >> CELL_SHIFT) + 1;
+      return cols * rows > MAX_CELLS;
+    }
+  }
+
+  private static final Comparator<Entry<?>> BY_ORDER = Comparator.comparingLong(e -> e.order);
+
+  private final HashMap<E, Entry<E>> entries = new HashMap<>();
+  private final HashMap<Long, ArrayList<Entry<E>>> cells = new HashMap<>();
+  private final ArrayList<Entry<E>> large = new ArrayList<>();
+  private long nextOrder = 0;
+
+  /** @return the bounds under which a component is filed, including its label. */
+  static synchronized Bounds boundsOf(Component comp) {
+    if (comp instanceof Wire) return comp.getBounds().expand(MARGIN);
+    if (measureGraphics == null) {
+      measureGraphics = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).createGraphics();
+    }
+    return comp.getBounds(measureGraphics).expand(MARGIN);
+  }
+
+  private static long cellKey(int col, int row) {
+    return ((long) col << 32) | (row & 0xFFFFFFFFL);
+  }
+
+  /** Adds the element, or updates its bounds if it is already there. */
+  void add(E element, Bounds bds) {
+    var entry = entries.get(element);
+    if (entry == null) {
+      entry = new Entry<>(element, nextOrder++);
+      entries.put(element, entry);
+    } else {
+      unfile(entry);
+    }
+    entry.x0 = bds.getX();
+    entry.y0 = bds.getY();
+    entry.x1 = bds.getX() + Math.max(bds.getWidth(), 0);
+    entry.y1 = bds.getY() + Math.max(bds.getHeight(), 0);
+    file(entry);
+  }
+
+  /** Updates the bounds of an element that is already there; does nothing otherwise. */
+  void update(E element, Bounds bds) {
+    if (entries.containsKey(element)) add(element, bds);
+  }
+
+  void remove(E element) {
+    final var entry = entries.remove(element);
+    if (entry != null) unfile(entry);
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  private void file(Entry<E> entry) {
+    if (entry.isLarge()) {
+      large.add(entry);
+      return;
+    }
+    for (var col = entry.x0 >> CELL_SHIFT; col <= entry.x1 >> CELL_SHIFT; col++) {
+      for (var row = entry.y0 >> CELL_SHIFT; row <= entry.y1 >> CELL_SHIFT; row++) {
+        cells.computeIfAbsent(cellKey(col, row), k -> new ArrayList<>(4)).add(entry);
+      }
+    }
+  }
+
+  private void unfile(Entry<E> entry) {
+    if (entry.isLarge()) {
+      large.remove(entry);
+      return;
+    }
+    for (var col = entry.x0 >> CELL_SHIFT; col <= entry.x1 >> CELL_SHIFT; col++) {
+      for (var row = entry.y0 >> CELL_SHIFT; row <= entry.y1 >> CELL_SHIFT; row++) {
+        final var key = cellKey(col, row);
+        final var cell = cells.get(key);
+        if (cell != null && cell.remove(entry) && cell.isEmpty()) cells.remove(key);
+      }
+    }
+  }
+
+  /** @return the elements whose bounds meet the given area, in the order they were added. */
+  List<E> query(Bounds area) {
+    final var qx0 = area.getX();
+    final var qy0 = area.getY();
+    final var qx1 = qx0 + Math.max(area.getWidth(), 0);
+    final var qy1 = qy0 + Math.max(area.getHeight(), 0);
+    final var found = new ArrayList<Entry<E>>();
+    final var col0 = qx0 >> CELL_SHIFT;
+    final var row0 = qy0 >> CELL_SHIFT;
+    final var col1 = qx1 >> CELL_SHIFT;
+    final var row1 = qy1 >> CELL_SHIFT;
+    final var cellCount = ((long) col1 - col0 + 1) * ((long) row1 - row0 + 1);
+    if (cellCount > entries.size()) {
+      // more cells than elements, e.g. a zoomed out view: look at every element instead
+      for (final var entry : entries.values()) {
+        if (entry.meets(qx0, qy0, qx1, qy1)) found.add(entry);
+      }
+    } else {
+      for (var col = col0; col <= col1; col++) {
+        for (var row = row0; row <= row1; row++) {
+          final var cell = cells.get(cellKey(col, row));
+          if (cell == null) continue;
+          for (final var entry : cell) {
+            // an entry filed in several cells is only taken from the first one the area meets
+            if (entry.meets(qx0, qy0, qx1, qy1)
+                && col == Math.max(col0, entry.x0 >> CELL_SHIFT)
+                && row == Math.max(row0, entry.y0 >> CELL_SHIFT)) {
+              found.add(entry);
+            }
+          }
+        }
+      }
+      for (final var entry : large) {
+        if (entry.meets(qx0, qy0, qx1, qy1)) found.add(entry);
+      }
+    }
+    found.sort(BY_ORDER);
+    final var ret = new ArrayList<E>(found.size());
+    for (final var entry : found) ret.add(entry.element);
+    return ret;
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.circuit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free queue with any number of producers and a single consumer, used for the dirty lists of
+ * {@link CircuitState} and {@link Propagator}. Producers push onto a linked stack with a single
+ * compare-and-set; the consumer (the propagation thread) takes the whole stack with one exchange
+ * and receives the elements in the order they were added. Neither side ever blocks.
+ */
+final class DirtyQueue<T> {
+  private static final class Node<T> {
+    final T item;
+    Node<T> next;
+
+    Node(T item) {
+      this.item = item;
+    }
+  }
+
+  private final AtomicReference<Node<T>> head = new AtomicReference<>();
+
+  /** May be called by any thread. */
+  void add(T item) {
+    final var node = new Node<>(item);
+    do {
+      node.next = head.get();
+    } while (!head.compareAndSet(node.next, node));
+  }
+
+  /** May be called by any thread. Pushes all of <code>items</code> with a single update. */
+  void addAll(Collection<? extends T> items) {
+    Node<T> first = null;
+    Node<T> last = null;
+    for (final var item : items) {
+      final var node = new Node<T>(item);
+      node.next = first;
+      first = node;
+      if (last == null) last = node;
+    }
+    if (first == null) return;
+    do {
+      last.next = head.get();
+    } while (!head.compareAndSet(last.next, first));
+  }
+
+  boolean isEmpty() {
+    return head.get() == null;
+  }
+
+  /** Drops all elements. */
+  void clear() {
+    head.set(null);
+  }
+
+  /**
+   * Moves all elements to the end of <code>dst</code>, oldest first. Only to be called by the
+   * consumer.
+   */
+  void drainTo(ArrayList<? super T> dst) {
+    var node = head.getAndSet(null);
+    if (node == null) return;
+    final var start = dst.size();
+    for (; node != null; node = node.next) dst.add(node.item);
+    Collections.reverse(dst.subList(start, dst.size()));
+  }
+
+  /** @return the current elements, oldest first, without removing them. May be called by any thread. */
+  ArrayList<T> snapshot() {
+    final var ret = new ArrayList<T>();
+    for (var node = head.get(); node != null; node = node.next) ret.add(node.item);
+    Collections.reverse(ret);
+    return ret;
+  }
+}
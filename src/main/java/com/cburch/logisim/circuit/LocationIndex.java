@@ -0,0 +1,77 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.circuit;
+
+import com.cburch.logisim.data.Location;
+import java.util.Arrays;
+
+/**
+ * Compact map from locations to non-negative int slots, used by {@link CircuitWires} to number
+ * the wire buses of a circuit densely. The keys are kept as primitive coordinates in an
+ * open-addressing table, so a lookup touches no objects besides the two arrays. The index is
+ * filled while the connectivity map is built and is read-only afterwards, so it can be shared by
+ * all states of a circuit and read from any thread.
+ */
+final class LocationIndex {
+  /** Slot returned for locations that are not in the index. */
+  static final int NONE = -1;
+
+  private final long[] keys;
+  private final int[] slots;
+  private final int mask;
+  private int size;
+
+  /** Creates an index able to hold <code>expected</code> locations without growing. */
+  LocationIndex(int expected) {
+    var capacity = 4;
+    while (capacity < expected * 2) capacity <<= 1;
+    keys = new long[capacity];
+    slots = new int[capacity];
+    mask = capacity - 1;
+    Arrays.fill(slots, NONE);
+  }
+
+  private static long key(int x, int y) {
+    return ((long) x << 32) | (y & 0xffffffffL);
+  }
+
+  private int probe(long key) {
+    var h = (int) (key ^ (key >>> 32)) * 0x9e3779b9;
+    var i = (h ^ (h >>> 16)) & mask;
+    while (slots[i] != NONE && keys[i] != key) i = (i + 1) & mask;
+    return i;
+  }
+
+  /**
+   * Maps <code>loc</code> to <code>slot</code>.
+   *
+   * @return the slot previously mapped to <code>loc</code>, or {@link #NONE}.
+   */
+  int put(Location loc, int slot) {
+    if (slot < 0) throw new IllegalArgumentException("negative slot");
+    if (size * 2 >= keys.length) throw new IllegalStateException("location index is full");
+    final var key = key(loc.getX(), loc.getY());
+    final var i = probe(key);
+    final var old = slots[i];
+    if (old == NONE) size++;
+    keys[i] = key;
+    slots[i] = slot;
+    return old;
+  }
+
+  /** @return the slot of <code>loc</code>, or {@link #NONE} if it is not in the index. */
+  int get(Location loc) {
+    return slots[probe(key(loc.getX(), loc.getY()))];
+  }
+
+  int size() {
+    return size;
+  }
+}
@@ -22,10 +22,12 @@ import com.cburch.logisim.util.QNodeQueue;
 import com.cburch.logisim.util.QueueOfQueues;
 import com.cburch.logisim.util.SplayQueue;
 import com.cburch.logisim.util.QNode;
+import com.cburch.logisim.util.TimeWheelQueue;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.PriorityQueue;
 import java.util.Random;
+import java.util.stream.IntStream;
 
 public class Propagator {
   private static class Listener implements AttributeListener {
@@ -55,17 +57,20 @@ public class Propagator {
 
   public static class SimulatorEvent extends QNode {
     /** State of circuit containing component */
-    final CircuitState state;
+    CircuitState state;
 
     /** The location at which value is emitted */
-    final Location loc;
+    Location loc;
 
     /** Component emitting the value */
-    final Component cause;
+    Component cause;
 
     /** Value being emitted */
     Value val;
 
+    /** Link in the Propagator's list of recycled events */
+    private SimulatorEvent nextFree;
+
     private SimulatorEvent(int time, int serialNumber,
                            CircuitState state, Location loc, Component cause, Value val) {
       super(time, serialNumber);
@@ -75,6 +80,15 @@ public class Propagator {
       this.val = val;
     }
 
+    private void reuse(int time, int serialNumber,
+                       CircuitState state, Location loc, Component cause, Value val) {
+      reuse(time, serialNumber);
+      this.state = state;
+      this.cause = cause;
+      this.loc = loc;
+      this.val = val;
+    }
+
     public SimulatorEvent cloneFor(CircuitState newState) {
       final var newProp = newState.getPropagator();
       final var dtime = newProp.clock - state.getPropagator().clock;
@@ -105,15 +119,51 @@ public class Propagator {
 
   /**
    * The simulator event queue can be implemented by a Java PriorityQueue, SplayQueue, LinkedQueue,
-   * or QueueOfQueues with the time queue either linked or TreeMap.The user may choose the
-   * implementation in the Experimental panel of User Preferences.
+   * TimeWheelQueue, or QueueOfQueues with the time queue either linked or TreeMap. The user may
+   * choose the implementation in the Experimental panel of User Preferences.
    */
   private final QNodeQueue<SimulatorEvent> toProcess;
 
+  /**
+   * Events that have been fully processed by CircuitWires.propagate() and can be reused, linked
+   * through SimulatorEvent.nextFree. Only touched by the propagation thread, so in the steady
+   * state the propagation loop does not allocate any events.
+   */
+  private SimulatorEvent freeEvents = null;
+
   /** Allows Propagator to verify correct thread usage. It is usually the simulation thread
    *  but it can be another thread if the simulator is not being used (e.g. command line testing) */
   private final Thread propagatorThread;
 
+  /**
+   * Worklist of the states in the tree of CircuitStates that have dirty points or components.
+   * States put themselves on it (see CircuitState.enqueue) from any thread; only the propagation
+   * thread takes them off, so a step never visits the states without pending work.
+   */
+  private final DirtyQueue<CircuitState> dirtyStates = new DirtyQueue<>();
+  private final ArrayList<CircuitState> dirtyStatesWorking = new ArrayList<>();
+
+  /**
+   * Whether the states on the worklist are processed on several threads; see
+   * AppPreferences.SIMULATION_PARALLEL. The results are the same as those of the sequential
+   * engine: every state is handled by a single thread, and the events scheduled by the components
+   * are buffered per state and added to the event queue in worklist order afterwards. Only read
+   * by the propagation thread.
+   */
+  boolean parallel;
+
+  /** Fewer dirty states than this are not worth the hand-off to the thread pool. */
+  private static final int PARALLEL_THRESHOLD = 4;
+
+  /** Set while the components of several states are propagated concurrently. */
+  private boolean parallelPass = false;
+
+  /** Per worklist slot, the events scheduled by the components of that state in a parallel pass. */
+  private final ArrayList<ArrayList<SimulatorEvent>> deferredEvents = new ArrayList<>();
+
+  /** The deferredEvents list of the state being propagated by the current thread. */
+  private final ThreadLocal<ArrayList<SimulatorEvent>> currentDeferredEvents = new ThreadLocal<>();
+
   /** Used to handle events generated by threads other than the propagation thread. */
   private final ArrayList<SimulatorEvent> nonPropThreadEvents = new ArrayList<SimulatorEvent>();
   private volatile boolean nonPropThreadEventsAvailable = false;
@@ -127,24 +177,31 @@ public class Propagator {
   private int noiseCount = 0;
 
   private int eventSerialNumber = 0;
+
+  /** Collects throughput and cost statistics while set; see SimulationProfile. */
+  private volatile SimulationProfile profile = null;
+
   static int lastId = 0;
 
   final int id = lastId++;
 
+  private final Listener optionsListener = new Listener(this);
+
   public Propagator(CircuitState root, Thread propagatorThread) {
     this.root = root;
     this.propagatorThread = propagatorThread;
-    final var l = new Listener(this);
-    root.getProject().getOptions().getAttributeSet().addAttributeListener(l);
+    root.getProject().getOptions().getAttributeSet().addAttributeListener(optionsListener);
     final var simQueueType = AppPreferences.SIMULATION_QUEUE.get();
     toProcess = switch (simQueueType) {
       case AppPreferences.SIM_QUEUE_LIST_OF_QUEUES, AppPreferences.SIM_QUEUE_TREE_OF_QUEUES
           -> new QueueOfQueues<>(simQueueType);
       case AppPreferences.SIM_QUEUE_LINKED -> new LinkedQueue<>();
       case AppPreferences.SIM_QUEUE_SPLAY  -> new SplayQueue<>();
+      case AppPreferences.SIM_QUEUE_TIME_WHEEL -> new TimeWheelQueue<>();
       // case AppPreferences.SIM_QUEUE_PRIORITY  -> new PriorityEventQueue<>();
       default -> new PriorityEventQueue<>();
     };
+    parallel = AppPreferences.SIMULATION_PARALLEL.getBoolean();
     updateRandomness();
     updateSimLimit();
   }
@@ -157,6 +214,11 @@ public class Propagator {
     return root;
   }
 
+  /** Stops listening to the project options, once the root state is no longer simulated. */
+  void dispose() {
+    root.getProject().getOptions().getAttributeSet().removeAttributeListener(optionsListener);
+  }
+
   public int getTickCount() {
     return halfClockCycles;
   }
@@ -165,6 +227,18 @@ public class Propagator {
     return isOscillating;
   }
 
+  public SimulationProfile getProfile() {
+    return profile;
+  }
+
+  /**
+   * Attaches a profile that will count the work done by this propagator from now on, or detaches
+   * the current one when <code>value</code> is null. May be called by any thread.
+   */
+  public void setProfile(SimulationProfile value) {
+    profile = value;
+  }
+
   boolean isPending() {
     return !toProcess.isEmpty();
   }
@@ -184,8 +258,7 @@ public class Propagator {
       throw new RuntimeException("Propagate called with incorrect thread");
     }
     oscPoints.clear();
-    root.processDirtyPoints();
-    root.processDirtyComponents();
+    processDirtyStates();
 
     final var oscThreshold = simLimit;
     final var logThreshold = 3 * oscThreshold / 4;
@@ -201,6 +274,8 @@ public class Propagator {
         stepInternal(null);
       } else if (iters < oscThreshold) {
         oscAdding = true;
+        final var prof = profile;
+        if (prof != null) prof.oscillationCheckStep();
         stepInternal(oscPoints);
       } else {
         isOscillating = true;
@@ -216,7 +291,7 @@ public class Propagator {
   }
 
   /** Must be called by the propagation thread */
-  void reset() {
+  public void reset() {
     if (Thread.currentThread() != propagatorThread) {
       throw new RuntimeException("Reset called with incorrect thread");
     }
@@ -254,6 +329,13 @@ public class Propagator {
     if (delay <= 0) {
       delay = 1;
     }
+    if (parallelPass) {
+      final var deferred = currentDeferredEvents.get();
+      if (deferred != null) {
+        deferred.add(new SimulatorEvent(delay, 0, state, pt, cause, val));
+        return;
+      }
+    }
     if (Thread.currentThread() == propagatorThread) {
       setValueWithPropThread(state, pt, val, cause, delay);
     } else {
@@ -266,6 +348,12 @@ public class Propagator {
 
   /** Must be called from the propagation thread. */
   private void setValueWithPropThread(CircuitState state, Location pt, Value val, Component cause, int delay) {
+    toProcess.add(obtainEvent(clock + addNoise(cause, delay), eventSerialNumber, state, pt, cause, val));
+    eventSerialNumber++;
+  }
+
+  /** Must be called from the propagation thread. */
+  private int addNoise(Component cause, int delay) {
     final var randomShift = simRandomShift;
     if (randomShift > 0) { // random noise is turned on
       // multiply the delay by 32 so that the random noise
@@ -280,8 +368,187 @@ public class Propagator {
         }
       }
     }
-    toProcess.add(new SimulatorEvent(clock + delay, eventSerialNumber, state, pt, cause, val));
-    eventSerialNumber++;
+    return delay;
+  }
+
+  /** May be called by any thread. */
+  void markStateDirty(CircuitState state) {
+    dirtyStates.add(state);
+  }
+
+  boolean isPropagatorThread() {
+    return Thread.currentThread() == propagatorThread;
+  }
+
+  /**
+   * Processes the dirty points and then the dirty components of all states on the worklist.
+   * States that get dirty while their components are processed, including new substates, are
+   * put back on the worklist and handled by the next call. Must be called from the propagation
+   * thread.
+   */
+  private void processDirtyStates() {
+    dirtyStates.drainTo(dirtyStatesWorking);
+    try {
+      if (parallel && !oscAdding && dirtyStatesWorking.size() >= PARALLEL_THRESHOLD) {
+        processDirtyStatesInParallel();
+        return;
+      }
+      for (final var state : dirtyStatesWorking) {
+        if (isAttached(state)) state.processDirtyPoints();
+      }
+      for (final var state : dirtyStatesWorking) {
+        // components marked dirty from here on requeue the state
+        state.dequeued();
+        if (isAttached(state)) state.processDirtyComponents();
+      }
+    } catch (RuntimeException | Error e) {
+      // keep the unprocessed work; visiting a state twice is harmless
+      dirtyStates.addAll(dirtyStatesWorking);
+      throw e;
+    } finally {
+      dirtyStatesWorking.clear();
+    }
+  }
+
+  /**
+   * Parallel counterpart of the loops in processDirtyStates(). The dirty points of all states are
+   * applied concurrently, as they only touch the wires of their own state. Then the dirty
+   * components of the states are taken in worklist order, as the sequential loop does. Consecutive
+   * states whose dirty components are all self-contained (see CircuitState) cannot mark the
+   * components of any other state, so such a run is propagated concurrently, with the events it
+   * schedules buffered per state and queued in worklist order afterwards. The state that ends the
+   * run is taken only then and propagated on this thread, so the components it marks in later
+   * states are taken at their turn. This yields the same event queue, serial numbers and random
+   * delays as the sequential loops.
+   */
+  private void processDirtyStatesInParallel() {
+    final var states = dirtyStatesWorking;
+    final var count = states.size();
+    IntStream.range(0, count).parallel().forEach(i -> {
+      final var state = states.get(i);
+      if (isAttached(state)) state.propagateDirtyPoints();
+    });
+    for (final var state : states) state.recycleDirtyPoints();
+
+    while (deferredEvents.size() < count) deferredEvents.add(new ArrayList<>());
+    final var attached = new boolean[count];
+    var first = 0;
+    while (first < count) {
+      // take the states up to the first one that has to be propagated on its own
+      var last = first;
+      var sequential = false;
+      while (last < count && !sequential) {
+        final var state = states.get(last);
+        attached[last] = isAttached(state);
+        sequential = attached[last] && !state.takeDirtyComponents();
+        last++;
+      }
+      final var runEnd = sequential ? last - 1 : last;
+      try {
+        propagateConcurrently(first, runEnd, attached);
+      } catch (RuntimeException | Error e) {
+        if (sequential) states.get(runEnd).untakeDirtyComponents();
+        throw e;
+      }
+      if (sequential) {
+        final var state = states.get(runEnd);
+        state.dequeued();
+        // the components were already taken above
+        state.requeueIfDirty();
+        state.propagateDirtyComponents();
+      }
+      first = last;
+    }
+  }
+
+  /**
+   * Propagates the components taken from the states in [first, end) of the worklist, which are
+   * all self-contained, and queues the events they schedule in worklist order.
+   */
+  private void propagateConcurrently(int first, int end, boolean[] attached) {
+    final var states = dirtyStatesWorking;
+    if (end - first < PARALLEL_THRESHOLD) {
+      try {
+        for (var i = first; i < end; i++) {
+          final var state = states.get(i);
+          state.dequeued();
+          if (attached[i]) state.propagateDirtyComponents();
+        }
+      } catch (RuntimeException | Error e) {
+        for (var i = first; i < end; i++) states.get(i).untakeDirtyComponents();
+        throw e;
+      }
+      return;
+    }
+    parallelPass = true;
+    try {
+      IntStream.range(first, end).parallel().forEach(i -> {
+        if (!attached[i]) return;
+        currentDeferredEvents.set(deferredEvents.get(i));
+        try {
+          states.get(i).propagateDirtyComponents();
+        } finally {
+          currentDeferredEvents.remove();
+        }
+      });
+    } catch (RuntimeException | Error e) {
+      // leave every state as the sequential engine would after a failing component
+      for (var i = first; i < end; i++) {
+        states.get(i).untakeDirtyComponents();
+        deferredEvents.get(i).clear();
+      }
+      throw e;
+    } finally {
+      parallelPass = false;
+    }
+
+    for (var i = first; i < end; i++) {
+      final var state = states.get(i);
+      state.dequeued();
+      final var deferred = deferredEvents.get(i);
+      for (final var ev : deferred) {
+        ev.reuse(clock + addNoise(ev.cause, ev.timeKey), eventSerialNumber++, ev.state, ev.loc,
+            ev.cause, ev.val);
+        toProcess.add(ev);
+      }
+      deferred.clear();
+      // components marked dirty while it was propagated
+      if (attached[i]) state.requeueIfDirty();
+    }
+  }
+
+  /** @return whether <code>state</code> is still part of the tree of CircuitStates. */
+  private boolean isAttached(CircuitState state) {
+    return state == root || state.getParentState() != null;
+  }
+
+  /** Must be called from the propagation thread. */
+  private SimulatorEvent obtainEvent(int time, int serialNumber,
+                                     CircuitState state, Location loc, Component cause, Value val) {
+    final var ev = freeEvents;
+    if (ev == null) return new SimulatorEvent(time, serialNumber, state, loc, cause, val);
+    freeEvents = ev.nextFree;
+    ev.nextFree = null;
+    ev.reuse(time, serialNumber, state, loc, cause, val);
+    return ev;
+  }
+
+  /**
+   * Returns processed events to the pool. Must be called from the propagation thread, and only
+   * for events no longer referenced by the event queue or any dirty-point list.
+   */
+  void recycleEvents(ArrayList<SimulatorEvent> events) {
+    if (Thread.currentThread() != propagatorThread) return;
+    for (var i = events.size() - 1; i >= 0; i--) {
+      final var ev = events.get(i);
+      if (ev.state.getPropagator() != this) continue; // belongs to another pool
+      ev.state = null;
+      ev.loc = null;
+      ev.cause = null;
+      ev.val = null;
+      ev.nextFree = freeEvents;
+      freeEvents = ev;
+    }
   }
 
   /** Must be called from propagation thread */
@@ -290,8 +557,7 @@ public class Propagator {
       throw new RuntimeException("Step called with incorrect thread");
     }
     oscPoints.clear();
-    root.processDirtyPoints();
-    root.processDirtyComponents();
+    processDirtyStates();
     moveNonPropThreadEvents();
 
     if (toProcess.isEmpty()) return false;
@@ -313,10 +579,12 @@ public class Propagator {
     clock = toProcess.peek().timeKey;
 
     // propagate all values for this clock tick
+    var eventCount = 0;
     while (true) {
       SimulatorEvent ev = toProcess.peek();
       if (ev == null || ev.timeKey != clock) break;
       toProcess.remove();
+      eventCount++;
       final var state = ev.state;
 
       if (changedPoints != null) changedPoints.add(state, ev.loc);
@@ -324,9 +592,10 @@ public class Propagator {
       // if the value at point has changed, propagate it
       state.markPointAsDirty(ev); // ev.loc, ev.cause, ev.val);
     }
+    final var prof = profile;
+    if (prof != null) prof.timeStepProcessed(eventCount);
 
-    root.processDirtyPoints();
-    root.processDirtyComponents();
+    processDirtyStates();
   }
 
   public boolean toggleClocks() {
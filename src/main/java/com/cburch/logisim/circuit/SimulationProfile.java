@@ -0,0 +1,126 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.circuit;
+
+import com.cburch.logisim.comp.ComponentFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing where a {@link Propagator} spends its time: the simulator events processed
+ * and how they spread over the time steps, the propagate() calls of each component factory with
+ * the time they took, the wire buses recomputed, and the steps spent looking for oscillations.
+ *
+ * <p>A profile only collects data while it is attached to a propagator with {@link
+ * Propagator#setProfile}; without one the simulator does not pay for any of this. The counters
+ * may be updated by the propagation threads and read by any thread at the same time.
+ */
+public final class SimulationProfile {
+
+  /** Propagate calls and time spent for one component factory. */
+  public record ComponentStat(ComponentFactory factory, long calls, long nanos) {}
+
+  private static final class Counter {
+    final LongAdder calls = new LongAdder();
+    final LongAdder nanos = new LongAdder();
+  }
+
+  private final ConcurrentHashMap<ComponentFactory, Counter> components = new ConcurrentHashMap<>();
+  private final LongAdder events = new LongAdder();
+  private final LongAdder timeSteps = new LongAdder();
+  private volatile long maxEventsPerTimeStep = 0;
+  private final LongAdder wirePropagations = new LongAdder();
+  private final LongAdder busRecomputations = new LongAdder();
+  private final LongAdder oscillationChecks = new LongAdder();
+  private volatile long startNanos = System.nanoTime();
+
+  /** Forgets everything counted so far. */
+  public void reset() {
+    components.clear();
+    events.reset();
+    timeSteps.reset();
+    maxEventsPerTimeStep = 0;
+    wirePropagations.reset();
+    busRecomputations.reset();
+    oscillationChecks.reset();
+    startNanos = System.nanoTime();
+  }
+
+  /** Called by the propagation thread after processing all events of one time step. */
+  void timeStepProcessed(int eventCount) {
+    timeSteps.increment();
+    events.add(eventCount);
+    if (eventCount > maxEventsPerTimeStep) maxEventsPerTimeStep = eventCount;
+  }
+
+  void componentPropagated(ComponentFactory factory, long nanos) {
+    final var counter = components.computeIfAbsent(factory, f -> new Counter());
+    counter.calls.increment();
+    counter.nanos.add(nanos);
+  }
+
+  void wiresPropagated(int dirtyBuses) {
+    wirePropagations.increment();
+    busRecomputations.add(dirtyBuses);
+  }
+
+  void oscillationCheckStep() {
+    oscillationChecks.increment();
+  }
+
+  /** @return the number of simulator events processed. */
+  public long getEventCount() {
+    return events.sum();
+  }
+
+  /** @return the number of distinct simulation times (time keys) at which events were processed. */
+  public long getTimeStepCount() {
+    return timeSteps.sum();
+  }
+
+  public long getMaxEventsPerTimeStep() {
+    return maxEventsPerTimeStep;
+  }
+
+  /** @return the number of times the wires of a circuit state were brought up to date. */
+  public long getWirePropagationCount() {
+    return wirePropagations.sum();
+  }
+
+  /** @return the total number of wire buses whose value had to be recomputed. */
+  public long getBusRecomputationCount() {
+    return busRecomputations.sum();
+  }
+
+  /** @return the number of time steps run while watching for oscillation. */
+  public long getOscillationCheckCount() {
+    return oscillationChecks.sum();
+  }
+
+  /** @return the nanoseconds elapsed since this profile was created or reset. */
+  public long getElapsedNanos() {
+    return System.nanoTime() - startNanos;
+  }
+
+  /** @return the propagate statistics of each component factory, most expensive first. */
+  public List<ComponentStat> getComponentStats() {
+    final var ret = new ArrayList<ComponentStat>();
+    for (final var entry : components.entrySet()) {
+      final var counter = entry.getValue();
+      ret.add(new ComponentStat(entry.getKey(), counter.calls.sum(), counter.nanos.sum()));
+    }
+    ret.sort(Comparator.comparingLong(ComponentStat::nanos).reversed()
+        .thenComparing(stat -> stat.factory().getName()));
+    return ret;
+  }
+}
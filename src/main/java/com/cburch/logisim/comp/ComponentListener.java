@@ -10,6 +10,11 @@
 package com.cburch.logisim.comp;
 
 public interface ComponentListener {
+  /** Called when the bounds of the component, or of its label, may have changed. */
+  default void boundsChanged(ComponentEvent e) {
+    // no-op implementation
+  }
+
   default void componentInvalidated(ComponentEvent e) {
     // no-op implementation
   }
@@ -9,14 +9,14 @@
 
 package com.cburch.logisim.data;
 
-import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public abstract class AbstractAttributeSet implements Cloneable, AttributeSet {
-  private ArrayList<AttributeListener> listeners = null;
+  // listeners may be added and removed by simulation threads while events are fired
+  private CopyOnWriteArrayList<AttributeListener> listeners = new CopyOnWriteArrayList<>();
 
   @Override
   public void addAttributeListener(AttributeListener l) {
-    if (listeners == null) listeners = new ArrayList<>();
     listeners.add(l);
   }
 
@@ -28,7 +28,7 @@ public abstract class AbstractAttributeSet implements Cloneable, AttributeSet {
   public Object clone() {
     try {
       AbstractAttributeSet ret = (AbstractAttributeSet) super.clone();
-      ret.listeners = new ArrayList<>();
+      ret.listeners = new CopyOnWriteArrayList<>();
       this.copyInto(ret);
       return ret;
     } catch (CloneNotSupportedException ex) {
@@ -44,21 +44,18 @@ public abstract class AbstractAttributeSet implements Cloneable, AttributeSet {
   protected abstract void copyInto(AbstractAttributeSet dest);
 
   protected void fireAttributeListChanged() {
-    if (listeners != null) {
-      final var event = new AttributeEvent(this);
-      for (final var l : new ArrayList<>(listeners)) {
-        l.attributeListChanged(event);
-      }
+    if (listeners.isEmpty()) return;
+    final var event = new AttributeEvent(this);
+    for (final var l : listeners) {
+      l.attributeListChanged(event);
     }
   }
 
   protected <V> void fireAttributeValueChanged(Attribute<? super V> attr, V value, V oldvalue) {
-    if (listeners != null) {
-      final var event = new AttributeEvent(this, attr, value, oldvalue);
-      final var ls = new ArrayList<>(listeners);
-      for (final var l : ls) {
-        l.attributeValueChanged(event);
-      }
+    if (listeners.isEmpty()) return;
+    final var event = new AttributeEvent(this, attr, value, oldvalue);
+    for (final var l : listeners) {
+      l.attributeValueChanged(event);
     }
   }
 
@@ -85,7 +82,6 @@ public abstract class AbstractAttributeSet implements Cloneable, AttributeSet {
   @Override
   public void removeAttributeListener(AttributeListener l) {
     listeners.remove(l);
-    if (listeners.isEmpty()) listeners = null;
   }
 
   @Override
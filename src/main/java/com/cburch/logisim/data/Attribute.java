@@ -11,6 +11,8 @@ package com.cburch.logisim.data;
 
 import com.cburch.logisim.util.StringGetter;
 import java.awt.Window;
+import java.io.File;
+import java.util.List;
 import javax.swing.JTextField;
 
 public abstract class Attribute<V> {
@@ -54,6 +56,16 @@ public abstract class Attribute<V> {
 
   public abstract V parse(String value);
 
+  /**
+   * Parses a value read from a project file. File references in the value may be relative to
+   * <code>projectDir</code>, the directory of that file, or null if unknown. Problems that still
+   * let a value be created, such as a referenced file that cannot be read, are added to
+   * <code>warnings</code> to be reported as load errors.
+   */
+  public V parse(File projectDir, String value, List<String> warnings) {
+    return parse(value);
+  }
+
   public String toDisplayString(V value) {
     return value == null ? "" : value.toString();
   }
@@ -62,6 +74,14 @@ public abstract class Attribute<V> {
     return value.toString().replaceAll("[\u0000-\u001f]", "").replaceAll("&#.*?;", "");
   }
 
+  /**
+   * @return the standard string of <code>value</code> for a project file saved in
+   *     <code>projectDir</code>, or null if unknown, with file references relative to it.
+   */
+  public String toStandardString(File projectDir, V value) {
+    return toStandardString(value);
+  }
+
   public void setHidden(boolean val) {
     this.hidden = val;
   }
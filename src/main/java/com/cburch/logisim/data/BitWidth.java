@@ -78,12 +78,14 @@ public class BitWidth implements Comparable<BitWidth> {
 
   private static void ensurePrefab() {
     if (prefab == null) {
-      prefab = new BitWidth[MAXWIDTH + 1];
-      prefab[0] = UNKNOWN;
-      prefab[1] = ONE;
-      for (int i = 2; i < prefab.length; i++) {
-        prefab[i] = new BitWidth(i);
+      // filled before publishing, as project files may be read on several threads
+      final var widths = new BitWidth[MAXWIDTH + 1];
+      widths[0] = UNKNOWN;
+      widths[1] = ONE;
+      for (int i = 2; i < widths.length; i++) {
+        widths[i] = new BitWidth(i);
       }
+      prefab = widths;
     }
   }
 
@@ -102,7 +104,7 @@ public class BitWidth implements Comparable<BitWidth> {
   public static final int MAXWIDTH = Value.MAX_WIDTH;
   public static final int MINWIDTH = 1;
 
-  private static BitWidth[] prefab = null;
+  private static volatile BitWidth[] prefab = null;
 
   final int width;
 
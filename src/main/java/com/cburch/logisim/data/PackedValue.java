@@ -0,0 +1,228 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.data;
+
+/**
+ * Allocation-free counterpart of the {@link Value} operations.
+ *
+ * <p>A packed value is the triple of bit planes making up a {@link Value}: the error bits, the
+ * unknown bits and the value bits, stored in three consecutive longs of a caller-owned array.
+ * The operations below read their operands from such an array and write the result back into it,
+ * so a chain of operations on multi-bit buses creates no intermediate {@link Value} objects.
+ * Only {@link #get} turns a packed value back into a (cached) {@link Value}.
+ *
+ * <p>The width is not stored; the caller keeps track of it. Intermediate results may carry bits
+ * above the width, they are masked away by {@link #get}. All operations give the same results as
+ * their {@link Value} counterparts for operands of equal width.
+ */
+public final class PackedValue {
+  /** Offset of the error bits within a packed value. */
+  public static final int ERROR = 0;
+  /** Offset of the unknown bits within a packed value. */
+  public static final int UNKNOWN = 1;
+  /** Offset of the value bits within a packed value. */
+  public static final int VALUE = 2;
+  /** Number of longs taken by one packed value. */
+  public static final int SIZE = 3;
+
+  private PackedValue() {
+    throw new IllegalStateException("Utility class. No instantiation allowed.");
+  }
+
+  /** @return a scratch array holding <code>count</code> packed values. */
+  public static long[] allocate(int count) {
+    return new long[count * SIZE];
+  }
+
+  /** @return the mask covering the lowest <code>width</code> bits. */
+  public static long mask(int width) {
+    return width >= 64 ? -1L : ~(-1L << width);
+  }
+
+  /** Stores <code>v</code> at offset <code>dst</code>. */
+  public static void set(long[] buf, int dst, Value v) {
+    buf[dst + ERROR] = v.getErrorBits();
+    buf[dst + UNKNOWN] = v.getUnknownBits();
+    buf[dst + VALUE] = v.getValueBits();
+  }
+
+  /** Stores the given planes at offset <code>dst</code>. */
+  public static void set(long[] buf, int dst, long error, long unknown, long value) {
+    buf[dst + ERROR] = error;
+    buf[dst + UNKNOWN] = unknown;
+    buf[dst + VALUE] = value;
+  }
+
+  /** Stores a fully known value at offset <code>dst</code>. */
+  public static void setKnown(long[] buf, int dst, long value) {
+    set(buf, dst, 0, 0, value);
+  }
+
+  /** Stores an all-unknown value at offset <code>dst</code>. */
+  public static void setUnknown(long[] buf, int dst) {
+    set(buf, dst, 0, -1L, 0);
+  }
+
+  public static void copy(long[] buf, int dst, int src) {
+    buf[dst + ERROR] = buf[src + ERROR];
+    buf[dst + UNKNOWN] = buf[src + UNKNOWN];
+    buf[dst + VALUE] = buf[src + VALUE];
+  }
+
+  /** @return the {@link Value} of the given width stored at offset <code>src</code>. */
+  public static Value get(int width, long[] buf, int src) {
+    return Value.create(width, buf[src + ERROR], buf[src + UNKNOWN], buf[src + VALUE]);
+  }
+
+  /** @return true if the values at <code>a</code> and <code>b</code> agree on the lowest bits. */
+  public static boolean equals(int width, long[] buf, int a, int b) {
+    final var mask = mask(width);
+    final var errorA = buf[a + ERROR] & mask;
+    final var errorB = buf[b + ERROR] & mask;
+    final var unknownA = buf[a + UNKNOWN] & mask & ~errorA;
+    final var unknownB = buf[b + UNKNOWN] & mask & ~errorB;
+    return errorA == errorB
+        && unknownA == unknownB
+        && (buf[a + VALUE] & mask & ~unknownA & ~errorA)
+            == (buf[b + VALUE] & mask & ~unknownB & ~errorB);
+  }
+
+  /** Bitwise and of the values at <code>a</code> and <code>b</code>; see {@link Value#and}. */
+  public static void and(long[] buf, int dst, int a, int b) {
+    and(buf, dst, buf[a + ERROR], buf[a + UNKNOWN], buf[a + VALUE],
+        buf[b + ERROR], buf[b + UNKNOWN], buf[b + VALUE]);
+  }
+
+  /** Ands <code>v</code> into the value at <code>dst</code>. */
+  public static void and(long[] buf, int dst, Value v) {
+    and(buf, dst, buf[dst + ERROR], buf[dst + UNKNOWN], buf[dst + VALUE],
+        v.getErrorBits(), v.getUnknownBits(), v.getValueBits());
+  }
+
+  private static void and(long[] buf, int dst, long e0, long u0, long v0, long e1, long u1,
+      long v1) {
+    final var falses = (~v0 & ~e0 & ~u0) | (~v1 & ~e1 & ~u1);
+    buf[dst + ERROR] = (e0 | e1 | u0 | u1) & ~falses;
+    buf[dst + UNKNOWN] = 0;
+    buf[dst + VALUE] = v0 & v1;
+  }
+
+  /** Bitwise or of the values at <code>a</code> and <code>b</code>; see {@link Value#or}. */
+  public static void or(long[] buf, int dst, int a, int b) {
+    or(buf, dst, buf[a + ERROR], buf[a + UNKNOWN], buf[a + VALUE],
+        buf[b + ERROR], buf[b + UNKNOWN], buf[b + VALUE]);
+  }
+
+  /** Ors <code>v</code> into the value at <code>dst</code>. */
+  public static void or(long[] buf, int dst, Value v) {
+    or(buf, dst, buf[dst + ERROR], buf[dst + UNKNOWN], buf[dst + VALUE],
+        v.getErrorBits(), v.getUnknownBits(), v.getValueBits());
+  }
+
+  private static void or(long[] buf, int dst, long e0, long u0, long v0, long e1, long u1,
+      long v1) {
+    final var trues = (v0 & ~e0 & ~u0) | (v1 & ~e1 & ~u1);
+    buf[dst + ERROR] = (e0 | e1 | u0 | u1) & ~trues;
+    buf[dst + UNKNOWN] = 0;
+    buf[dst + VALUE] = v0 | v1;
+  }
+
+  /** Bitwise xor of the values at <code>a</code> and <code>b</code>; see {@link Value#xor}. */
+  public static void xor(long[] buf, int dst, int a, int b) {
+    xor(buf, dst, buf[a + ERROR], buf[a + UNKNOWN], buf[a + VALUE],
+        buf[b + ERROR], buf[b + UNKNOWN], buf[b + VALUE]);
+  }
+
+  /** Xors <code>v</code> into the value at <code>dst</code>. */
+  public static void xor(long[] buf, int dst, Value v) {
+    xor(buf, dst, buf[dst + ERROR], buf[dst + UNKNOWN], buf[dst + VALUE],
+        v.getErrorBits(), v.getUnknownBits(), v.getValueBits());
+  }
+
+  private static void xor(long[] buf, int dst, long e0, long u0, long v0, long e1, long u1,
+      long v1) {
+    buf[dst + ERROR] = e0 | e1 | u0 | u1;
+    buf[dst + UNKNOWN] = 0;
+    buf[dst + VALUE] = v0 ^ v1;
+  }
+
+  /** Bitwise negation of the value at <code>src</code>; see {@link Value#not}. */
+  public static void not(long[] buf, int dst, int src) {
+    final var error = buf[src + ERROR] | buf[src + UNKNOWN];
+    buf[dst + VALUE] = ~buf[src + VALUE];
+    buf[dst + UNKNOWN] = 0;
+    buf[dst + ERROR] = error;
+  }
+
+  /**
+   * Resolves two drivers of the same net, as {@link Value#combine} does for values of equal
+   * width: known bits win over unknown ones and disagreeing known bits become errors.
+   */
+  public static void combine(long[] buf, int dst, int a, int b) {
+    combine(buf, dst, buf[a + ERROR], buf[a + UNKNOWN], buf[a + VALUE],
+        buf[b + ERROR], buf[b + UNKNOWN], buf[b + VALUE]);
+  }
+
+  /** Combines the driver <code>v</code> into the value at <code>dst</code>. */
+  public static void combine(long[] buf, int dst, Value v) {
+    combine(buf, dst, buf[dst + ERROR], buf[dst + UNKNOWN], buf[dst + VALUE],
+        v.getErrorBits(), v.getUnknownBits(), v.getValueBits());
+  }
+
+  private static void combine(long[] buf, int dst, long e0, long u0, long v0, long e1, long u1,
+      long v1) {
+    final var disagree = (v0 ^ v1) & ~(u0 | u1);
+    buf[dst + ERROR] = e0 | e1 | disagree;
+    buf[dst + UNKNOWN] = u0 & u1;
+    buf[dst + VALUE] = v0 | v1;
+  }
+
+  /**
+   * Widens the value of width <code>width</code> at <code>src</code> to <code>newWidth</code> bits,
+   * filling the new bits with <code>others</code>; see {@link Value#extendWidth}.
+   */
+  public static void extendWidth(long[] buf, int dst, int src, int width, int newWidth,
+      Value others) {
+    final var maskInverse = ~mask(width) & mask(newWidth);
+    final var error = buf[src + ERROR] & ~maskInverse;
+    final var unknown = buf[src + UNKNOWN] & ~maskInverse;
+    final var value = buf[src + VALUE] & ~maskInverse;
+    if (others == Value.ERROR) {
+      set(buf, dst, error | maskInverse, unknown, value);
+    } else if (others == Value.FALSE) {
+      set(buf, dst, error, unknown, value);
+    } else if (others == Value.TRUE) {
+      set(buf, dst, error, unknown, value | maskInverse);
+    } else {
+      set(buf, dst, error, unknown | maskInverse, value);
+    }
+  }
+
+  /** Replaces bit <code>which</code> of the value at <code>dst</code>; see {@link Value#set}. */
+  public static void setBit(long[] buf, int dst, int which, Value bit) {
+    final var mask = ~(1L << which);
+    buf[dst + ERROR] = (buf[dst + ERROR] & mask) | ((bit.getErrorBits() & 1) << which);
+    buf[dst + UNKNOWN] = (buf[dst + UNKNOWN] & mask) | ((bit.getUnknownBits() & 1) << which);
+    buf[dst + VALUE] = (buf[dst + VALUE] & mask) | ((bit.getValueBits() & 1) << which);
+  }
+
+  /** @return bit <code>which</code> of the value at <code>src</code>; see {@link Value#get}. */
+  public static Value getBit(long[] buf, int src, int which) {
+    final var mask = 1L << which;
+    if ((buf[src + ERROR] & mask) != 0) return Value.ERROR;
+    if ((buf[src + UNKNOWN] & mask) != 0) return Value.UNKNOWN;
+    return (buf[src + VALUE] & mask) != 0 ? Value.TRUE : Value.FALSE;
+  }
+
+  /** @return true if the lowest <code>width</code> bits at <code>src</code> are all known. */
+  public static boolean isFullyDefined(int width, long[] buf, int src) {
+    return width > 0 && ((buf[src + ERROR] | buf[src + UNKNOWN]) & mask(width)) == 0;
+  }
+}
@@ -20,7 +20,11 @@ import java.util.Arrays;
 
 public final class Value {
 
-  private static Value create(int width, long error, long unknown, long value) {
+  /**
+   * @return the value with the given bit planes, as returned by {@link #getErrorBits}, {@link
+   *     #getUnknownBits} and {@link #getValueBits}; bits above the width are ignored.
+   */
+  public static Value create(int width, long error, long unknown, long value) {
     if (width == 0) {
       return Value.NIL;
     } else if (width == 1) {
@@ -492,6 +496,21 @@ public final class Value {
     return width;
   }
 
+  /** @return the error bit plane, as used by {@link PackedValue}. */
+  public long getErrorBits() {
+    return error;
+  }
+
+  /** @return the unknown bit plane, as used by {@link PackedValue}. */
+  public long getUnknownBits() {
+    return unknown;
+  }
+
+  /** @return the value bit plane, as used by {@link PackedValue}. */
+  public long getValueBits() {
+    return value;
+  }
+
   @Override
   public int hashCode() {
     return Value.hashcode(width, error, unknown, value);
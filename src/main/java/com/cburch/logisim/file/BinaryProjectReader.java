@@ -0,0 +1,330 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.file;
+
+import static com.cburch.logisim.file.Strings.S;
+
+import com.cburch.logisim.LogisimVersion;
+import com.cburch.logisim.circuit.Circuit;
+import com.cburch.logisim.circuit.Wire;
+import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.std.memory.MemContents;
+import com.cburch.logisim.util.XmlUtil;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.InflaterInputStream;
+import javax.xml.parsers.ParserConfigurationException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Reads the compact binary project format (*.circb) written by {@link BinaryProjectWriter}.
+ *
+ * <p>A file starts with {@link #MAGIC} and a version byte, followed by a deflated stream of
+ * records. Every string is stored once: the first use carries its text, later uses only its index
+ * in the string table. Wires, components and their attribute values, which make up nearly all of
+ * a large design, have records of their own and are built straight into the circuits; memory
+ * contents are stored as raw pages of words and are never turned into text. The few other parts
+ * of a project (libraries, options, toolbar, circuit appearances and so on) are stored as the
+ * elements XmlWriter makes of them, each read into a small element of its own for the loaders of
+ * {@link XmlReader}.
+ *
+ * <p>Binary files are only written by versions that need none of the repairs the XML reader
+ * applies to older files.
+ */
+final class BinaryProjectReader {
+  static final byte[] MAGIC = {'L', 'o', 'g', 'i', 's', 'i', 'm', 'B'};
+  static final int VERSION = 2;
+
+  static final int REC_END = 0;
+  static final int REC_ELEMENT = 1;
+  static final int REC_TEXT = 2;
+  static final int REC_CIRCUIT = 3;
+  static final int REC_WIRE = 4;
+  static final int REC_COMP = 5;
+  static final int REC_ATTR = 6;
+  static final int REC_MEMORY = 7;
+
+  /** Memory contents are stored in pages of this many words, all-zero pages are left out. */
+  static final int MEMORY_PAGE_SIZE = 4096;
+
+  /** A component of the file's own circuits or VHDL entities, built once they all exist. */
+  private record PendingComponent(
+      List<Object> contents, int index, String circuitName, String name, Location loc, Map<String, Object> attrValues) {}
+
+  private final DataInputStream in;
+  private final XmlReader.ReadContext context;
+  private final Project proj;
+  /** Holds the elements read for the parts of the project other than wires and components. */
+  private final Document scratch;
+  private final ArrayList<String> strings = new ArrayList<>();
+
+  private final ArrayList<Element> pendingLibraries = new ArrayList<>();
+  private final ArrayList<Element> otherElements = new ArrayList<>();
+  private final ArrayList<XmlReader.CircuitData> circuits = new ArrayList<>();
+  private final ArrayList<PendingComponent> pendingComponents = new ArrayList<>();
+
+  private BinaryProjectReader(InputStream src, XmlReader.ReadContext context, Project proj) throws IOException {
+    final var head = src.readNBytes(MAGIC.length + 1);
+    if (head.length != MAGIC.length + 1 || !Arrays.equals(head, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+      throw new IOException("Not a binary Logisim project");
+    }
+    if (head[MAGIC.length] != VERSION) {
+      throw new IOException("Unsupported binary project version " + head[MAGIC.length]);
+    }
+    this.in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(src), 1 << 16));
+    this.context = context;
+    this.proj = proj;
+    try {
+      scratch = XmlUtil.getHardenedBuilderFactory().newDocumentBuilder().newDocument();
+    } catch (ParserConfigurationException e) {
+      throw new IOException(e.getMessage());
+    }
+  }
+
+  /** Tells whether <code>in</code> starts with the binary format; the stream is not consumed. */
+  static boolean isBinaryProject(BufferedInputStream in) throws IOException {
+    final var head = new byte[MAGIC.length];
+    in.mark(head.length);
+    final var count = in.readNBytes(head, 0, head.length);
+    in.reset();
+    return count == head.length && Arrays.equals(head, MAGIC);
+  }
+
+  /** Reads the project on <code>src</code> into the file of <code>context</code>. */
+  static void read(XmlReader.ReadContext context, InputStream src, Project proj) throws IOException {
+    new BinaryProjectReader(src, context, proj).read();
+  }
+
+  /**
+   * @return the descriptors of the libraries the project on <code>src</code> refers to; only the
+   *     start of the file, where they are stored, is read
+   */
+  static List<String> readLibraryDescriptors(InputStream src) throws IOException {
+    final var reader = new BinaryProjectReader(src, null, null);
+    final var ret = new ArrayList<String>();
+    reader.readString();
+    while (reader.in.readUnsignedByte() == REC_ELEMENT) {
+      final var elt = reader.readElement();
+      if (!"lib".equals(elt.getTagName())) break;
+      ret.add(elt.getAttribute("desc"));
+    }
+    return ret;
+  }
+
+  private void read() throws IOException {
+    try {
+      context.sourceVersion = LogisimVersion.fromString(readString());
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Corrupt binary project: version");
+    }
+    for (var kind = in.readUnsignedByte(); kind != REC_END; kind = in.readUnsignedByte()) {
+      switch (kind) {
+        case REC_ELEMENT -> readTopElement(readElement());
+        case REC_CIRCUIT -> {
+          loadPendingLibraries();
+          readCircuit();
+        }
+        default -> throw new IOException("Corrupt binary project: record type " + kind);
+      }
+    }
+    loadPendingLibraries();
+    finish();
+  }
+
+  private void readTopElement(Element elt) {
+    if ("lib".equals(elt.getTagName())) {
+      pendingLibraries.add(elt);
+      return;
+    }
+    loadPendingLibraries();
+    if ("vhdl".equals(elt.getTagName())) {
+      context.loadVhdl(elt);
+    } else {
+      otherElements.add(elt);
+    }
+  }
+
+  /** Libraries are loaded in groups, the way the DOM reader loads all of them at once. */
+  private void loadPendingLibraries() {
+    if (pendingLibraries.isEmpty()) return;
+    context.loadLibraries(pendingLibraries, false, true);
+    pendingLibraries.clear();
+  }
+
+  private void readCircuit() throws IOException {
+    final var circElt = readElement();
+    final var name = circElt.getAttribute("name");
+    if (name.isEmpty()) {
+      context.addError(S.get("circNameMissingError"), "C??");
+    }
+    final var data = new XmlReader.CircuitData(circElt, new Circuit(name, context.file, proj));
+    context.file.addCircuit(data.circuit);
+    final var contents = new ArrayList<Object>();
+    for (var kind = in.readUnsignedByte(); kind != REC_END; kind = in.readUnsignedByte()) {
+      switch (kind) {
+        case REC_WIRE -> {
+          final var from = readLocation();
+          final var to = readLocation();
+          // Avoid zero length wires
+          if (!from.equals(to)) contents.add(Wire.create(from, to));
+        }
+        case REC_COMP -> readComponent(name, contents);
+        default -> throw new IOException("Corrupt binary project: circuit record type " + kind);
+      }
+    }
+    if (!contents.isEmpty() && !circElt.hasChildNodes()) {
+      // XmlCircuitReader tells old files from new ones by the circuit having any content
+      circElt.appendChild(scratch.createTextNode(""));
+    }
+    data.contents = contents;
+    circuits.add(data);
+  }
+
+  private void readComponent(String circuitName, List<Object> contents) throws IOException {
+    final var libName = readString();
+    final var name = readString();
+    final var loc = readLocation();
+    final var attrValues = new HashMap<String, Object>();
+    for (var kind = in.readUnsignedByte(); kind != REC_END; kind = in.readUnsignedByte()) {
+      switch (kind) {
+        case REC_ATTR -> attrValues.put(readString(), readString());
+        case REC_MEMORY -> attrValues.put(readString(), readMemory());
+        default -> throw new IOException("Corrupt binary project: attribute record type " + kind);
+      }
+    }
+    if (libName == null) {
+      // subcircuits may refer to circuits further on in the file
+      pendingComponents.add(new PendingComponent(contents, contents.size(), circuitName, name, loc, attrValues));
+      contents.add(null);
+    } else {
+      final var comp = buildComponent(circuitName, libName, name, loc, attrValues);
+      if (comp != null) contents.add(comp);
+    }
+  }
+
+  private Component buildComponent(
+      String circuitName, String libName, String name, Location loc, Map<String, Object> attrValues) {
+    try {
+      return XmlCircuitReader.getComponent(libName, name, loc, attrValues, context);
+    } catch (XmlReaderException e) {
+      context.addErrors(e, String.format("%s.%s(%s)", circuitName, name, loc));
+      return null;
+    }
+  }
+
+  private void finish() {
+    for (final var pending : pendingComponents) {
+      final var comp = buildComponent(pending.circuitName(), null, pending.name(), pending.loc(), pending.attrValues());
+      pending.contents().set(pending.index(), comp);
+    }
+    for (final var data : circuits) {
+      data.contents.removeIf(item -> item == null);
+      context.loadAppearanceAndMaps(data, data.circuit.getName());
+    }
+    for (final var elt : otherElements) {
+      context.loadOtherElement(elt, false, true);
+    }
+    new XmlCircuitReader(context, circuits, false, true).execute();
+  }
+
+  private MemContents readMemory() throws IOException {
+    final var addrBits = readCount();
+    final var width = readCount();
+    if (addrBits > 32 || width < 1 || width > 64) throw new IOException("Corrupt binary project: memory size");
+    final var contents = MemContents.create(addrBits, width, false);
+    final var bytesPerWord = (width + 7) / 8;
+    final var words = new long[MEMORY_PAGE_SIZE];
+    for (var page = readVarLong(); page != 0; page = readVarLong()) {
+      final var start = (page - 1) * MEMORY_PAGE_SIZE;
+      final var count = (int) Math.min(MEMORY_PAGE_SIZE, contents.getLastOffset() + 1 - start);
+      if (start < 0 || count <= 0) throw new IOException("Corrupt binary project: memory page");
+      for (var i = 0; i < count; i++) {
+        var value = 0L;
+        for (var b = 0; b < bytesPerWord; b++) value |= (long) in.readUnsignedByte() << (8 * b);
+        words[i] = value;
+      }
+      contents.set(start, count == MEMORY_PAGE_SIZE ? words : Arrays.copyOf(words, count));
+    }
+    return contents;
+  }
+
+  private Node readNode() throws IOException {
+    final var kind = in.readUnsignedByte();
+    return switch (kind) {
+      case REC_ELEMENT -> readElement();
+      case REC_TEXT -> scratch.createTextNode(readString());
+      default -> throw new IOException("Corrupt binary project: node type " + kind);
+    };
+  }
+
+  private Element readElement() throws IOException {
+    final var elt = scratch.createElement(readString());
+    for (var n = readCount(); n > 0; n--) {
+      elt.setAttribute(readString(), readString());
+    }
+    for (var n = readCount(); n > 0; n--) {
+      elt.appendChild(readNode());
+    }
+    return elt;
+  }
+
+  private Location readLocation() throws IOException {
+    // snapped like Location.parse does
+    return Location.create(readSignedInt(), readSignedInt(), true);
+  }
+
+  /** Reads a string reference; index 0 stands for null, a new index is followed by the text. */
+  private String readString() throws IOException {
+    final var ref = readVarLong();
+    if (ref == 0) return null;
+    if (ref <= strings.size()) return strings.get((int) (ref - 1));
+    if (ref != strings.size() + 1) throw new IOException("Corrupt binary project: string " + ref);
+    final var bytes = new byte[readCount()];
+    in.readFully(bytes);
+    final var value = new String(bytes, StandardCharsets.UTF_8);
+    strings.add(value);
+    return value;
+  }
+
+  private int readCount() throws IOException {
+    final var value = readVarLong();
+    if (value > Integer.MAX_VALUE) throw new IOException("Corrupt binary project: count " + value);
+    return (int) value;
+  }
+
+  private int readSignedInt() throws IOException {
+    final var value = readVarLong();
+    return (int) (value >>> 1) ^ -(int) (value & 1);
+  }
+
+  private long readVarLong() throws IOException {
+    var value = 0L;
+    for (var shift = 0; shift < 64; shift += 7) {
+      final var b = in.read();
+      if (b < 0) throw new EOFException();
+      value |= (long) (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) return value;
+    }
+    throw new IOException("Corrupt binary project: number too long");
+  }
+}
@@ -0,0 +1,244 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.file;
+
+import static com.cburch.logisim.file.BinaryProjectReader.MAGIC;
+import static com.cburch.logisim.file.BinaryProjectReader.MEMORY_PAGE_SIZE;
+import static com.cburch.logisim.file.BinaryProjectReader.REC_ATTR;
+import static com.cburch.logisim.file.BinaryProjectReader.REC_CIRCUIT;
+import static com.cburch.logisim.file.BinaryProjectReader.REC_COMP;
+import static com.cburch.logisim.file.BinaryProjectReader.REC_ELEMENT;
+import static com.cburch.logisim.file.BinaryProjectReader.REC_END;
+import static com.cburch.logisim.file.BinaryProjectReader.REC_MEMORY;
+import static com.cburch.logisim.file.BinaryProjectReader.REC_TEXT;
+import static com.cburch.logisim.file.BinaryProjectReader.REC_WIRE;
+import static com.cburch.logisim.file.BinaryProjectReader.VERSION;
+
+import com.cburch.logisim.circuit.Circuit;
+import com.cburch.logisim.data.AttributeDefaultProvider;
+import com.cburch.logisim.data.AttributeSet;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.generated.BuildInfo;
+import com.cburch.logisim.std.memory.MemContents;
+import com.cburch.logisim.util.XmlUtil;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import javax.xml.parsers.ParserConfigurationException;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Writes a project in the binary project format described in {@link BinaryProjectReader}. The
+ * wires and components of the circuits are written straight from the circuits; the few other
+ * parts of the project are built by an XmlWriter one element at a time, so that both formats
+ * save the same things.
+ */
+final class BinaryProjectWriter {
+  private final DataOutputStream out;
+  private final XmlWriter xml;
+  private final HashMap<String, Integer> strings = new HashMap<>();
+
+  private BinaryProjectWriter(DataOutputStream out, XmlWriter xml) {
+    this.out = out;
+    this.xml = xml;
+  }
+
+  /** Writes <code>file</code> to <code>dest</code>, which is left open. */
+  static void write(LogisimFile file, LibraryLoader loader, File destFile, OutputStream dest)
+      throws ParserConfigurationException, IOException, LoadFailedException {
+    final var doc = XmlUtil.getHardenedBuilderFactory().newDocumentBuilder().newDocument();
+    final var xml = XmlWriter.create(file, doc, loader, destFile, null, false);
+    dest.write(MAGIC);
+    dest.write(VERSION);
+    final var deflater = new Deflater();
+    try {
+      final var zip = new DeflaterOutputStream(dest, deflater, 1 << 16);
+      final var writer = new BinaryProjectWriter(new DataOutputStream(new BufferedOutputStream(zip, 1 << 16)), xml);
+      writer.writeProject(file);
+      writer.out.flush();
+      zip.finish();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private void writeProject(LogisimFile file) throws IOException, LoadFailedException {
+    writeString(BuildInfo.version.toString());
+    // the libraries come first: they name the libraries of the components
+    for (final var lib : file.getLibraries()) {
+      writeTopElement(xml.fromLibrary(lib));
+    }
+    writeTopElement(xml.fromMainCircuit());
+    writeTopElement(xml.fromOptions());
+    writeTopElement(xml.fromMouseMappings());
+    writeTopElement(xml.fromToolbarData());
+    for (final var circuit : file.getCircuits()) {
+      writeCircuit(circuit);
+    }
+    for (final var vhdl : file.getVhdlContents()) {
+      writeTopElement(xml.fromVhdl(vhdl));
+    }
+    out.writeByte(REC_END);
+  }
+
+  private void writeTopElement(Element elt) throws IOException {
+    if (elt == null) return;
+    out.writeByte(REC_ELEMENT);
+    writeElement(elt);
+  }
+
+  private void writeCircuit(Circuit circuit) throws IOException {
+    out.writeByte(REC_CIRCUIT);
+    writeElement(xml.fromCircuitHeader(circuit));
+    for (final var wire : circuit.getWires()) {
+      out.writeByte(REC_WIRE);
+      writeLocation(wire.getEnd0());
+      writeLocation(wire.getEnd1());
+    }
+    for (final var comp : circuit.getNonWires()) {
+      final var libName = xml.getLibraryName(comp);
+      if (libName == null) continue;
+      out.writeByte(REC_COMP);
+      writeString(libName.isEmpty() ? null : libName);
+      writeString(comp.getFactory().getName());
+      writeLocation(comp.getLocation());
+      writeAttributes(comp.getAttributeSet(), comp.getFactory());
+    }
+    out.writeByte(REC_END);
+  }
+
+  /**
+   * Writes the attributes that XmlWriter would save. Memory contents are written as raw pages of
+   * words, unless they are kept in an image file of their own.
+   */
+  private void writeAttributes(AttributeSet attrs, AttributeDefaultProvider source) throws IOException {
+    try {
+      xml.forEachSavedAttribute(attrs, source, false, (attr, value, text) -> {
+        try {
+          if (value instanceof MemContents contents && !contents.isBackingFileCurrent()) {
+            out.writeByte(REC_MEMORY);
+            writeString(attr.getName());
+            writeMemory(contents);
+          } else {
+            out.writeByte(REC_ATTR);
+            writeString(attr.getName());
+            writeString(text);
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    out.writeByte(REC_END);
+  }
+
+  private void writeMemory(MemContents contents) throws IOException {
+    writeCount(contents.getLogLength());
+    writeCount(contents.getWidth());
+    final var bytesPerWord = (contents.getWidth() + 7) / 8;
+    final var end = contents.getLastOffset() + 1;
+    for (long start = 0; start < end; start += MEMORY_PAGE_SIZE) {
+      final var count = (int) Math.min(MEMORY_PAGE_SIZE, end - start);
+      if (isClear(contents, start, count)) continue;
+      writeVarLong(start / MEMORY_PAGE_SIZE + 1);
+      for (var i = 0; i < count; i++) {
+        final var value = contents.get(start + i);
+        for (var b = 0; b < bytesPerWord; b++) out.writeByte((int) (value >>> (8 * b)));
+      }
+    }
+    writeVarLong(0);
+  }
+
+  private static boolean isClear(MemContents contents, long start, int count) {
+    for (var i = 0; i < count; i++) {
+      if (contents.get(start + i) != 0) return false;
+    }
+    return true;
+  }
+
+  private void writeNode(Node node) throws IOException {
+    switch (node.getNodeType()) {
+      case Node.TEXT_NODE, Node.CDATA_SECTION_NODE -> {
+        out.writeByte(REC_TEXT);
+        writeString(node.getNodeValue());
+      }
+      case Node.ELEMENT_NODE -> {
+        out.writeByte(REC_ELEMENT);
+        writeElement((Element) node);
+      }
+      default -> throw new IOException("Cannot store node of type " + node.getNodeType());
+    }
+  }
+
+  private void writeElement(Element elt) throws IOException {
+    writeString(elt.getTagName());
+    final var attrs = elt.getAttributes();
+    writeCount(attrs.getLength());
+    for (var i = 0; i < attrs.getLength(); i++) {
+      final var attr = (Attr) attrs.item(i);
+      writeString(attr.getName());
+      writeString(attr.getValue());
+    }
+    final var children = elt.getChildNodes();
+    writeCount(children.getLength());
+    for (var i = 0; i < children.getLength(); i++) {
+      writeNode(children.item(i));
+    }
+  }
+
+  private void writeLocation(Location loc) throws IOException {
+    writeSignedInt(loc.getX());
+    writeSignedInt(loc.getY());
+  }
+
+  private void writeString(String value) throws IOException {
+    if (value == null) {
+      writeVarLong(0);
+      return;
+    }
+    final var index = strings.get(value);
+    if (index != null) {
+      writeVarLong(index + 1L);
+      return;
+    }
+    strings.put(value, strings.size());
+    writeVarLong(strings.size());
+    final var bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeCount(bytes.length);
+    out.write(bytes);
+  }
+
+  private void writeCount(int value) throws IOException {
+    writeVarLong(value);
+  }
+
+  private void writeSignedInt(int value) throws IOException {
+    writeVarLong(((value << 1) ^ (value >> 31)) & 0xffffffffL);
+  }
+
+  private void writeVarLong(long value) throws IOException {
+    while ((value & ~0x7fL) != 0) {
+      out.writeByte((int) ((value & 0x7f) | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+}
@@ -16,5 +16,13 @@ interface LibraryLoader {
 
   Library loadLibrary(String desc);
 
+  /**
+   * Starts reading ahead the library named by <code>desc</code>, which is about to be loaded. By
+   * default nothing is read ahead.
+   */
+  default void prefetchLibrary(String desc) {
+    // nothing to read ahead
+  }
+
   void showError(String description);
 }
@@ -32,6 +32,9 @@ public final class LibraryManager {
   public static final char DESC_SEP = '#';
   private final HashMap<LibraryDescriptor, WeakReference<LoadedLibrary>> fileMap;
   private final WeakHashMap<LoadedLibrary, LibraryDescriptor> invMap;
+  // .circ libraries by the hash of their contents, so that copies of a library in the
+  // directories of several projects are parsed once; the first copy loaded is the one kept
+  private final HashMap<String, WeakReference<LoadedLibrary>> contentMap;
 
   private static class JarDescriptor implements LibraryDescriptor {
     private final File file;
@@ -116,6 +119,7 @@ public final class LibraryManager {
   private LibraryManager() {
     fileMap = new HashMap<>();
     invMap = new WeakHashMap<>();
+    contentMap = new HashMap<>();
     ProjectsDirty.initialize();
   }
 
@@ -164,6 +168,7 @@ public final class LibraryManager {
 
     final var lib = findKnown(dest);
     if (lib != null) {
+      forgetContent(lib);
       final var clone = file.cloneLogisimFile(loader);
       clone.setName(file.getName());
       clone.setDirty(false);
@@ -171,6 +176,10 @@ public final class LibraryManager {
     }
   }
 
+  private void forgetContent(LoadedLibrary lib) {
+    contentMap.values().removeIf(ref -> ref.get() == null || ref.get() == lib);
+  }
+
   private LoadedLibrary findKnown(Object key) {
     final var retLibRef = fileMap.get(key);
     if (retLibRef == null) {
@@ -335,7 +344,23 @@ public final class LibraryManager {
     if (ret != null) return ret;
 
     try {
-      ret = new LoadedLibrary(loader.loadLogisimFile(toRead));
+      final var prefetched = loader.prefetch(toRead);
+      final var sameContentRef = contentMap.get(prefetched.contentKey);
+      final var sameContent = sameContentRef == null ? null : sameContentRef.get();
+      if (sameContent != null && invMap.get(sameContent) instanceof LogisimProjectDescriptor known
+          && PrefetchedLibrary.canonical(known.file).equals(prefetched.file)) {
+        // the same file named through another path
+        fileMap.put(descriptor, new WeakReference<>(sameContent));
+        return sameContent;
+      }
+      if (sameContent != null && sameContent.getName().equals(loader.toProjectName(toRead))) {
+        // a copy of a known library shares its circuits, but refers to its own file, which is
+        // the one the projects using it save and reload it from
+        ret = new LoadedLibrary(sameContent.getBase());
+      } else {
+        ret = new LoadedLibrary(loader.loadLogisimFile(toRead));
+        contentMap.put(prefetched.contentKey, new WeakReference<>(ret));
+      }
     } catch (LoadFailedException e) {
       loader.showError(e.getMessage());
       return null;
@@ -351,6 +376,7 @@ public final class LibraryManager {
     if (descriptor == null) {
       loader.showError(S.get("unknownLibraryFileError", lib.getDisplayName()));
     } else {
+      forgetContent(lib);
       try {
         descriptor.setBase(loader, lib);
       } catch (LoadFailedException e) {
@@ -100,8 +100,22 @@ public class LoadedLibrary extends Library implements LibraryEventSource {
     }
   }
 
-  private static void replaceAll(Map<ComponentFactory, ComponentFactory> compMap, Map<Tool, Tool> toolMap) {
+  /** @return whether <code>lib</code> is among the libraries of <code>file</code>, at any depth. */
+  private static boolean uses(Library file, Library lib) {
+    for (final var sub : file.getLibraries()) {
+      if (sub == lib || uses(sub, lib)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Replaces the components and tools of the previous base in the projects and libraries that use
+   * this library. Copies of a library may share their base, see LibraryManager, so the ones that
+   * use another copy are left alone.
+   */
+  private void replaceAll(Map<ComponentFactory, ComponentFactory> compMap, Map<Tool, Tool> toolMap) {
     for (final var proj : Projects.getOpenProjects()) {
+      if (!uses(proj.getLogisimFile(), this)) continue;
       final var oldTool = proj.getTool();
       final var oldCircuit = proj.getCurrentCircuit();
       if (toolMap.containsKey(oldTool)) {
@@ -115,7 +129,7 @@ public class LoadedLibrary extends Library implements LibraryEventSource {
       replaceAll(proj.getLogisimFile(), compMap, toolMap);
     }
     for (final var file : LibraryManager.instance.getLogisimLibraries()) {
-      replaceAll(file, compMap, toolMap);
+      if (uses(file, this)) replaceAll(file, compMap, toolMap);
     }
   }
 
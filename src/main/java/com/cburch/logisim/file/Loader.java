@@ -33,6 +33,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinTask;
 import com.cburch.logisim.util.LineBuffer;
 import java.util.zip.ZipOutputStream;
 
@@ -83,7 +85,7 @@ public class Loader implements LibraryLoader {
   private static class LogisimFileFilter extends FileFilter {
     @Override
     public boolean accept(File f) {
-      return f.isDirectory() || f.getName().endsWith(LOGISIM_EXTENSION);
+      return f.isDirectory() || isProjectFileName(f.getName());
     }
 
     @Override
@@ -129,6 +131,8 @@ public class Loader implements LibraryLoader {
   }
 
   public static final String LOGISIM_EXTENSION = ".circ";
+  /** Extension of projects saved in the compact binary format instead of XML. */
+  public static final String LOGISIM_BINARY_EXTENSION = ".circb";
   public static final String LOGISIM_PROJECT_BUNDLE_EXTENSION = ".lsebdl";
   public static final String LOGISIM_PROJECT_BUNDLE_INFO_FILE = "LogisimEvolutionBundle.info";
   public static final String LOGISIM_LIBRARY_DIR = "library";
@@ -150,6 +154,8 @@ public class Loader implements LibraryLoader {
   private File autosaveFile = null;
   private final Stack<File> filesOpening = new Stack<>();
   private Map<File, File> substitutions = new HashMap<>();
+  // libraries being read ahead by canonical file, see PrefetchedLibrary
+  private final Map<File, ForkJoinTask<PrefetchedLibrary>> prefetched = new ConcurrentHashMap<>();
   private ZipOutputStream zipFile;
 
   public Loader(Component parent) {
@@ -157,6 +163,11 @@ public class Loader implements LibraryLoader {
     clear();
   }
 
+  /** @return whether <code>name</code> has the extension of a project, XML or binary. */
+  public static boolean isProjectFileName(String name) {
+    return name.endsWith(LOGISIM_EXTENSION) || name.endsWith(LOGISIM_BINARY_EXTENSION);
+  }
+
   private static File determineBackupName(File base) {
     final var dir = base.getParentFile();
     var name = base.getName();
@@ -322,16 +333,54 @@ public class Loader implements LibraryLoader {
     LogisimFile ret = null;
     filesOpening.push(actual);
     try {
-      ret = LogisimFile.load(actual, this);
+      final var contents = takePrefetchedContents(actual);
+      if (contents != null) ret = LogisimFile.load(contents, this, actual);
+      // files that do not parse are read again the usual way, which reports the errors
+      if (ret == null) ret = LogisimFile.load(actual, this);
     } catch (IOException e) {
       throw new LoadFailedException(S.get("logisimLoadError", toProjectName(actual), e.toString()));
     } finally {
       filesOpening.pop();
+      if (filesOpening.empty()) prefetched.clear();
     }
     if (ret != null) ret.setName(toProjectName(actual));
     return ret;
   }
 
+  /**
+   * Starts reading the library file named by <code>desc</code>, and the libraries it refers to,
+   * on the common pool. Descriptors of other kinds and files that cannot be read are ignored;
+   * loadLibrary deals with them as before.
+   */
+  @Override
+  public void prefetchLibrary(String desc) {
+    if (!desc.startsWith(PrefetchedLibrary.FILE_PREFIX)) return;
+    final var name = desc.substring(PrefetchedLibrary.FILE_PREFIX.length());
+    final var file = getSubstitution(PrefetchedLibrary.resolve(getCurrentDirectory(), name));
+    if (file.canRead()) PrefetchedLibrary.start(file, prefetched);
+  }
+
+  /** @return the library file read ahead, reading it now if that was not done yet. */
+  PrefetchedLibrary prefetch(File file) throws LoadFailedException {
+    try {
+      return PrefetchedLibrary.start(getSubstitution(file), prefetched).join();
+    } catch (RuntimeException e) {
+      final var cause = e.getCause() != null ? e.getCause() : e;
+      throw new LoadFailedException(S.get("logisimLoadError", toProjectName(file), cause.toString()));
+    }
+  }
+
+  private byte[] takePrefetchedContents(File file) {
+    final var task = prefetched.get(PrefetchedLibrary.canonical(file));
+    // an autosave has to be offered to the user, which LogisimFile.load does
+    if (task == null || findAutosaveFile(file).isPresent()) return null;
+    try {
+      return task.join().takeContents();
+    } catch (RuntimeException e) {
+      return null; // reported when the file is read the usual way
+    }
+  }
+
   public Library loadLogisimLibrary(File file) {
     final var actual = getSubstitution(file);
     final var ret = LibraryManager.instance.loadLogisimLibrary(this, actual);
@@ -370,6 +419,8 @@ public class Loader implements LibraryLoader {
       ret = LogisimFile.load(reader, this);
     } catch (LoaderException e) {
       return null;
+    } finally {
+      prefetched.clear();
     }
     showMessages(ret);
     return ret;
@@ -665,7 +716,7 @@ public class Loader implements LibraryLoader {
             options[initialSelection % options.length]);
   }
 
-  private String toProjectName(File file) {
+  String toProjectName(File file) {
     final var ret = file.getName();
 
     return (ret.endsWith(LOGISIM_EXTENSION))
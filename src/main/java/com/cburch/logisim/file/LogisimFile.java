@@ -31,6 +31,7 @@ import com.cburch.logisim.util.UniquelyNamedThread;
 import com.cburch.logisim.vhdl.base.VhdlContent;
 import com.cburch.logisim.vhdl.base.VhdlEntity;
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileReader;
@@ -290,6 +291,11 @@ public class LogisimFile extends Library implements LibraryEventSource, CircuitL
     final var inBuffered = new BufferedInputStream(in);
     final var firstLine = getFirstLine(inBuffered);
 
+    if (BinaryProjectReader.isBinaryProject(inBuffered)) {
+      final var ret = new XmlReader(loader, file).readBinaryLibrary(inBuffered, null);
+      ret.loader = loader;
+      return ret;
+    }
     if (firstLine == null) {
       throw new IOException("File is empty");
     } else if (firstLine.equals("Logisim v1.0")) {
@@ -305,6 +311,19 @@ public class LogisimFile extends Library implements LibraryEventSource, CircuitL
     return ret;
   }
 
+  /**
+   * Builds the file from contents that were already read, see PrefetchedLibrary.
+   *
+   * @return the file, or null if the contents cannot be parsed
+   */
+  static LogisimFile load(byte[] contents, Loader loader, File file) throws IOException {
+    try {
+      return loadSub(new ByteArrayInputStream(contents), loader, file);
+    } catch (SAXException e) {
+      return null;
+    }
+  }
+
   public void addCircuit(Circuit circuit) {
     addCircuit(circuit, tools.size());
   }
@@ -698,7 +717,11 @@ public class LogisimFile extends Library implements LibraryEventSource, CircuitL
 
   void write(OutputStream out, LibraryLoader loader, File dest, String mainCircFile, boolean recurse) {
     try {
-      XmlWriter.write(this, out, loader, dest, mainCircFile, recurse);
+      if (dest != null && dest.getName().endsWith(Loader.LOGISIM_BINARY_EXTENSION)) {
+        BinaryProjectWriter.write(this, loader, dest, out);
+      } else {
+        XmlWriter.write(this, out, loader, dest, mainCircFile, recurse);
+      }
     } catch (TransformerConfigurationException e) {
       loader.showError("internal error configuring transformer");
     } catch (ParserConfigurationException e) {
@@ -0,0 +1,148 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.file;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * A library file that was read and hashed on the common pool before it is needed. When a project
+ * is opened, the libraries its lib elements name, and the ones those name in turn, are all read
+ * and hashed at once while the project itself is still being read. Only the lib elements at the
+ * start of each file are scanned for that. Reading and hashing is all that runs in parallel: a
+ * library is parsed on the thread loading it, as its components must be built on one thread, and
+ * only if LibraryManager does not already know a library with the same contents.
+ *
+ * <p>Nothing here touches the Loader: files that are missing are left for the Loader to ask the
+ * user about, and the errors of a file that cannot be parsed are reported when it is loaded, as
+ * before.
+ */
+final class PrefetchedLibrary {
+  static final String FILE_PREFIX = "file" + LibraryManager.DESC_SEP;
+
+  /** The canonical file. */
+  final File file;
+
+  /** The SHA-256 hash of the file contents. */
+  final String contentKey;
+
+  private byte[] contents;
+
+  private PrefetchedLibrary(File file, String contentKey, byte[] contents) {
+    this.file = file;
+    this.contentKey = contentKey;
+    this.contents = contents;
+  }
+
+  /** @return the contents of the file, or null once they were taken. */
+  byte[] takeContents() {
+    final var ret = contents;
+    contents = null;
+    return ret;
+  }
+
+  static File canonical(File file) {
+    try {
+      return file.getCanonicalFile();
+    } catch (IOException e) {
+      return file.getAbsoluteFile();
+    }
+  }
+
+  /**
+   * Starts reading <code>file</code> unless it is already in <code>pending</code>, and does the
+   * same for the libraries it refers to.
+   */
+  static ForkJoinTask<PrefetchedLibrary> start(File file, Map<File, ForkJoinTask<PrefetchedLibrary>> pending) {
+    final var key = canonical(file);
+    return pending.computeIfAbsent(key, k -> ForkJoinPool.commonPool().submit(() -> read(k, pending)));
+  }
+
+  private static PrefetchedLibrary read(File file, Map<File, ForkJoinTask<PrefetchedLibrary>> pending)
+      throws IOException {
+    final var bytes = Files.readAllBytes(file.toPath());
+    final String hash;
+    try {
+      hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IOException(e);
+    }
+    List<String> libraries;
+    try {
+      final var in = new BufferedInputStream(new ByteArrayInputStream(bytes));
+      libraries = BinaryProjectReader.isBinaryProject(in)
+          ? BinaryProjectReader.readLibraryDescriptors(in)
+          : readLibraryDescriptors(in);
+    } catch (IOException | XMLStreamException | RuntimeException e) {
+      libraries = List.of(); // reported when the file is loaded
+    }
+    for (final var desc : libraries) {
+      if (!desc.startsWith(FILE_PREFIX)) continue;
+      final var sub = resolve(file.getParentFile(), desc.substring(FILE_PREFIX.length()));
+      if (sub.canRead()) start(sub, pending);
+    }
+    return new PrefetchedLibrary(file, hash, bytes);
+  }
+
+  /**
+   * @return the descriptors of the lib elements at the start of a .circ file, where XmlWriter puts
+   *     them; the rest of the file is not read
+   */
+  private static List<String> readLibraryDescriptors(InputStream in) throws XMLStreamException {
+    final var factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    final var reader = factory.createXMLStreamReader(in);
+    final var ret = new ArrayList<String>();
+    try {
+      reader.nextTag();
+      while (true) {
+        // the project element starts with a line of text
+        final var event = reader.next();
+        if (event == XMLStreamConstants.END_ELEMENT
+            || event == XMLStreamConstants.END_DOCUMENT) break;
+        if (event != XMLStreamConstants.START_ELEMENT) continue;
+        if (!"lib".equals(reader.getLocalName())) break;
+        final var desc = reader.getAttributeValue(null, "desc");
+        if (desc != null) ret.add(desc);
+        // skip the tool settings of the library
+        for (var depth = 1; depth > 0; ) {
+          final var next = reader.next();
+          if (next == XMLStreamConstants.START_ELEMENT) depth++;
+          else if (next == XMLStreamConstants.END_ELEMENT) depth--;
+        }
+      }
+    } finally {
+      reader.close();
+    }
+    return ret;
+  }
+
+  /** Resolves a library file name the way Loader.getFileFor does, without asking the user. */
+  static File resolve(File directory, String name) {
+    final var file = new File(name);
+    return file.isAbsolute() || directory == null ? file : new File(directory, name);
+  }
+}
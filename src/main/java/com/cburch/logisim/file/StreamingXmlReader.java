@@ -0,0 +1,369 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.file;
+
+import static com.cburch.logisim.file.Strings.S;
+import static javax.xml.stream.XMLStreamConstants.CDATA;
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.SPACE;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+import com.cburch.logisim.LogisimVersion;
+import com.cburch.logisim.circuit.Circuit;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.util.StringUtil;
+import com.cburch.logisim.util.XmlUtil;
+import com.cburch.logisim.vhdl.base.VhdlContent;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Reads a .circ file with StAX instead of parsing the whole file into one DOM document first.
+ *
+ * <p>Each top-level element is turned into a small DOM tree of its own as it is met, so the
+ * loaders of {@link XmlReader} apply unchanged. The label repairs of {@link
+ * XmlReader#ensureLogisimCompatibility} and the pin attribute conversion are applied to every
+ * element on the fly, with one replacement per distinct invalid label as before. The components
+ * of built-in and loaded libraries are created on the parser thread as they are read, since
+ * factories and their attribute sets are not safe to use from several threads. Wires are built
+ * straight from the attributes of their start tags, without a DOM element. Reading is sequential
+ * throughout: the circuits are built one after the other on the thread loading the file.
+ * Subcircuits, VHDL entities and anything that
+ * fails are left to {@link XmlCircuitReader}, which reports the errors in the usual way.
+ *
+ * <p>Files written before 4.1.0 may need the repairs of <code>considerRepairs</code>, which work
+ * on the whole document; {@link #canRead} leaves those to the DOM reader.
+ */
+final class StreamingXmlReader {
+  /** Files from this version on need none of the whole-document repairs. */
+  private static final LogisimVersion FIRST_VERSION = new LogisimVersion(4, 1, 0, "dev");
+
+  /** How far the file may be read ahead to find the version in the root element. */
+  private static final int HEADER_LIMIT = 1 << 20;
+
+  private final XmlReader xmlReader;
+  private final XmlReader.ReadContext context;
+  private final Project proj;
+  private final XMLStreamReader in;
+  private final DocumentBuilder builder;
+  /** Holds the top-level elements other than circuits. */
+  private final Document scratch;
+
+  private final HashMap<String, String> circuitNames = new HashMap<>();
+  private final HashMap<String, String> circuitLabels = new HashMap<>();
+  private final HashMap<String, String> componentLabels = new HashMap<>();
+  private final ArrayList<Element> pendingLibraries = new ArrayList<>();
+  private final ArrayList<Element> otherElements = new ArrayList<>();
+  private final ArrayList<PendingCircuit> circuits = new ArrayList<>();
+  private String wiringLibName;
+
+  private static final class PendingCircuit {
+    final XmlReader.CircuitData data;
+    final boolean hadChildren;
+
+    PendingCircuit(XmlReader.CircuitData data, boolean hadChildren) {
+      this.data = data;
+      this.hadChildren = hadChildren;
+    }
+  }
+
+  StreamingXmlReader(XmlReader xmlReader, XmlReader.ReadContext context, InputStream src, Project proj)
+      throws IOException, XMLStreamException {
+    this.xmlReader = xmlReader;
+    this.context = context;
+    this.proj = proj;
+    try {
+      builder = XmlUtil.getHardenedBuilderFactory().newDocumentBuilder();
+    } catch (ParserConfigurationException e) {
+      throw new IOException(e.getMessage());
+    }
+    scratch = builder.newDocument();
+    in = createFactory().createXMLStreamReader(src);
+  }
+
+  private static XMLInputFactory createFactory() {
+    final var factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    return factory;
+  }
+
+  /**
+   * Tells whether the project on <code>in</code> was written by a version that needs none of the
+   * whole-document repairs. The stream is reset to where it was.
+   */
+  static boolean canRead(InputStream in) throws IOException {
+    in.mark(HEADER_LIMIT);
+    try {
+      final var reader = createFactory().createXMLStreamReader(in);
+      try {
+        if (reader.nextTag() != START_ELEMENT) return false;
+        final var version = reader.getAttributeValue(null, "source");
+        if (StringUtil.isNullOrEmpty(version) || version.endsWith("-HC")) return false;
+        return LogisimVersion.fromString(version).compareTo(FIRST_VERSION) >= 0;
+      } finally {
+        reader.close();
+      }
+    } catch (XMLStreamException | IllegalArgumentException e) {
+      // left to the DOM reader, which also reports any syntax error
+      return false;
+    } finally {
+      in.reset();
+    }
+  }
+
+  void read() throws XMLStreamException {
+    try {
+      in.nextTag();
+      context.sourceVersion = LogisimVersion.fromString(in.getAttributeValue(null, "source"));
+      for (var event = in.next(); event != END_ELEMENT; event = in.next()) {
+        if (event != START_ELEMENT) continue;
+        final var name = in.getLocalName();
+        if ("lib".equals(name)) {
+          pendingLibraries.add(readLibraryElement());
+          continue;
+        }
+        loadPendingLibraries();
+        switch (name) {
+          case "circuit" -> readCircuit();
+          case "vhdl" -> context.loadVhdl(readElement(scratch));
+          default -> otherElements.add(readOtherElement());
+        }
+      }
+      loadPendingLibraries();
+    } finally {
+      in.close();
+    }
+    finish();
+  }
+
+  private Element readLibraryElement() throws XMLStreamException {
+    final var libElt = readElement(scratch);
+    final var name = libElt.getAttribute("name");
+    if (wiringLibName == null && "#Wiring".equals(libElt.getAttribute("desc"))) {
+      wiringLibName = name;
+    }
+    XmlReader.cleanupToolsLabel(libElt);
+    convertPinAttributes(libElt);
+    return libElt;
+  }
+
+  private Element readOtherElement() throws XMLStreamException {
+    final var elt = readElement(scratch);
+    if ("toolbar".equals(elt.getTagName())) XmlReader.cleanupToolsLabel(elt);
+    convertPinAttributes(elt);
+    return elt;
+  }
+
+  /** Libraries are loaded in groups, the way the DOM reader loads all of them at once. */
+  private void loadPendingLibraries() {
+    if (pendingLibraries.isEmpty()) return;
+    context.loadLibraries(pendingLibraries, false, true);
+    pendingLibraries.clear();
+  }
+
+  private void readCircuit() throws XMLStreamException {
+    final var doc = builder.newDocument();
+    final var circElt = startElement(doc);
+    final var originalName = circElt.getAttribute("name");
+    var name = originalName;
+    if (VhdlContent.labelVHDLInvalid(name)) {
+      name = repairLabel(circuitNames, name);
+      circElt.setAttribute("name", name);
+    }
+
+    // components and wires are kept out of the circuit element
+    final var items = new ArrayList<Object>();
+    var hadChildren = false;
+    for (var event = in.next(); event != END_ELEMENT; event = in.next()) {
+      hadChildren = true;
+      if (event != START_ELEMENT) continue;
+      if ("wire".equals(in.getLocalName())) {
+        final var wire = readWire(doc);
+        if (wire != null) items.add(wire);
+        continue;
+      }
+      final var child = readElement(doc);
+      switch (child.getTagName()) {
+        case "comp" -> {
+          repairComponent(child);
+          items.add(buildComponent(child));
+        }
+        default -> circElt.appendChild(child);
+      }
+    }
+
+    for (final var attrElt : XmlIterator.forChildElements(circElt, "a")) {
+      final var attrName = attrElt.getAttribute("name");
+      if ("label".equals(attrName)) {
+        final var label = attrElt.getAttribute("val");
+        if (!label.isEmpty() && VhdlContent.labelVHDLInvalid(label)) {
+          attrElt.setAttribute("val", repairLabel(circuitLabels, label));
+        }
+      } else if ("circuit".equals(attrName) && !name.equals(originalName)) {
+        attrElt.setAttribute("val", name);
+      }
+    }
+
+    if (name.isEmpty()) {
+      context.addError(S.get("circNameMissingError"), "C??");
+    }
+    final var data = new XmlReader.CircuitData(circElt, new Circuit(name, context.file, proj));
+    context.file.addCircuit(data.circuit);
+    data.contents = items;
+    circuits.add(new PendingCircuit(data, hadChildren));
+  }
+
+  /**
+   * Reads the wire element the parser is positioned on.
+   *
+   * @return the wire, null for a zero length wire, or the element itself if the wire cannot be
+   *     built here
+   */
+  private Object readWire(Document doc) throws XMLStreamException {
+    try {
+      final var wire =
+          XmlCircuitReader.createWire(in.getAttributeValue(null, "from"), in.getAttributeValue(null, "to"));
+      skipElement();
+      return wire;
+    } catch (XmlReaderException e) {
+      // built again by XmlCircuitReader, which reports the error
+      return readElement(doc);
+    }
+  }
+
+  /**
+   * Builds a component of a built-in or loaded library on the parser thread. Subcircuits and
+   * VHDL entities may refer to circuits that are not read yet, so they are left to
+   * XmlCircuitReader, like components that fail here, which it reports.
+   *
+   * @return the component, or <code>compElt</code> if it is not built here
+   */
+  private Object buildComponent(Element compElt) {
+    if (compElt.getAttribute("lib").isEmpty()) return compElt;
+    try {
+      final var comp = XmlCircuitReader.getComponent(compElt, context, false, true);
+      return comp != null ? comp : compElt;
+    } catch (XmlReaderException e) {
+      return compElt;
+    }
+  }
+
+  private void repairComponent(Element compElt) {
+    if (compElt.hasAttribute("lib")) {
+      for (final var attrElt : XmlIterator.forChildElements(compElt, "a")) {
+        if ("label".equals(attrElt.getAttribute("name"))) {
+          final var label = attrElt.getAttribute("val");
+          if (!label.isEmpty() && VhdlContent.labelVHDLInvalid(label)) {
+            attrElt.setAttribute("val", repairLabel(componentLabels, label));
+          }
+        }
+      }
+    }
+    xmlReader.convertObsoletePinAttributes(compElt.getOwnerDocument(), compElt, wiringLibName);
+  }
+
+  private void convertPinAttributes(Element elt) {
+    final var doc = elt.getOwnerDocument();
+    for (final var compElt : XmlIterator.forDescendantElements(elt, "comp")) {
+      xmlReader.convertObsoletePinAttributes(doc, compElt, wiringLibName);
+    }
+    for (final var toolElt : XmlIterator.forDescendantElements(elt, "tool")) {
+      xmlReader.convertObsoletePinAttributes(doc, toolElt, wiringLibName);
+    }
+  }
+
+  private static String repairLabel(HashMap<String, String> validLabels, String label) {
+    return validLabels.computeIfAbsent(label, XmlReader::generateValidVHDLLabel);
+  }
+
+  private void finish() {
+    final var circuitsData = new ArrayList<XmlReader.CircuitData>();
+    for (final var pending : circuits) {
+      final var data = pending.data;
+      final var circElt = data.circuitElement;
+      if (pending.hadChildren && !circElt.hasChildNodes()) {
+        // XmlCircuitReader tells old files from new ones by the circuit having any content
+        circElt.appendChild(circElt.getOwnerDocument().createTextNode(""));
+      }
+      if (!circuitNames.isEmpty()) {
+        for (final var item : data.contents) {
+          // subcircuits that refer to a renamed circuit
+          if (item instanceof Element elt && !elt.hasAttribute("lib")) {
+            final var newName = circuitNames.get(elt.getAttribute("name"));
+            if (newName != null && elt.hasAttribute("name")) elt.setAttribute("name", newName);
+          }
+        }
+      }
+      context.loadAppearanceAndMaps(data, data.circuit.getName());
+      circuitsData.add(data);
+    }
+    for (final var elt : otherElements) {
+      context.loadOtherElement(elt, false, true);
+    }
+    new XmlCircuitReader(context, circuitsData, false, true).execute();
+  }
+
+  /** Creates the element the parser is positioned on, with its attributes but no content. */
+  private Element startElement(Document doc) {
+    final var elt = doc.createElement(qualifiedName(in.getPrefix(), in.getLocalName()));
+    for (var i = 0; i < in.getAttributeCount(); i++) {
+      elt.setAttribute(
+          qualifiedName(in.getAttributePrefix(i), in.getAttributeLocalName(i)),
+          in.getAttributeValue(i));
+    }
+    return elt;
+  }
+
+  /** Skips the element the parser is positioned on, with all its content. */
+  private void skipElement() throws XMLStreamException {
+    for (var depth = 1; depth > 0; ) {
+      switch (in.next()) {
+        case START_ELEMENT -> depth++;
+        case END_ELEMENT -> depth--;
+        default -> {
+          // content of the skipped element
+        }
+      }
+    }
+  }
+
+  /** Reads the element the parser is positioned on, with all its content. */
+  private Element readElement(Document doc) throws XMLStreamException {
+    final var elt = startElement(doc);
+    while (true) {
+      switch (in.next()) {
+        case START_ELEMENT -> elt.appendChild(readElement(doc));
+        case CHARACTERS, CDATA, SPACE -> elt.appendChild(doc.createTextNode(in.getText()));
+        case END_ELEMENT -> {
+          return elt;
+        }
+        default -> {
+          // comments and processing instructions
+        }
+      }
+    }
+  }
+
+  private static String qualifiedName(String prefix, String localName) {
+    return StringUtil.isNullOrEmpty(prefix) ? localName : prefix + ":" + localName;
+  }
+}
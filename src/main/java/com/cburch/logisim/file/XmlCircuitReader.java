@@ -19,6 +19,7 @@ import com.cburch.logisim.circuit.CircuitTransaction;
 import com.cburch.logisim.circuit.Wire;
 import com.cburch.logisim.circuit.appear.AppearanceSvgReader;
 import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.comp.ComponentFactory;
 import com.cburch.logisim.data.AttributeSet;
 import com.cburch.logisim.data.Bounds;
 import com.cburch.logisim.data.Location;
@@ -70,27 +71,7 @@ public class XmlCircuitReader extends CircuitTransaction {
       throws XmlReaderException {
 
     // Determine the factory that creates this element
-    final var name = elt.getAttribute("name");
-    if (StringUtil.isNullOrEmpty(name)) {
-      throw new XmlReaderException(S.get("compNameMissingError"));
-    }
-
-    final var libName = elt.getAttribute("lib");
-    final var lib = reader.findLibrary(libName);
-    if (lib == null) {
-      // FIXME: the "no-lib" thing may not be clear enough
-      throw new XmlReaderException(S.get("compUnknownError", "no-lib"));
-    }
-
-    final var tool = reader.findTool(lib, name);
-    if (!(tool instanceof AddTool)) {
-      final var msg =
-          StringUtil.isNullOrEmpty(libName)
-              ? S.get("compUnknownError", name)
-              : S.get("compAbsentError", name, libName);
-      throw new XmlReaderException(msg);
-    }
-    final var source = ((AddTool) tool).getFactory();
+    final var source = getFactory(elt.getAttribute("lib"), elt.getAttribute("name"), reader);
 
     // Determine attributes
     final var locStr = elt.getAttribute("loc");
@@ -118,50 +99,109 @@ public class XmlCircuitReader extends CircuitTransaction {
     }
   }
 
+  /**
+   * Builds a component read from the binary project format, which keeps the attribute values of
+   * the component by name instead of in elements.
+   *
+   * @param attrValues the text of every saved attribute or, for memory contents, the value itself
+   */
+  static Component getComponent(
+      String libName, String name, Location loc, Map<String, ?> attrValues, XmlReader.ReadContext reader)
+      throws XmlReaderException {
+    final var source = getFactory(libName, name, reader);
+    final var attrs = source.createAttributeSet();
+    reader.initAttributeSet(attrValues, null, attrs, source, false, true);
+    if (source instanceof VhdlEntity vhdl
+        && attrValues.get(StdAttr.APPEARANCE.getName()) instanceof String attrValue) {
+      setLegacyVhdlAppearance(attrValue, reader, vhdl);
+    }
+    return source.createComponent(loc, attrs);
+  }
+
+  private static ComponentFactory getFactory(
+      String libName, String name, XmlReader.ReadContext reader) throws XmlReaderException {
+    if (StringUtil.isNullOrEmpty(name)) {
+      throw new XmlReaderException(S.get("compNameMissingError"));
+    }
+
+    final var lib = reader.findLibrary(libName);
+    if (lib == null) {
+      // FIXME: the "no-lib" thing may not be clear enough
+      throw new XmlReaderException(S.get("compUnknownError", "no-lib"));
+    }
+
+    final var tool = reader.findTool(lib, name);
+    if (!(tool instanceof AddTool)) {
+      final var msg =
+          StringUtil.isNullOrEmpty(libName)
+              ? S.get("compUnknownError", name)
+              : S.get("compAbsentError", name, libName);
+      throw new XmlReaderException(msg);
+    }
+    return ((AddTool) tool).getFactory();
+  }
+
   private static void initLegacyVhdlAppearance(
       Element elt, XmlReader.ReadContext reader, VhdlEntity vhdl) {
     for (final var attrElt : XmlIterator.forChildElements(elt, "a")) {
       if (!StdAttr.APPEARANCE.getName().equals(attrElt.getAttribute("name"))) continue;
       final var attrValue =
           attrElt.hasAttribute("val") ? attrElt.getAttribute("val") : attrElt.getTextContent();
-      try {
-        vhdl.getContent().setAppearance(StdAttr.APPEARANCE.parse(attrValue));
-      } catch (NumberFormatException e) {
-        reader.addError(
-            S.get("attrValueInvalidError", attrValue, StdAttr.APPEARANCE.getName()),
-            "vhdl." + vhdl.getName());
-      }
+      setLegacyVhdlAppearance(attrValue, reader, vhdl);
       return;
     }
   }
 
+  private static void setLegacyVhdlAppearance(
+      String attrValue, XmlReader.ReadContext reader, VhdlEntity vhdl) {
+    try {
+      vhdl.getContent().setAppearance(StdAttr.APPEARANCE.parse(attrValue));
+    } catch (NumberFormatException e) {
+      reader.addError(
+          S.get("attrValueInvalidError", attrValue, StdAttr.APPEARANCE.getName()),
+          "vhdl." + vhdl.getName());
+    }
+  }
+
   void addWire(Circuit dest, CircuitMutator mutator, Element elt) throws XmlReaderException {
+    final var wire = createWire(elt);
+    if (wire != null) mutator.add(dest, wire);
+  }
+
+  /**
+   * @return the wire described by <code>elt</code>, or null for a zero length wire
+   */
+  static Wire createWire(Element elt) throws XmlReaderException {
+    return createWire(elt.getAttribute("from"), elt.getAttribute("to"));
+  }
+
+  /**
+   * @return the wire between the locations <code>from</code> and <code>to</code> as saved, or
+   *     null for a zero length wire
+   */
+  static Wire createWire(String from, String to) throws XmlReaderException {
     Location pt0;
     try {
-      final var str = elt.getAttribute("from");
-      if (str == null || "".equals(str)) {
+      if (from == null || "".equals(from)) {
         throw new XmlReaderException(S.get("wireStartMissingError"));
       }
-      pt0 = Location.parse(str);
+      pt0 = Location.parse(from);
     } catch (NumberFormatException e) {
       throw new XmlReaderException(S.get("wireStartInvalidError"));
     }
 
     Location pt1;
     try {
-      final var str = elt.getAttribute("to");
-      if (str == null || "".equals(str)) {
+      if (to == null || "".equals(to)) {
         throw new XmlReaderException(S.get("wireEndMissingError"));
       }
-      pt1 = Location.parse(str);
+      pt1 = Location.parse(to);
     } catch (NumberFormatException e) {
       throw new XmlReaderException(S.get("wireEndInvalidError"));
     }
 
-    if (!pt0.equals(pt1)) {
-      // Avoid zero length wires
-      mutator.add(dest, Wire.create(pt0, pt1));
-    }
+    // Avoid zero length wires
+    return pt0.equals(pt1) ? null : Wire.create(pt0, pt1);
   }
 
   private void buildCircuit(XmlReader.CircuitData circData, CircuitMutator mutator) {
@@ -216,46 +256,35 @@ public class XmlCircuitReader extends CircuitTransaction {
 
     final var componentsAt = new HashMap<Bounds, Component>();
     final var overlapComponents = new ArrayList<Component>();
-    for (final var subElement : XmlIterator.forChildElements(element)) {
-      final var subEltName = subElement.getTagName();
-      if ("comp".equals(subEltName)) {
-        try {
-          var comp = knownComponents.get(subElement);
-          if (comp == null) comp = getComponent(subElement, reader, isHolyCross, isEvolution);
-          if (comp != null) {
-            /* filter out empty text boxes */
-            if (comp.getFactory() instanceof Text) {
-              if (comp.getAttributeSet().getValue(Text.ATTR_TEXT).isEmpty()) {
-                continue;
-              }
-            }
-            final var bds = comp.getBounds();
-            final var conflict = componentsAt.get(bds);
-            if (conflict != null) {
-              final var msg =
-                  S.get(
-                      "fileComponentOverlapError",
-                      conflict.getFactory().getName() + conflict.getLocation(),
-                      comp.getFactory().getName() + conflict.getLocation());
-              reader.addError(msg, circData.circuit.getName());
-              overlapComponents.add(comp);
-            } else {
-              mutator.add(dest, comp);
-              componentsAt.put(bds, comp);
+    final Iterable<?> contents =
+        circData.contents != null ? circData.contents : XmlIterator.forChildElements(element);
+    for (final var item : contents) {
+      if (item instanceof Wire wire) {
+        mutator.add(dest, wire);
+      } else if (item instanceof Component comp) {
+        addComponent(circData, mutator, comp, componentsAt, overlapComponents);
+      } else if (item instanceof Element subElement) {
+        final var subEltName = subElement.getTagName();
+        if ("comp".equals(subEltName)) {
+          try {
+            var comp = knownComponents.get(subElement);
+            if (comp == null) comp = getComponent(subElement, reader, isHolyCross, isEvolution);
+            if (comp != null) {
+              addComponent(circData, mutator, comp, componentsAt, overlapComponents);
             }
+          } catch (XmlReaderException e) {
+            final var context =
+                String.format(contextFmt, circData.circuit.getName(), toComponentString(subElement));
+            reader.addErrors(e, context);
+          }
+        } else if ("wire".equals(subEltName)) {
+          try {
+            addWire(dest, mutator, subElement);
+          } catch (XmlReaderException e) {
+            final var context =
+                String.format(contextFmt, circData.circuit.getName(), toWireString(subElement));
+            reader.addErrors(e, context);
           }
-        } catch (XmlReaderException e) {
-          final var context =
-              String.format(contextFmt, circData.circuit.getName(), toComponentString(subElement));
-          reader.addErrors(e, context);
-        }
-      } else if ("wire".equals(subEltName)) {
-        try {
-          addWire(dest, mutator, subElement);
-        } catch (XmlReaderException e) {
-          final var context =
-              String.format(contextFmt, circData.circuit.getName(), toWireString(subElement));
-          reader.addErrors(e, context);
         }
       }
     }
@@ -277,6 +306,34 @@ public class XmlCircuitReader extends CircuitTransaction {
     }
   }
 
+  private void addComponent(
+      XmlReader.CircuitData circData,
+      CircuitMutator mutator,
+      Component comp,
+      Map<Bounds, Component> componentsAt,
+      List<Component> overlapComponents) {
+    /* filter out empty text boxes */
+    if (comp.getFactory() instanceof Text) {
+      if (comp.getAttributeSet().getValue(Text.ATTR_TEXT).isEmpty()) {
+        return;
+      }
+    }
+    final var bds = comp.getBounds();
+    final var conflict = componentsAt.get(bds);
+    if (conflict != null) {
+      final var msg =
+          S.get(
+              "fileComponentOverlapError",
+              conflict.getFactory().getName() + conflict.getLocation(),
+              comp.getFactory().getName() + conflict.getLocation());
+      reader.addError(msg, circData.circuit.getName());
+      overlapComponents.add(comp);
+    } else {
+      mutator.add(circData.circuit, comp);
+      componentsAt.put(bds, comp);
+    }
+  }
+
   private void buildDynamicAppearance(XmlReader.CircuitData circData) {
     final var dest = circData.circuit;
     final var shapes = new ArrayList<AbstractCanvasObject>();
@@ -50,26 +50,32 @@ import com.cburch.logisim.util.LineBuffer;
 import com.cburch.logisim.util.StringUtil;
 import com.cburch.logisim.util.XmlUtil;
 import com.cburch.logisim.vhdl.base.VhdlContent;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 class XmlReader {
 
@@ -77,12 +83,29 @@ class XmlReader {
     final Element circuitElement;
     final Circuit circuit;
     Map<Element, Component> knownComponents;
+    /**
+     * Set by the {@link StreamingXmlReader}: the circuit's components and wires in file order,
+     * with the comp and wire elements that still have to be built in their place. The
+     * circuit element then only keeps its other children.
+     */
+    List<Object> contents;
     List<AbstractCanvasObject> appearance;
 
     public CircuitData(Element circuitElement, Circuit circuit) {
       this.circuitElement = circuitElement;
       this.circuit = circuit;
     }
+
+    Collection<Component> getKnownComponents() {
+      if (contents == null) {
+        return knownComponents == null ? Collections.emptyList() : knownComponents.values();
+      }
+      final var ret = new ArrayList<Component>();
+      for (final var item : contents) {
+        if (item instanceof Component comp) ret.add(comp);
+      }
+      return ret;
+    }
   }
 
   class ReadContext {
@@ -129,24 +152,28 @@ class XmlReader {
           messages.add(S.get("attrNameMissingError"));
         } else {
           final var attrName = attrElt.getAttribute("name");
-          String attrVal;
-          if (attrElt.hasAttribute("val")) {
-            attrVal = attrElt.getAttribute("val");
-            if ("filePath".equals(attrName)) {
-              /* De-relativize the path */
-              var dirPath = "";
-              if (srcFilePath != null)
-                dirPath = srcFilePath.substring(0, srcFilePath.lastIndexOf(File.separator));
-              final var tmp = Paths.get(dirPath, attrVal);
-              attrVal = tmp.toString();
-            }
-          } else {
-            attrVal = attrElt.getTextContent();
-          }
+          final var attrVal =
+              attrElt.hasAttribute("val") ? attrElt.getAttribute("val") : attrElt.getTextContent();
           attrsDefined.put(attrName, attrVal);
         }
       }
+      initAttributeSet(attrsDefined, messages, attrs, defaults, isHolyCross, isEvolution);
+    }
 
+    /**
+     * Sets the attributes from their saved values by name: the text saved for an attribute or,
+     * from the binary format, possibly the value itself.
+     *
+     * @param messages errors already met reading the values, or null
+     */
+    void initAttributeSet(
+        Map<String, ?> attrsDefined,
+        List<String> messages,
+        AttributeSet attrs,
+        AttributeDefaultProvider defaults,
+        boolean isHolyCross,
+        boolean isEvolution)
+        throws XmlReaderException {
       if (attrs == null) return;
 
       LogisimVersion ver = sourceVersion;
@@ -160,8 +187,8 @@ class XmlReader {
         @SuppressWarnings("unchecked")
         Attribute<Object> attr = (Attribute<Object>) attrList.get(i);
         final var attrName = attr.getName();
-        final var attrVal = attrsDefined.get(attrName);
-        if (attrVal == null) {
+        final var defined = attrsDefined.get(attrName);
+        if (defined == null) {
           if (attr.equals(ProbeAttributes.PROBEAPPEARANCE)) {
             attrs.setValue(ProbeAttributes.PROBEAPPEARANCE, StdAttr.APPEAR_CLASSIC);
           } else if (attr.equals(StdAttr.APPEARANCE)) {
@@ -179,10 +206,23 @@ class XmlReader {
               attrs.setValue(attr, val);
             }
           }
+        } else if (!(defined instanceof String)) {
+          attrs.setValue(attr, defined);
         } else {
+          var attrVal = (String) defined;
+          if ("filePath".equals(attrName)) {
+            /* De-relativize the path */
+            var dirPath = "";
+            if (srcFilePath != null)
+              dirPath = srcFilePath.substring(0, srcFilePath.lastIndexOf(File.separator));
+            final var tmp = Paths.get(dirPath, attrVal);
+            attrVal = tmp.toString();
+          }
           try {
-            Object val = attr.parse(attrVal);
+            final var warnings = new ArrayList<String>();
+            Object val = attr.parse(srcDir, attrVal, warnings);
             attrs.setValue(attr, val);
+            for (final var warning : warnings) addError(warning, attrName);
           } catch (NumberFormatException e) {
             if (messages == null) messages = new ArrayList<>();
             messages.add(S.get("attrValueInvalidError", attrVal, attrName));
@@ -194,7 +234,7 @@ class XmlReader {
       }
     }
 
-    private void initMouseMappings(Element elt, boolean isHolyCross, boolean isEvolution) {
+    void initMouseMappings(Element elt, boolean isHolyCross, boolean isEvolution) {
       final var map = file.getOptions().getMouseMappings();
       for (final var sub_elt : XmlIterator.forChildElements(elt, "tool")) {
         Tool tool;
@@ -229,7 +269,7 @@ class XmlReader {
       }
     }
 
-    private void initToolbarData(Element elt, boolean isHolyCross, boolean isEvolution) {
+    void initToolbarData(Element elt, boolean isHolyCross, boolean isEvolution) {
       final var toolbar = file.getOptions().getToolbarData();
       for (final var subElement : XmlIterator.forChildElements(elt)) {
         if ("sep".equals(subElement.getTagName())) {
@@ -317,9 +357,23 @@ class XmlReader {
       if (!map.isEmpty()) circ.addLoadedMap(boardName, map);
     }
 
+    /** Loads the static appearance shapes and the board maps of a circuit. */
+    void loadAppearanceAndMaps(CircuitData circData, String name) {
+      final var circElt = circData.circuitElement;
+      for (Element appearElt : XmlIterator.forChildElements(circElt, "appear")) {
+        loadAppearance(appearElt, circData, name + ".appear");
+      }
+      for (final var boardMap : XmlIterator.forChildElements(circElt, "boardmap")) {
+        final var boardName = boardMap.getAttribute("boardname");
+        if (StringUtil.isNullOrEmpty(boardName))
+          continue;
+        loadMap(boardMap, boardName, circData.circuit);
+      }
+    }
+
     void loadAppearance(Element appearElt, XmlReader.CircuitData circData, String context) {
       final var pins = new ArrayList<AppearanceSvgReader.PinInfo>();
-      for (final var comp : circData.knownComponents.values()) {
+      for (final var comp : circData.getKnownComponents()) {
         if (comp.getFactory() == Pin.FACTORY) {
           pins.add(AppearanceSvgReader.getPinInfo(comp.getLocation(), Instance.getInstanceFor(comp)));
         }
@@ -351,7 +405,7 @@ class XmlReader {
       }
     }
 
-    private Library toLibrary(Element elt, boolean isHolyCross, boolean isEvolution) {
+    Library toLibrary(Element elt, boolean isHolyCross, boolean isEvolution) {
       if (!elt.hasAttribute("name")) {
         loader.showError(S.get("libNameMissingError"));
         return null;
@@ -416,11 +470,56 @@ class XmlReader {
       }
 
       // first, load the sublibraries
-      final var libsToAddAfter = new HashSet<Library>();
+      loadLibraries(XmlIterator.forChildElements(elt, "lib"), isHolyCrossFile, isEvolutionFile);
+
+      // second, create the circuits - empty for now - and the vhdl entities
+      final var circuitsData = new ArrayList<CircuitData>();
+      for (final var circElt : XmlIterator.forChildElements(elt)) {
+        String name;
+        switch (circElt.getTagName()) {
+          case "vhdl" -> loadVhdl(circElt);
+          case "circuit" -> {
+            name = circElt.getAttribute("name");
+            if (name == null || "".equals(name)) {
+              addError(S.get("circNameMissingError"), "C??");
+            }
+            final var circData = new CircuitData(circElt, new Circuit(name, file, proj));
+            file.addCircuit(circData.circuit);
+            circData.knownComponents = loadKnownComponents(circElt, isHolyCrossFile,
+                isEvolutionFile);
+            loadAppearanceAndMaps(circData, name);
+            circuitsData.add(circData);
+          }
+          default -> {
+            // do nothing
+          }
+        }
+      }
+
+      // third, process the other child elements
+      for (final var subElt : XmlIterator.forChildElements(elt)) {
+        loadOtherElement(subElt, isHolyCrossFile, isEvolutionFile);
+      }
+
+      // fourth, execute a transaction that initializes all the circuits
+      XmlCircuitReader builder;
+      builder = new XmlCircuitReader(this, circuitsData, isHolyCrossFile, isEvolutionFile);
+      builder.execute();
+    }
+
+    /**
+     * Loads the libraries of the file, and adds them to it once they are all known. The .circ
+     * libraries are first all read ahead in parallel, and are then built one by one.
+     */
+    void loadLibraries(Iterable<Element> libElts, boolean isHolyCross, boolean isEvolution) {
+      final var libsToAddAfter = new LinkedHashSet<Library>();
       final var baseLibsToEnable = new HashSet<String>();
       final var libsLoaded = new HashSet<String>();
-      for (final var o : XmlIterator.forChildElements(elt, "lib")) {
-        final var lib = toLibrary(o, isHolyCrossFile, isEvolutionFile);
+      for (final var o : libElts) {
+        loader.prefetchLibrary(o.getAttribute("desc"));
+      }
+      for (final var o : libElts) {
+        final var lib = toLibrary(o, isHolyCross, isEvolution);
         if (lib instanceof LoadedLibrary loadedLib) {
           if (loadedLib.getBase() instanceof LogisimFile) {
             libsToAddAfter.add(lib);
@@ -452,109 +551,74 @@ class XmlReader {
         LibraryManager.removeBaseLibraries(newLib, baseLibsToEnable);
         file.addLibrary(newLib);
       }
+    }
 
-      // second, create the circuits - empty for now - and the vhdl entities
-      final var circuitsData = new ArrayList<CircuitData>();
-      for (final var circElt : XmlIterator.forChildElements(elt)) {
-        String name;
-        switch (circElt.getTagName()) {
-          case "vhdl" -> {
-            name = circElt.getAttribute("name");
-            if (name == null || "".equals(name)) {
-              addError(S.get("circNameMissingError"), "C??");
-            }
-            final var vhdl = circElt.getTextContent();
-            final var contents = VhdlContent.parse(name, vhdl, file);
-            if (contents != null) {
-              if (circElt.hasAttribute("appearance")) {
-                try {
-                  contents.setAppearance(
-                      StdAttr.APPEARANCE.parse(circElt.getAttribute("appearance")));
-                } catch (NumberFormatException e) {
-                  addError(
-                      S.get(
-                          "attrValueInvalidError",
-                          circElt.getAttribute("appearance"),
-                          StdAttr.APPEARANCE.getName()),
-                      "vhdl." + name);
-                }
-              }
-              file.addVhdlContent(contents);
-            }
-          }
-          case "circuit" -> {
-            name = circElt.getAttribute("name");
-            if (name == null || "".equals(name)) {
-              addError(S.get("circNameMissingError"), "C??");
-            }
-            final var circData = new CircuitData(circElt, new Circuit(name, file, proj));
-            file.addCircuit(circData.circuit);
-            circData.knownComponents = loadKnownComponents(circElt, isHolyCrossFile,
-                isEvolutionFile);
-            for (Element appearElt : XmlIterator.forChildElements(circElt, "appear")) {
-              loadAppearance(appearElt, circData, name + ".appear");
-            }
-            for (final var boardMap : XmlIterator.forChildElements(circElt, "boardmap")) {
-              final var boardName = boardMap.getAttribute("boardname");
-              if (StringUtil.isNullOrEmpty(boardName))
-                continue;
-              loadMap(boardMap, boardName, circData.circuit);
-            }
-            circuitsData.add(circData);
-          }
-          default -> {
-            // do nothing
+    void loadVhdl(Element circElt) {
+      final var name = circElt.getAttribute("name");
+      if (name == null || "".equals(name)) {
+        addError(S.get("circNameMissingError"), "C??");
+      }
+      final var vhdl = circElt.getTextContent();
+      final var contents = VhdlContent.parse(name, vhdl, file);
+      if (contents != null) {
+        if (circElt.hasAttribute("appearance")) {
+          try {
+            contents.setAppearance(
+                StdAttr.APPEARANCE.parse(circElt.getAttribute("appearance")));
+          } catch (NumberFormatException e) {
+            addError(
+                S.get(
+                    "attrValueInvalidError",
+                    circElt.getAttribute("appearance"),
+                    StdAttr.APPEARANCE.getName()),
+                "vhdl." + name);
           }
         }
+        file.addVhdlContent(contents);
       }
+    }
 
-      // third, process the other child elements
-      for (Element sub_elt : XmlIterator.forChildElements(elt)) {
-        final var name = sub_elt.getTagName();
-
-        switch (name) {
-          case "circuit":
-          case "vhdl":
-          case "lib":
-            // Nothing to do: Done earlier.
-            break;
-          case "options":
-            try {
-              initAttributeSet(
-                  sub_elt,
-                  file.getOptions().getAttributeSet(),
-                  null,
-                  isHolyCrossFile,
-                  isEvolutionFile);
-            } catch (XmlReaderException e) {
-              addErrors(e, "options");
-            }
-            break;
-          case "mappings":
-            initMouseMappings(sub_elt, isHolyCrossFile, isEvolutionFile);
-            break;
-          case "toolbar":
-            initToolbarData(sub_elt, isHolyCrossFile, isEvolutionFile);
-            break;
-          case "main":
-            final var main = sub_elt.getAttribute("name");
-            final var circ = file.getCircuit(main);
-            if (circ != null) {
-              file.setMainCircuit(circ);
-            }
-            break;
-          case "message":
-            file.addMessage(sub_elt.getAttribute("value"));
-            break;
-          default:
-            throw new IllegalArgumentException("Invalid node in logisim file: " + name);
-        }
+    /** Handles the top-level elements other than libraries, circuits and VHDL entities. */
+    void loadOtherElement(Element sub_elt, boolean isHolyCrossFile, boolean isEvolutionFile) {
+      final var name = sub_elt.getTagName();
+
+      switch (name) {
+        case "circuit":
+        case "vhdl":
+        case "lib":
+          // Nothing to do: Done earlier.
+          break;
+        case "options":
+          try {
+            initAttributeSet(
+                sub_elt,
+                file.getOptions().getAttributeSet(),
+                null,
+                isHolyCrossFile,
+                isEvolutionFile);
+          } catch (XmlReaderException e) {
+            addErrors(e, "options");
+          }
+          break;
+        case "mappings":
+          initMouseMappings(sub_elt, isHolyCrossFile, isEvolutionFile);
+          break;
+        case "toolbar":
+          initToolbarData(sub_elt, isHolyCrossFile, isEvolutionFile);
+          break;
+        case "main":
+          final var main = sub_elt.getAttribute("name");
+          final var circ = file.getCircuit(main);
+          if (circ != null) {
+            file.setMainCircuit(circ);
+          }
+          break;
+        case "message":
+          file.addMessage(sub_elt.getAttribute("value"));
+          break;
+        default:
+          throw new IllegalArgumentException("Invalid node in logisim file: " + name);
       }
-
-      // fourth, execute a transaction that initializes all the circuits
-      XmlCircuitReader builder;
-      builder = new XmlCircuitReader(this, circuitsData, isHolyCrossFile, isEvolutionFile);
-      builder.execute();
     }
 
     Tool findTool(Library lib, String name) {
@@ -582,6 +646,13 @@ class XmlReader {
   }
 
   public static final Logger logger = LoggerFactory.getLogger(XmlReader.class);
+
+  /**
+   * Recent .circ files are read by the {@link StreamingXmlReader} instead of being parsed into a
+   * DOM document first; switch off to compare with the DOM reader.
+   */
+  static boolean streamingReader = true;
+
   private final LibraryLoader loader;
 
   /**
@@ -589,11 +660,14 @@ class XmlReader {
    * absolute, to prevent the system looking for them in some strange directories.
    */
   private final String srcFilePath;
+  /** Directory of the source file, against which relative file references are resolved. */
+  private final File srcDir;
 
   XmlReader(Loader loader, File file) {
     this.loader = loader;
     if (file != null) this.srcFilePath = file.getAbsolutePath();
     else this.srcFilePath = null;
+    this.srcDir = file == null ? null : file.getAbsoluteFile().getParentFile();
   }
 
 
@@ -628,7 +702,7 @@ class XmlReader {
    *
    * @param root root node
    */
-  private static void cleanupToolsLabel(Element root) {
+  static void cleanupToolsLabel(Element root) {
     if (root == null) throw new RuntimeException("Value of 'root' cannot be null");
 
     // Iterate on tools
@@ -1080,7 +1154,7 @@ class XmlReader {
     }
   }
 
-  private void convertObsoletePinAttributes(Document doc, Element elt, String wiringLibName) {
+  void convertObsoletePinAttributes(Document doc, Element elt, String wiringLibName) {
     final var lib = elt.getAttribute("lib");
     final var name = elt.getAttribute("name");
     if (name == null || lib == null || !name.equals("Pin") || !lib.equals(wiringLibName)) {
@@ -1131,6 +1205,14 @@ class XmlReader {
   }
 
   private Document loadXmlFrom(InputStream is) throws SAXException, IOException {
+    return loadXmlFrom(is, false);
+  }
+
+  /**
+   * @param quiet whether to leave out the parser's own report of errors on the console, for
+   *     documents whose errors are reported later when they are read again
+   */
+  static Document loadXmlFrom(InputStream is, boolean quiet) throws SAXException, IOException {
     final var factory = XmlUtil.getHardenedBuilderFactory();
     factory.setNamespaceAware(true);
     try {
@@ -1143,11 +1225,30 @@ class XmlReader {
       builder = factory.newDocumentBuilder();
     } catch (ParserConfigurationException ignored) {
     }
+    if (quiet) builder.setErrorHandler(new DefaultHandler());
     return builder.parse(is);
   }
 
   LogisimFile readLibrary(InputStream is, Project proj) throws IOException, SAXException {
-    final var doc = loadXmlFrom(is);
+    if (streamingReader) {
+      final var in = is.markSupported() ? is : new BufferedInputStream(is);
+      if (StreamingXmlReader.canRead(in)) {
+        final var file = new LogisimFile((Loader) loader);
+        final var context = new ReadContext(file);
+        try {
+          new StreamingXmlReader(this, context, in, proj).read();
+        } catch (XMLStreamException e) {
+          throw new SAXException(e.getMessage(), e);
+        }
+        return finishLibrary(context, proj);
+      }
+      is = in;
+    }
+    return readLibrary(loadXmlFrom(is), proj);
+  }
+
+  /** Builds the project from a document that was already parsed. */
+  LogisimFile readLibrary(Document doc, Project proj) {
     var elt = doc.getDocumentElement();
     elt = ensureLogisimCompatibility(elt);
 
@@ -1156,7 +1257,19 @@ class XmlReader {
     final var context = new ReadContext(file);
 
     context.toLogisimFile(elt, proj);
+    return finishLibrary(context, proj);
+  }
+
+  /** Builds the project from a file in the binary format, see BinaryProjectReader. */
+  LogisimFile readBinaryLibrary(InputStream is, Project proj) throws IOException {
+    final var file = new LogisimFile((Loader) loader);
+    final var context = new ReadContext(file);
+    BinaryProjectReader.read(context, is, proj);
+    return finishLibrary(context, proj);
+  }
 
+  private LogisimFile finishLibrary(ReadContext context, Project proj) {
+    final var file = context.file;
     if (file.getCircuitCount() == 0) {
       file.addCircuit(new Circuit("main", file, proj));
     }
@@ -177,24 +177,44 @@ final class XmlWriter {
     }
   }
 
-  static void write(LogisimFile file, OutputStream out, LibraryLoader loader, File destFile, String mainCircFile, boolean recurse)
-      throws ParserConfigurationException, TransformerException, IOException, LoadFailedException {
-
+  /** Builds the sorted document that is saved for <code>file</code> as XML. */
+  static Document toDocument(LogisimFile file, LibraryLoader loader, File destFile, String mainCircFile, boolean recurse)
+      throws ParserConfigurationException, IOException, LoadFailedException {
     final var docFactory = XmlUtil.getHardenedBuilderFactory();
     final var docBuilder = docFactory.newDocumentBuilder();
 
     final var doc = docBuilder.newDocument();
-    XmlWriter context;
+    final var context = create(file, doc, loader, destFile, mainCircFile, recurse);
+    context.fromLogisimFile();
+    doc.normalize();
+    sort(doc);
+    return doc;
+  }
+
+  /**
+   * Creates a writer whose elements are created in <code>doc</code>; the BinaryProjectWriter uses
+   * one to save the parts of a project other than the contents of its circuits.
+   */
+  static XmlWriter create(LogisimFile file, Document doc, LibraryLoader loader, File destFile, String mainCircFile,
+      boolean recurse) {
     if (destFile != null) {
       var dstFilePath = destFile.getAbsolutePath();
       dstFilePath = dstFilePath.substring(0, dstFilePath.lastIndexOf(File.separator));
-      context = new XmlWriter(file, doc, loader, dstFilePath);
+      return new XmlWriter(file, doc, loader, dstFilePath);
     } else if (mainCircFile != null) {
-      context = new XmlWriter(file, doc, loader, null, mainCircFile, recurse);
-    } else context = new XmlWriter(file, doc, loader);
+      return new XmlWriter(file, doc, loader, null, mainCircFile, recurse);
+    }
+    return new XmlWriter(file, doc, loader);
+  }
 
-    context.fromLogisimFile();
+  static void write(LogisimFile file, OutputStream out, LibraryLoader loader, File destFile, String mainCircFile, boolean recurse)
+      throws ParserConfigurationException, TransformerException, IOException, LoadFailedException {
+    final var doc = toDocument(file, loader, destFile, mainCircFile, recurse);
+    write(doc, out, mainCircFile);
+  }
 
+  /** Writes an already built project document as XML text. */
+  static void write(Document doc, OutputStream out, String mainCircFile) throws TransformerException, IOException {
     final var tfFactory = TransformerFactory.newInstance();
     try {
       tfFactory.setAttribute("indent-number", 2);
@@ -213,16 +233,35 @@ final class XmlWriter {
     if ((mainCircFile != null) && (out instanceof ZipOutputStream zipFile)) {
       zipFile.putNextEntry(new ZipEntry(mainCircFile));
     }
-    doc.normalize();
-    sort(doc);
     Source src = new DOMSource(doc);
     Result dest = new StreamResult(out);
     tf.transform(src, dest);
   }
 
+  /** Receives an attribute that is saved, with its value and the text it is saved as. */
+  interface SavedAttributeConsumer {
+    void accept(Attribute<Object> attr, Object value, String text);
+  }
+
   void addAttributeSetContent(Element elt, AttributeSet attrs, AttributeDefaultProvider source, boolean userModifiedOnly) {
+    forEachSavedAttribute(attrs, source, userModifiedOnly, (attr, value, text) -> {
+      final var a = doc.createElement("a");
+      a.setAttribute("name", attr.getName());
+      if (text.contains("\n")) {
+        a.appendChild(doc.createTextNode(text));
+      } else {
+        a.setAttribute("val", text);
+      }
+      elt.appendChild(a);
+    });
+  }
+
+  /** Passes the attributes of <code>attrs</code> that are saved to <code>consumer</code>. */
+  void forEachSavedAttribute(AttributeSet attrs, AttributeDefaultProvider source, boolean userModifiedOnly,
+      SavedAttributeConsumer consumer) {
     if (attrs == null) return;
     if (source != null && source.isAllDefaultValues(attrs, BuildInfo.version)) return;
+    final var outDir = outFilePath == null ? null : new File(outFilePath);
     for (final var attrBase : attrs.getAttributes()) {
       @SuppressWarnings("unchecked")
       final var attr = (Attribute<Object>) attrBase;
@@ -231,25 +270,16 @@ final class XmlWriter {
       if (attrs.isToSave(attr) && val != null) {
         final var dflt = source == null ? null : source.getDefaultAttributeValue(attr, BuildInfo.version);
         final var defaultValue = dflt == null ? "" : attr.toStandardString(dflt);
-        var newValue = attr.toStandardString(val);
+        var newValue = attr.toStandardString(outDir, val);
         if (dflt == null || (!dflt.equals(val) && !defaultValue.equals(newValue))
             || (attr.equals(StdAttr.APPEARANCE) && !userModifiedOnly)
             || (attr.equals(ProbeAttributes.PROBEAPPEARANCE) && !userModifiedOnly && val.equals(ProbeAttributes.APPEAR_EVOLUTION_NEW))) {
-          final var a = doc.createElement("a");
-          a.setAttribute("name", attr.getName());
           if ("filePath".equals(attr.getName()) && outFilePath != null) {
             final var outFP = Paths.get(outFilePath);
             final var attrValP = Paths.get(newValue);
             newValue = (outFP.relativize(attrValP)).toString();
-            a.setAttribute("val", newValue);
-          } else {
-            if (newValue.contains("\n")) {
-              a.appendChild(doc.createTextNode(newValue));
-            } else {
-              a.setAttribute("val", attr.toStandardString(val));
-            }
           }
-          elt.appendChild(a);
+          consumer.accept(attr, val, newValue);
         }
       }
     }
@@ -272,6 +302,22 @@ final class XmlWriter {
   }
 
   Element fromCircuit(Circuit circuit) {
+    final var ret = fromCircuitHeader(circuit);
+    for (final var wire : circuit.getWires()) {
+      ret.appendChild(fromWire(wire));
+    }
+    for (final var comp : circuit.getNonWires()) {
+      final var elt = fromComponent(comp);
+      if (elt != null) ret.appendChild(elt);
+    }
+    return ret;
+  }
+
+  /**
+   * @return the element of <code>circuit</code> with everything but its wires and components,
+   *     which the BinaryProjectWriter saves as records of their own
+   */
+  Element fromCircuitHeader(Circuit circuit) {
     final var ret = doc.createElement("circuit");
     ret.setAttribute("name", circuit.getName());
     addAttributeSetContent(ret, circuit.getStaticAttributes(), CircuitAttributes.DEFAULT_STATIC_ATTRIBUTES, false);
@@ -287,13 +333,6 @@ final class XmlWriter {
       }
       ret.appendChild(appear);
     }
-    for (final var wire : circuit.getWires()) {
-      ret.appendChild(fromWire(wire));
-    }
-    for (final var comp : circuit.getNonWires()) {
-      final var elt = fromComponent(comp);
-      if (elt != null) ret.appendChild(elt);
-    }
     for (final var board : circuit.getBoardMapNamestoSave()) {
       final var elt = fromMap(circuit, board);
       if (elt != null) ret.appendChild(elt);
@@ -344,6 +383,21 @@ final class XmlWriter {
   }
 
   Element fromComponent(Component comp) {
+    final var libName = getLibraryName(comp);
+    if (libName == null) return null;
+    final var ret = doc.createElement("comp");
+    if (!libName.isEmpty()) ret.setAttribute("lib", libName);
+    ret.setAttribute("name", comp.getFactory().getName());
+    ret.setAttribute("loc", comp.getLocation().toString());
+    addAttributeSetContent(ret, comp.getAttributeSet(), comp.getFactory(), false);
+    return ret;
+  }
+
+  /**
+   * @return the name of the library holding the factory of <code>comp</code>, an empty string
+   *     for the file itself, or null if the component is not saved
+   */
+  String getLibraryName(Component comp) {
     final var source = comp.getFactory();
     final var lib = findLibrary(source);
     String libName;
@@ -351,7 +405,7 @@ final class XmlWriter {
       loader.showError(source.getName() + " component not found");
       return null;
     } else if (lib == file) {
-      libName = null;
+      libName = "";
     } else {
       libName = libs.get(lib);
       if (libName == null) {
@@ -364,13 +418,7 @@ final class XmlWriter {
       final var value = comp.getAttributeSet().getValue(Text.ATTR_TEXT);
       if (value.isEmpty()) return null;
     }
-
-    final var ret = doc.createElement("comp");
-    if (libName != null) ret.setAttribute("lib", libName);
-    ret.setAttribute("name", source.getName());
-    ret.setAttribute("loc", comp.getLocation().toString());
-    addAttributeSetContent(ret, comp.getAttributeSet(), comp.getFactory(), false);
-    return ret;
+    return libName;
   }
 
   Element fromLibrary(Library lib) throws IOException, LoadFailedException {
@@ -459,11 +507,8 @@ final class XmlWriter {
       if (elt != null) ret.appendChild(elt);
     }
 
-    if (file.getMainCircuit() != null) {
-      final var mainElt = doc.createElement("main");
-      mainElt.setAttribute("name", file.getMainCircuit().getName());
-      ret.appendChild(mainElt);
-    }
+    final var mainElt = fromMainCircuit();
+    if (mainElt != null) ret.appendChild(mainElt);
 
     ret.appendChild(fromOptions());
     ret.appendChild(fromMouseMappings());
@@ -478,6 +523,14 @@ final class XmlWriter {
     return ret;
   }
 
+  /** @return the element naming the main circuit, or null if there is none. */
+  Element fromMainCircuit() {
+    if (file.getMainCircuit() == null) return null;
+    final var mainElt = doc.createElement("main");
+    mainElt.setAttribute("name", file.getMainCircuit().getName());
+    return mainElt;
+  }
+
   Element fromMouseMappings() {
     final var elt = doc.createElement("mappings");
     final var map = file.getOptions().getMouseMappings();
@@ -78,6 +78,45 @@ public class Netlist {
     }
   }
 
+  /**
+   * A splitter with the nets at its ends and its bit mapping resolved once, so the searches through
+   * splitters do not have to work them out again for every net and bit they pass.
+   */
+  private static final class SplitterBits {
+    private final Component splitter;
+    private final SplitterAttributes attrs;
+    private final Net[] nets;
+    private final byte[] endOfBit;
+    private final byte[] indexInEnd;
+    private final byte[][] bitsOfEnd;
+
+    private SplitterBits(Component splitter, Net[] nets) {
+      this.splitter = splitter;
+      this.nets = nets;
+      attrs = (SplitterAttributes) splitter.getAttributeSet();
+      endOfBit = ((Splitter) splitter).getEndpoints();
+      indexInEnd = new byte[endOfBit.length];
+      final var bitCount = new byte[nets.length];
+      for (var bit = 0; bit < endOfBit.length; bit++) indexInEnd[bit] = bitCount[endOfBit[bit]]++;
+      bitsOfEnd = new byte[nets.length][];
+      for (var end = 0; end < nets.length; end++) bitsOfEnd[end] = new byte[bitCount[end]];
+      for (byte bit = 0; bit < endOfBit.length; bit++) {
+        bitsOfEnd[endOfBit[bit]][indexInEnd[bit]] = bit;
+      }
+    }
+
+    /** @return the net and bit on the other side of the splitter, or null if it is unconnected. */
+    private NetInfo follow(int end, byte bitIndex) {
+      if (end == 0) {
+        final var net = nets[endOfBit[bitIndex]];
+        return net == null ? null : new NetInfo(net, indexInEnd[bitIndex]);
+      }
+      return nets[0] == null ? null : new NetInfo(nets[0], bitsOfEnd[end][bitIndex]);
+    }
+  }
+
+  private record SplitterEnd(SplitterBits bits, int end) {}
+
   private String circuitName;
   private final ArrayList<Net> myNets = new ArrayList<>();
   private final ArrayList<netlistComponent> mySubCircuits = new ArrayList<>();
@@ -93,7 +132,9 @@ public class Netlist {
   private final ClockTreeFactory myClockInformation = new ClockTreeFactory();
   private final Circuit myCircuit;
   private int drcStatus;
-  private final Set<Wire> wires = new HashSet<>();
+  private final HashMap<Location, Net> netAtLocation = new HashMap<>();
+  private final HashMap<Net, Integer> netIds = new HashMap<>();
+  private final HashMap<Net, List<SplitterEnd>> splitterEnds = new HashMap<>();
   private ArrayList<String> currentHierarchyLevel;
   public static final int DRC_REQUIRED = 4;
   public static final int DRC_PASSED = 0;
@@ -127,6 +168,9 @@ public class Netlist {
     }
     drcStatus = DRC_REQUIRED;
     myNets.clear();
+    netAtLocation.clear();
+    netIds.clear();
+    splitterEnds.clear();
     mySubCircuits.clear();
     myComponents.clear();
     myClockGenerators.clear();
@@ -570,10 +614,121 @@ public class Netlist {
   }
 
   private Net findConnectedNet(Location loc) {
-    for (final var current : myNets) {
-      if (current.contains(loc)) return current;
+    return netAtLocation.get(loc);
+  }
+
+  private void indexNet(Net net) {
+    for (final var loc : net.getPoints()) netAtLocation.put(loc, net);
+  }
+
+  private void unindexNet(Net net) {
+    for (final var loc : net.getPoints()) netAtLocation.remove(loc, net);
+  }
+
+  /**
+   * Builds a net of each group of wire segments that are connected by their ends. The groups are
+   * found with a union-find over the end points, the nets are created in the order of their first
+   * segment.
+   */
+  private void buildWireNets() {
+    final var circuitWires = myCircuit.getWires();
+    final var pointIds = new HashMap<Location, Integer>();
+    final var groups = new UnionFind(2 * circuitWires.size());
+    for (final var wire : circuitWires) {
+      groups.union(pointId(pointIds, wire.getEnd0()), pointId(pointIds, wire.getEnd1()));
     }
-    return null;
+    final var netOfGroup = new HashMap<Integer, Net>();
+    for (final var wire : circuitWires) {
+      final var group = groups.find(pointIds.get(wire.getEnd0()));
+      var net = netOfGroup.get(group);
+      if (net == null) {
+        net = new Net();
+        netOfGroup.put(group, net);
+        myNets.add(net);
+      }
+      net.add(wire);
+    }
+    for (final var net : myNets) indexNet(net);
+  }
+
+  private static int pointId(Map<Location, Integer> pointIds, Location loc) {
+    var id = pointIds.get(loc);
+    if (id == null) {
+      id = pointIds.size();
+      pointIds.put(loc, id);
+    }
+    return id;
+  }
+
+  /**
+   * Merges each group of nets connected by tunnels with the same label into the last net of the
+   * group, as merging every net into the next one sharing a label did. Nets of different widths
+   * that are connected are marked in the given container.
+   */
+  private void mergeTunnelNets(SimpleDrcContainer drc) {
+    final var groups = new UnionFind(myNets.size());
+    final var netWithLabel = new HashMap<String, Integer>();
+    for (var i = 0; i < myNets.size(); i++) {
+      for (final var name : myNets.get(i).getTunnelNames()) {
+        final var other = netWithLabel.putIfAbsent(name, i);
+        if (other != null) groups.union(other, i);
+      }
+    }
+    final var lastOfGroup = new HashMap<Integer, Net>();
+    for (var i = 0; i < myNets.size(); i++) lastOfGroup.put(groups.find(i), myNets.get(i));
+    final var merged = new ArrayList<Net>(lastOfGroup.size());
+    for (var i = 0; i < myNets.size(); i++) {
+      final var thisNet = myNets.get(i);
+      final var groupNet = lastOfGroup.get(groups.find(i));
+      if (groupNet == thisNet) {
+        merged.add(thisNet);
+      } else if (!groupNet.merge(thisNet)) {
+        drc.addMarkComponents(groupNet.getWires());
+        drc.addMarkComponents(thisNet.getWires());
+      }
+    }
+    myNets.clear();
+    myNets.addAll(merged);
+    netAtLocation.clear();
+    for (final var net : myNets) indexNet(net);
+  }
+
+  /**
+   * Resolves the splitters once the nets are final, and records the ids of the nets and the
+   * splitter ends connected to each of them for the searches through the splitters.
+   */
+  private void indexConnectivity() {
+    netIds.clear();
+    for (var i = 0; i < myNets.size(); i++) netIds.put(myNets.get(i), i);
+    splitterEnds.clear();
+    for (final var splitter : mySplitters) {
+      final var ends = splitter.getEnds();
+      final var nets = new Net[ends.size()];
+      for (var end = 0; end < ends.size(); end++) {
+        nets[end] = findConnectedNet(ends.get(end).getLocation());
+      }
+      final var bits = new SplitterBits(splitter, nets);
+      for (var end = 0; end < ends.size(); end++) {
+        if (nets[end] == null) continue;
+        splitterEnds.computeIfAbsent(nets[end], k -> new ArrayList<>()).add(new SplitterEnd(bits, end));
+      }
+    }
+  }
+
+  private static List<Location> getSplitterPoints(Component splitter) {
+    final var points = new ArrayList<Location>();
+    points.add(splitter.getLocation());
+    for (final var end : splitter.getEnds()) points.add(end.getLocation());
+    return points;
+  }
+
+  private List<SplitterEnd> getSplitterEnds(Net net) {
+    return splitterEnds.getOrDefault(net, List.of());
+  }
+
+  // key of a bit of a net for the sets of visited bits of the searches through splitters
+  private long bitKey(Net net, Byte bitIndex) {
+    return ((long) getNetId(net) << 8) | (bitIndex & 0xff);
   }
 
   private boolean generateNetlist() {
@@ -592,15 +747,9 @@ public class Netlist {
       progress.setString(S.get("NetListBuild", circuitName, 1));
     }
 
-    wires.clear();
-    wires.addAll(myCircuit.getWires());
     // FIRST PASS: In this pass we take all wire segments and see if they
     // are connected to other segments. If they are connected we build a net.
-    while (wires.size() != 0) {
-      final var newNet = new Net();
-      getNet(null, newNet);
-      if (!newNet.isEmpty()) myNets.add(newNet);
-    }
+    buildWireNets();
     // Here we start to detect direct input-output component connections, read we detect "hidden"
     // nets
     final var components = myCircuit.getNonWires();
@@ -660,10 +809,8 @@ public class Netlist {
         }
         /* Here we are going to mark the bitwidths on the nets */
         final var width = end.getWidth().getWidth();
-        final var loc = end.getLocation();
-        for (final var thisNet : myNets) {
-          if (thisNet.contains(loc) && !thisNet.setWidth(width)) drc.get(1).addMarkComponents(thisNet.getWires());
-        }
+        final var thisNet = findConnectedNet(end.getLocation());
+        if (thisNet != null && !thisNet.setWidth(width)) drc.get(1).addMarkComponents(thisNet.getWires());
       }
     }
     for (final var simpleDRCContainer : drc) {
@@ -694,14 +841,12 @@ public class Netlist {
         final var loc = end.getLocation();
         if (points.containsKey(loc)) {
           /* Found a connection already used */
-          var newNet = true;
-          for (final var net : myNets) {
-            if (net.contains(loc)) newNet = false;
-          }
-          if (newNet) {
+          if (findConnectedNet(loc) == null) {
             final var bitWidth = points.get(loc);
             if (bitWidth == end.getWidth().getWidth()) {
-              myNets.add(new Net(loc, bitWidth));
+              final var net = new Net(loc, bitWidth);
+              myNets.add(net);
+              indexNet(net);
             } else {
               drc.get(0).addMarkComponent(comp);
             }
@@ -728,39 +873,16 @@ public class Netlist {
     for (final var comp : tunnelList) {
       final var ends = comp.getEnds();
       for (final var end : ends) {
-        for (final var thisNet : myNets) {
-          if (thisNet.contains(end.getLocation())) {
-            thisNet.addTunnel(comp.getAttributeSet().getValue(StdAttr.LABEL));
-            areTunnelsPresent = true;
-          }
+        final var thisNet = findConnectedNet(end.getLocation());
+        if (thisNet != null) {
+          thisNet.addTunnel(comp.getAttributeSet().getValue(StdAttr.LABEL));
+          areTunnelsPresent = true;
         }
       }
     }
     drc.clear();
     drc.add(new SimpleDrcContainer(myCircuit, S.get("NetMerge_BitWidthError"), SimpleDrcContainer.LEVEL_FATAL, SimpleDrcContainer.MARK_WIRE));
-    if (areTunnelsPresent) {
-      final var netIterator = myNets.listIterator();
-      while (netIterator.hasNext()) {
-        final var thisNet = netIterator.next();
-        if (thisNet.hasTunnel() && (myNets.indexOf(thisNet) < (myNets.size() - 1))) {
-          var merged = false;
-          final var searchIterator = myNets.listIterator(myNets.indexOf(thisNet) + 1);
-          while (searchIterator.hasNext() && !merged) {
-            final var searchNet = searchIterator.next();
-            for (final var name : thisNet.getTunnelNames()) {
-              if (searchNet.containsTunnel(name) && !merged) {
-                merged = true;
-                if (!searchNet.merge(thisNet)) {
-                  drc.get(0).addMarkComponents(searchNet.getWires());
-                  drc.get(0).addMarkComponents(thisNet.getWires());
-                }
-              }
-            }
-          }
-          if (merged) netIterator.remove();
-        }
-      }
-    }
+    if (areTunnelsPresent) mergeTunnelNets(drc.get(0));
     if (drc.get(0).isDrcInfoPresent()) {
       Reporter.report.addError(drc.get(0));
       return false;
@@ -775,35 +897,22 @@ public class Netlist {
      * the direction of the nets.
      */
 
-    /* First we are going to check on duplicated splitters and remove them */
+    /* First we are going to check on duplicated splitters and remove them, keeping the last one */
+    final var lastSplitterAt = new HashMap<List<Location>, Component>();
+    for (final var splitter : mySplitters) lastSplitterAt.put(getSplitterPoints(splitter), splitter);
     Iterator<Component> mySplitIter = mySplitters.listIterator();
     while (mySplitIter.hasNext()) {
       final var thisSplitter = mySplitIter.next();
-      if (mySplitters.indexOf(thisSplitter) < (mySplitters.size() - 1)) {
-        var dupeFound = false;
-        final var searchIter = mySplitters.listIterator(mySplitters.indexOf(thisSplitter) + 1);
-        while (searchIter.hasNext() && !dupeFound) {
-          final var SearchSplitter = searchIter.next();
-          if (SearchSplitter.getLocation().equals(thisSplitter.getLocation())) {
-            dupeFound = true;
-            for (var i = 0; i < SearchSplitter.getEnds().size(); i++) {
-              if (!SearchSplitter.getEnd(i)
-                  .getLocation()
-                  .equals(thisSplitter.getEnd(i).getLocation())) dupeFound = false;
-            }
-          }
-        }
-        if (dupeFound) {
-          final var warn =
-              new SimpleDrcContainer(
-                      myCircuit,
-                      S.get("NetList_duplicatedSplitter"),
-                      SimpleDrcContainer.LEVEL_SEVERE,
-                      SimpleDrcContainer.MARK_INSTANCE);
-          warn.addMarkComponent(thisSplitter);
-          Reporter.report.addWarning(warn);
-          mySplitIter.remove();
-        }
+      if (lastSplitterAt.get(getSplitterPoints(thisSplitter)) != thisSplitter) {
+        final var warn =
+            new SimpleDrcContainer(
+                    myCircuit,
+                    S.get("NetList_duplicatedSplitter"),
+                    SimpleDrcContainer.LEVEL_SEVERE,
+                    SimpleDrcContainer.MARK_INSTANCE);
+        warn.addMarkComponent(thisSplitter);
+        Reporter.report.addWarning(warn);
+        mySplitIter.remove();
       }
     }
 
@@ -822,6 +931,7 @@ public class Netlist {
       if (wire.getBitWidth() == 0) {
         drc.get(0).addMarkComponents(wire.getWires());
         netIterator.remove();
+        unindexNet(wire);
       }
     }
     if (drc.get(0).isDrcInfoPresent()) {
@@ -838,6 +948,7 @@ public class Netlist {
                 SimpleDrcContainer.LEVEL_FATAL,
                 SimpleDrcContainer.MARK_WIRE));
     errors = false;
+    final var mergedNets = new HashSet<Net>();
     while (mySplitIter.hasNext()) {
       final var mySplitter = mySplitIter.next();
       var busWidth = mySplitter.getEnd(0).getWidth().getWidth();
@@ -853,36 +964,9 @@ public class Netlist {
       }
       /* stupid situation first: the splitters bus connection is a single fanout */
       if (busWidth == maxFanoutWidth) {
-        Net busnet = null;
-        Net connectedNet = null;
-        final var busLoc = mySplitter.getEnd(0).getLocation();
-        final var connectedLoc = mySplitter.getEnd(index).getLocation();
+        final var busnet = findConnectedNet(mySplitter.getEnd(0).getLocation());
+        final var connectedNet = findConnectedNet(mySplitter.getEnd(index).getLocation());
         var issueWarning = false;
-        /* here we search for the nets */
-        for (final var currentNet : myNets) {
-          if (currentNet.contains(busLoc)) {
-            if (busnet != null) {
-              Reporter.report.addFatalErrorFmt(
-                  "BUG: Multiple bus nets found for a single splitter\n ==> %s:%d\n",
-                  this.getClass().getName().replace(".", "/"),
-                  Thread.currentThread().getStackTrace()[2].getLineNumber());
-              return false;
-            } else {
-              busnet = currentNet;
-            }
-          }
-          if (currentNet.contains(connectedLoc)) {
-            if (connectedNet != null) {
-              Reporter.report.addFatalErrorFmt(
-                  "BUG: Multiple nets found for a single splitter split connection\n ==> %s:%d\n",
-                  this.getClass().getName().replace(".", "/"),
-                  Thread.currentThread().getStackTrace()[2].getLineNumber());
-              return false;
-            } else {
-              connectedNet = currentNet;
-            }
-          }
-        }
         if (connectedNet != null) {
           if (busnet != null) {
             /* we can merge both nets */
@@ -893,7 +977,9 @@ public class Netlist {
                   Thread.currentThread().getStackTrace()[2].getLineNumber());
               return false;
             } else {
-              myNets.remove(connectedNet);
+              mergedNets.add(connectedNet);
+              unindexNet(connectedNet);
+              if (busnet != connectedNet) indexNet(busnet);
             }
           } else {
             issueWarning = true;
@@ -914,6 +1000,8 @@ public class Netlist {
         mySplitIter.remove(); /* Does not exist anymore */
       }
     }
+    myNets.removeAll(mergedNets);
+    indexConnectivity();
 
     if (progress != null) {
       progress.setValue(4);
@@ -928,16 +1016,8 @@ public class Netlist {
     for (final var comp : mySplitters) {
       // Currently by definition end(0) is the combined end of the splitter
       final var ends = comp.getEnds();
-      final var combinedEnd = ends.get(0);
-      var rootNet = -1;
-      /* We search for the root net in the list of nets */
-      for (var i = 0; i < myNets.size() && rootNet < 0; i++) {
-        if (myNets.get(i).contains(combinedEnd.getLocation())) {
-          rootNet = i;
-          // FIXME: shouldn't we `break` once we found it?
-        }
-      }
-      if (rootNet < 0) {
+      final var rootNet = findConnectedNet(ends.get(0).getLocation());
+      if (rootNet == null) {
         Reporter.report.addFatalErrorFmt(
             "BUG: Splitter without a bus connection\n ==> %s:%d\n",
             this.getClass().getName().replace(".", "/"),
@@ -945,37 +1025,23 @@ public class Netlist {
         this.clear();
         return false;
       }
-      // Now we process all the other ends to find the child busses/nets
-      // of this root bus
-      final var connections = new ArrayList<Integer>();
-      for (var i = 1; i < ends.size(); i++) {
-        final var thisEnd = ends.get(i);
-        /* Find the connected net */
-        var connectedNet = -1;
-        for (var j = 0; j < myNets.size() && connectedNet < 1; j++) {
-          if (myNets.get(j).contains(thisEnd.getLocation())) {
-            connectedNet = j;
-          }
-        }
-        connections.add(connectedNet);
-      }
       var unconnectedEnds = false;
       var connectedUnknownEnds = false;
       final var sattrs = (SplitterAttributes) comp.getAttributeSet();
       for (var i = 1; i < ends.size(); i++) {
-        var connectedNet = connections.get(i - 1);
-        if (connectedNet >= 0) {
+        final var connectedNet = findConnectedNet(ends.get(i).getLocation());
+        if (connectedNet != null) {
           /* Has this end a connection to the root bus? */
           connectedUnknownEnds |= sattrs.isNoConnect(i);
           /* There is a net connected to this splitter's end point */
-          if (!myNets.get(connectedNet).setParent(myNets.get(rootNet))) {
-            myNets.get(connectedNet).forceRootNet();
+          if (!connectedNet.setParent(rootNet)) {
+            connectedNet.forceRootNet();
           }
           /* Here we have to process the inherited bits of the parent */
           final var busBitConnection = ((Splitter) comp).getEndpoints();
           for (byte b = 0; b < busBitConnection.length; b++) {
             if (busBitConnection[b] == i) {
-              myNets.get(connectedNet).addParentBit(b);
+              connectedNet.addParentBit(b);
             }
           }
         } else {
@@ -1055,17 +1121,13 @@ public class Netlist {
       if (thisNet.isForcedRootNet()) {
         /* Cycle through all the bits of this net */
         for (var bit = 0; bit < thisNet.getBitWidth(); bit++) {
-          for (final var comp : mySplitters) {
-            // Currently by definition end(0) is the combined end of the splitter
-            final var ends = comp.getEnds();
-            final var combinedEnd = ends.get(0);
-            var connectedBus = -1;
-            final var sattrs = (SplitterAttributes) comp.getAttributeSet();
-            /* We search for the root net in the list of nets */
-            for (var i = 0; i < myNets.size() && connectedBus < 0; i++) {
-              if (myNets.get(i).contains(combinedEnd.getLocation())) connectedBus = i;
-            }
-            if (connectedBus < 0) {
+          for (final var splitterEnd : getSplitterEnds(thisNet)) {
+            final var bits = splitterEnd.bits();
+            final var endId = splitterEnd.end();
+            //If this is an end that is not connected to the root bus
+            //we can continue we already warned severly before.
+            if (endId == 0 || bits.attrs.isNoConnect(endId)) continue;
+            if (bits.nets[0] == null) {
               // This should never happen as we already checked in the first pass.
               Reporter.report.addFatalErrorFmt(
                   "BUG: This is embarasing as this should never happen\n ==> %s:%d\n",
@@ -1074,42 +1136,28 @@ public class Netlist {
               this.clear();
               return false;
             }
-            for (int endId = 1; endId < ends.size(); endId++) {
-              //If this is an end that is not connected to the root bus
-              //we can continue we already warned severly before.
-              if (sattrs.isNoConnect(endId)) continue;
-              // we iterate through all bits to see if the current net is connected to this splitter
-              if (thisNet.contains(ends.get(endId).getLocation())) {
-                // first we have to get the bitindices of the rootbus
-                // Here we have to process the inherited bits of the parent
-                final var busBitConnection = ((Splitter) comp).getEndpoints();
-                final var indexBits = new ArrayList<Byte>();
-                for (byte b = 0; b < busBitConnection.length; b++) {
-                  if (busBitConnection[b] == endId) indexBits.add(b);
-                }
-                byte connectedBusIndex = indexBits.get(bit);
-                // Figure out the rootbusid and rootbusindex
-                var rootBus = myNets.get(connectedBus);
-                while (!rootBus.isRootNet()) {
-                  connectedBusIndex = rootBus.getBit(connectedBusIndex);
-                  rootBus = rootBus.getParent();
-                }
-                final var solderPoint = new ConnectionPoint(comp);
-                solderPoint.setParentNet(rootBus, connectedBusIndex);
-                var isSink = true;
-                if (!thisNet.hasBitSource(bit)) {
-                  if (hasHiddenSource(thisNet, (byte) bit, rootBus, connectedBusIndex, mySplitters,
-                      new HashSet<>(), comp)) {
-                    isSink = false;
-                  }
-                }
-                if (isSink) {
-                  thisNet.addSinkNet(bit, solderPoint);
-                } else {
-                  thisNet.addSourceNet(bit, solderPoint);
-                }
+            // first we have to get the bitindices of the rootbus
+            var connectedBusIndex = bits.bitsOfEnd[endId][bit];
+            // Figure out the rootbusid and rootbusindex
+            var rootBus = bits.nets[0];
+            while (!rootBus.isRootNet()) {
+              connectedBusIndex = rootBus.getBit(connectedBusIndex);
+              rootBus = rootBus.getParent();
+            }
+            final var comp = bits.splitter;
+            final var solderPoint = new ConnectionPoint(comp);
+            solderPoint.setParentNet(rootBus, connectedBusIndex);
+            var isSink = true;
+            if (!thisNet.hasBitSource(bit)) {
+              if (hasHiddenSource(thisNet, (byte) bit, rootBus, connectedBusIndex, new HashSet<>(), comp)) {
+                isSink = false;
               }
             }
+            if (isSink) {
+              thisNet.addSinkNet(bit, solderPoint);
+            } else {
+              thisNet.addSourceNet(bit, solderPoint);
+            }
           }
         }
       }
@@ -1166,55 +1214,21 @@ public class Netlist {
     return -1;
   }
 
-  private List<ConnectionPoint> getHiddenSinks(Net thisNet, Byte bitIndex, List<Component> splitters, Set<String> handledNets, Boolean isSourceNet) {
+  private List<ConnectionPoint> getHiddenSinks(Net thisNet, Byte bitIndex, Set<Long> handledNets, Boolean isSourceNet) {
     final var result = new ArrayList<ConnectionPoint>();
     // to prevent deadlock situations we check if we already looked at this net
-    final var netId = myNets.indexOf(thisNet) + "-" + bitIndex;
-    if (handledNets.contains(netId)) return result;
-    handledNets.add(netId);
+    if (!handledNets.add(bitKey(thisNet, bitIndex))) return result;
 
     if (thisNet.hasBitSinks(bitIndex) && !isSourceNet && thisNet.isRootNet()) {
       result.addAll(thisNet.getBitSinks(bitIndex));
     }
     // Check if we have a connection to another splitter
-    for (final var currentSplitter : splitters) {
-      final var ends = currentSplitter.getEnds();
-      final var splitterAttrs = (SplitterAttributes) currentSplitter.getAttributeSet();
-      for (byte end = 0; end < ends.size(); end++) {
-        /* prevent the search for ends that are not connected to the root bus */
-        if (end > 0 && splitterAttrs.isNoConnect(end)) continue;
-        if (thisNet.contains(ends.get(end).getLocation())) {
-          // Here we have to process the inherited bits of the parent.
-          final var busBitConnection = ((Splitter) currentSplitter).getEndpoints();
-          if (end == 0) {
-            // This is a main net, find the connected end.
-            final var splitterEnd = busBitConnection[bitIndex];
-            /* Find the corresponding Net index */
-            Byte netIndex = 0;
-            for (var index = 0; index < bitIndex; index++) {
-              if (busBitConnection[index] == splitterEnd) netIndex++;
-            }
-            // Find the connected Net
-            Net slaveNet = null;
-            for (final var thisnet : myNets) {
-              if (thisnet.contains(ends.get(splitterEnd).getLocation())) slaveNet = thisnet;
-            }
-            if (slaveNet != null)
-              result.addAll(getHiddenSinks(slaveNet, netIndex, splitters, handledNets, false));
-          } else {
-            final var rootIndices = new ArrayList<Byte>();
-            for (byte b = 0; b < busBitConnection.length; b++) {
-              if (busBitConnection[b] == end) rootIndices.add(b);
-            }
-            Net rootNet = null;
-            for (final var thisnet : myNets) {
-              if (thisnet.contains(currentSplitter.getEnd(0).getLocation())) rootNet = thisnet;
-            }
-            if (rootNet != null)
-              result.addAll(getHiddenSinks(rootNet, rootIndices.get(bitIndex), splitters, handledNets, false));
-          }
-        }
-      }
+    for (final var splitterEnd : getSplitterEnds(thisNet)) {
+      final var end = splitterEnd.end();
+      /* prevent the search for ends that are not connected to the root bus */
+      if (end > 0 && splitterEnd.bits().attrs.isNoConnect(end)) continue;
+      final var next = splitterEnd.bits().follow(end, bitIndex);
+      if (next != null) result.addAll(getHiddenSinks(next.getNet(), next.getIndex(), handledNets, false));
     }
     return result;
   }
@@ -1284,28 +1298,9 @@ public class Netlist {
     return components;
   }
 
-  private void getNet(Wire wire, Net thisNet) {
-    final var myIterator = wires.iterator();
-    final var matchedWires = new ArrayList<Wire>();
-    var compWire = wire;
-    while (myIterator.hasNext()) {
-      final var thisWire = myIterator.next();
-      if (compWire == null) {
-        compWire = thisWire;
-        thisNet.add(thisWire);
-        myIterator.remove();
-      } else if (thisWire.sharesEnd(compWire)) {
-        matchedWires.add(thisWire);
-        thisNet.add(thisWire);
-        myIterator.remove();
-      }
-    }
-    for (final var matched : matchedWires) getNet(matched, thisNet);
-    matchedWires.clear();
-  }
-
   public Integer getNetId(Net selectedNet) {
-    return myNets.indexOf(selectedNet);
+    final var id = netIds.get(selectedNet);
+    return id != null ? id : myNets.indexOf(selectedNet);
   }
 
   public ConnectionPoint getNetlistConnectionForSubCircuit(String label, int PortIndex, byte bitindex) {
@@ -1405,21 +1400,14 @@ public class Netlist {
       Byte srcBitIndex,
       Net thisNet,
       Byte bitIndex,
-      List<Component> splitters,
-      Set<String> handledNets,
+      Set<Long> handledNets,
       Set<Wire> segments,
       Component splitterToIgnore) {
     // If the source net not is null add it to the set of visited nets to prevent back-search on
     // this net
-    if (srcNet != null) {
-      final var netId = myNets.indexOf(srcNet) + "-" + srcBitIndex;
-      if (handledNets.contains(netId)) return null;
-      handledNets.add(netId);
-    }
+    if (srcNet != null && !handledNets.add(bitKey(srcNet, srcBitIndex))) return null;
     // to prevent deadlock situations we check if we already looked at this net
-    final var netId = myNets.indexOf(thisNet) + "-" + bitIndex;
-    if (handledNets.contains(netId)) return null;
-    handledNets.add(netId);
+    if (!handledNets.add(bitKey(thisNet, bitIndex))) return null;
     segments.addAll(thisNet.getWires());
 
     if (thisNet.hasBitSource(bitIndex)) {
@@ -1434,45 +1422,13 @@ public class Netlist {
       return new SourceInfo(sources.get(0), bitIndex);
     }
     /* Check if we have a connection to another splitter */
-    for (final var splitter : splitters) {
+    for (final var splitterEnd : getSplitterEnds(thisNet)) {
+      final var splitter = splitterEnd.bits().splitter;
       if (splitter.equals(splitterToIgnore)) continue;
-      final var ends = splitter.getEnds();
-      for (var end = 0; end < ends.size(); end++) {
-        if (thisNet.contains(ends.get(end).getLocation())) {
-          /* Here we have to process the inherited bits of the parent */
-          final var busBitConnection = ((Splitter) splitter).getEndpoints();
-          if (end == 0) {
-            /* this is a main net, find the connected end */
-            final var splitterEnd = busBitConnection[bitIndex];
-            /* Find the corresponding Net index */
-            Byte netIndex = 0;
-            for (var index = 0; index < bitIndex; index++) {
-              if (busBitConnection[index] == splitterEnd) netIndex++;
-            }
-            /* Find the connected Net */
-            Net slaveNet = null;
-            for (final var thisnet : myNets) {
-              if (thisnet.contains(ends.get(splitterEnd).getLocation())) slaveNet = thisnet;
-            }
-            if (slaveNet != null) {
-              final var ret = getHiddenSource(null, (byte) 0, slaveNet, netIndex, splitters, handledNets, segments, splitter);
-              if (ret != null) return ret;
-            }
-          } else {
-            final var rootIndices = new ArrayList<Byte>();
-            for (byte b = 0; b < busBitConnection.length; b++) {
-              if (busBitConnection[b] == end) rootIndices.add(b);
-            }
-            Net rootNet = null;
-            for (final var thisnet : myNets) {
-              if (thisnet.contains(splitter.getEnd(0).getLocation())) rootNet = thisnet;
-            }
-            if (rootNet != null) {
-              final var ret = getHiddenSource(null, (byte) 0, rootNet, rootIndices.get(bitIndex), splitters, handledNets, segments, splitter);
-              if (ret != null) return ret;
-            }
-          }
-        }
+      final var next = splitterEnd.bits().follow(splitterEnd.end(), bitIndex);
+      if (next != null) {
+        final var ret = getHiddenSource(null, (byte) 0, next.getNet(), next.getIndex(), handledNets, segments, splitter);
+        if (ret != null) return ret;
       }
     }
     return null;
@@ -1483,59 +1439,22 @@ public class Netlist {
       Byte fannoutBitIndex,
       Net combinedNet,
       Byte combinedBitIndex,
-      List<Component> splitterList,
-      Set<String> handledNets,
+      Set<Long> handledNets,
       Component ignoreSplitter) {
     // If the fannout net not is null add it to the set of visited nets to prevent back-search on
     // this net
-    if (fannoutNet != null) {
-      final var netId = myNets.indexOf(fannoutNet) + "-" + fannoutBitIndex;
-      if (handledNets.contains(netId)) return false;
-      handledNets.add(netId);
-    }
+    if (fannoutNet != null && !handledNets.add(bitKey(fannoutNet, fannoutBitIndex))) return false;
     // to prevent deadlock situations we check if we already looked at this net
-    final var netId = myNets.indexOf(combinedNet) + "-" + combinedBitIndex;
-    if (handledNets.contains(netId)) return false;
-    handledNets.add(netId);
+    if (!handledNets.add(bitKey(combinedNet, combinedBitIndex))) return false;
     if (combinedNet.hasBitSource(combinedBitIndex)) return true;
     /* Check if we have a connection to another splitter */
-    for (var currentSplitter : splitterList) {
+    for (final var splitterEnd : getSplitterEnds(combinedNet)) {
+      final var currentSplitter = splitterEnd.bits().splitter;
       if (currentSplitter.equals(ignoreSplitter)) continue;
-      final var ends = currentSplitter.getEnds();
-      for (var end = 0; end < ends.size(); end++) {
-        if (combinedNet.contains(ends.get(end).getLocation())) {
-          /* Here we have to process the inherited bits of the parent */
-          final var busBitConnection = ((Splitter) currentSplitter).getEndpoints();
-          if (end == 0) {
-            // This is a main net, find the connected end.
-            var splitterEnd = busBitConnection[combinedBitIndex];
-            /* Find the corresponding Net index */
-            Byte netIndex = 0;
-            for (var index = 0; index < combinedBitIndex; index++) {
-              if (busBitConnection[index] == splitterEnd) netIndex++;
-            }
-            // Find the connected Net
-            Net slaveNet = null;
-            for (final var thisnet : myNets) {
-              if (thisnet.contains(ends.get(splitterEnd).getLocation())) slaveNet = thisnet;
-            }
-            if (slaveNet != null && hasHiddenSource(null, (byte) 0, slaveNet, netIndex, splitterList, handledNets, currentSplitter))
-              return true;
-          } else {
-            final var rootIndices = new ArrayList<Byte>();
-            for (byte b = 0; b < busBitConnection.length; b++) {
-              if (busBitConnection[b] == end) rootIndices.add(b);
-            }
-            Net rootNet = null;
-            for (final var thisnet : myNets) {
-              if (thisnet.contains(currentSplitter.getEnd(0).getLocation())) rootNet = thisnet;
-            }
-            if (rootNet != null
-                && hasHiddenSource(null, (byte) 0, rootNet, rootIndices.get(combinedBitIndex), splitterList, handledNets, currentSplitter)) {
-              return true;
-            }
-          }
-        }
+      final var next = splitterEnd.bits().follow(splitterEnd.end(), combinedBitIndex);
+      if (next != null
+          && hasHiddenSource(null, (byte) 0, next.getNet(), next.getIndex(), handledNets, currentSplitter)) {
+        return true;
       }
     }
     return false;
@@ -1655,8 +1574,8 @@ public class Netlist {
           for (ConnectionPoint sourceNet : sourceNets) {
             final var connectedNet = sourceNet.getParentNet();
             final byte bitIndex = sourceNet.getParentNetBitIndex();
-            if (hasHiddenSource(net, (byte) 0, connectedNet, bitIndex, mySplitters, new HashSet<>(), null)) {
-              final var source = getHiddenSource(net, (byte) 0, connectedNet, bitIndex, mySplitters, new HashSet<>(), segments, null);
+            if (hasHiddenSource(net, (byte) 0, connectedNet, bitIndex, new HashSet<>(), null)) {
+              final var source = getHiddenSource(net, (byte) 0, connectedNet, bitIndex, new HashSet<>(), segments, null);
               if (source == null) return true; // this should never happen
               final var comp = source.getSource().getComp();
               for (final var seg : segments) error.addMarkComponent(seg);
@@ -1693,7 +1612,7 @@ public class Netlist {
             final var sinks = thisNet.getBitSinks(i);
             hasSink |= !sinks.isEmpty();
             sinks.forEach(mySinks::remove);
-            final var hiddenSinkNets = getHiddenSinks(thisNet, (byte) i, mySplitters, new HashSet<>(), true);
+            final var hiddenSinkNets = getHiddenSinks(thisNet, (byte) i, new HashSet<>(), true);
             hasSink |= !hiddenSinkNets.isEmpty();
             hiddenSinkNets.forEach(mySinks::remove);
             if (!hasSink) {
@@ -1966,7 +1885,7 @@ public class Netlist {
   }
 
   public boolean traceClockNet(Net clockNet, byte clockNetBitIndex, int clockSourceId, boolean isPinSource, List<String> hierarchyNames, List<Netlist> hierarchyNetlists) {
-    final var hiddenComps = getHiddenSinks(clockNet, clockNetBitIndex, mySplitters, new HashSet<>(), false);
+    final var hiddenComps = getHiddenSinks(clockNet, clockNetBitIndex, new HashSet<>(), false);
     for (final var point : hiddenComps) {
       markClockNet(hierarchyNames, clockSourceId, point, isPinSource);
       if (point.getComp().getFactory() instanceof SubcircuitFactory)
@@ -2219,7 +2138,7 @@ public class Netlist {
       if (connectedNet != null) {
         isGatedClock = true;
         final var segments = new HashSet<Wire>();
-        final var source = getHiddenSource(null, (byte) 0, connectedNet, connectedNetindex, mySplitters, new HashSet<>(), segments, null);
+        final var source = getHiddenSource(null, (byte) 0, connectedNet, connectedNetindex, new HashSet<>(), segments, null);
         hasSource = source != null;
         if (hasSource) {
           final var sourceCon = source.getSource();
@@ -2315,7 +2234,7 @@ public class Netlist {
         final var newNet = subNet.getParentNet();
         final var newNetIndex = subNet.getParentNetBitIndex();
         final var segments = new HashSet<Wire>();
-        final var source = subNetList.getHiddenSource(null, (byte) 0, newNet, newNetIndex, subNetList.mySplitters, new HashSet<>(), segments, null);
+        final var source = subNetList.getHiddenSource(null, (byte) 0, newNet, newNetIndex, new HashSet<>(), segments, null);
         if (source == null) {
           Reporter.report.addFatalErrorFmt(
               "BUG: Unable to find source in sub-circuit!\n ==> %s:%d\n",
@@ -2409,7 +2328,6 @@ public class Netlist {
                 (byte) 0,
                 newNet,
                 newNetIndex,
-                subNetList.mySplitters,
                 new HashSet<>(),
                 segments,
                 null);
@@ -0,0 +1,49 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.fpga.designrulecheck;
+
+/** Disjoint sets of the numbers 0 to size - 1, joined by union by size with path halving. */
+final class UnionFind {
+  private final int[] parent;
+  private final int[] setSize;
+
+  UnionFind(int size) {
+    parent = new int[size];
+    setSize = new int[size];
+    for (var i = 0; i < size; i++) {
+      parent[i] = i;
+      setSize[i] = 1;
+    }
+  }
+
+  /** @return the representative of the set the given number is in. */
+  int find(int element) {
+    while (parent[element] != element) {
+      parent[element] = parent[parent[element]];
+      element = parent[element];
+    }
+    return element;
+  }
+
+  /** Joins the sets of the given numbers, returns false if they were in the same set. */
+  boolean union(int first, int second) {
+    var root1 = find(first);
+    var root2 = find(second);
+    if (root1 == root2) return false;
+    if (setSize[root1] < setSize[root2]) {
+      final var swap = root1;
+      root1 = root2;
+      root2 = swap;
+    }
+    parent[root2] = root1;
+    setSize[root1] += setSize[root2];
+    return true;
+  }
+}
@@ -11,6 +11,7 @@ package com.cburch.logisim.fpga.download;
 
 import static com.cburch.logisim.fpga.Strings.S;
 
+import com.cburch.logisim.circuit.CircuitHdlGeneratorFactory;
 import com.cburch.logisim.fpga.data.BoardInformation;
 import com.cburch.logisim.fpga.data.DriveStrength;
 import com.cburch.logisim.fpga.data.FpgaIoInformationContainer;
@@ -21,6 +22,7 @@ import com.cburch.logisim.fpga.data.SevenSegmentScanningDriving;
 import com.cburch.logisim.fpga.designrulecheck.CorrectLabel;
 import com.cburch.logisim.fpga.designrulecheck.Netlist;
 import com.cburch.logisim.fpga.file.FileWriter;
+import com.cburch.logisim.fpga.file.HdlManifest;
 import com.cburch.logisim.fpga.gui.Reporter;
 import com.cburch.logisim.fpga.hdlgenerator.Hdl;
 import com.cburch.logisim.fpga.hdlgenerator.HdlGeneratorFactory;
@@ -168,7 +170,11 @@ public abstract class DownloadBase {
     }
     final var projectDir = getProjDir(selectedCircuit);
     final var rootSheet = myProject.getLogisimFile().getCircuit(selectedCircuit);
-    if (!cleanDirectory(projectDir)) {
+    // the sources of the last export are kept when it left a manifest telling which they are
+    final var manifest =
+        new HdlManifest(projectDir, getDirectoryLocation(projectDir, SANDBOX_PATH));
+    final var sourceDir = new File(projectDir + AppPreferences.HdlType.get().toLowerCase());
+    if (!cleanDirectory(projectDir, manifest.hasPrevious() ? sourceDir : null)) {
       Reporter.report.addFatalError(
           "Unable to cleanup old project files in directory: \"" + projectDir + "\"");
       return false;
@@ -187,11 +193,11 @@ public abstract class DownloadBase {
 
     final var generatedHDLComponents = new HashSet<String>();
     var worker = rootSheet.getSubcircuitFactory().getHDLGenerator(rootSheet.getStaticAttributes());
-    if (worker == null) {
+    if (!(worker instanceof CircuitHdlGeneratorFactory circuitWorker)) {
       Reporter.report.addFatalError("Internal error on HDL generation, null pointer exception");
       return false;
     }
-    if (!worker.generateAllHDLDescriptions(generatedHDLComponents, projectDir, null)) {
+    if (!circuitWorker.generateAllHDLDescriptions(generatedHDLComponents, projectDir, null, manifest)) {
       return false;
     }
     // Instantiate the clock synthesizer component
@@ -215,14 +221,14 @@ public abstract class DownloadBase {
           projectDir + synthesizer.getRelativeDirectory(),
           synthesizer.getEntity(
               rootSheet.getNetList(), null, SynthesizedClockHdlGeneratorFactory.HDL_IDENTIFIER),
-          SynthesizedClockHdlGeneratorFactory.HDL_IDENTIFIER)) {
+          SynthesizedClockHdlGeneratorFactory.HDL_IDENTIFIER, manifest, null)) {
         return false;
       }
       if (!Hdl.writeArchitecture(
           projectDir + synthesizer.getRelativeDirectory(),
           synthesizer.getArchitecture(
               rootSheet.getNetList(), null, SynthesizedClockHdlGeneratorFactory.HDL_IDENTIFIER),
-          SynthesizedClockHdlGeneratorFactory.HDL_IDENTIFIER)) {
+          SynthesizedClockHdlGeneratorFactory.HDL_IDENTIFIER, manifest, null)) {
         return false;
       }
 
@@ -234,14 +240,14 @@ public abstract class DownloadBase {
           projectDir + ticker.getRelativeDirectory(),
           ticker.getEntity(
               rootSheet.getNetList(), null, TickComponentHdlGeneratorFactory.HDL_IDENTIFIER),
-          TickComponentHdlGeneratorFactory.HDL_IDENTIFIER)) {
+          TickComponentHdlGeneratorFactory.HDL_IDENTIFIER, manifest, null)) {
         return false;
       }
       if (!Hdl.writeArchitecture(
           projectDir + ticker.getRelativeDirectory(),
           ticker.getArchitecture(
               rootSheet.getNetList(), null, TickComponentHdlGeneratorFactory.HDL_IDENTIFIER),
-          TickComponentHdlGeneratorFactory.HDL_IDENTIFIER)) {
+          TickComponentHdlGeneratorFactory.HDL_IDENTIFIER, manifest, null)) {
         return false;
       }
 
@@ -258,13 +264,13 @@ public abstract class DownloadBase {
       if (!Hdl.writeEntity(
           projectDir + clockGen.getRelativeDirectory(),
           clockGen.getEntity(rootSheet.getNetList(), null, compName),
-          compName)) {
+          compName, manifest, null)) {
         return false;
       }
       if (!Hdl.writeArchitecture(
           projectDir + clockGen.getRelativeDirectory(),
           clockGen.getArchitecture(rootSheet.getNetList(), null, compName),
-          compName)) {
+          compName, manifest, null)) {
         return false;
       }
     }
@@ -280,13 +286,13 @@ public abstract class DownloadBase {
             if (!Hdl.writeEntity(
                 projectDir + worker.getRelativeDirectory(),
                 worker.getEntity(rootSheet.getNetList(), null, name),
-                name)) {
+                name, manifest, null)) {
               return false;
             }
             if (!Hdl.writeArchitecture(
                 projectDir + worker.getRelativeDirectory(),
                 worker.getArchitecture(rootSheet.getNetList(), null, name),
-                name)) {
+                name, manifest, null)) {
               return false;
             }
           }
@@ -302,13 +308,13 @@ public abstract class DownloadBase {
             if (!Hdl.writeEntity(
                 projectDir + worker.getRelativeDirectory(),
                 worker.getEntity(rootSheet.getNetList(), null, name),
-                name)) {
+                name, manifest, null)) {
               return false;
             }
             if (!Hdl.writeArchitecture(
                 projectDir + worker.getRelativeDirectory(),
                 worker.getArchitecture(rootSheet.getNetList(), null, name),
-                name)) {
+                name, manifest, null)) {
               return false;
             }
           }
@@ -319,14 +325,21 @@ public abstract class DownloadBase {
         projectDir + top.getRelativeDirectory(),
         top.getEntity(
             rootSheet.getNetList(), null, ToplevelHdlGeneratorFactory.FPGA_TOP_LEVEL_NAME),
-        ToplevelHdlGeneratorFactory.FPGA_TOP_LEVEL_NAME)) {
+        ToplevelHdlGeneratorFactory.FPGA_TOP_LEVEL_NAME, manifest, null)) {
       return false;
     }
-    return Hdl.writeArchitecture(
+    if (!Hdl.writeArchitecture(
         projectDir + top.getRelativeDirectory(),
         top.getArchitecture(
             rootSheet.getNetList(), null, ToplevelHdlGeneratorFactory.FPGA_TOP_LEVEL_NAME),
-        ToplevelHdlGeneratorFactory.FPGA_TOP_LEVEL_NAME);
+        ToplevelHdlGeneratorFactory.FPGA_TOP_LEVEL_NAME, manifest, null)) {
+      return false;
+    }
+    manifest.prune(sourceDir.getPath());
+    manifest.save();
+    Reporter.report.addInfo(
+        S.fmt("fileHdlFilesSummary", manifest.getRegenerated(), manifest.getReused()));
+    return true;
   }
 
   protected boolean genDirectory(String dirPath) {
@@ -385,18 +398,22 @@ public abstract class DownloadBase {
     }
   }
 
-  private boolean cleanDirectory(String dir) {
+  /** Removes a directory tree, except for the given subdirectory of its top, if any. */
+  private boolean cleanDirectory(String dir, File keep) {
     try {
       final var thisDir = new File(dir);
       if (!thisDir.exists()) return true;
+      var kept = false;
       for (var theFiles : thisDir.listFiles()) {
-        if (theFiles.isDirectory()) {
-          if (!cleanDirectory(theFiles.getPath())) return false;
+        if (keep != null && theFiles.getAbsoluteFile().equals(keep.getAbsoluteFile())) {
+          kept = true;
+        } else if (theFiles.isDirectory()) {
+          if (!cleanDirectory(theFiles.getPath(), null)) return false;
         } else {
           if (!theFiles.delete()) return false;
         }
       }
-      return thisDir.delete();
+      return kept || thisDir.delete();
     } catch (Exception e) {
       Reporter.report.addFatalError("Could not remove directory tree :" + dir);
       return false;
@@ -14,6 +14,7 @@ import static com.cburch.logisim.fpga.Strings.S;
 import com.cburch.logisim.fpga.gui.Reporter;
 import com.cburch.logisim.fpga.hdlgenerator.Hdl;
 import com.cburch.logisim.generated.BuildInfo;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.util.ArrayList;
@@ -29,18 +30,12 @@ public class FileWriter {
     final var fileName = new StringBuilder();
     try {
       final var outDir = new File(targetDirectory);
-      if (!outDir.exists()) {
-        if (!outDir.mkdirs()) {
-          return null;
-        }
+      // files of one directory may be created by several threads, any of which may create it
+      if (!outDir.exists() && !outDir.mkdirs() && !outDir.isDirectory()) {
+        return null;
       }
-      fileName.append(targetDirectory);
-      if (!targetDirectory.endsWith(File.separator)) fileName.append(File.separator);
-      fileName.append(componentName);
-      if (isEntity && Hdl.isVhdl()) fileName.append(ENTITY_EXTENSION);
-      if (!isEntity && Hdl.isVhdl()) fileName.append(ARCHITECTURE_EXTENSION);
-      fileName.append(Hdl.isVhdl() ? ".vhd" : ".v");
-      final var outFile = new File(fileName.toString());
+      final var outFile = getHdlFile(targetDirectory, componentName, isEntity);
+      fileName.append(outFile.getPath());
       Reporter.report.addInfo(S.fmt("fileCreateHDLFile", fileName.toString()));
       if (outFile.exists()) {
         Reporter.report.addWarning(S.fmt("fileHDLFileExists", fileName.toString()));
@@ -53,14 +48,25 @@ public class FileWriter {
     }
   }
 
+  /** @return the file holding the entity or the architecture of a component. */
+  public static File getHdlFile(String targetDirectory, String componentName, boolean isEntity) {
+    final var fileName = new StringBuilder();
+    fileName.append(targetDirectory);
+    if (!targetDirectory.endsWith(File.separator)) fileName.append(File.separator);
+    fileName.append(componentName);
+    if (isEntity && Hdl.isVhdl()) fileName.append(ENTITY_EXTENSION);
+    if (!isEntity && Hdl.isVhdl()) fileName.append(ARCHITECTURE_EXTENSION);
+    fileName.append(Hdl.isVhdl() ? ".vhd" : ".v");
+    return new File(fileName.toString());
+  }
+
   public static File getFilePointer(String targetDirectory, String name) {
     final var fileName = new StringBuilder();
     try {
       final var outDir = new File(targetDirectory);
-      if (!outDir.exists()) {
-        if (!outDir.mkdirs()) {
-          return null;
-        }
+      // files of one directory may be created by several threads, any of which may create it
+      if (!outDir.exists() && !outDir.mkdirs() && !outDir.isDirectory()) {
+        return null;
       }
       fileName.append(targetDirectory);
       if (!targetDirectory.endsWith(File.separator)) fileName.append(File.separator);
@@ -134,16 +140,13 @@ public class FileWriter {
   }
 
   public static boolean writeContents(File outfile, List<String> contents) {
-    try {
-      final var output = new FileOutputStream(outfile);
+    try (final var output = new BufferedOutputStream(new FileOutputStream(outfile))) {
       for (var thisLine : contents) {
         if (!thisLine.isEmpty()) {
           output.write(thisLine.getBytes());
         }
-        output.write("\n".getBytes());
+        output.write('\n');
       }
-      output.flush();
-      output.close();
       return true;
     } catch (Exception e) {
       Reporter.report.addFatalError(S.fmt("fileUnableToWrite", outfile.getAbsolutePath()));
@@ -0,0 +1,292 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.fpga.file;
+
+import static com.cburch.logisim.fpga.Strings.S;
+
+import com.cburch.logisim.data.Attribute;
+import com.cburch.logisim.data.AttributeSet;
+import com.cburch.logisim.fpga.gui.Reporter;
+import com.cburch.logisim.fpga.hdlgenerator.Hdl;
+import com.cburch.logisim.generated.BuildInfo;
+import com.cburch.logisim.prefs.AppPreferences;
+import com.cburch.logisim.std.memory.MemContents;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Record of the HDL files written by an export, kept in the sandbox directory for the next export
+ * of the same circuit.
+ *
+ * <p>Each file is recorded with the hash of its contents and with the key of the component it was
+ * generated for: a hash of everything its generation depends on. The next export leaves a file
+ * alone if its component has the same key, so it does not have to be generated again, or if the
+ * newly generated contents are the same. Either way the file keeps its time stamp, so the vendor
+ * tools do not compile it again. A file that was changed since it was written is always written
+ * again. The manifest of an export by another version, for another HDL or with other keyword case
+ * is not used.
+ */
+public class HdlManifest {
+  public static final String FILE_NAME = "logisim_hdl.manifest";
+  private static final String NO_KEY = "-";
+
+  private record Entry(String key, String hash) {}
+
+  private final Path projectDirectory;
+  private final File manifestFile;
+  private final String context;
+  private final Map<String, Entry> previous = new HashMap<>();
+  private final Map<String, Entry> current = new ConcurrentHashMap<>();
+  private final AtomicInteger regenerated = new AtomicInteger();
+  private final AtomicInteger reused = new AtomicInteger();
+
+  /**
+   * Reads the manifest of the last export, if any.
+   *
+   * @param projectDirectory Directory of the export, the paths of the files are relative to it.
+   * @param sandboxDirectory Directory the manifest is kept in.
+   */
+  public HdlManifest(String projectDirectory, String sandboxDirectory) {
+    this.projectDirectory = Path.of(projectDirectory).toAbsolutePath().normalize();
+    manifestFile = new File(sandboxDirectory, FILE_NAME);
+    // everything besides the keys that changes the generated files
+    context =
+        BuildInfo.version
+            + " "
+            + AppPreferences.HdlType.get()
+            + (AppPreferences.VhdlKeywordsUpperCase.get() ? " UPPER" : " lower");
+    if (!manifestFile.isFile()) return;
+    try (final var reader = Files.newBufferedReader(manifestFile.toPath(), StandardCharsets.UTF_8)) {
+      if (!context.equals(reader.readLine())) return;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        final var fields = line.split("\t");
+        if (fields.length == 3) previous.put(fields[0], new Entry(fields[1], fields[2]));
+      }
+    } catch (IOException e) {
+      previous.clear();
+    }
+  }
+
+  /** @return whether the files of the last export are known, so they may be kept. */
+  public boolean hasPrevious() {
+    return !previous.isEmpty();
+  }
+
+  public int getRegenerated() {
+    return regenerated.get();
+  }
+
+  public int getReused() {
+    return reused.get();
+  }
+
+  private String pathOf(File file) {
+    return projectDirectory.relativize(file.toPath().toAbsolutePath().normalize()).toString();
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  // the same bytes as FileWriter.writeContents writes
+  private static String hashOf(List<String> contents) {
+    final var digest = newDigest();
+    for (final var line : contents) {
+      digest.update(line.getBytes());
+      digest.update((byte) '\n');
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static String hashOf(File file) {
+    if (!file.isFile()) return null;
+    try {
+      return HexFormat.of().formatHex(newDigest().digest(Files.readAllBytes(file.toPath())));
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private static List<File> filesOf(String directory, String componentName) {
+    final var architecture = FileWriter.getHdlFile(directory, componentName, false);
+    return Hdl.isVhdl()
+        ? List.of(FileWriter.getHdlFile(directory, componentName, true), architecture)
+        : List.of(architecture);
+  }
+
+  /**
+   * Keeps the files of a component if the last export generated them for the same key and they
+   * were not changed since.
+   *
+   * @return whether the files were kept; if not, the component has to be generated.
+   */
+  public boolean reuse(String directory, String componentName, String key) {
+    if (key == null) return false;
+    final var files = filesOf(directory, componentName);
+    for (final var file : files) {
+      final var entry = previous.get(pathOf(file));
+      if (entry == null || !entry.key.equals(key) || !entry.hash.equals(hashOf(file))) return false;
+    }
+    for (final var file : files) {
+      final var path = pathOf(file);
+      current.put(path, previous.get(path));
+      reused.incrementAndGet();
+      Reporter.report.addInfo(S.fmt("fileReuseHDLFile", file.getPath()));
+    }
+    return true;
+  }
+
+  /**
+   * Writes the entity or the architecture of a component, unless the file of the last export
+   * holds the same contents.
+   *
+   * @param key Key the contents were generated for, or null if they are always generated.
+   * @return whether the file holds the contents.
+   */
+  public boolean write(
+      String directory, String componentName, boolean isEntity, List<String> contents, String key) {
+    final var file = FileWriter.getHdlFile(directory, componentName, isEntity);
+    final var path = pathOf(file);
+    final var hash = hashOf(contents);
+    final var entry = new Entry(key == null ? NO_KEY : key, hash);
+    final var last = previous.get(path);
+    if (last != null && last.hash.equals(hash) && hash.equals(hashOf(file))) {
+      current.put(path, entry);
+      reused.incrementAndGet();
+      Reporter.report.addInfo(S.fmt("fileReuseHDLFile", file.getPath()));
+      return true;
+    }
+    try {
+      final var outDir = file.getParentFile();
+      // files of one directory may be created by several threads, any of which may create it
+      if (!outDir.exists() && !outDir.mkdirs() && !outDir.isDirectory()) {
+        Reporter.report.addFatalError(S.fmt("fileUnableToCreate", file.getPath()));
+        return false;
+      }
+      Files.deleteIfExists(file.toPath());
+    } catch (IOException e) {
+      Reporter.report.addFatalError(S.fmt("fileUnableToWrite", file.getPath()));
+      return false;
+    }
+    Reporter.report.addInfo(S.fmt("fileCreateHDLFile", file.getPath()));
+    if (!FileWriter.writeContents(file, contents)) return false;
+    current.put(path, entry);
+    regenerated.incrementAndGet();
+    return true;
+  }
+
+  /** Removes the files in the given directory that were not written or kept by this export. */
+  public void prune(String directory) {
+    final var dir = Path.of(directory);
+    if (!Files.isDirectory(dir)) return;
+    try (final var files = Files.walk(dir)) {
+      for (final var file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+        if (!current.containsKey(pathOf(file.toFile()))) Files.delete(file);
+      }
+    } catch (IOException e) {
+      Reporter.report.addWarning(S.fmt("fileUnableToWrite", directory));
+    }
+  }
+
+  /** Writes the manifest for the next export; failing to do so only costs a full export. */
+  public void save() {
+    final var dir = manifestFile.getParentFile();
+    if (!dir.exists() && !dir.mkdirs()) return;
+    final var contents = new StringBuilder(context).append('\n');
+    for (final var entry : new TreeMap<>(current).entrySet()) {
+      contents
+          .append(entry.getKey())
+          .append('\t')
+          .append(entry.getValue().key)
+          .append('\t')
+          .append(entry.getValue().hash)
+          .append('\n');
+    }
+    try {
+      Files.writeString(manifestFile.toPath(), contents, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      Reporter.report.addWarning(S.fmt("fileUnableToWrite", manifestFile.getPath()));
+    }
+  }
+
+  /** Builds the key of a component, a hash of everything the generation of its files uses. */
+  public static final class KeyBuilder {
+    private final MessageDigest digest = newDigest();
+
+    public KeyBuilder add(Object value) {
+      digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      return this;
+    }
+
+    public KeyBuilder add(AttributeSet attrs) {
+      if (attrs == null) return add((Object) null);
+      for (final var attr : attrs.getAttributes()) add(attrs, attr);
+      return this;
+    }
+
+    private <V> void add(AttributeSet attrs, Attribute<V> attr) {
+      final var value = attrs.getValue(attr);
+      add(attr.getName());
+      // the standard string of a memory kept in an image file only names the file
+      if (value instanceof MemContents contents) addContents(contents);
+      else add(value == null ? null : attr.toStandardString(value));
+    }
+
+    /** Adds the words of a memory, or the contents of the image file it matches. */
+    private void addContents(MemContents contents) {
+      add(contents.getLogLength());
+      add(contents.getWidth());
+      if (contents.isBackingFileCurrent()) {
+        try (final var in = Files.newInputStream(contents.getBackingFile().toPath())) {
+          final var digestIn = new DigestInputStream(in, newDigest());
+          digestIn.transferTo(OutputStream.nullOutputStream());
+          digest.update(digestIn.getMessageDigest().digest());
+          return;
+        } catch (IOException e) {
+          // the words are read from the file as well, and give the same key if they can be
+        }
+      }
+      final var words = ByteBuffer.allocate(8 * 1024);
+      for (long addr = 0; addr <= contents.getLastOffset(); addr++) {
+        if (!words.hasRemaining()) {
+          digest.update(words.flip());
+          words.clear();
+        }
+        words.putLong(contents.get(addr));
+      }
+      digest.update(words.flip());
+    }
+
+    public String build() {
+      return HexFormat.of().formatHex(digest.digest());
+    }
+  }
+}
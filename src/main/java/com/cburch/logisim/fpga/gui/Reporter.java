@@ -33,14 +33,14 @@ public class Reporter {
     progress = progressBar;
   }
 
-  public void addErrorIncrement(String message) {
+  public synchronized void addErrorIncrement(String message) {
     if (myCommander == null)
       logger.error(message);
     else
       myCommander.addErrors(new SimpleDrcContainer(message, SimpleDrcContainer.LEVEL_NORMAL, true));
   }
 
-  public void addError(Object message) {
+  public synchronized void addError(Object message) {
     if (myCommander == null) {
       if (message instanceof String msg) logger.error(msg);
     } else {
@@ -54,42 +54,42 @@ public class Reporter {
     addFatalError(String.format(fmt, args));
   }
 
-  public void addFatalError(String message) {
+  public synchronized void addFatalError(String message) {
     if (myCommander == null)
       logger.error(message);
     else
       myCommander.addErrors(new SimpleDrcContainer(message, SimpleDrcContainer.LEVEL_FATAL));
   }
 
-  public void addSevereError(String message) {
+  public synchronized void addSevereError(String message) {
     if (myCommander == null)
       logger.error(message);
     else
       myCommander.addErrors(new SimpleDrcContainer(message, SimpleDrcContainer.LEVEL_SEVERE));
   }
 
-  public void addInfo(String message) {
+  public synchronized void addInfo(String message) {
     if (myCommander == null)
       logger.info(message);
     else
       myCommander.addInfo(message);
   }
 
-  public void addSevereWarning(String message) {
+  public synchronized void addSevereWarning(String message) {
     if (myCommander == null)
       logger.warn(message);
     else
       myCommander.addWarning(new SimpleDrcContainer(message, SimpleDrcContainer.LEVEL_SEVERE));
   }
 
-  public void addWarningIncrement(String message) {
+  public synchronized void addWarningIncrement(String message) {
     if (myCommander == null)
       logger.warn(message);
     else
       myCommander.addWarning(new SimpleDrcContainer(message, SimpleDrcContainer.LEVEL_NORMAL, true));
   }
 
-  public void addWarning(Object message) {
+  public synchronized void addWarning(Object message) {
     if (myCommander == null) {
       if (message instanceof String msg) logger.warn(msg);
     } else {
@@ -99,12 +99,12 @@ public class Reporter {
     }
   }
 
-  public void clearConsole() {
+  public synchronized void clearConsole() {
     if (myCommander != null)
       myCommander.clearConsole();
   }
 
-  public void print(String message) {
+  public synchronized void print(String message) {
     if (myCommander == null)
       logger.info(message);
     else
@@ -54,6 +54,14 @@ public class AbstractHdlGeneratorFactory implements HdlGeneratorFactory {
   // Handle to get the wires and ports during generation time
   public void getGenerationTimeWiresPorts(Netlist theNetlist, AttributeSet attrs) {}
 
+  /** Replaces the wires and ports by those of the component with the given attributes. */
+  private void setGenerationTimeWiresPorts(Netlist theNetlist, AttributeSet attrs) {
+    myWires.removeWires();
+    myTypedWires.clear();
+    myPorts.removePorts();
+    getGenerationTimeWiresPorts(theNetlist, attrs);
+  }
+
   /* Here the common predefined methods are defined */
   @Override
   public boolean generateAllHDLDescriptions(
@@ -66,12 +74,7 @@ public class AbstractHdlGeneratorFactory implements HdlGeneratorFactory {
   @Override
   public List<String> getArchitecture(Netlist theNetlist, AttributeSet attrs, String componentName) {
     final var contents = LineBuffer.getHdlBuffer();
-    if (getWiresPortsDuringHDLWriting) {
-      myWires.removeWires();
-      myTypedWires.clear();
-      myPorts.removePorts();
-      getGenerationTimeWiresPorts(theNetlist, attrs);
-    }
+    if (getWiresPortsDuringHDLWriting) setGenerationTimeWiresPorts(theNetlist, attrs);
     contents.add(FileWriter.getGenerateRemark(componentName, theNetlist.projName()));
     if (Hdl.isVhdl()) {
       contents.addVhdlKeywords().add("{{architecture}} platformIndependent {{of}} {{1}} {{is}} ", componentName).empty();
@@ -379,15 +382,12 @@ public class AbstractHdlGeneratorFactory implements HdlGeneratorFactory {
 
   public Map<String, String> getPortMap(Netlist nets, Object mapInfo) {
     final var result = new TreeMap<String, String>();
-    if ((mapInfo instanceof netlistComponent componentInfo) && !myPorts.isEmpty()) {
+    if (!(mapInfo instanceof netlistComponent componentInfo)) return result;
+    final var attrs = componentInfo.getComponent().getAttributeSet();
+    // the entity of the component, which would determine these ports, may not be generated yet
+    if (getWiresPortsDuringHDLWriting) setGenerationTimeWiresPorts(nets, attrs);
+    if (!myPorts.isEmpty()) {
       final var compName = componentInfo.getComponent().getFactory().getDisplayName();
-      final var attrs = componentInfo.getComponent().getAttributeSet();
-      if (getWiresPortsDuringHDLWriting) {
-        myWires.removeWires();
-        myTypedWires.clear();
-        myPorts.removePorts();
-        getGenerationTimeWiresPorts(nets, componentInfo.getComponent().getAttributeSet());
-      }
       for (var port : myPorts.keySet()) {
         if (myPorts.isClock(port)) {
           var gatedClock = false;
@@ -469,12 +469,7 @@ public class AbstractHdlGeneratorFactory implements HdlGeneratorFactory {
       String componentName, Boolean isEntity) {
     final var contents = LineBuffer.getHdlBuffer().addVhdlKeywords();
     var maxNameLength = 0;
-    if (getWiresPortsDuringHDLWriting) {
-      myWires.removeWires();
-      myTypedWires.clear();
-      myPorts.removePorts();
-      getGenerationTimeWiresPorts(theNetlist, attrs);
-    }
+    if (getWiresPortsDuringHDLWriting) setGenerationTimeWiresPorts(theNetlist, attrs);
     contents.add(isEntity ? "{{entity}} {{1}} {{is}}" : "{{component}} {{1}}", componentName);
     if (!myParametersList.isEmpty(attrs)) {
       // first we build a list with parameters to determine the max. string length
@@ -14,6 +14,7 @@ import static com.cburch.logisim.fpga.Strings.S;
 import com.cburch.logisim.fpga.designrulecheck.Netlist;
 import com.cburch.logisim.fpga.designrulecheck.netlistComponent;
 import com.cburch.logisim.fpga.file.FileWriter;
+import com.cburch.logisim.fpga.file.HdlManifest;
 import com.cburch.logisim.fpga.gui.Reporter;
 import com.cburch.logisim.prefs.AppPreferences;
 import com.cburch.logisim.util.CollectionUtil;
@@ -419,21 +420,35 @@ public class Hdl {
   }
 
   public static boolean writeEntity(String targetDirectory, List<String> contents, String componentName) {
+    return writeEntity(targetDirectory, contents, componentName, null, null);
+  }
+
+  /** Writes the entity of a component, through the manifest of the export if there is one. */
+  public static boolean writeEntity(String targetDirectory, List<String> contents, String componentName,
+      HdlManifest manifest, String key) {
     if (!Hdl.isVhdl()) return true;
     if (contents.isEmpty()) {
       Reporter.report.addFatalError(S.get("HdlEmptyEntityError"));
       return false;
     }
+    if (manifest != null) return manifest.write(targetDirectory, componentName, true, contents, key);
     final var outFile = FileWriter.getFilePointer(targetDirectory, componentName, true);
     if (outFile == null) return false;
     return FileWriter.writeContents(outFile, contents);
   }
 
   public static boolean writeArchitecture(String targetDirectory, List<String> contents, String componentName) {
+    return writeArchitecture(targetDirectory, contents, componentName, null, null);
+  }
+
+  /** Writes the architecture of a component, through the manifest of the export if there is one. */
+  public static boolean writeArchitecture(String targetDirectory, List<String> contents, String componentName,
+      HdlManifest manifest, String key) {
     if (CollectionUtil.isNullOrEmpty(contents)) {
       Reporter.report.addFatalError(S.get("HdlEmptyBehaviorError", componentName));
       return false;
     }
+    if (manifest != null) return manifest.write(targetDirectory, componentName, false, contents, key);
     final var outFile = FileWriter.getFilePointer(targetDirectory, componentName, false);
     if (outFile == null)  return false;
     return FileWriter.writeContents(outFile, contents);
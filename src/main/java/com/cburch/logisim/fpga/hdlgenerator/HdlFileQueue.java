@@ -0,0 +1,177 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.fpga.hdlgenerator;
+
+import com.cburch.logisim.data.AttributeSet;
+import com.cburch.logisim.fpga.designrulecheck.Netlist;
+import com.cburch.logisim.fpga.file.HdlManifest;
+import com.cburch.logisim.fpga.gui.Reporter;
+import com.cburch.logisim.util.UniquelyNamedThread;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates and writes the entity and architecture files of an HDL export on a pool of worker
+ * threads.
+ *
+ * <p>The circuits are generated by the thread walking the hierarchy, as generating a circuit sets
+ * the hierarchy level of its netlist and asks the generators of its components for their port
+ * maps; only the writing of their files is queued. The other components are queued whole and
+ * generated once the walk is done, by {@link #finish()}. Generators keep the ports and wires of
+ * the component they work on, so all components of one generator are generated in turn on one
+ * thread, while different generators run in parallel. Every file has one writer and its contents
+ * do not depend on the order the jobs run in, so the output is the same as a sequential export.
+ *
+ * <p>With a manifest, the files of components whose key did not change since the last export are
+ * kept instead of generated again; see {@link HdlManifest}. The key of a component that is not a
+ * circuit is made of its generator, its name and its attributes; the keys of circuits are made by
+ * their generator and kept here, so that circuits can include those of their subcircuits.
+ */
+public class HdlFileQueue implements AutoCloseable {
+  private record Component(
+      HdlGeneratorFactory worker,
+      Netlist netlist,
+      AttributeSet attrs,
+      String componentName,
+      String directory) {}
+
+  private final HdlManifest manifest;
+  private final ExecutorService pool;
+  private final HashMap<String, String> keys = new HashMap<>();
+  private final List<Future<Boolean>> pending = new ArrayList<>();
+  private final LinkedHashMap<HdlGeneratorFactory, List<Component>> components =
+      new LinkedHashMap<>();
+
+  public HdlFileQueue(HdlManifest manifest) {
+    this(manifest, Runtime.getRuntime().availableProcessors());
+  }
+
+  public HdlFileQueue(HdlManifest manifest, int threads) {
+    this.manifest = manifest;
+    pool =
+        Executors.newFixedThreadPool(
+            Math.max(1, threads), r -> new UniquelyNamedThread(r, "HdlFileQueue"));
+  }
+
+  /** @return the manifest of the export, or null if all files are generated. */
+  public HdlManifest getManifest() {
+    return manifest;
+  }
+
+  /** Sets the key of a circuit, made by its generator, for the circuits using it. */
+  public void setKey(String componentName, String key) {
+    keys.put(componentName, key);
+  }
+
+  /** @return the key of a circuit, or null if it is not known. */
+  public String getKey(String componentName) {
+    return keys.get(componentName);
+  }
+
+  /**
+   * Keeps the files of a component of the last export if it was generated for the same key.
+   *
+   * @return whether the files were kept; if not, the component has to be generated.
+   */
+  public boolean reuse(String directory, String componentName, String key) {
+    return manifest != null && manifest.reuse(directory, componentName, key);
+  }
+
+  /** Queues the writing of the files of a component whose contents are already generated. */
+  public void write(
+      String directory,
+      List<String> entity,
+      List<String> architecture,
+      String componentName,
+      String key) {
+    pending.add(
+        pool.submit(
+            () ->
+                Hdl.writeEntity(directory, entity, componentName, manifest, key)
+                    && Hdl.writeArchitecture(directory, architecture, componentName, manifest, key)));
+  }
+
+  /** Queues the generation and writing of the files of a component, for {@link #finish()}. */
+  public void generate(
+      HdlGeneratorFactory worker,
+      Netlist netlist,
+      AttributeSet attrs,
+      String componentName,
+      String directory) {
+    components
+        .computeIfAbsent(worker, k -> new ArrayList<>())
+        .add(new Component(worker, netlist, attrs, componentName, directory));
+  }
+
+  private boolean generate(List<Component> queue) {
+    for (final var comp : queue) {
+      String key = null;
+      if (manifest != null) {
+        key =
+            new HdlManifest.KeyBuilder()
+                .add(comp.worker.getClass().getName())
+                .add(comp.componentName)
+                .add(comp.netlist.requiresGlobalClockConnection())
+                .add(comp.netlist.numberOfClockTrees())
+                .add(comp.attrs)
+                .build();
+        if (manifest.reuse(comp.directory, comp.componentName, key)) continue;
+      }
+      final var entity = comp.worker.getEntity(comp.netlist, comp.attrs, comp.componentName);
+      if (!Hdl.writeEntity(comp.directory, entity, comp.componentName, manifest, key)) {
+        return false;
+      }
+      final var architecture =
+          comp.worker.getArchitecture(comp.netlist, comp.attrs, comp.componentName);
+      if (!Hdl.writeArchitecture(comp.directory, architecture, comp.componentName, manifest, key)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Generates the queued components and waits until all files are written.
+   *
+   * @return whether all files were generated and written.
+   */
+  public boolean finish() {
+    for (final var queue : components.values()) {
+      pending.add(pool.submit((Callable<Boolean>) () -> generate(queue)));
+    }
+    components.clear();
+    var success = true;
+    for (final var job : pending) {
+      try {
+        success &= job.get();
+      } catch (ExecutionException e) {
+        Reporter.report.addFatalError(e.getCause().toString());
+        success = false;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    pending.clear();
+    return success;
+  }
+
+  @Override
+  public void close() {
+    pool.shutdownNow();
+  }
+}
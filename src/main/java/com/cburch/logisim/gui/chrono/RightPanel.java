@@ -26,6 +26,8 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javax.swing.DefaultListSelectionModel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
@@ -43,10 +45,20 @@ public class RightPanel extends JPanel {
   private static final int EXTRA_SPACE = 40;
   private static final int CURSOR_GAP = 20;
   private static final int TIMELINE_SPACING = 80;
+  private static final int TILE_WIDTH = 256;
+  private static final int MAX_TILES = 1024; // a few screens full, about 20MB
   private final ChronoPanel chronoPanel;
   final DefaultListSelectionModel selectionModel;
   private Model model;
   private final ArrayList<Waveform> rows = new ArrayList<>();
+  // Rendered strips of TILE_WIDTH pixels of each waveform, least recently painted first
+  private final LinkedHashMap<Tile, BufferedImage> tiles =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Tile, BufferedImage> eldest) {
+          return size() > MAX_TILES;
+        }
+      };
   private int curX = Integer.MAX_VALUE; // pixel coordinate of cursor, or MAX_VALUE to pin at right
   private long curT = Long.MAX_VALUE; // time of cursor, or MAX_VALUE to pin at right
   private int zoom = 20;
@@ -138,10 +150,17 @@ public class RightPanel extends JPanel {
       // already drawn all signal values
       return;
     }
+    final var extended = !force && t0 == timeStartDraw && t1 > timeNextDraw;
+    final var oldEnd = timeNextDraw;
     timeStartDraw = t0;
     timeNextDraw = t1;
     updateSize(true);
-    flushWaveforms();
+    if (extended) {
+      // only the tiles from the last value of each signal on change
+      for (final var w : rows) w.flushFrom(oldEnd - 1);
+    } else {
+      flushWaveforms();
+    }
     header.repaint();
     repaint();
   }
@@ -258,7 +277,7 @@ public class RightPanel extends JPanel {
   }
 
   private void flushWaveforms() {
-    for (final var w : rows) w.flush();
+    tiles.clear();
   }
 
   @Override
@@ -272,6 +291,8 @@ public class RightPanel extends JPanel {
   }
 
   private void paintPanel(Graphics2D gfx, int paintWidth, int paintHeight, boolean export) {
+    var clip = gfx.getClipBounds();
+    if (clip == null) clip = new Rectangle(0, 0, paintWidth, paintHeight);
     /* Anti-aliasing changes from https://github.com/hausen/logisim-evolution */
     gfx.setRenderingHint(
         RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
@@ -300,7 +321,7 @@ public class RightPanel extends JPanel {
     } else {
       for (final var w : rows) {
         if (export) w.paintWaveformDirect(gfx);
-        else w.paintWaveform(gfx);
+        else w.paintWaveform(gfx, clip);
       }
       paintCursor(gfx);
     }
@@ -409,6 +430,8 @@ public class RightPanel extends JPanel {
     }
   }
 
+  private record Tile(Waveform row, int index) {}
+
   private class Waveform {
 
     private static final int HIGH = ChronoPanel.GAP;
@@ -416,7 +439,7 @@ public class RightPanel extends JPanel {
     private static final int MID = WAVE_HEIGHT / 2;
 
     final Signal signal;
-    private BufferedImage buf;
+    private final Signal.Summary summary = new Signal.Summary();
     boolean selected;
 
     public Waveform(Signal s) {
@@ -432,7 +455,14 @@ public class RightPanel extends JPanel {
       g.setStroke(new BasicStroke(bold ? 2 : 1));
 
       final var t0 = model.getStartTime();
-      Signal.Iterator cur = signal.new Iterator(t0);
+      final var z = tickWidth / model.getTimeScale();
+      // only draw the values that show within the clip, starting far enough to its left that
+      // the transition into the first visible value is drawn as well
+      final var clip = g.getClipBounds();
+      final var xStart = clip == null ? 0 : Math.max(0, clip.x - slope - 1);
+      final var xEnd = clip == null ? width : clip.x + clip.width;
+      final var tStart = signal.getValueStart(t0 + (long) (xStart / z));
+      Signal.Iterator cur = signal.new Iterator(Math.max(t0, tStart));
 
       final var fm = g.getFontMetrics();
 
@@ -440,15 +470,38 @@ public class RightPanel extends JPanel {
       final var min = signal.getFormattedMinValue();
       final var labelWidth = Math.max(fm.stringWidth(max), fm.stringWidth(min));
 
-      final var z = tickWidth / model.getTimeScale();
       var prevHi = false;
       var prevLo = false;
       Color prevFill = null;
       while (cur.value != null) {
-        final var v = cur.getFormattedValue();
         final var x0 = (int) (z * (cur.time - t0));
+        if (x0 > xEnd) break;
         final var x1 = (int) (z * (cur.time + cur.duration - t0));
 
+        if (z < 1 && x1 - x0 < 2) {
+          // values too short to show one by one: draw one column per pixel, from a summary of
+          // the values within it, until a pixel holds a single value again
+          var x = x0;
+          var t = cur.time;
+          Color fill = null;
+          while (x <= xEnd) {
+            final var next = t0 + (long) Math.ceil((x + 1) / z);
+            if (!signal.summarize(t, next, summary) || summary.transitions == 0) break;
+            fill = drawSummary(g, x, colors);
+            x++;
+            t = next;
+          }
+          if (fill != null) {
+            prevHi = true;
+            prevLo = true;
+            prevFill = fill;
+            if (!cur.advance(t - cur.time)) break;
+            continue;
+          }
+        }
+
+        final var v = cur.getFormattedValue();
+
         var hi = true;
         var lo = true;
         Color lineColor;
@@ -586,6 +639,31 @@ public class RightPanel extends JPanel {
       }
     }
 
+    /** Draws the pixel column at x from {@link #summary}, and returns its fill color. */
+    private Color drawSummary(Graphics2D g, int x, Color[] colors) {
+      final var bitWidth = signal.getWidth();
+      final var mask = bitWidth >= 64 ? -1L : (1L << bitWidth) - 1;
+      Color fillColor;
+      Color lineColor;
+      var hi = true;
+      var lo = true;
+      if (summary.error) {
+        fillColor = colors[3];
+        lineColor = colors[4];
+      } else if (summary.unknown) {
+        fillColor = colors[5];
+        lineColor = colors[6];
+      } else {
+        hi = (summary.max & mask) != 0;
+        lo = (summary.min & mask) != mask;
+        fillColor = colors[1];
+        lineColor = colors[2];
+      }
+      g.setColor(lineColor);
+      g.drawLine(x, hi ? HIGH : LOW, x, lo ? LOW : HIGH);
+      return fillColor;
+    }
+
     private void drawWaveform(Graphics2D g) {
       g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_DEFAULT);
       g.setRenderingHint(
@@ -602,20 +680,32 @@ public class RightPanel extends JPanel {
       drawSignal(g, isBold, colors);
     }
 
-    private void createOffscreen() {
-      buf = (BufferedImage) createImage(width, WAVE_HEIGHT);
-      final var g = buf.createGraphics();
+    private BufferedImage createTile(int index) {
+      final var x = index * TILE_WIDTH;
+      final var img = (BufferedImage) createImage(Math.min(TILE_WIDTH, width - x), WAVE_HEIGHT);
+      final var g = img.createGraphics();
+      g.translate(-x, 0);
+      g.clipRect(x, 0, img.getWidth(), WAVE_HEIGHT);
       drawWaveform(g);
       g.dispose();
+      return img;
     }
 
-    public void paintWaveform(Graphics2D g) {
-      if (buf == null) {
-        // TODO: reallocating image each time seems silly
-        createOffscreen();
-      }
+    /** Paints the tiles of this waveform that intersect the clip, rendering the missing ones. */
+    public void paintWaveform(Graphics2D g, Rectangle clip) {
       final var y = WAVE_HEIGHT * signal.idx;
-      g.drawImage(buf, null, 0, y);
+      if (y >= clip.y + clip.height || y + WAVE_HEIGHT <= clip.y) return;
+      final var first = Math.max(0, clip.x) / TILE_WIDTH;
+      final var last = Math.min(width, clip.x + clip.width) - 1;
+      for (var i = first; i * TILE_WIDTH <= last; i++) {
+        final var key = new Tile(this, i);
+        var img = tiles.get(key);
+        if (img == null) {
+          img = createTile(i);
+          tiles.put(key, img);
+        }
+        g.drawImage(img, null, i * TILE_WIDTH, y);
+      }
     }
 
     public void paintWaveformDirect(Graphics2D g) {
@@ -627,15 +717,23 @@ public class RightPanel extends JPanel {
     }
 
     public void flush() {
-      buf = null;
+      tiles.keySet().removeIf(tile -> tile.row() == this);
+    }
+
+    /** Drops the tiles that show the value the signal had at time t, or later values. */
+    void flushFrom(long t) {
+      final var q = tickWidth / model.getTimeScale();
+      final var x = (int) ((signal.getValueStart(t) - timeStartDraw) * q);
+      final var index = Math.max(0, x - 1) / TILE_WIDTH;
+      tiles.keySet().removeIf(tile -> tile.row() == this && tile.index() >= index);
     }
   }
 
   public void zoom(int sens, int posX) {
     if (zoom + sens < 1 || zoom + sens > 40) return;
 
-    // fixme: Offscreen image can be max 32k pixels wide. We should not be
-    // making such huge offscreen images anyway.
+    // fixme: waveforms are rendered in tiles, but the panel itself is still
+    // limited to 32k pixels wide.
     final var timeScale = model.getTimeScale();
     final var t0 = model.getStartTime();
     final var t1 = model.getEndTime();
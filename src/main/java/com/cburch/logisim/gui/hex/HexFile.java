@@ -229,6 +229,12 @@ public class HexFile {
     "ASCII bytes, with escapes, little-endian" // no header
   };
 
+  /**
+   * Whether files and circuit file contents are first given to HexStreamReader; only switched off
+   * to compare with the plain HexReader.
+   */
+  static boolean streamingReader = true;
+
   private HexFile() {}
 
   public static void open(
@@ -258,6 +264,13 @@ public class HexFile {
   }
 
   protected static boolean open(MemContents dst, File src, String desc) throws IOException {
+    final var fast = streamingReader
+        ? HexStreamReader.read(src, desc, dst.getLogLength(), dst.getValueWidth())
+        : null;
+    if (fast != null) {
+      dst.copyFrom(0, fast, 0, (int) (fast.getLastOffset() + 1));
+      return true;
+    }
     final var in = BufferedLineReader.forFile(src);
     try {
       final var r = new HexReader(in, dst.getLogLength(), dst.getValueWidth());
@@ -285,6 +298,8 @@ public class HexFile {
   }
 
   public static MemContents parseFromCircFile(String src, int addrSize, int wordSize) throws IOException {
+    final var fast = streamingReader ? HexStreamReader.readRaw(src, addrSize, wordSize) : null;
+    if (fast != null) return fast;
     return parse(false, src, "v2.0 raw", addrSize, wordSize).model;
   }
 
@@ -1617,6 +1632,10 @@ public class HexFile {
 
     void buffer() {
       bLen = 0;
+      if (memWidth % 8 == 0 && mAddrFrac == 0) {
+        bufferAligned();
+        return;
+      }
       if (bigEndian) {
         var val = BigInteger.ZERO;
         int nbits = -mAddrFrac;
@@ -1668,6 +1687,33 @@ public class HexFile {
       }
     }
 
+    /**
+     * Same as buffer() for widths that are a multiple of 8 bits, where every word maps to whole
+     * bytes. Only complete words go into the buffer, so no BigInteger and no partial word state
+     * is needed.
+     */
+    private void bufferAligned() {
+      final var bytesPerWord = memWidth / 8;
+      while (memAddr <= memEnd && bLen + bytesPerWord <= bytes.length) {
+        final var value = src.get(memAddr++);
+        if (bigEndian) {
+          for (var i = bytesPerWord - 1; i >= 0; i--) bytes[bLen++] = (byte) (value >>> (8 * i));
+        } else {
+          for (var i = 0; i < bytesPerWord; i++) bytes[bLen++] = (byte) (value >>> (8 * i));
+        }
+      }
+    }
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /** Appends value in lower case hex, left padded with zeros to at least digits characters. */
+    private static void appendHex(StringBuilder line, long value, int digits) {
+      final var len = Math.max(digits, (64 - Long.numberOfLeadingZeros(value) + 3) / 4);
+      for (var i = len - 1; i >= 0; i--) {
+        line.append(i >= 16 ? '0' : HEX_DIGITS[(int) (value >>> (4 * i)) & 0xf]);
+      }
+    }
+
     void save() throws IOException {
       try {
         if (taggedOrUnset("radix", "binary")) saveBinary();
@@ -1747,32 +1793,36 @@ public class HexFile {
       else saveHexBytes(false);
     }
 
-    String addrfmt(long maxAddr) {
-      int w = String.format("%x", maxAddr).length();
-      return "%0" + w + "x: ";
+    int addrDigits(long maxAddr) {
+      return Math.max(1, (64 - Long.numberOfLeadingZeros(maxAddr) + 3) / 4);
     }
 
     void saveHexBytes(boolean addressed) {
       cOut = new PrintWriter(new OutputStreamWriter(bOut));
-      String afmt = addrfmt(memEnd);
+      final var addrDigits = addrDigits(memEnd);
+      final var line = new StringBuilder(96);
       int col = 0;
       buffer();
       long offs = 0;
       while (bLen > 0) {
         for (int i = 0; i < bLen; i++) {
-          if (col == 0 && addressed) cOut.printf(afmt, offs);
+          if (col == 0 && addressed) {
+            appendHex(line, offs, addrDigits);
+            line.append(": ");
+          }
           offs++;
-          byte b = bytes[i];
-          cOut.printf("%02x", b); // no spaces
+          appendHex(line, bytes[i] & 0xffL, 2); // no spaces
           col += 2;
           if (col >= 64) {
-            cOut.printf("\n");
+            line.append('\n');
+            cOut.append(line);
+            line.setLength(0);
             col = 0;
           }
         }
         buffer();
       }
-      if (col != 0) cOut.printf("\n");
+      if (col != 0) cOut.append(line).append('\n');
     }
 
     // 00000000000000000000000000000000000000000000000000000000000000000000000000000000
@@ -1787,23 +1837,28 @@ public class HexFile {
 
     void saveHexWords(boolean addressed) {
       cOut = new PrintWriter(new OutputStreamWriter(bOut));
-      String afmt = addrfmt(memEnd);
+      final var addrDigits = addrDigits(memEnd);
+      final var line = new StringBuilder(160);
       int col = 0;
       int w = ((memWidth + 3) / 4);
       int ncol = (w == 1 ? 32 : w <= 4 ? 16 : 8);
-      String fmt = "%0" + w + "x";
       for (int offs = 0; offs <= memEnd; offs++) {
-        if (col == 0 && addressed) cOut.printf(afmt, offs); // with trailing space
-        else if (col != 0) cOut.print(" "); // leading space
-        cOut.printf(fmt, src.get(offs));
+        if (col == 0 && addressed) {
+          appendHex(line, offs, addrDigits);
+          line.append(": "); // with trailing space
+        } else if (col != 0) {
+          line.append(' '); // leading space
+        }
+        appendHex(line, src.get(offs), w);
         col++;
         if (col >= ncol) {
-          cOut.print("\n");
+          line.append('\n');
+          cOut.append(line);
+          line.setLength(0);
           col = 0;
         }
       }
-
-      if (col != 0) cOut.printf("\n");
+      if (col != 0) cOut.append(line).append('\n');
     }
 
     void saveHexAddressed() {
@@ -0,0 +1,444 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.gui.hex;
+
+import com.cburch.logisim.std.memory.MemContents;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Fast decoder for well-formed memory images. The file is memory-mapped and scanned byte by byte,
+ * so no line or word strings are created, and the decoded words are handed to {@link MemContents}
+ * a page at a time. It understands the binary format and the hex formats ("v2.0 raw", "v3.0 hex
+ * words/bytes, plain/addressed") for byte-aligned word widths.
+ *
+ * <p>It only covers the common case: as soon as it meets anything the HexReader in HexFile would
+ * warn about (bad digits, data past the end of the memory, partial words, unknown headers, ...)
+ * it gives up and returns null, and the caller decodes the image again with HexReader, which
+ * produces the exact same result for valid images and also deals with the warnings.
+ */
+final class HexStreamReader {
+  /** Bytes inspected to find the header line when the format is auto-detected. */
+  private static final int HEADER_SAMPLE = 1024;
+  /** Words handed to MemContents.set() at once; matches the page size of MemContents. */
+  private static final int CHUNK = 4096;
+
+  /** Thrown when the image needs HexReader; never escapes this class. */
+  private static final class Unsupported extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    Unsupported() {
+      super(null, null, false, false);
+    }
+  }
+
+  private static final Unsupported UNSUPPORTED = new Unsupported();
+
+  private final ByteBuffer in;
+  private final int limit;
+  private final MemContents dst;
+  private final long memEnd;
+  private final int bytesPerWord;
+
+  private final long[] words = new long[CHUNK];
+  private long wordsStart;
+  private int wordCount;
+
+  /** Scanner position and the bounds of the current line (comments and outer blanks removed). */
+  private int pos;
+  private int lineStart;
+  private int lineEnd;
+
+  private HexStreamReader(ByteBuffer in, int addrBits, int width) {
+    this.in = in;
+    this.limit = in.limit();
+    this.dst = MemContents.create(addrBits, width, false);
+    this.memEnd = dst.getLastOffset();
+    this.bytesPerWord = width % 8 == 0 ? width / 8 : 0;
+  }
+
+  /**
+   * Decodes <code>file</code> in the format <code>desc</code> (one of the HexFile format
+   * descriptions), or in the format named by its header line when <code>desc</code> is null.
+   *
+   * @return the decoded image, or null if it has to be decoded by HexReader instead
+   */
+  static MemContents read(File file, String desc, int addrBits, int width) throws IOException {
+    try (final var channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      final var size = channel.size();
+      if (size == 0 || size > Integer.MAX_VALUE) return null;
+      final var buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      final var opts = new HexFile.FormatOptions();
+      if (desc != null) {
+        opts.parseFormat(desc);
+      } else if (!detectFormat(buf, opts)) {
+        return null;
+      }
+      return read(buf, opts, addrBits, width);
+    }
+  }
+
+  /** Decodes a "v2.0 raw" image held in a string, as stored in circuit files. */
+  static MemContents readRaw(String src, int addrBits, int width) {
+    final var opts = new HexFile.FormatOptions("v2.0 raw");
+    return read(ByteBuffer.wrap(src.getBytes(StandardCharsets.UTF_8)), opts, addrBits, width);
+  }
+
+  private static MemContents read(ByteBuffer buf, HexFile.FormatOptions opts, int addrBits, int width) {
+    final var reader = new HexStreamReader(buf, addrBits, width);
+    try {
+      if (opts.taggedOrUnset("radix", "binary")) {
+        reader.decodeBinary(opts.bigEndian());
+      } else if (opts.tagged("radix", "raw")) {
+        reader.decodeRaw();
+      } else if (opts.tagged("radix", "hex")) {
+        var addressed = opts.tagged("style", "addressed");
+        if (!opts.tags.containsKey("style")) {
+          // same guess as HexReader.decodeHexAuto
+          if (!reader.nextLine(true, false)) return reader.dst;
+          addressed = reader.lineContains((byte) ':');
+          reader.pos = 0;
+        }
+        final var wordsSize = opts.tagged("size", "words");
+        if (addressed && wordsSize) reader.decodeHexAddressedWords();
+        else if (addressed) reader.decodeHexAddressedBytes(opts.bigEndian());
+        else if (wordsSize) reader.decodeHexPlainWords();
+        else reader.decodeHexPlainBytes(opts.bigEndian());
+      } else {
+        return null;
+      }
+      reader.flush();
+      return reader.dst;
+    } catch (Unsupported e) {
+      return null;
+    }
+  }
+
+  /** Parses the first non-blank line of the sample as a header, like HexReader does. */
+  private static boolean detectFormat(ByteBuffer buf, HexFile.FormatOptions opts) {
+    final var n = Math.min(buf.limit(), HEADER_SAMPLE);
+    final var sample = new byte[n];
+    buf.get(0, sample);
+    final var text = new String(sample, StandardCharsets.UTF_8);
+    var start = 0;
+    while (start < text.length()) {
+      var end = start;
+      while (end < text.length() && text.charAt(end) != '\n' && text.charAt(end) != '\r') end++;
+      // a header cut off by the end of the sample is left to HexReader
+      if (end == text.length() && n < buf.limit()) return false;
+      final var line = text.substring(start, end).trim();
+      if (!line.isEmpty()) {
+        if (opts.parseHeader(line) != null || !opts.tags.containsKey("radix")) return false;
+        return !opts.tagged("radix", "hex") || opts.tags.containsKey("size");
+      }
+      start = end + 1;
+    }
+    return false;
+  }
+
+  //
+  // output
+  //
+
+  private void put(long addr, long value) throws Unsupported {
+    if (addr > memEnd) throw UNSUPPORTED; // HexReader warns about extra data
+    if (wordCount == CHUNK || (wordCount > 0 && addr != wordsStart + wordCount)) flush();
+    if (wordCount == 0) wordsStart = addr;
+    words[wordCount++] = value;
+  }
+
+  /** @return the value last put at <code>addr</code>. */
+  private long peek(long addr) {
+    if (addr >= wordsStart && addr < wordsStart + wordCount) return words[(int) (addr - wordsStart)];
+    return dst.get(addr);
+  }
+
+  private void flush() {
+    if (wordCount == 0) return;
+    dst.set(wordsStart, wordCount == CHUNK ? words : Arrays.copyOf(words, wordCount));
+    wordCount = 0;
+  }
+
+  //
+  // scanning
+  //
+
+  private static boolean isBlank(int c) {
+    return c <= ' ';
+  }
+
+  private static boolean isSeparator(int c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == 0x0b || c == '\f' || c == '\r';
+  }
+
+  private static int hexDigit(int c) throws Unsupported {
+    if (c >= '0' && c <= '9') return c - '0';
+    if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+    if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+    throw UNSUPPORTED;
+  }
+
+  /**
+   * Moves to the next line holding data, the way HexReader.findNonemptyLine does: comments are
+   * removed, a leading "v..." header line is skipped when <code>skipHeader</code> is set, and
+   * with <code>cutAtDoubleSpace</code> the line ends at the first two consecutive spaces.
+   *
+   * @return false at the end of the input
+   */
+  private boolean nextLine(boolean skipHeader, boolean cutAtDoubleSpace) {
+    while (pos < limit) {
+      var start = pos;
+      var end = start;
+      var comment = -1;
+      while (end < limit) {
+        final var c = in.get(end);
+        if (c == '\n' || c == '\r') break;
+        if (c == '#' && comment < 0) comment = end;
+        end++;
+      }
+      pos = end;
+      if (pos < limit && in.get(pos++) == '\r' && pos < limit && in.get(pos) == '\n') pos++;
+      if (comment >= 0) end = comment;
+      if (skipHeader) {
+        while (start < end && isBlank(in.get(start) & 0xff)) start++;
+        while (end > start && isBlank(in.get(end - 1) & 0xff)) end--;
+        if (start == end) continue;
+        skipHeader = false;
+        if (in.get(start) == 'v') continue;
+      }
+      if (cutAtDoubleSpace) {
+        for (var i = start; i + 1 < end; i++) {
+          if (in.get(i) == ' ' && in.get(i + 1) == ' ') {
+            end = i;
+            break;
+          }
+        }
+      }
+      while (start < end && isBlank(in.get(start) & 0xff)) start++;
+      while (end > start && isBlank(in.get(end - 1) & 0xff)) end--;
+      if (start == end) continue;
+      lineStart = start;
+      lineEnd = end;
+      return true;
+    }
+    return false;
+  }
+
+  private boolean lineContains(byte b) {
+    for (var i = lineStart; i < lineEnd; i++) {
+      if (in.get(i) == b) return true;
+    }
+    return false;
+  }
+
+  /** @return the start of the next word of the current line at or after <code>i</code>. */
+  private int skipSeparators(int i) {
+    while (i < lineEnd && isSeparator(in.get(i))) i++;
+    return i;
+  }
+
+  private int wordEnd(int i) {
+    while (i < lineEnd && !isSeparator(in.get(i))) i++;
+    return i;
+  }
+
+  private boolean hasHexPrefix(int start, int end) {
+    return end - start >= 2 && in.get(start) == '0' && (in.get(start + 1) | 0x20) == 'x';
+  }
+
+  /** Parses hex digits without overflow check, keeping the low 64 bits like HexReader. */
+  private long parseHex(int start, int end) throws Unsupported {
+    var value = 0L;
+    for (var i = start; i < end; i++) value = (value << 4) | hexDigit(in.get(i));
+    return value;
+  }
+
+  //
+  // formats
+  //
+
+  private void decodeBinary(boolean bigEndian) throws Unsupported {
+    if (bytesPerWord == 0 || limit % bytesPerWord != 0) throw UNSUPPORTED;
+    final var count = limit / bytesPerWord;
+    if (count - 1 > memEnd) throw UNSUPPORTED;
+    var p = 0;
+    for (var addr = 0; addr < count; addr++) {
+      var value = 0L;
+      if (bigEndian) {
+        for (var i = 0; i < bytesPerWord; i++) value = (value << 8) | (in.get(p + i) & 0xffL);
+      } else {
+        for (var i = bytesPerWord - 1; i >= 0; i--) value = (value << 8) | (in.get(p + i) & 0xffL);
+      }
+      p += bytesPerWord;
+      put(addr, value);
+    }
+  }
+
+  private void decodeRaw() throws Unsupported {
+    var addr = 0L;
+    var skipHeader = true;
+    while (nextLine(skipHeader, false)) {
+      skipHeader = false;
+      for (var i = skipSeparators(lineStart); i < lineEnd; i = skipSeparators(i)) {
+        final var end = wordEnd(i);
+        var star = -1;
+        for (var j = i; j < end; j++) {
+          if (in.get(j) == '*') {
+            star = j;
+            break;
+          }
+        }
+        var count = 1L;
+        var hexStart = i;
+        if (star >= 0) {
+          if (star == i || star == end - 1 || star - i > 18) throw UNSUPPORTED;
+          count = 0;
+          for (var j = i; j < star; j++) {
+            final var c = in.get(j);
+            if (c < '0' || c > '9') throw UNSUPPORTED;
+            count = 10 * count + (c - '0');
+          }
+          hexStart = star + 1;
+        }
+        if (end - hexStart > 16) throw UNSUPPORTED;
+        final var value = parseHex(hexStart, end);
+        if (count > 0 && addr + count - 1 > memEnd) throw UNSUPPORTED;
+        if (count > CHUNK) {
+          flush();
+          dst.fill(addr, count, value);
+          addr += count;
+        } else {
+          for (var k = 0; k < count; k++) put(addr++, value);
+        }
+        i = end;
+      }
+    }
+  }
+
+  private void decodeHexPlainWords() throws Unsupported {
+    var addr = 0L;
+    var skipHeader = true;
+    while (nextLine(skipHeader, false)) {
+      skipHeader = false;
+      for (var i = skipSeparators(lineStart); i < lineEnd; i = skipSeparators(i)) {
+        final var end = wordEnd(i);
+        put(addr++, parseHex(hasHexPrefix(i, end) ? i + 2 : i, end));
+        i = end;
+      }
+    }
+  }
+
+  private void decodeHexAddressedWords() throws Unsupported {
+    var addr = 0L;
+    var first = true;
+    // HexReader only starts cutting lines at double spaces after the first data line
+    while (nextLine(first, !first)) {
+      first = false;
+      var i = lineStart;
+      final var end = wordEnd(i);
+      addr = parseAddress(i, end);
+      i = skipColon(end, in.get(end - 1) == ':');
+      for (i = skipSeparators(i); i < lineEnd; i = skipSeparators(i)) {
+        final var wend = wordEnd(i);
+        put(addr++, parseHex(hasHexPrefix(i, wend) ? i + 2 : i, wend));
+        i = wend;
+      }
+    }
+  }
+
+  /** Parses the leading "addr:", "0xaddr:", "addr" or "0xaddr" word of an addressed line. */
+  private long parseAddress(int start, int end) throws Unsupported {
+    final var colon = in.get(end - 1) == ':';
+    if (colon) end--;
+    if (hasHexPrefix(start, end)) start += 2;
+    return parseHex(start, end);
+  }
+
+  /** Skips a separate ":" word following an address that had no colon of its own. */
+  private int skipColon(int i, boolean foundColon) {
+    if (foundColon) return i;
+    final var next = skipSeparators(i);
+    if (next < lineEnd && in.get(next) == ':' && wordEnd(next) == next + 1) return next + 1;
+    return i;
+  }
+
+  private void decodeHexPlainBytes(boolean bigEndian) throws Unsupported {
+    if (bytesPerWord == 0) throw UNSUPPORTED;
+    var addr = 0L;
+    var value = 0L;
+    var nbytes = 0;
+    var high = -1; // pending high nibble; digits pair up across words and lines
+    var skipHeader = true;
+    while (nextLine(skipHeader, false)) {
+      skipHeader = false;
+      for (var i = skipSeparators(lineStart); i < lineEnd; i = skipSeparators(i)) {
+        final var end = wordEnd(i);
+        for (var j = hasHexPrefix(i, end) ? i + 2 : i; j < end; j++) {
+          final var d = hexDigit(in.get(j));
+          if (high < 0) {
+            high = d;
+            continue;
+          }
+          final var b = (long) ((high << 4) | d);
+          high = -1;
+          value = bigEndian ? (value << 8) | b : value | (b << (8 * nbytes));
+          if (++nbytes == bytesPerWord) {
+            put(addr++, value);
+            value = 0;
+            nbytes = 0;
+          }
+        }
+        i = end;
+      }
+    }
+    if (high >= 0 || nbytes != 0) throw UNSUPPORTED;
+  }
+
+  private void decodeHexAddressedBytes(boolean bigEndian) throws Unsupported {
+    if (bytesPerWord == 0) throw UNSUPPORTED;
+    var skipHeader = true;
+    while (nextLine(skipHeader, true)) {
+      skipHeader = false;
+      var i = lineStart;
+      final var end = wordEnd(i);
+      final var byteAddr = parseAddress(i, end);
+      if (byteAddr % bytesPerWord != 0) throw UNSUPPORTED;
+      var addr = byteAddr / bytesPerWord;
+      var value = 0L;
+      var nbytes = 0;
+      var firstWord = true;
+      i = skipColon(end, in.get(end - 1) == ':');
+      for (i = skipSeparators(i); i < lineEnd; i = skipSeparators(i)) {
+        final var wend = wordEnd(i);
+        var j = hasHexPrefix(i, wend) ? i + 2 : i;
+        if ((wend - j) % 2 != 0) throw UNSUPPORTED;
+        for (; j < wend; j += 2) {
+          final var b = (long) ((hexDigit(in.get(j)) << 4) | hexDigit(in.get(j + 1)));
+          value = bigEndian ? (value << 8) | b : value | (b << (8 * nbytes));
+          if (++nbytes == bytesPerWord) {
+            // HexReader merges the first little-endian word of a line with what is there
+            if (firstWord && !bigEndian && addr <= memEnd) value |= peek(addr);
+            firstWord = false;
+            put(addr++, value);
+            value = 0;
+            nbytes = 0;
+          }
+        }
+        i = wend;
+      }
+      if (nbytes != 0) throw UNSUPPORTED;
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.gui.log;
+
+import com.cburch.logisim.data.Value;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A compact binary log, which only records the values that change. All numbers are unsigned
+ * LEB128 varints, strings are a byte count followed by UTF-8 bytes. The file starts with {@link
+ * #MAGIC}, followed by records, each starting with a tag byte:
+ *
+ * <ul>
+ *   <li><code>'M'</code> mode, granularity: the simulation mode changed.
+ *   <li><code>'H'</code> count, then width and name of each signal: the selected signals, which
+ *       the following steps refer to by index. Names are empty when the user asked for no header.
+ *   <li><code>'S'</code> time delta, duration, change count, then the changes: the values that
+ *       changed at the start of a step. The time is relative to that of the previous step
+ *       record, or absolute for the first one after a header or reset. A change is the signal
+ *       index, a flags byte, the width if flag 4 is set, then the value bits, the error bits if
+ *       flag 1 is set and the unknown bits if flag 2 is set. Flag 8 means there is no value.
+ *   <li><code>'R'</code>: the simulation was reset, and time starts over from zero.
+ *   <li><code>'E'</code> time delta: the end of the last step, written when the file is closed.
+ * </ul>
+ */
+class BinaryLogSink extends LogSink {
+  static final String EXTENSION = ".lgb";
+  static final byte[] MAGIC = "LGSLOG\u0001".getBytes(StandardCharsets.US_ASCII);
+
+  static final int HAS_ERROR = 1;
+  static final int HAS_UNKNOWN = 2;
+  static final int HAS_WIDTH = 4;
+  static final int NO_VALUE = 8;
+
+  private int[] widths = new int[0];
+  private Value[] last = new Value[0];
+  private boolean fresh = true; // nothing was written since the file was (re)started
+  private boolean firstStep = true; // the next step is the first after a header or reset
+  private long lastTime; // time of the last step record
+  private long endTime = -1; // end of the last step, or -1 when it was written already
+
+  BinaryLogSink(File file) {
+    super(file);
+  }
+
+  @Override
+  protected boolean truncates() {
+    return true;
+  }
+
+  private void start() throws IOException {
+    if (!fresh) return;
+    putBytes(MAGIC);
+    fresh = false;
+  }
+
+  private void putVarint(long v) throws IOException {
+    ensure(10);
+    while ((v & ~0x7fL) != 0) {
+      buf.put((byte) ((v & 0x7f) | 0x80));
+      v >>>= 7;
+    }
+    buf.put((byte) v);
+  }
+
+  private void putString(String s) throws IOException {
+    final var b = s.getBytes(StandardCharsets.UTF_8);
+    putVarint(b.length);
+    putBytes(b);
+  }
+
+  private void putTag(char tag) throws IOException {
+    start();
+    ensure(1);
+    buf.put((byte) tag);
+  }
+
+  @Override
+  void mode(String mode, String granularity) throws IOException {
+    putTag('M');
+    putString(mode);
+    putString(granularity);
+  }
+
+  @Override
+  void header(SignalInfo[] signals, String[] names) throws IOException {
+    putTag('H');
+    putVarint(signals.length);
+    widths = new int[signals.length];
+    last = new Value[signals.length];
+    for (var i = 0; i < signals.length; i++) {
+      widths[i] = signals[i].getWidth();
+      putVarint(widths[i]);
+      putString(names == null ? "" : names[i]);
+    }
+    firstStep = true;
+  }
+
+  @Override
+  void step(long time, long duration, Value[] values) throws IOException {
+    var count = 0;
+    for (var i = 0; i < values.length; i++) {
+      if (firstStep || !Objects.equals(values[i], last[i])) count++;
+    }
+    if (count > 0) {
+      putTag('S');
+      putVarint(firstStep ? time : time - lastTime);
+      putVarint(duration);
+      putVarint(count);
+      for (var i = 0; i < values.length; i++) {
+        if (!firstStep && Objects.equals(values[i], last[i])) continue;
+        putVarint(i);
+        putValue(values[i], widths[i]);
+        last[i] = values[i];
+      }
+      lastTime = time;
+      firstStep = false;
+    }
+    endTime = time + duration;
+  }
+
+  private void putValue(Value v, int width) throws IOException {
+    if (v == null) {
+      ensure(1);
+      buf.put((byte) NO_VALUE);
+      return;
+    }
+    var flags = 0;
+    if (v.getErrorBits() != 0) flags |= HAS_ERROR;
+    if (v.getUnknownBits() != 0) flags |= HAS_UNKNOWN;
+    if (v.getWidth() != width) flags |= HAS_WIDTH;
+    ensure(1);
+    buf.put((byte) flags);
+    if ((flags & HAS_WIDTH) != 0) putVarint(v.getWidth());
+    putVarint(v.getValueBits());
+    if ((flags & HAS_ERROR) != 0) putVarint(v.getErrorBits());
+    if ((flags & HAS_UNKNOWN) != 0) putVarint(v.getUnknownBits());
+  }
+
+  @Override
+  void reset() throws IOException {
+    putTag('R');
+    firstStep = true;
+    lastTime = 0;
+    endTime = -1;
+  }
+
+  @Override
+  protected void finish() throws IOException {
+    if (endTime < 0 || fresh) return;
+    putTag('E');
+    putVarint(firstStep ? endTime : endTime - lastTime);
+    endTime = -1;
+  }
+}
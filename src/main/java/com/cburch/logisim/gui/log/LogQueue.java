@@ -0,0 +1,61 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.gui.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded queue for handing items from one producer thread to one consumer thread without
+ * locking: each side only writes its own index, and publishes it after the slot it filled or
+ * emptied. Callers must make sure there is never more than one producer, nor more than one
+ * consumer, at a time.
+ */
+final class LogQueue<T> {
+  private final Object[] items;
+  private final int mask;
+  private final AtomicLong head = new AtomicLong(); // next slot to take, written by the consumer
+  private final AtomicLong tail = new AtomicLong(); // next slot to fill, written by the producer
+
+  /** @param capacity a power of two */
+  LogQueue(int capacity) {
+    if (Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("capacity " + capacity);
+    items = new Object[capacity];
+    mask = capacity - 1;
+  }
+
+  /** @return false, leaving the queue unchanged, when the queue is full. */
+  boolean offer(T item) {
+    final var t = tail.get();
+    if (t - head.get() == items.length) return false;
+    items[(int) t & mask] = item;
+    tail.lazySet(t + 1);
+    return true;
+  }
+
+  /** @return the oldest item, or null when the queue is empty. */
+  @SuppressWarnings("unchecked")
+  T poll() {
+    final var h = head.get();
+    if (h == tail.get()) return null;
+    final var i = (int) h & mask;
+    final var item = (T) items[i];
+    items[i] = null;
+    head.lazySet(h + 1);
+    return item;
+  }
+
+  int size() {
+    return (int) (tail.get() - head.get());
+  }
+
+  boolean isEmpty() {
+    return tail.get() == head.get();
+  }
+}
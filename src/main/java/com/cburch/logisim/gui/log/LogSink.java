@@ -0,0 +1,156 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.gui.log;
+
+import com.cburch.logisim.data.Value;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Writes the signals logged by {@link LogThread} to a file, in the format its name asks for: VCD
+ * for <code>.vcd</code> files, {@link BinaryLogSink the compact binary format} for
+ * <code>.lgb</code> files, and tab separated text otherwise.
+ *
+ * <p>Output goes through a buffer straight to a file channel. The channel is only opened when the
+ * buffer is first drained, and may be closed while the sink is idle; it is then reopened to append
+ * to what was already written.
+ */
+abstract class LogSink {
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  static LogSink forFile(File file) {
+    final var name = file.getName().toLowerCase(Locale.ROOT);
+    if (name.endsWith(".vcd")) return new VcdLogSink(file);
+    if (name.endsWith(BinaryLogSink.EXTENSION)) return new BinaryLogSink(file);
+    return new TextLogSink(file);
+  }
+
+  final File file;
+  protected final ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+  private FileChannel channel;
+  private boolean started; // whether the file was opened already
+
+  protected LogSink(File file) {
+    this.file = file;
+  }
+
+  /** Called whenever the simulation mode changes, and before anything else. */
+  abstract void mode(String mode, String granularity) throws IOException;
+
+  /**
+   * Called before the first step and whenever the selected signals change.
+   *
+   * @param names the names to show, or null when the user asked for no header.
+   */
+  abstract void header(SignalInfo[] signals, String[] names) throws IOException;
+
+  /**
+   * Called for each stretch of time during which no signal changes.
+   *
+   * @param values the values of the signals of the last header, null where there is none.
+   */
+  abstract void step(long time, long duration, Value[] values) throws IOException;
+
+  /** Called when the simulation is reset, after which time starts over from zero. */
+  void reset() throws IOException {}
+
+  /** Called before the channel is closed, to complete the file. */
+  protected void finish() throws IOException {}
+
+  /** @return whether a new sink should replace the file contents rather than append to them. */
+  protected boolean truncates() {
+    return false;
+  }
+
+  /** Discards everything written so far, so that the file is rewritten from its start. */
+  protected void restart() throws IOException {
+    buf.clear();
+    if (channel != null) {
+      channel.close();
+      channel = null;
+    }
+    started = false;
+  }
+
+  /** Makes room for at least n bytes in the buffer, n being at most its capacity. */
+  protected void ensure(int n) throws IOException {
+    if (buf.remaining() < n) drain();
+  }
+
+  protected void putAscii(String s) throws IOException {
+    final var n = s.length();
+    for (var i = 0; i < n; ) {
+      ensure(1);
+      final var end = Math.min(n, i + buf.remaining());
+      for (; i < end; i++) buf.put((byte) s.charAt(i));
+    }
+  }
+
+  protected void putText(String s) throws IOException {
+    putBytes(s.getBytes(StandardCharsets.UTF_8));
+  }
+
+  protected void putBytes(byte[] b) throws IOException {
+    for (var i = 0; i < b.length; ) {
+      ensure(1);
+      final var n = Math.min(b.length - i, buf.remaining());
+      buf.put(b, i, n);
+      i += n;
+    }
+  }
+
+  void flush() throws IOException {
+    drain();
+  }
+
+  /** Completes the file and closes it. The sink may be used again, and then appends. */
+  void close() throws IOException {
+    try {
+      finish();
+      drain();
+    } finally {
+      if (channel != null) {
+        channel.close();
+        channel = null;
+      }
+    }
+  }
+
+  /** Closes the file while the sink is idle, without completing it. */
+  void suspend() throws IOException {
+    drain();
+    if (channel != null) {
+      channel.close();
+      channel = null;
+    }
+  }
+
+  private void drain() throws IOException {
+    if (buf.position() == 0) return;
+    if (channel == null) {
+      final var append = started || !truncates();
+      channel =
+          FileChannel.open(
+              file.toPath(),
+              StandardOpenOption.CREATE,
+              StandardOpenOption.WRITE,
+              append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+      started = true;
+    }
+    buf.flip();
+    while (buf.hasRemaining()) channel.write(buf);
+    buf.clear();
+  }
+}
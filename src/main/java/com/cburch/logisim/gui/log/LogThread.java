@@ -9,28 +9,77 @@
 
 package com.cburch.logisim.gui.log;
 
+import com.cburch.logisim.data.Value;
 import com.cburch.logisim.util.UniquelyNamedThread;
-import java.io.FileWriter;
+import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import javax.swing.SwingUtilities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Writes the logged signals to the log file. The model listener methods, which run on the
+ * simulator thread, only collect the value of each signal for each step into a bounded queue;
+ * this thread takes them from there and formats and writes them through a {@link LogSink}. When
+ * the queue is full, the simulator waits for this thread to catch up, so nothing is lost; how
+ * often and how long it waits is kept in the {@link Statistics}.
+ */
 class LogThread extends UniquelyNamedThread implements Model.Listener {
+  static final Logger logger = LoggerFactory.getLogger(LogThread.class);
+
   // file will be flushed with at least this frequency (ms)
   private static final int FLUSH_FREQUENCY = 500;
 
   // file will be closed after waiting this long between writes (ms)
   private static final int IDLE_UNTIL_CLOSE = 10000;
 
+  // steps waiting to be written, at most
+  private static final int QUEUE_CAPACITY = 4096;
+
+  /** What the simulator thread asks this thread to do. */
+  private interface Item {}
+
+  private record Open(File file) implements Item {}
+
+  private record Close() implements Item {}
+
+  private record Mode(String mode, String granularity) implements Item {}
+
+  private record Header(SignalInfo[] signals, String[] names) implements Item {}
+
+  private record Step(long time, long duration, Value[] values) implements Item {}
+
+  private record Reset() implements Item {}
+
+  /**
+   * How the writing kept up with the simulation: the steps queued, how many times and how long
+   * in total the simulator had to wait for room in the queue, and the most steps ever waiting.
+   */
+  record Statistics(long steps, long stalls, long stalledNanos, int maxBacklog) {}
+
   private final Model model;
   private final Object lock = new Object();
-  private boolean canceled = false;
-  private PrintWriter writer = null;
+  private final LogQueue<Item> queue = new LogQueue<>(QUEUE_CAPACITY);
+  private volatile boolean canceled = false;
+  private volatile boolean sleeping = false;
+
+  // Used by the simulator side, with lock held
+  private File openFile = null;
   private boolean modeDirty = true;
   private boolean headerDirty = true;
-  private long lastWrite = 0;
   private long timeNextWrite = 0; // done writing up to this time, exclusive
-  private final HashMap<Signal, Signal.Iterator> cursors = new HashMap<>();
+  private long steps;
+  private long stalls;
+  private long stalledNanos;
+  private int maxBacklog;
+
+  // Used by this thread only
+  private LogSink sink = null;
+  private boolean sinkOpen = false;
+  private long lastWrite = 0;
+  private long lastFlush = 0;
 
   public LogThread(Model model) {
     super("LogThread");
@@ -38,66 +87,93 @@ class LogThread extends UniquelyNamedThread implements Model.Listener {
     model.addModelListener(this);
   }
 
+  Statistics getStatistics() {
+    synchronized (lock) {
+      return new Statistics(steps, stalls, stalledNanos, maxBacklog);
+    }
+  }
+
+  // precondition: lock held
+  private void enqueue(Item item) {
+    if (!queue.offer(item)) {
+      // the writer fell behind, wait for it rather than lose data
+      stalls++;
+      final var start = System.nanoTime();
+      do {
+        LockSupport.unpark(this);
+        if (canceled || !isAlive()) return;
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+      } while (!queue.offer(item));
+      stalledNanos += System.nanoTime() - start;
+    }
+    maxBacklog = Math.max(maxBacklog, queue.size());
+    if (sleeping) LockSupport.unpark(this);
+  }
+
   // precondition: lock held and writing()==true
   private void writeSignals() {
-    if (writer == null) {
-      try {
-        writer = new PrintWriter(new FileWriter(model.getFile(), true));
-      } catch (IOException e) {
-        model.setFile(null);
-        return;
-      }
+    if (openFile != model.getFile()) {
+      openFile = model.getFile();
+      enqueue(new Open(openFile));
+      modeDirty = true;
+      headerDirty = true;
     }
     if (modeDirty) {
       var mode = model.isStepMode() ? "step" : model.isRealMode() ? "real-time" : "clocked";
       var gran = model.isFine() ? "fine" : "coarse";
-      writer.println("# mode: " + mode + " granularity: " + gran);
+      enqueue(new Mode(mode, gran));
       modeDirty = false;
     }
+    final var n = model.getSignalCount();
     if (headerDirty) {
-      if (model.getFileHeader()) {
-        final var buf = new StringBuilder();
-        for (var i = 0; i < model.getSignalCount(); i++) {
-          if (i > 0) buf.append("\t");
-          buf.append(model.getItem(i).getDisplayName());
-        }
-        writer.println(buf);
+      final var signals = new SignalInfo[n];
+      final var names = model.getFileHeader() ? new String[n] : null;
+      for (var i = 0; i < n; i++) {
+        signals[i] = model.getItem(i);
+        if (names != null) names[i] = signals[i].getDisplayName();
       }
+      enqueue(new Header(signals, names));
       headerDirty = false;
     }
-    Signal.Iterator[] cur = new Signal.Iterator[model.getSignalCount()];
-    for (var i = 0; i < model.getSignalCount(); i++) {
-      final var s = model.getSignal(i);
-      cur[i] = cursors.get(s);
-      if (cur[i] == null) {
-        cur[i] = s.new Iterator(timeNextWrite);
-        cursors.put(s, cur[i]);
-      }
-    }
     final var timeStop = model.getEndTime();
+    if (timeNextWrite >= timeStop) return;
+    // iterators stop for good at the end of a signal, so start new ones each time
+    Signal.Iterator[] cur = new Signal.Iterator[n];
+    for (var i = 0; i < n; i++) cur[i] = model.getSignal(i).new Iterator(timeNextWrite);
     while (timeNextWrite < timeStop) {
       var duration = timeStop - timeNextWrite;
-      final var buf = new StringBuilder();
+      final var values = new Value[cur.length];
       for (int i = 0; i < cur.length; i++) {
-        if (i > 0) buf.append("\t");
-        buf.append(cur[i].getFormattedValue());
+        values[i] = cur[i].value;
         if (cur[i].duration < duration) duration = cur[i].duration;
       }
-      // TODO: only write duration if not in coarse-step or coarse-clock mode?
-      writer.println(buf + "\t# " + Model.formatDuration(duration));
+      enqueue(new Step(timeNextWrite, duration, values));
+      steps++;
       for (final var c : cur) c.advance(duration);
       timeNextWrite += duration;
     }
-    lastWrite = System.currentTimeMillis();
   }
 
+  // precondition: lock held
+  private void closeFile() {
+    if (openFile != null) {
+      enqueue(new Close());
+      openFile = null;
+    }
+  }
+
+  /** Stops logging, once everything queued so far is written. */
   public void cancel() {
     synchronized (lock) {
+      closeFile();
       canceled = true;
-      if (writer != null) {
-        writer.close();
-        writer = null;
-      }
+    }
+    LockSupport.unpark(this);
+    if (Thread.currentThread() == this) return;
+    try {
+      join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
     }
   }
 
@@ -105,8 +181,8 @@ class LogThread extends UniquelyNamedThread implements Model.Listener {
   public void signalsReset(Model.Event event) {
     synchronized (lock) {
       if (writing()) {
+        if (openFile != null) enqueue(new Reset());
         timeNextWrite = 0;
-        cursors.clear();
         writeSignals();
       }
     }
@@ -123,12 +199,10 @@ class LogThread extends UniquelyNamedThread implements Model.Listener {
   public void filePropertyChanged(Model.Event event) {
     synchronized (lock) {
       if (writing()) {
-        if (writer == null) writeSignals();
+        if (openFile != model.getFile()) closeFile();
+        if (openFile == null) writeSignals();
       } else {
-        if (writer != null) {
-          writer.close();
-          writer = null;
-        }
+        closeFile();
       }
     }
   }
@@ -139,34 +213,98 @@ class LogThread extends UniquelyNamedThread implements Model.Listener {
 
   @Override
   public void run() {
-    while (!canceled) {
-      synchronized (lock) {
-        if (writer != null) {
-          if (System.currentTimeMillis() - lastWrite > IDLE_UNTIL_CLOSE) {
-            writer.close();
-            writer = null;
-          } else {
-            writer.flush();
-          }
-        }
+    while (true) {
+      final var item = queue.poll();
+      if (item != null) {
+        write(item);
+        continue;
       }
-      try {
-        Thread.sleep(FLUSH_FREQUENCY);
-      } catch (InterruptedException ignored) {
+      if (canceled) break;
+      idle();
+      sleeping = true;
+      if (queue.isEmpty() && !canceled) {
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(FLUSH_FREQUENCY));
       }
+      sleeping = false;
     }
-    synchronized (lock) {
-      if (writer != null) {
-        writer.close();
-        writer = null;
+    closeSink();
+    final var stats = getStatistics();
+    if (stats.stalls() > 0) {
+      logger.info(
+          "Log file writing fell behind {} times, the simulation waited {} ms for it",
+          stats.stalls(),
+          TimeUnit.NANOSECONDS.toMillis(stats.stalledNanos()));
+    }
+  }
+
+  private void write(Item item) {
+    try {
+      if (item instanceof Open open) {
+        closeSink();
+        sink = LogSink.forFile(open.file());
+      } else if (item instanceof Close) {
+        closeSink();
+      } else if (sink == null) {
+        // the file could not be written, drop everything until another one is chosen
+      } else if (item instanceof Mode mode) {
+        sink.mode(mode.mode(), mode.granularity());
+      } else if (item instanceof Header header) {
+        sink.header(header.signals(), header.names());
+      } else if (item instanceof Step step) {
+        sink.step(step.time(), step.duration(), step.values());
+      } else if (item instanceof Reset) {
+        sink.reset();
+      }
+      if (sink != null) {
+        sinkOpen = true;
+        lastWrite = System.currentTimeMillis();
+      }
+    } catch (IOException e) {
+      fail(e);
+    }
+  }
+
+  private void idle() {
+    if (sink == null || !sinkOpen) return;
+    final var now = System.currentTimeMillis();
+    try {
+      if (now - lastWrite > IDLE_UNTIL_CLOSE) {
+        sink.suspend();
+        sinkOpen = false;
+      } else if (now - lastFlush >= FLUSH_FREQUENCY) {
+        sink.flush();
+        lastFlush = now;
       }
+    } catch (IOException e) {
+      fail(e);
     }
   }
 
+  private void closeSink() {
+    if (sink == null) return;
+    try {
+      sink.close();
+    } catch (IOException e) {
+      logger.error("Could not write log file {}: {}", sink.file, e.getMessage());
+    }
+    sink = null;
+    sinkOpen = false;
+  }
+
+  private void fail(IOException e) {
+    logger.error("Could not write log file {}: {}", sink.file, e.getMessage());
+    final var file = sink.file;
+    sink = null;
+    sinkOpen = false;
+    SwingUtilities.invokeLater(
+        () -> {
+          if (file.equals(model.getFile())) model.setFile(null);
+        });
+  }
+
   @Override
   public void selectionChanged(Model.Event event) {
     synchronized (lock) {
-      cursors.keySet().retainAll(model.getSignals()); // removes dead cursors
       headerDirty = true;
     }
   }
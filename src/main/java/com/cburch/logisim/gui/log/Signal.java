@@ -15,129 +15,315 @@ import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.Transferable;
 import java.awt.datatransfer.UnsupportedFlavorException;
 import java.util.ArrayList;
-
+import java.util.Arrays;
+
+/**
+ * The history of one logged signal: a sequence of samples, each a value and the time at which it
+ * was set, ending at {@link #getEndTime}. The samples are kept in primitive arrays, in chunks of
+ * {@link #CHUNK} slots: the start time of each sample and the bit planes of its value (values are
+ * at most 64 bits wide). Value bits take an int per sample while they fit in one. The planes for
+ * error and unknown bits, and the widths, are only allocated for chunks that need them. As the
+ * start times are ascending, looking up the value at a given time is a binary search.
+ *
+ * <p>When the history is limited to <code>maxSize</code> samples, the chunks form a ring buffer
+ * once they are full, and each new sample replaces the oldest one.
+ *
+ * <p>For drawing zoomed out views, each group of {@link #GROUP} slots and each chunk also keep a
+ * summary of their samples, updated as samples are added, so that {@link #summarize} can describe
+ * any time range by looking at a few summaries rather than at every sample in it.
+ */
 public class Signal {
 
-  private static final int CHUNK = 512;
+  private static final int CHUNK_BITS = 9;
+  private static final int CHUNK = 1 << CHUNK_BITS;
+  private static final int GROUP_BITS = 5;
+  private static final int GROUP = 1 << GROUP_BITS;
+
+  private static final byte HAS_ERROR = 1;
+  private static final byte HAS_UNKNOWN = 2;
 
   // Signal position in list, name, etc.
   public int idx;
   public final SignalInfo info;
 
-  // Signal data
-  private long timeStart;
-  private Value[][] val; // values, in blocks no larger than CHUNK
+  // Signal data: sample p (0 being the oldest) is in slot (firstIndex + p) % capacity, slot i
+  // being at [i / CHUNK][i % CHUNK]; all chunks but the last one in use have CHUNK slots.
+  private long[][] start; // time at which each sample begins
+  private int[][] narrowBits; // value bits while they fit in an int, else null
+  private long[][] bits; // value bits for chunks that do not use narrowBits
+  private long[][] error; // error bits, null for chunks without any
+  private long[][] unknown; // unknown bits, null for chunks without any
+  private byte[][] widths; // widths, null for chunks where all are baseWidth
+  // Summaries, of each group of GROUP slots and of each chunk, of the slots from its first one
+  // to the most recent sample: least and greatest value bits of the samples without error or
+  // unknown bits (unsigned, -1 and 0 if there is none), and HAS_ERROR and HAS_UNKNOWN flags.
+  private long[][] groupMin;
+  private long[][] groupMax;
+  private byte[][] groupFlags;
+  private long[] chunkMin;
+  private long[] chunkMax;
+  private byte[] chunkFlags;
+  private final int baseWidth;
+  private int chunks; // chunks in use, the arrays above may be longer
+  private long endTime;
   private Value last;
-  private long[][] dur; // duration of each value
+  private int capacity;
   private int curSize;
   private int maxSize; // limit, or zero for unlimited
-  private short firstIndex; // for wrapping, only when limited
+  private int firstIndex; // for wrapping, only when limited
 
   public Signal(
       int idx, SignalInfo info, Value initialValue, long duration, long timeStart, int maxSize) {
     this.idx = idx;
     this.info = info;
-    this.timeStart = timeStart;
+    this.baseWidth = info.getWidth();
     this.maxSize = maxSize;
-    this.val = new Value[1][maxSize == 0 || maxSize > CHUNK ? CHUNK : maxSize];
-    this.dur = new long[1][maxSize == 0 || maxSize > CHUNK ? CHUNK : maxSize];
-    this.curSize = 0;
-    this.firstIndex = 0;
+    allocate(1, maxSize == 0 || maxSize > CHUNK ? CHUNK : maxSize);
+    this.endTime = timeStart;
     extend(initialValue, duration);
   }
 
-  public long omittedDataTime() {
-    return curSize == maxSize ? timeStart : 0;
+  /** Replaces the storage by <code>count</code> empty chunks, the last one of the given size. */
+  private void allocate(int count, int lastSize) {
+    start = new long[count][];
+    narrowBits = new int[count][];
+    bits = new long[count][];
+    error = new long[count][];
+    unknown = new long[count][];
+    widths = new byte[count][];
+    groupMin = new long[count][];
+    groupMax = new long[count][];
+    groupFlags = new byte[count][];
+    chunkMin = new long[count];
+    chunkMax = new long[count];
+    chunkFlags = new byte[count];
+    chunks = 0;
+    capacity = 0;
+    for (var c = 0; c < count; c++) addChunk(c < count - 1 ? CHUNK : lastSize);
+    curSize = 0;
+    firstIndex = 0;
   }
 
-  public long getEndTime() {
-    var t = timeStart;
-    for (var p = 0; p < curSize; p++) {
-      var i = (firstIndex + p) % curSize;
-      t += dur[i / CHUNK][i % CHUNK];
+  private void addChunk(int size) {
+    final var c = chunks;
+    if (c == start.length) {
+      // grow the chunk tables geometrically, so appending stays constant time
+      final var n = Math.max(4, 2 * c);
+      start = Arrays.copyOf(start, n);
+      narrowBits = Arrays.copyOf(narrowBits, n);
+      bits = Arrays.copyOf(bits, n);
+      error = Arrays.copyOf(error, n);
+      unknown = Arrays.copyOf(unknown, n);
+      widths = Arrays.copyOf(widths, n);
+      groupMin = Arrays.copyOf(groupMin, n);
+      groupMax = Arrays.copyOf(groupMax, n);
+      groupFlags = Arrays.copyOf(groupFlags, n);
+      chunkMin = Arrays.copyOf(chunkMin, n);
+      chunkMax = Arrays.copyOf(chunkMax, n);
+      chunkFlags = Arrays.copyOf(chunkFlags, n);
     }
-    return t;
+    start[c] = new long[size];
+    final var groups = (size + GROUP - 1) >> GROUP_BITS;
+    groupMin[c] = new long[groups];
+    groupMax[c] = new long[groups];
+    groupFlags[c] = new byte[groups];
+    if (baseWidth <= 32) narrowBits[c] = new int[size];
+    else bits[c] = new long[size];
+    chunks++;
+    capacity += size;
   }
 
-  public void extend(long duration) {
-    if (last == null) {
-      timeStart += duration;
+  private int slot(int p) {
+    final var i = firstIndex + p;
+    return i < capacity ? i : i - capacity;
+  }
+
+  private long startAt(int p) {
+    final var i = slot(p);
+    return start[i >> CHUNK_BITS][i & (CHUNK - 1)];
+  }
+
+  private long endAt(int p) {
+    return p == curSize - 1 ? endTime : startAt(p + 1);
+  }
+
+  /** @return the value of sample p extended or truncated to <code>width</code>. */
+  private Value valueAt(int p, int width) {
+    final var i = slot(p);
+    final var c = i >> CHUNK_BITS;
+    final var k = i & (CHUNK - 1);
+    final var e = error[c] == null ? 0 : error[c][k];
+    final var u = unknown[c] == null ? 0 : unknown[c][k];
+    return Value.create(width, e, u, bitsAt(c, k));
+  }
+
+  private Value valueAt(int p) {
+    final var i = slot(p);
+    final var c = i >> CHUNK_BITS;
+    return valueAt(p, widths[c] == null ? baseWidth : widths[c][i & (CHUNK - 1)]);
+  }
+
+  private void setValue(int i, Value v) {
+    final var c = i >> CHUNK_BITS;
+    final var k = i & (CHUNK - 1);
+    final var size = start[c].length;
+    final var b = v.getValueBits();
+    if (narrowBits[c] != null && (b >>> 32) != 0) {
+      // a value wider than the signal, keep this chunk in longs from now on
+      bits[c] = new long[size];
+      for (var j = 0; j < size; j++) bits[c][j] = narrowBits[c][j] & 0xffffffffL;
+      narrowBits[c] = null;
+    }
+    if (narrowBits[c] != null) narrowBits[c][k] = (int) b;
+    else bits[c][k] = b;
+    if (v.getErrorBits() != 0 && error[c] == null) error[c] = new long[size];
+    if (error[c] != null) error[c][k] = v.getErrorBits();
+    if (v.getUnknownBits() != 0 && unknown[c] == null) unknown[c] = new long[size];
+    if (unknown[c] != null) unknown[c][k] = v.getUnknownBits();
+    if (v.getWidth() != baseWidth && widths[c] == null) {
+      widths[c] = new byte[size];
+      Arrays.fill(widths[c], (byte) baseWidth);
+    }
+    if (widths[c] != null) widths[c][k] = (byte) v.getWidth();
+  }
+
+  private void setSample(int i, Value v, long time) {
+    start[i >> CHUNK_BITS][i & (CHUNK - 1)] = time;
+    setValue(i, v);
+    summarizeAppended(i);
+  }
+
+  private long bitsAt(int c, int k) {
+    return narrowBits[c] != null ? narrowBits[c][k] & 0xffffffffL : bits[c][k];
+  }
+
+  private byte flagsAt(int c, int k) {
+    var f = 0;
+    if (error[c] != null && error[c][k] != 0) f |= HAS_ERROR;
+    if (unknown[c] != null && unknown[c][k] != 0) f |= HAS_UNKNOWN;
+    return (byte) f;
+  }
+
+  /** Adds the sample just stored in slot i to the summaries of its group and chunk. */
+  private void summarizeAppended(int i) {
+    final var c = i >> CHUNK_BITS;
+    final var k = i & (CHUNK - 1);
+    final var g = k >> GROUP_BITS;
+    final var f = flagsAt(c, k);
+    final var b = bitsAt(c, k);
+    final var min = f == 0 ? b : -1L;
+    final var max = f == 0 ? b : 0L;
+    if ((k & (GROUP - 1)) == 0) {
+      groupMin[c][g] = min;
+      groupMax[c][g] = max;
+      groupFlags[c][g] = f;
     } else {
-      final var i = (firstIndex + curSize - 1) % curSize;
-      dur[i / CHUNK][i % CHUNK] += duration;
+      groupMin[c][g] = Long.compareUnsigned(min, groupMin[c][g]) < 0 ? min : groupMin[c][g];
+      groupMax[c][g] = Long.compareUnsigned(max, groupMax[c][g]) > 0 ? max : groupMax[c][g];
+      groupFlags[c][g] |= f;
+    }
+    if (k == 0) {
+      chunkMin[c] = min;
+      chunkMax[c] = max;
+      chunkFlags[c] = f;
+    } else {
+      chunkMin[c] = Long.compareUnsigned(min, chunkMin[c]) < 0 ? min : chunkMin[c];
+      chunkMax[c] = Long.compareUnsigned(max, chunkMax[c]) > 0 ? max : chunkMax[c];
+      chunkFlags[c] |= f;
     }
   }
 
+  /**
+   * Rebuilds the summaries of the group and chunk of slot i, the most recent sample, after that
+   * sample was changed or a more recent one was dropped.
+   */
+  private void resummarize(int i) {
+    final var c = i >> CHUNK_BITS;
+    final var k = i & (CHUNK - 1);
+    final var first = i & ~(GROUP - 1);
+    for (var j = first; j <= i; j++) summarizeAppended(j);
+    final var g = k >> GROUP_BITS;
+    var min = -1L;
+    var max = 0L;
+    byte f = 0;
+    for (var h = 0; h <= g; h++) {
+      min = Long.compareUnsigned(groupMin[c][h], min) < 0 ? groupMin[c][h] : min;
+      max = Long.compareUnsigned(groupMax[c][h], max) > 0 ? groupMax[c][h] : max;
+      f |= groupFlags[c][h];
+    }
+    chunkMin[c] = min;
+    chunkMax[c] = max;
+    chunkFlags[c] = f;
+  }
+
+  /** @return the last sample p in [from, curSize) that starts at or before t. */
+  private int find(long t, int from) {
+    var lo = from;
+    var hi = curSize - 1;
+    while (lo < hi) {
+      final var mid = (lo + hi + 1) >>> 1;
+      if (startAt(mid) <= t) lo = mid;
+      else hi = mid - 1;
+    }
+    return lo;
+  }
+
+  public long omittedDataTime() {
+    return curSize == maxSize ? startAt(0) : 0;
+  }
+
+  public long getEndTime() {
+    return endTime;
+  }
+
+  public void extend(long duration) {
+    endTime += duration;
+  }
+
   public void extend(Value v, long duration) {
     if (v.getWidth() != info.getWidth())
       System.out.printf(
           "*** notice: value width mismatch for %s: width=%d bits, newVal=%s (%d bits)\n",
           info, info.getWidth(), v, v.getWidth());
     if (last != null && last.equals(v)) {
-      final var i = (firstIndex + curSize - 1) % curSize;
-      dur[i / CHUNK][i % CHUNK] += duration;
+      endTime += duration;
       return;
     }
     last = v;
-    final var c = val.length;
-    final var cap = CHUNK * (c - 1) + val[c - 1].length;
-    if (curSize < cap) {
-      // fits in an existing chunk
-      val[curSize / CHUNK][curSize % CHUNK] = v;
-      dur[curSize / CHUNK][curSize % CHUNK] = duration;
+    if (curSize < capacity) {
+      // fits in an allocated slot
+      setSample(slot(curSize), v, endTime);
       curSize++;
-    } else if (curSize < maxSize || maxSize <= 0) {
+    } else if (capacity < maxSize || maxSize <= 0) {
       // allocate another chunk
-      final var val2 = new Value[c + 1][];
-      final var dur2 = new long[c + 1][];
-      System.arraycopy(val, 0, val2, 0, c);
-      System.arraycopy(dur, 0, dur2, 0, c);
-      val2[c] = new Value[maxSize == 0 || (maxSize - cap) > CHUNK ? CHUNK : (maxSize - cap)];
-      dur2[c] = new long[maxSize == 0 || (maxSize - cap) > CHUNK ? CHUNK : (maxSize - cap)];
-      val = val2;
-      dur = dur2;
-      val[curSize / CHUNK][curSize % CHUNK] = v;
-      dur[curSize / CHUNK][curSize % CHUNK] = duration;
+      addChunk(maxSize == 0 || (maxSize - capacity) > CHUNK ? CHUNK : (maxSize - capacity));
+      setSample(curSize, v, endTime);
       curSize++;
     } else {
-      // limited size is filled, wrap around, and adjust start offset
-      timeStart += dur[firstIndex / CHUNK][firstIndex % CHUNK];
-      val[firstIndex / CHUNK][firstIndex % CHUNK] = v;
-      dur[firstIndex / CHUNK][firstIndex % CHUNK] = duration;
+      // limited size is filled, wrap around, replacing the oldest sample
+      setSample(firstIndex, v, endTime);
       firstIndex++;
-      if (firstIndex >= maxSize) firstIndex = 0;
+      if (firstIndex >= capacity) firstIndex = 0;
     }
+    endTime += duration;
   }
 
   public void replaceRecent(Value v, long duration) {
     if (last == null || curSize == 0)
       throw new IllegalStateException("signal should have at least " + duration + " ns of data");
-    final var i = (firstIndex + curSize - 1) % curSize;
-    if (dur[i / CHUNK][i % CHUNK] == duration) {
-      val[i / CHUNK][i % CHUNK] = v;
+    final var p = curSize - 1;
+    final var lastDuration = endTime - startAt(p);
+    if (lastDuration == duration) {
+      setValue(slot(p), v);
       last = v;
-      final var j = (i + curSize - 1) % curSize;
-      if (curSize > 1 && val[j / CHUNK][j % CHUNK].equals(v)) {
-        dur[j / CHUNK][j % CHUNK] += duration;
-        curSize--;
-        // special case: last chunk is now entirely empty, must be removed
-        if (i % CHUNK == 0) {
-          int c = val.length - 1;
-          final var valueNew = new Value[c][];
-          final var durNew = new long[c][];
-          System.arraycopy(val, 0, valueNew, 0, c);
-          System.arraycopy(dur, 0, durNew, 0, c);
-          val = valueNew;
-          dur = durNew;
-        }
-      }
-    } else if (dur[i / CHUNK][i % CHUNK] > duration) {
-      dur[i / CHUNK][i % CHUNK] -= duration;
+      // merge with the previous sample when that has the same value
+      if (curSize > 1 && valueAt(p - 1).equals(v)) curSize--;
+      resummarize(slot(curSize - 1));
+    } else if (lastDuration > duration) {
+      endTime -= duration;
       extend(v, duration);
-    } else if (curSize == 1 && dur[i / CHUNK][i % CHUNK] + timeStart >= duration) {
-      timeStart -= (duration - dur[i / CHUNK][i % CHUNK]);
-      val[i / CHUNK][i % CHUNK] = v;
-      dur[i / CHUNK][i % CHUNK] = duration;
+    } else if (curSize == 1 && endTime >= duration) {
+      setSample(slot(0), v, endTime - duration);
       last = v;
     } else {
       throw new IllegalStateException(
@@ -145,7 +331,7 @@ public class Signal {
               + duration
               + " ns in duration,"
               + " but only "
-              + dur[i / CHUNK][i % CHUNK]
+              + lastDuration
               + " in last signal");
     }
   }
@@ -153,89 +339,51 @@ public class Signal {
   private void retainOnly(int offset, int amt, int cap) {
     // shift all values [from offset to offset+amt] left into new arrays
     // of size appropriate for eventual capacity cap
-    final var c = (amt + CHUNK - 1) / CHUNK;
-    final var last = cap == 0 ? CHUNK : Math.min(CHUNK, cap - (c - 1) * CHUNK);
-    final var v = new Value[c][];
-    final var d = new long[c][];
-    for (var i = 0; i < c; i++) {
-      v[i] = new Value[i < c - 1 ? CHUNK : last];
-      d[i] = new long[i < c - 1 ? CHUNK : last];
-    }
+    final var times = new long[amt];
+    final var values = new Value[amt];
     for (var p = 0; p < amt; p++) {
-      int i = (firstIndex + offset + p) % curSize;
-      v[p / CHUNK][p % CHUNK] = val[i / CHUNK][i % CHUNK];
-      d[p / CHUNK][p % CHUNK] = dur[i / CHUNK][i % CHUNK];
+      times[p] = startAt(offset + p);
+      values[p] = valueAt(offset + p);
     }
-    val = v;
-    dur = d;
-    firstIndex = 0;
+    final var c = Math.max(1, (amt + CHUNK - 1) / CHUNK);
+    allocate(c, cap == 0 ? CHUNK : Math.min(CHUNK, cap - (c - 1) * CHUNK));
+    for (var p = 0; p < amt; p++) setSample(p, values[p], times[p]);
     curSize = amt;
   }
 
   public void resize(int newMaxSize) {
     if (newMaxSize == maxSize) return;
-    if (newMaxSize == 0 || newMaxSize > maxSize) {
-      // growing
-      retainOnly(0, curSize, newMaxSize); // keeps all data, but shifts it left
+    if (newMaxSize != 0 && curSize > newMaxSize) {
+      // too much data, keep only most recent data and shift it left
+      retainOnly(curSize - newMaxSize, newMaxSize, newMaxSize);
     } else {
-      // shrinking: newMaxSize < maxSize
-      if (curSize <= newMaxSize) {
-        // Mostly empty, keep all data, but maybe truncate last chunk if needed
-        // to get capacity below new max size.
-        // Note: firstIndex must be 0, since otherwize curSize==maxSize,
-        // and that would mean curSize > newMaxSize.
-        // There are two cases:
-        //  very unfull:
-        //    cap -----------------------------------------------|
-        //    curSize --------------------------|
-        //    [ 0+ full large-chunks ] [ partly full large-chunk ] [ not yet allocated... ]
-        //  nearly full:
-        //    cap ---------------------------------------------|
-        //    curSize -------------------------|
-        //    [ 0+ full large-chunks ] [ partly full end-chunk ]
-        // In the very unfull case, we may be able to do nothing at all
-        // (if cap <= newMaxSize), or we may have to shrink that last allocated
-        // chunk (if cap > newMaxSize).
-        // In the nearly full case, cap > newMaxSize and we need to shrink the
-        // last allocated chunk.
-        final var c = val.length;
-        final var cap = CHUNK * (c - 1) + val[c - 1].length;
-        if (cap > newMaxSize) {
-          // Note: # of existing chunks (c) must be equal to # of new chunks
-          final var last = Math.min(CHUNK, newMaxSize - (c - 1) * CHUNK);
-          final var v = new Value[last];
-          final var d = new long[last];
-          System.arraycopy(val[c - 1], 0, v, 0, last);
-          System.arraycopy(dur[c - 1], 0, d, 0, last);
-          val[c - 1] = v;
-          dur[c - 1] = d;
-        }
-      } else { // curSize > newMaxSize
-        // too much data, keep only most recent data and shift it left
-        final var discard = (maxSize - newMaxSize);
-        for (var p = 0; p < discard; p++) {
-          final var i = (firstIndex + p) % curSize;
-          timeStart += dur[i / CHUNK][i % CHUNK];
-        }
-        retainOnly(discard, newMaxSize, newMaxSize);
-      }
+      // keeps all data, but shifts it left into chunks sized for the new limit
+      retainOnly(0, curSize, newMaxSize);
     }
     maxSize = newMaxSize;
   }
 
   public void reset(Value v, long duration) {
-    if (val.length > 1) {
-      final var val2 = new Value[1][];
-      final var dur2 = new long[1][];
-      val2[0] = val[0];
-      dur2[0] = dur[0];
-      val = val2;
-      dur = dur2;
+    if (chunks > 1) {
+      start = Arrays.copyOf(start, 1);
+      narrowBits = Arrays.copyOf(narrowBits, 1);
+      bits = Arrays.copyOf(bits, 1);
+      error = Arrays.copyOf(error, 1);
+      unknown = Arrays.copyOf(unknown, 1);
+      widths = Arrays.copyOf(widths, 1);
+      groupMin = Arrays.copyOf(groupMin, 1);
+      groupMax = Arrays.copyOf(groupMax, 1);
+      groupFlags = Arrays.copyOf(groupFlags, 1);
+      chunkMin = Arrays.copyOf(chunkMin, 1);
+      chunkMax = Arrays.copyOf(chunkMax, 1);
+      chunkFlags = Arrays.copyOf(chunkFlags, 1);
+      chunks = 1;
+      capacity = start[0].length;
     }
     last = null;
     curSize = 0;
     firstIndex = 0;
-    timeStart = 0;
+    endTime = 0;
     extend(v, duration);
   }
 
@@ -248,11 +396,9 @@ public class Signal {
 
     public Iterator() {
       position = 0;
-      time = timeStart;
-      final var i = firstIndex;
-      final var width = info.getWidth();
-      value = val[i / CHUNK][i % CHUNK].extendWidth(width, Value.FALSE);
-      duration = dur[i / CHUNK][i % CHUNK];
+      time = startAt(0);
+      value = valueAt(0, info.getWidth());
+      duration = endAt(0) - time;
     }
 
     public Iterator(long t) {
@@ -272,10 +418,8 @@ public class Signal {
       }
       position++;
       time += duration;
-      final var i = (firstIndex + position) % curSize;
-      final var width = info.getWidth();
-      value = val[i / CHUNK][i % CHUNK].extendWidth(width, Value.FALSE);
-      duration = dur[i / CHUNK][i % CHUNK];
+      value = valueAt(position, info.getWidth());
+      duration = endAt(position) - time;
       return true;
     }
 
@@ -283,29 +427,102 @@ public class Signal {
       if (value == null) return false;
       if (timeFwd <= 0) return true;
       final var t = time + timeFwd;
-      while (t >= time + duration) {
-        if (!advance()) return false;
+      if (t >= endTime) {
+        // past the end: stop on the last sample, as advance() would
+        if (position != curSize - 1) {
+          position = curSize - 1;
+          time = startAt(position);
+        }
+        value = null;
+        duration = 0;
+        return false;
+      }
+      if (t >= time + duration) {
+        position = find(t, position + 1);
+        value = valueAt(position, info.getWidth());
       }
       // postcondition: t < time + duration
-      //                t - time < duration
-      duration -= (t - time);
+      duration = endAt(position) - t;
       time = t;
       return true;
     }
   }
 
-  // TODO: easily optimized
   public Value getValue(long t) { // always current width, even when width changes
-    if (t < timeStart) return null;
-    final var width = info.getWidth();
-    var tt = timeStart;
-    for (int p = 0; p < curSize; p++) {
-      final var i = (firstIndex + p) % curSize;
-      final var d = dur[i / CHUNK][i % CHUNK];
-      if (t < tt + d) return val[i / CHUNK][i % CHUNK].extendWidth(width, Value.FALSE);
-      tt += d;
+    if (t < startAt(0) || t >= endTime) return null;
+    return valueAt(find(t, 0), info.getWidth());
+  }
+
+  /** @return the time at which the value the signal has at time t was set. */
+  public long getValueStart(long t) {
+    return startAt(find(Math.max(t, startAt(0)), 0));
+  }
+
+  /**
+   * Describes the values the signal takes in the time range [t0, t1), as needed to draw that range
+   * as a single pixel column. This looks at no more than a few summaries and at most 2 * GROUP
+   * samples at each end of the range, however many samples the range holds.
+   *
+   * @return false if the signal has no value in that range.
+   */
+  public boolean summarize(long t0, long t1, Summary summary) {
+    if (t1 <= t0 || t1 <= startAt(0) || t0 >= endTime) return false;
+    final var p = find(Math.max(t0, startAt(0)), 0);
+    final var q = find(Math.min(t1, endTime) - 1, p);
+    var min = -1L;
+    var max = 0L;
+    byte f = 0;
+    var pos = p;
+    while (pos <= q) {
+      final var i = slot(pos);
+      final var c = i >> CHUNK_BITS;
+      final var k = i & (CHUNK - 1);
+      final var size = start[c].length;
+      long m;
+      long n;
+      if (k == 0 && pos + size - 1 <= q) {
+        // a whole chunk, as chunks end on a slot boundary its slots are consecutive samples
+        m = chunkMin[c];
+        n = chunkMax[c];
+        f |= chunkFlags[c];
+        pos += size;
+      } else if ((k & (GROUP - 1)) == 0 && pos + Math.min(GROUP, size - k) - 1 <= q) {
+        final var g = k >> GROUP_BITS;
+        m = groupMin[c][g];
+        n = groupMax[c][g];
+        f |= groupFlags[c][g];
+        pos += Math.min(GROUP, size - k);
+      } else {
+        final var sf = flagsAt(c, k);
+        m = sf == 0 ? bitsAt(c, k) : -1L;
+        n = sf == 0 ? bitsAt(c, k) : 0L;
+        f |= sf;
+        pos++;
+      }
+      if (Long.compareUnsigned(m, min) < 0) min = m;
+      if (Long.compareUnsigned(n, max) > 0) max = n;
     }
-    return null;
+    summary.transitions = q - p;
+    summary.error = (f & HAS_ERROR) != 0;
+    summary.unknown = (f & HAS_UNKNOWN) != 0;
+    summary.min = min;
+    summary.max = max;
+    return true;
+  }
+
+  /** The result of {@link #summarize}. */
+  public static class Summary {
+    /** Number of value changes within the range. */
+    public int transitions;
+    /** Whether some value has error or unknown bits. */
+    public boolean error;
+    public boolean unknown;
+    /**
+     * Least and greatest value bits, as unsigned numbers, among values without error or unknown
+     * bits, or -1 and 0 when there is none.
+     */
+    public long min;
+    public long max;
   }
 
   public String getFormattedValue(long t) {
@@ -0,0 +1,49 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.gui.log;
+
+import com.cburch.logisim.data.Value;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The original log file format: a line per step with the value of each signal, as shown in the
+ * log window, separated by tabs and followed by the duration of the step. Files are appended to.
+ */
+class TextLogSink extends LogSink {
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+
+  private SignalInfo[] signals = new SignalInfo[0];
+
+  TextLogSink(File file) {
+    super(file);
+  }
+
+  @Override
+  void mode(String mode, String granularity) throws IOException {
+    putText("# mode: " + mode + " granularity: " + granularity + LINE_SEPARATOR);
+  }
+
+  @Override
+  void header(SignalInfo[] signals, String[] names) throws IOException {
+    this.signals = signals;
+    if (names != null) putText(String.join("\t", names) + LINE_SEPARATOR);
+  }
+
+  @Override
+  void step(long time, long duration, Value[] values) throws IOException {
+    for (var i = 0; i < values.length; i++) {
+      if (i > 0) putAscii("\t");
+      putText(values[i] == null ? "-" : signals[i].format(values[i]));
+    }
+    // TODO: only write duration if not in coarse-step or coarse-clock mode?
+    putText("\t# " + Model.formatDuration(duration) + LINE_SEPARATOR);
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.gui.log;
+
+import com.cburch.logisim.data.Value;
+import com.cburch.logisim.generated.BuildInfo;
+import java.io.File;
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+
+/**
+ * Writes a Value Change Dump (IEEE 1364), which waveform viewers such as GTKWave read: after a
+ * header declaring each signal, only the values that change are written, after the time at which
+ * they change. Times are in nanoseconds.
+ *
+ * <p>A dump declares its signals once, so when the selection changes the file is started over.
+ * When the simulation is reset, times continue from where they were, so that they keep increasing.
+ */
+class VcdLogSink extends LogSink {
+  private static final int FIRST_ID = '!';
+  private static final int ID_CHARS = '~' - '!' + 1;
+
+  private String[] ids = new String[0];
+  private int[] widths = new int[0];
+  private Value[] last = new Value[0];
+  private boolean defined; // whether the header was written
+  private String pendingMode; // a mode comment for the header
+  private long timeBase; // added to the times of the simulation, which restart after a reset
+  private long lastTime = -1; // last time written
+  private long endTime; // end of the last step
+
+  VcdLogSink(File file) {
+    super(file);
+  }
+
+  @Override
+  protected boolean truncates() {
+    return true;
+  }
+
+  /** @return the VCD identifier code of signal i. */
+  static String identifier(int i) {
+    final var id = new StringBuilder();
+    do {
+      id.append((char) (FIRST_ID + i % ID_CHARS));
+      i = i / ID_CHARS - 1;
+    } while (i >= 0);
+    return id.toString();
+  }
+
+  @Override
+  void mode(String mode, String granularity) throws IOException {
+    final var comment = "mode: " + mode + " granularity: " + granularity;
+    if (defined) putAscii("$comment " + comment + " $end\n");
+    else pendingMode = comment;
+  }
+
+  @Override
+  void header(SignalInfo[] signals, String[] names) throws IOException {
+    if (defined) restart();
+    final var date = ZonedDateTime.now().format(DateTimeFormatter.RFC_1123_DATE_TIME);
+    putAscii("$date " + date + " $end\n");
+    putAscii("$version " + BuildInfo.displayName + " $end\n");
+    if (pendingMode != null) putAscii("$comment " + pendingMode + " $end\n");
+    putAscii("$timescale 1ns $end\n");
+    putAscii("$scope module logisim $end\n");
+    ids = new String[signals.length];
+    widths = new int[signals.length];
+    last = new Value[signals.length];
+    for (var i = 0; i < signals.length; i++) {
+      ids[i] = identifier(i);
+      widths[i] = signals[i].getWidth();
+      // references cannot hold white space
+      final var name = names != null ? names[i] : signals[i].getDisplayName();
+      putText("$var wire " + widths[i] + " " + ids[i] + " " + name.replaceAll("\\s", "_"));
+      putAscii(" $end\n");
+    }
+    putAscii("$upscope $end\n");
+    putAscii("$enddefinitions $end\n");
+    defined = true;
+    timeBase = 0;
+    lastTime = -1;
+    endTime = 0;
+  }
+
+  @Override
+  void step(long time, long duration, Value[] values) throws IOException {
+    final var t = timeBase + time;
+    for (var i = 0; i < values.length; i++) {
+      if (lastTime >= 0 && Objects.equals(values[i], last[i])) continue;
+      if (t != lastTime) {
+        putAscii("#" + t + "\n");
+        lastTime = t;
+      }
+      putValue(values[i], widths[i], ids[i]);
+      last[i] = values[i];
+    }
+    endTime = t + duration;
+  }
+
+  private void putValue(Value v, int width, String id) throws IOException {
+    ensure(width + id.length() + 3);
+    if (width == 1) {
+      buf.put(bit(v, 0));
+    } else {
+      buf.put((byte) 'b');
+      for (var i = width - 1; i >= 0; i--) buf.put(bit(v, i));
+      buf.put((byte) ' ');
+    }
+    for (var i = 0; i < id.length(); i++) buf.put((byte) id.charAt(i));
+    buf.put((byte) '\n');
+  }
+
+  private static byte bit(Value v, int i) {
+    if (v == null) return 'x';
+    if (i >= v.getWidth()) return '0';
+    if (((v.getErrorBits() >>> i) & 1) != 0) return 'x';
+    if (((v.getUnknownBits() >>> i) & 1) != 0) return 'z';
+    return ((v.getValueBits() >>> i) & 1) != 0 ? (byte) '1' : (byte) '0';
+  }
+
+  @Override
+  void reset() throws IOException {
+    if (!defined) return;
+    putAscii("$comment reset $end\n");
+    timeBase = endTime;
+  }
+
+  @Override
+  protected void finish() throws IOException {
+    // mark the end of the last step, so that viewers show it in full
+    if (defined && endTime > lastTime) {
+      putAscii("#" + endTime + "\n");
+      lastTime = endTime;
+    }
+  }
+}
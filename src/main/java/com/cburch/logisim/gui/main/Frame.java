@@ -392,7 +392,7 @@ public class Frame extends LFrame.MainWindow implements LocaleListener {
 
   private boolean isProjectFile(File file) {
     final var name = file.getName().toLowerCase(Locale.ROOT);
-    return name.endsWith(Loader.LOGISIM_EXTENSION);
+    return Loader.isProjectFileName(name);
   }
 
   private boolean supportsFileDrop(DataFlavor[] flavors) {
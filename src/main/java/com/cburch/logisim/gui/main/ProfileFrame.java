@@ -0,0 +1,272 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.gui.main;
+
+import static com.cburch.logisim.gui.Strings.S;
+
+import com.cburch.logisim.circuit.Propagator;
+import com.cburch.logisim.circuit.SimulationProfile;
+import com.cburch.logisim.gui.generic.LFrame;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.proj.ProjectEvent;
+import com.cburch.logisim.proj.ProjectListener;
+import com.cburch.logisim.util.LocaleListener;
+import com.cburch.logisim.util.LocaleManager;
+import com.cburch.logisim.util.WindowMenuItemManager;
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.GridLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.Collections;
+import java.util.List;
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.SwingConstants;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+
+/**
+ * Live view of a {@link SimulationProfile}: while the window is shown, a profile is attached to
+ * the project's propagator and the component factories are listed with the most expensive one
+ * on top, refreshed twice a second. Closing the window detaches the profile so the simulator no
+ * longer pays for the measurements.
+ */
+public class ProfileFrame extends LFrame.SubWindowWithSimulation {
+
+  private static final long serialVersionUID = 1L;
+  private static final int REFRESH_MILLIS = 500;
+
+  private final SimulationProfile profile = new SimulationProfile();
+  private final MyListener myListener = new MyListener();
+  private final WindowMenuManager windowManager;
+  private final ProfileTableModel model = new ProfileTableModel();
+  private final JTable table = new JTable(model);
+  private final Timer timer = new Timer(REFRESH_MILLIS, myListener);
+  private final JLabel events = new JLabel();
+  private final JLabel wires = new JLabel();
+  private final JLabel oscillation = new JLabel();
+  private final JButton reset = new JButton();
+  private final JButton close = new JButton();
+  private Propagator attached = null;
+
+  public ProfileFrame(Project project) {
+    super(project);
+    this.windowManager = new WindowMenuManager();
+    project.addProjectListener(myListener);
+    updateWithProject(project);
+
+    final var summary = new JPanel(new GridLayout(3, 1));
+    summary.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+    summary.add(events);
+    summary.add(wires);
+    summary.add(oscillation);
+
+    final var right = new DefaultTableCellRenderer();
+    right.setHorizontalAlignment(SwingConstants.RIGHT);
+    for (var col = 1; col < model.getColumnCount(); col++) {
+      table.getColumnModel().getColumn(col).setCellRenderer(right);
+    }
+    final var tablePane = new JScrollPane(table);
+    tablePane.setPreferredSize(new Dimension(500, 300));
+
+    final var buttonPanel = new JPanel();
+    buttonPanel.add(reset);
+    buttonPanel.add(close);
+    reset.addActionListener(myListener);
+    close.addActionListener(myListener);
+
+    final var contents = getContentPane();
+    contents.add(summary, BorderLayout.NORTH);
+    contents.add(tablePane, BorderLayout.CENTER);
+    contents.add(buttonPanel, BorderLayout.SOUTH);
+
+    LocaleManager.addLocaleListener(myListener);
+    myListener.localeChanged();
+    pack();
+  }
+
+  private static String computeTitle(Project proj) {
+    return S.get("profileFrameTitle", proj.getLogisimFile().getDisplayName());
+  }
+
+  private void updateWithProject(Project theProject) {
+    final var simulator = theProject.getSimulator();
+    if (simulator == null) return;
+    menubar.setCircuitState(simulator, simulator.getCircuitState());
+    if (isVisible()) attach();
+  }
+
+  /** Moves the profile to the propagator currently used by the project's simulator. */
+  private void attach() {
+    final var simulator = project.getSimulator();
+    final var state = simulator == null ? null : simulator.getCircuitState();
+    final var prop = state == null ? null : state.getPropagator();
+    if (prop == attached) return;
+    detach();
+    attached = prop;
+    if (attached != null) attached.setProfile(profile);
+  }
+
+  private void detach() {
+    if (attached != null && attached.getProfile() == profile) attached.setProfile(null);
+    attached = null;
+  }
+
+  private void refresh() {
+    final var eventCount = profile.getEventCount();
+    final var steps = profile.getTimeStepCount();
+    events.setText(S.get("ttyProfileEvents", Long.toString(eventCount), Long.toString(steps),
+        String.format("%.1f", steps == 0 ? 0.0 : (double) eventCount / steps),
+        Long.toString(profile.getMaxEventsPerTimeStep())));
+    wires.setText(S.get("ttyProfileWires", Long.toString(profile.getWirePropagationCount()),
+        Long.toString(profile.getBusRecomputationCount())));
+    oscillation.setText(S.get("ttyProfileOscillation",
+        Long.toString(profile.getOscillationCheckCount())));
+    model.setStats(profile.getComponentStats());
+  }
+
+  @Override
+  public void setVisible(boolean value) {
+    if (value) {
+      windowManager.frameOpened(this);
+      attach();
+      refresh();
+      timer.start();
+    } else {
+      timer.stop();
+      detach();
+    }
+    super.setVisible(value);
+  }
+
+  private static class ProfileTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    private List<SimulationProfile.ComponentStat> stats = Collections.emptyList();
+    private long totalNanos = 0;
+
+    void setStats(List<SimulationProfile.ComponentStat> value) {
+      stats = value;
+      totalNanos = 0;
+      for (final var stat : stats) totalNanos += stat.nanos();
+      fireTableDataChanged();
+    }
+
+    @Override
+    public int getColumnCount() {
+      return 5;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+      return switch (column) {
+        case 0 -> S.get("profileComponentColumn");
+        case 1 -> S.get("profileCallsColumn");
+        case 2 -> S.get("profileTimeColumn");
+        case 3 -> S.get("profileCallTimeColumn");
+        case 4 -> S.get("profileShareColumn");
+        default -> "??"; // should never happen
+      };
+    }
+
+    @Override
+    public int getRowCount() {
+      return stats.size();
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+      if (row < 0 || row >= stats.size()) return "";
+      final var stat = stats.get(row);
+      return switch (column) {
+        case 0 -> stat.factory().getDisplayName();
+        case 1 -> Long.toString(stat.calls());
+        case 2 -> String.format("%.3f", stat.nanos() / 1e6);
+        case 3 -> Long.toString(stat.calls() == 0 ? 0 : stat.nanos() / stat.calls());
+        case 4 -> String.format("%.1f%%", totalNanos == 0 ? 0.0 : 100.0 * stat.nanos() / totalNanos);
+        default -> ""; // should never happen
+      };
+    }
+  }
+
+  private class MyListener implements ActionListener, ProjectListener, LocaleListener {
+
+    @Override
+    public void actionPerformed(ActionEvent event) {
+      final var src = event.getSource();
+      if (src == timer) {
+        attach();
+        refresh();
+      } else if (src == reset) {
+        profile.reset();
+        refresh();
+      } else if (src == close) {
+        requestClose();
+      }
+    }
+
+    @Override
+    public void localeChanged() {
+      setTitle(computeTitle(project));
+      reset.setText(S.get("resetButton"));
+      close.setText(S.get("closeButton"));
+      final var columns = table.getColumnModel();
+      for (var col = 0; col < columns.getColumnCount(); col++) {
+        columns.getColumn(col).setHeaderValue(model.getColumnName(col));
+      }
+      table.getTableHeader().repaint();
+      refresh();
+      windowManager.localeChanged();
+    }
+
+    @Override
+    public void projectChanged(ProjectEvent event) {
+      final var action = event.getAction();
+      if (action == ProjectEvent.ACTION_SET_STATE) {
+        updateWithProject(event.getProject());
+      } else if (action == ProjectEvent.ACTION_SET_FILE) {
+        setTitle(computeTitle(project));
+      }
+    }
+  }
+
+  private class WindowMenuManager extends WindowMenuItemManager
+      implements LocaleListener, ProjectListener {
+
+    WindowMenuManager() {
+      super(S.get("profileFrameMenuItem"), false);
+      project.addProjectListener(this);
+    }
+
+    @Override
+    public JFrame getJFrame(boolean create, java.awt.Component parent) {
+      return ProfileFrame.this;
+    }
+
+    @Override
+    public void localeChanged() {
+      final var title = project.getLogisimFile().getDisplayName();
+      setText(S.get("profileFrameMenuItem", title));
+    }
+
+    @Override
+    public void projectChanged(ProjectEvent event) {
+      if (event.getAction() == ProjectEvent.ACTION_SET_FILE) {
+        localeChanged();
+      }
+    }
+  }
+}
@@ -25,6 +25,7 @@ class ExperimentalOptions extends OptionsPanel {
   private final PrefOptionList accel;
   private final JLabel simRestart = new JLabel();
   private final PrefOptionList simQueue;
+  private final PrefBoolean simParallel;
 
   public ExperimentalOptions(PreferencesFrame window) {
     super(window);
@@ -62,13 +63,18 @@ class ExperimentalOptions extends OptionsPanel {
             new PrefOption(AppPreferences.SIM_QUEUE_SPLAY, S.getter("simQueueSplay")),
             new PrefOption(AppPreferences.SIM_QUEUE_LINKED, S.getter("simQueueLinked")),
             new PrefOption(AppPreferences.SIM_QUEUE_LIST_OF_QUEUES, S.getter("simQueueListOfQueues")),
-            new PrefOption(AppPreferences.SIM_QUEUE_TREE_OF_QUEUES, S.getter("simQueueTreeOfQueues"))
+            new PrefOption(AppPreferences.SIM_QUEUE_TREE_OF_QUEUES, S.getter("simQueueTreeOfQueues")),
+            new PrefOption(AppPreferences.SIM_QUEUE_TIME_WHEEL, S.getter("simQueueTimeWheel"))
         }
     );
     final var simPanel = new JPanel(new BorderLayout());
     simPanel.add(simQueue.getJLabel(), BorderLayout.LINE_START);
     simPanel.add(simQueue.getJComboBox(), BorderLayout.CENTER);
-    simPanel.add(simRestart, BorderLayout.PAGE_END);
+    simParallel = new PrefBoolean(AppPreferences.SIMULATION_PARALLEL, S.getter("simParallel"));
+    final var simOptionsPanel = new JPanel(new BorderLayout());
+    simOptionsPanel.add(simParallel, BorderLayout.PAGE_START);
+    simOptionsPanel.add(simRestart, BorderLayout.PAGE_END);
+    simPanel.add(simOptionsPanel, BorderLayout.PAGE_END);
     simRestart.setFont(simRestart.getFont().deriveFont(Font.ITALIC));
     final var simPanel2 = new JPanel();
     simPanel2.add(simPanel);
@@ -91,6 +97,7 @@ class ExperimentalOptions extends OptionsPanel {
   public void localeChanged() {
     accel.localeChanged();
     accelRestart.setText(S.get("accelRestartLabel"));
+    simParallel.localeChanged();
     simRestart.setText(S.get("simRestartLabel"));
   }
 }
@@ -28,6 +28,7 @@ import com.cburch.logisim.gui.main.Print;
 import com.cburch.logisim.gui.menu.LogisimMenuBar;
 import com.cburch.logisim.gui.menu.WindowManagers;
 import com.cburch.logisim.gui.search.DoubleShiftTrigger;
+import com.cburch.logisim.gui.test.TestBatch;
 import com.cburch.logisim.gui.test.TestBench;
 import com.cburch.logisim.prefs.AppPreferences;
 import com.cburch.logisim.proj.Project;
@@ -130,6 +131,9 @@ public class Startup implements AWTEventListener {
   /* Testing Xml (circ file) Variable */
   private String testCircPathInput = null;
   private String testCircPathOutput = null;
+  /* Batch test-vector manifest and optional report file */
+  private File testBatchManifest = null;
+  private File testBatchReport = null;
 
   private Startup(boolean isTty) {
     this.isTty = isTty;
@@ -177,6 +181,7 @@ public class Startup implements AWTEventListener {
   private static final String ARG_VERSION_LONG = "version";
   private static final String ARG_TEST_VECTOR_SHORT = "w";
   private static final String ARG_TEST_VECTOR_LONG = "test-vector";
+  private static final String ARG_TEST_BATCH_LONG = "test-batch";
   private static final String ARG_NO_SPLASH_LONG = "no-splash";
   private static final String ARG_MAIN_CIRCUIT = "toplevel-circuit";
 
@@ -338,6 +343,7 @@ public class Startup implements AWTEventListener {
     addOption(opts, "argNoSplashOption", ARG_NO_SPLASH_LONG);
     addOption(opts, "argMainCircuitOption", ARG_MAIN_CIRCUIT, 1);
     addOption(opts, "argTestVectorOption", ARG_TEST_VECTOR_LONG, ARG_TEST_VECTOR_SHORT, 2);
+    addOption(opts, "argTestBatchOption", ARG_TEST_BATCH_LONG, Option.UNLIMITED_VALUES); // We can have 1 or 2 arguments here
     addOption(opts, "argTestCircuitOption", ARG_TEST_CIRCUIT_LONG, ARG_TEST_CIRCUIT_SHORT, 1);     // FIXME add "Option" suffix to key name
     addOption(opts, "argTestCircGenOption", ARG_TEST_CIRC_GEN_LONG, ARG_TEST_CIRC_GEN_SHORT, 2);   // FIXME add "Option" suffix to key name
 
@@ -358,7 +364,8 @@ public class Startup implements AWTEventListener {
     // see whether we'll be using any graphics
     var isTty = false;
     var shallClearPreferences = false;
-    if (cmd.hasOption(ARG_TTY_SHORT) || cmd.hasOption(ARG_TEST_FGPA_SHORT) || cmd.hasOption(ARG_TEST_FGPA_LONG)) {
+    if (cmd.hasOption(ARG_TTY_SHORT) || cmd.hasOption(ARG_TEST_FGPA_SHORT) || cmd.hasOption(ARG_TEST_FGPA_LONG)
+        || cmd.hasOption(ARG_TEST_BATCH_LONG)) {
       isTty = true;
       Main.headless = true;
     } else {
@@ -403,6 +410,7 @@ public class Startup implements AWTEventListener {
         case ARG_TEMPLATE_LONG -> handleArgTemplate(startup, opt);
         case ARG_NO_SPLASH_LONG -> handleArgNoSplash(startup, opt);
         case ARG_TEST_VECTOR_LONG -> handleArgTestVector(startup, opt);
+        case ARG_TEST_BATCH_LONG -> handleArgTestBatch(startup, opt);
         case ARG_TEST_FGPA_LONG -> handleArgTestFpga(startup, opt);
         case ARG_FPGA_CABLE_LONG -> handleArgFpgaCable(startup, opt);
         case ARG_TEST_CIRCUIT_LONG -> handleArgTestCircuit(startup, opt);
@@ -435,7 +443,7 @@ public class Startup implements AWTEventListener {
       printHelp(opts);
       return null;
     }
-    if (startup.isTty && startup.filesToOpen.isEmpty()) {
+    if (startup.isTty && startup.filesToOpen.isEmpty() && startup.testBatchManifest == null) {
       logger.error(S.get("ttyNeedsFileError"));
       return null;
     }
@@ -507,6 +515,8 @@ public class Startup implements AWTEventListener {
           case "hex" -> TtyInterface.FORMAT_TABLE_HEX;
           case "csv" -> TtyInterface.FORMAT_TABLE_CSV;
           case "tabs" -> TtyInterface.FORMAT_TABLE_TABBED;
+          case "compiled" -> TtyInterface.FORMAT_COMPILED;
+          case "profile" -> TtyInterface.FORMAT_PROFILE;
           default -> 0;
         };
 
@@ -691,6 +701,18 @@ public class Startup implements AWTEventListener {
     return RC.OK;
   }
 
+  private static RC handleArgTestBatch(Startup startup, Option opt) {
+    final var optArgs = opt.getValues();
+    if (optArgs == null || optArgs.length < 1 || optArgs.length > 2) {
+      logger.error(S.get("argTestBatchInvalidArguments"));
+      return RC.ERROR;
+    }
+    startup.testBatchManifest = new File(optArgs[0]);
+    if (optArgs.length == 2) startup.testBatchReport = new File(optArgs[1]);
+    startup.showSplash = false;
+    return RC.OK;
+  }
+
   private static RC handleArgMainCircuit(Startup startup, Option opt) {
     startup.circuitToTest = opt.getValues()[0];
     return RC.OK;
@@ -918,6 +940,9 @@ public class Startup implements AWTEventListener {
   }
 
   public void run() {
+    if (testBatchManifest != null) {
+      System.exit(TestBatch.run(testBatchManifest, testBatchReport, substitutions));
+    }
     if (isTty) {
       try {
         TtyInterface.run(this);
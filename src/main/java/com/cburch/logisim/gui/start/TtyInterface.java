@@ -16,6 +16,8 @@ import com.cburch.logisim.analyze.model.Var;
 import com.cburch.logisim.circuit.Analyze;
 import com.cburch.logisim.circuit.Circuit;
 import com.cburch.logisim.circuit.CircuitState;
+import com.cburch.logisim.circuit.CompiledNetlist;
+import com.cburch.logisim.circuit.SimulationProfile;
 import com.cburch.logisim.data.Value;
 import com.cburch.logisim.file.FileStatistics;
 import com.cburch.logisim.file.LoadFailedException;
@@ -32,14 +34,22 @@ import com.cburch.logisim.std.memory.Mem;
 import com.cburch.logisim.std.memory.Ram;
 import com.cburch.logisim.std.wiring.Pin;
 import com.cburch.logisim.util.UniquelyNamedThread;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,7 +65,11 @@ public class TtyInterface {
   public static final int FORMAT_TABLE_CSV = 64;
   public static final int FORMAT_TABLE_BIN = 128;
   public static final int FORMAT_TABLE_HEX = 256;
+  public static final int FORMAT_COMPILED = 512;
+  public static final int FORMAT_PROFILE = 1024;
   static final Logger logger = LoggerFactory.getLogger(TtyInterface.class);
+  /** Number of truth table rows simulated by one task of doTableAnalysis. */
+  private static final int TABLE_BLOCK_ROWS = 256;
   private static boolean lastIsNewline = true;
 
   private static int countDigits(int num) {
@@ -68,7 +82,7 @@ public class TtyInterface {
     return digits;
   }
 
-  private static void displaySpeed(long tickCount, long elapse) {
+  private static void displaySpeed(String msgKey, long tickCount, long elapse) {
     var hertz = (double) tickCount / elapse * 1000.0;
     double precision;
     if (hertz >= 100) precision = 1.0;
@@ -78,7 +92,30 @@ public class TtyInterface {
     else precision = 0.0000001;
     hertz = (int) (hertz / precision) * precision;
     var hertzStr = hertz == (int) hertz ? "" + (int) hertz : "" + hertz;
-    System.out.printf(S.get("ttySpeedMsg") + "\n", hertzStr, tickCount, elapse);
+    System.out.printf(S.get(msgKey) + "\n", hertzStr, tickCount, elapse);
+  }
+
+  private static void displayProfile(SimulationProfile profile) {
+    final var events = profile.getEventCount();
+    final var steps = profile.getTimeStepCount();
+    final var perStep = steps == 0 ? 0.0 : (double) events / steps;
+    System.out.printf(S.get("ttyProfileEvents") + "\n", events, steps,
+        String.format("%.1f", perStep), profile.getMaxEventsPerTimeStep());
+    System.out.printf(S.get("ttyProfileWires") + "\n", profile.getWirePropagationCount(),
+        profile.getBusRecomputationCount());
+    System.out.printf(S.get("ttyProfileOscillation") + "\n", profile.getOscillationCheckCount());
+    final var stats = profile.getComponentStats();
+    var totalNanos = 0L;
+    for (final var stat : stats) totalNanos += stat.nanos();
+    System.out.println(S.get("ttyProfileComponents"));
+    for (final var stat : stats) {
+      System.out.printf("%d\t%.3f\t%d\t%.1f%%\t%s\n",
+          stat.calls(),
+          stat.nanos() / 1e6,
+          stat.calls() == 0 ? 0 : stat.nanos() / stat.calls(),
+          totalNanos == 0 ? 0.0 : 100.0 * stat.nanos() / totalNanos,
+          stat.factory().getDisplayName());
+    }
   }
 
   private static void displayStatistics(LogisimFile file, Circuit circuit) {
@@ -358,7 +395,24 @@ public class TtyInterface {
     }
 
     final var ttyFormat = args.getTtyFormat();
-    final var simCode = runSimulation(circState, outputPins, haltPin, ttyFormat);
+    CompiledNetlist compiled = null;
+    CircuitState reference = null;
+    if ((ttyFormat & FORMAT_COMPILED) != 0) {
+      // a copy taken before the compiled run lets us compare with the event-driven simulator
+      if ((ttyFormat & FORMAT_SPEED) != 0 && (ttyFormat & FORMAT_TTY) == 0) {
+        reference = circState.cloneAsNewRootState(Thread.currentThread());
+      }
+      try {
+        compiled = CompiledNetlist.compile(circState);
+      } catch (UnsupportedOperationException e) {
+        logger.warn("{}", S.get("ttyCompiledFallback", e.getMessage()));
+        reference = null;
+      }
+    }
+    final var simCode = runSimulation(circState, compiled, outputPins, haltPin, ttyFormat);
+    if (reference != null) {
+      runReferenceSimulation(reference, compiled.getTickCount() - prop.getTickCount());
+    }
 
     if (args.getSaveFile() != null) {
       try {
@@ -422,61 +476,179 @@ public class TtyInterface {
     }
 
     final var inputCount = inputNames.size();
-    final var rowCount = 1 << inputCount;
+    final var blockCount = ((1 << inputCount) + TABLE_BLOCK_ROWS - 1) / TABLE_BLOCK_ROWS;
+    final var parallelism = Math.min(Runtime.getRuntime().availableProcessors(), blockCount);
+    final var needTableHeader = new boolean[] {true};
+    computeTable(proj, circuit, inputPins, outputPins, pinList, inputCount, parallelism,
+        currValues -> {
+          displayTableRow(needTableHeader[0], null, currValues, headers, formats, format);
+          needTableHeader[0] = false;
+        });
 
-    var needTableHeader = true;
-    final var valueMap = new HashMap<Instance, Value>();
-    for (var i = 0; i < rowCount; i++) {
-      valueMap.clear();
-      final var circuitState = CircuitState.createRootState(proj, circuit, Thread.currentThread());
-      final var prop = circuitState.getPropagator();
-      var incol = 0;
-      for (final var pin : inputPins) {
-        final var width = pin.getAttributeValue(StdAttr.WIDTH).getWidth();
-        final var v = new Value[width];
-        for (var b = width - 1; b >= 0; b--) {
-          final var value = TruthTable.isInputSet(i, incol++, inputCount);
-          v[b] = value ? Value.TRUE : Value.FALSE;
+    return 0;
+  }
+
+  /** The circuit state a table worker simulates its rows on, with the pins of its circuit. */
+  private record TableWorker(CircuitState state, ArrayList<Instance> inputPins,
+      ArrayList<Instance> outputPins, ArrayList<Instance> pinList) {}
+
+  /**
+   * Simulates every row of the truth table of <code>circuit</code> and hands the values of the
+   * pins in <code>pinList</code> to <code>rowConsumer</code>, in row order.
+   *
+   * <p>With a parallelism above one, every worker thread simulates its own copy of the project:
+   * simulating a circuit may change the attributes of its components and the state kept by some
+   * factories, so one loaded circuit is never simulated by two threads at once. The copies are
+   * loaded up front, as loading is not thread-safe either.
+   */
+  static void computeTable(Project proj, Circuit circuit, ArrayList<Instance> inputPins,
+      ArrayList<Instance> outputPins, ArrayList<Instance> pinList, int inputCount, int parallelism,
+      Consumer<ArrayList<Value>> rowConsumer) {
+    final var rowCount = 1 << inputCount;
+    final var blockCount = (rowCount + TABLE_BLOCK_ROWS - 1) / TABLE_BLOCK_ROWS;
+
+    // Each worker thread simulates its rows on its own circuit state, which is reset between
+    // rows; the blocks are joined in row order so the output does not depend on scheduling.
+    final var copies = new ConcurrentLinkedQueue<Project>();
+    if (parallelism > 1) {
+      for (var i = 0; i < parallelism; i++) copies.add(copyProject(proj));
+    }
+    final var workers = new ConcurrentLinkedQueue<TableWorker>();
+    final var workerStates = ThreadLocal.withInitial(() -> {
+      final var copy = copies.poll();
+      final var worker = copy == null
+          ? new TableWorker(CircuitState.createRootState(proj, circuit, Thread.currentThread()),
+              inputPins, outputPins, pinList)
+          : createTableWorker(copy, circuit, inputPins, outputPins, pinList);
+      workers.add(worker);
+      return worker;
+    });
+    final var pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    final var blocks = new ArrayList<ForkJoinTask<ArrayList<ArrayList<Value>>>>(blockCount);
+    for (var block = 0; block < blockCount; block++) {
+      final var first = block * TABLE_BLOCK_ROWS;
+      final var last = Math.min(rowCount, first + TABLE_BLOCK_ROWS);
+      final ForkJoinTask<ArrayList<ArrayList<Value>>> task = ForkJoinTask.adapt(() -> {
+        final var worker = workerStates.get();
+        final var rows = new ArrayList<ArrayList<Value>>(last - first);
+        for (var row = first; row < last; row++) {
+          rows.add(computeTableRow(worker.state(), row, inputCount, worker.inputPins(),
+              worker.outputPins(), worker.pinList()));
         }
-        final var pinState = circuitState.getInstanceState(pin);
-        Pin.FACTORY.driveInputPin(pinState, Value.create(v));
-        valueMap.put(pin, Value.create(v));
+        return rows;
+      });
+      blocks.add(pool != null ? pool.submit(task) : task);
+    }
+
+    try {
+      for (final var block : blocks) {
+        if (pool == null) block.invoke();
+        for (final var currValues : block.join()) rowConsumer.accept(currValues);
+      }
+    } finally {
+      if (pool != null) {
+        pool.shutdownNow();
+        pool.awaitQuiescence(Long.MAX_VALUE, TimeUnit.SECONDS);
       }
+      for (final var worker : workers) worker.state().dispose();
+    }
+  }
 
-      prop.propagate();
-      /*
-       * TODO for the SimulatorPrototype class do { prop.step(); } while
-       * (prop.isPending());
-       */
-      // TODO: Search for circuit state
-
-
-      for (final var pin : outputPins) {
-        if (prop.isOscillating()) {
-          final var width = pin.getAttributeValue(StdAttr.WIDTH);
-          valueMap.put(pin, Value.createError(width));
-        } else {
-          final var pinState = circuitState.getInstanceState(pin);
-          final var outValue = Pin.FACTORY.getValue(pinState);
-          valueMap.put(pin, outValue);
+  private static Project copyProject(Project proj) {
+    final var file = proj.getLogisimFile();
+    final var out = new ByteArrayOutputStream();
+    file.write(out, file.getLoader());
+    try {
+      final var in = new ByteArrayInputStream(out.toByteArray());
+      return new Project(LogisimFile.load(in, file.getLoader()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static TableWorker createTableWorker(Project copy, Circuit circuit,
+      ArrayList<Instance> inputPins, ArrayList<Instance> outputPins, ArrayList<Instance> pinList) {
+    final var copyCircuit = copy.getLogisimFile().getCircuit(circuit.getName());
+    final var pins = new HashMap<Instance, Instance>();
+    for (final var pin : pinList) {
+      for (final var comp : copyCircuit.getNonWires(pin.getLocation())) {
+        if (comp.getFactory() instanceof Pin && comp.getLocation().equals(pin.getLocation())) {
+          pins.put(pin, Instance.getInstanceFor(comp));
         }
       }
-      final var currValues = new ArrayList<Value>();
-      for (final var pin : pinList) {
-        currValues.add(valueMap.get(pin));
+    }
+    return new TableWorker(
+        CircuitState.createRootState(copy, copyCircuit, Thread.currentThread()),
+        mapPins(inputPins, pins), mapPins(outputPins, pins), mapPins(pinList, pins));
+  }
+
+  private static ArrayList<Instance> mapPins(
+      ArrayList<Instance> pins, Map<Instance, Instance> map) {
+    final var ret = new ArrayList<Instance>(pins.size());
+    for (final var pin : pins) ret.add(map.get(pin));
+    return ret;
+  }
+
+  private static ArrayList<Value> computeTableRow(CircuitState circuitState, int row, int inputCount,
+      ArrayList<Instance> inputPins, ArrayList<Instance> outputPins, ArrayList<Instance> pinList) {
+    final var prop = circuitState.getPropagator();
+    prop.reset();
+    final var valueMap = new HashMap<Instance, Value>();
+    var incol = 0;
+    for (final var pin : inputPins) {
+      final var width = pin.getAttributeValue(StdAttr.WIDTH).getWidth();
+      final var v = new Value[width];
+      for (var b = width - 1; b >= 0; b--) {
+        final var value = TruthTable.isInputSet(row, incol++, inputCount);
+        v[b] = value ? Value.TRUE : Value.FALSE;
       }
-      displayTableRow(needTableHeader, null, currValues, headers, formats, format);
-      needTableHeader = false;
+      final var pinState = circuitState.getInstanceState(pin);
+      Pin.FACTORY.driveInputPin(pinState, Value.create(v));
+      valueMap.put(pin, Value.create(v));
     }
 
-    return 0;
+    prop.propagate();
+    /*
+     * TODO for the SimulatorPrototype class do { prop.step(); } while
+     * (prop.isPending());
+     */
+    // TODO: Search for circuit state
+
+    for (final var pin : outputPins) {
+      if (prop.isOscillating()) {
+        final var width = pin.getAttributeValue(StdAttr.WIDTH);
+        valueMap.put(pin, Value.createError(width));
+      } else {
+        final var pinState = circuitState.getInstanceState(pin);
+        final var outValue = Pin.FACTORY.getValue(pinState);
+        valueMap.put(pin, outValue);
+      }
+    }
+    final var currValues = new ArrayList<Value>();
+    for (final var pin : pinList) {
+      currValues.add(valueMap.get(pin));
+    }
+    return currValues;
+  }
+
+  private static void runReferenceSimulation(CircuitState circState, int ticks) {
+    final var prop = circState.getPropagator();
+    prop.propagate();
+    final var start = System.currentTimeMillis();
+    for (var i = 0; i < ticks && !prop.isOscillating(); i++) {
+      prop.toggleClocks();
+      prop.propagate();
+    }
+    displaySpeed("ttyCompiledSpeedMsg", ticks, System.currentTimeMillis() - start);
   }
 
-  private static int runSimulation(CircuitState circState, ArrayList<Instance> outputPins, Instance haltPin, int format) {
+  private static int runSimulation(CircuitState circState, CompiledNetlist compiled,
+      ArrayList<Instance> outputPins, Instance haltPin, int format) {
     final var showTable = (format & FORMAT_TABLE) != 0;
     final var showSpeed = (format & FORMAT_SPEED) != 0;
     final var showTty = (format & FORMAT_TTY) != 0;
     final var showHalt = (format & FORMAT_HALT) != 0;
+    final var showProfile = (format & FORMAT_PROFILE) != 0;
 
     ArrayList<InstanceState> keyboardStates = null;
     StdinThread stdinThread = null;
@@ -501,13 +673,23 @@ public class TtyInterface {
     var halted = false;
     ArrayList<Value> prevOutputs = null;
     final var prop = circState.getPropagator();
+    SimulationProfile profile = null;
+    if (showProfile) {
+      if (compiled != null) {
+        logger.warn("{}", S.get("ttyProfileCompiled"));
+      } else {
+        profile = new SimulationProfile();
+        prop.setProfile(profile);
+      }
+    }
     while (true) {
       if (showTable) {
         final var curOutputs = new ArrayList<Value>();
         for (final var pin : outputPins) {
           if (pin != haltPin) {
-            final var pinState = circState.getInstanceState(pin);
-            final var val = Pin.FACTORY.getValue(pinState);
+            final var val = compiled != null
+                ? compiled.getPinValue(pin)
+                : Pin.FACTORY.getValue(circState.getInstanceState(pin));
             curOutputs.add(val);
           }
         }
@@ -515,8 +697,9 @@ public class TtyInterface {
         prevOutputs = curOutputs;
       }
       if (haltPin != null) {
-        final var pinState = circState.getReusableInstanceState(haltPin); // OK as we are not propagating
-        final var val = Pin.FACTORY.getValue(pinState);
+        final var val = compiled != null
+            ? compiled.getPinValue(haltPin)
+            : Pin.FACTORY.getValue(circState.getReusableInstanceState(haltPin)); // OK as we are not propagating
         halted = val.equals(Value.TRUE);
       }
 
@@ -524,7 +707,7 @@ public class TtyInterface {
         retCode = 0; // normal exit
         break;
       }
-      if (prop.isOscillating()) {
+      if (compiled != null ? compiled.isOscillating() : prop.isOscillating()) {
         retCode = 1; // abnormal exit
         break;
       }
@@ -537,8 +720,12 @@ public class TtyInterface {
         }
       }
       tickCount++;
-      prop.toggleClocks();
-      prop.propagate();
+      if (compiled != null) {
+        compiled.tick();
+      } else {
+        prop.toggleClocks();
+        prop.propagate();
+      }
     }
     final var elapse = System.currentTimeMillis() - start;
     if (showTty) ensureLineTerminated();
@@ -550,7 +737,11 @@ public class TtyInterface {
       }
     }
     if (showSpeed) {
-      displaySpeed(tickCount, elapse);
+      displaySpeed("ttySpeedMsg", tickCount, elapse);
+    }
+    if (profile != null) {
+      prop.setProfile(null);
+      displayProfile(profile);
     }
     return retCode;
   }
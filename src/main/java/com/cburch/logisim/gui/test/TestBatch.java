@@ -0,0 +1,351 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.gui.test;
+
+import static com.cburch.logisim.gui.Strings.S;
+
+import com.cburch.logisim.circuit.CircuitState;
+import com.cburch.logisim.circuit.TestVectorEvaluator;
+import com.cburch.logisim.data.TestVector;
+import com.cburch.logisim.file.LoadFailedException;
+import com.cburch.logisim.file.Loader;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.util.UniquelyNamedThread;
+import com.cburch.logisim.util.XmlUtil;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+/**
+ * Headless runner grading many (circuit file, circuit, test vector) combinations in one JVM.
+ *
+ * <p>The manifest is a text file with one run per line: <code>circ_file,vector_file</code> or
+ * <code>circ_file,circuit_name,vector_file</code>. Empty lines and lines starting with
+ * <code>#</code> are ignored, relative paths are resolved against the directory of the manifest,
+ * and an empty circuit name selects the main circuit. The runs are evaluated concurrently, each on
+ * its own root {@link CircuitState} (and therefore its own Propagator) created on the worker
+ * thread; the runs of one circuit file share at most one loaded copy per worker. Results are
+ * reported in manifest order.
+ */
+public class TestBatch {
+
+  /** One run requested by the manifest. */
+  public record Entry(int line, File circFile, String circuitName, File vectorFile) {}
+
+  /**
+   * Outcome of one run. The error is null if the test vector could be evaluated, in which case
+   * failures holds the reports of the first failing lines.
+   */
+  public record Result(Entry entry, int passed, int failed, String error, List<String> failures,
+      long nanos) {
+    public boolean isSuccess() {
+      return error == null && failed == 0;
+    }
+  }
+
+  /** Maximum number of failing lines kept per run. */
+  private static final int MAX_REPORTED_FAILURES = 20;
+
+  private TestBatch() {
+    throw new IllegalStateException("Utility class. No instantiation allowed.");
+  }
+
+  /**
+   * Command line entry point.
+   *
+   * @param report the file receiving a JUnit XML (<code>.xml</code>) or CSV summary, or null.
+   * @return the exit code: 0 if all runs passed, 1 if some failed and -1 on unusable input.
+   */
+  public static int run(File manifest, File report, Map<File, File> substitutions) {
+    List<Entry> entries;
+    try {
+      entries = parseManifest(manifest);
+    } catch (IOException e) {
+      System.err.println(S.get("testBatchManifestError", e.getMessage()));
+      return -1;
+    }
+    final var start = System.nanoTime();
+    final var threads = Runtime.getRuntime().availableProcessors();
+    final var results = runAll(entries, substitutions, threads);
+    final var totalNanos = System.nanoTime() - start;
+
+    var passedRuns = 0;
+    for (final var result : results) {
+      final var entry = result.entry();
+      final var circuitName = entry.circuitName() == null ? "" : entry.circuitName();
+      if (result.error() != null) {
+        System.out.println(S.get("testBatchError", entry.circFile().getName(), circuitName,
+            entry.vectorFile().getName(), result.error()));
+      } else {
+        System.out.println(S.get("testBatchResult", entry.circFile().getName(), circuitName,
+            entry.vectorFile().getName(), Integer.toString(result.passed()),
+            Integer.toString(result.failed()), Long.toString(result.nanos() / 1_000_000)));
+        for (final var failure : result.failures()) System.out.println("  " + failure);
+      }
+      if (result.isSuccess()) passedRuns++;
+    }
+    System.out.println(S.get("testBatchSummary", Integer.toString(passedRuns),
+        Integer.toString(results.size()), Long.toString(totalNanos / 1_000_000),
+        Integer.toString(threads)));
+
+    if (report != null) {
+      try (final var out = new FileOutputStream(report)) {
+        if (report.getName().toLowerCase(Locale.ROOT).endsWith(".xml")) {
+          writeJUnitXml(results, totalNanos, out);
+        } else {
+          final var writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+          writeCsv(results, writer);
+          writer.flush();
+        }
+      } catch (IOException | ParserConfigurationException | TransformerException e) {
+        System.err.println(S.get("testBatchReportError", report.getPath(), e.getMessage()));
+        return -1;
+      }
+    }
+    return passedRuns == results.size() ? 0 : 1;
+  }
+
+  /** Reads the runs listed in a manifest file. */
+  public static List<Entry> parseManifest(File manifest) throws IOException {
+    final var dir = manifest.getAbsoluteFile().getParentFile();
+    final var entries = new ArrayList<Entry>();
+    try (final var in = new BufferedReader(new FileReader(manifest, StandardCharsets.UTF_8))) {
+      var lineNumber = 0;
+      String line;
+      while ((line = in.readLine()) != null) {
+        lineNumber++;
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#")) continue;
+        final var fields = line.split(",", -1);
+        if (fields.length < 2 || fields.length > 3) {
+          throw new IOException(S.get("testBatchManifestLineError", Integer.toString(lineNumber)));
+        }
+        final var circuitName = fields.length == 3 ? fields[1].trim() : "";
+        entries.add(new Entry(lineNumber, resolve(dir, fields[0].trim()),
+            circuitName.isEmpty() ? null : circuitName, resolve(dir, fields[fields.length - 1].trim())));
+      }
+    }
+    return entries;
+  }
+
+  private static File resolve(File dir, String path) {
+    final var file = new File(path);
+    return file.isAbsolute() || dir == null ? file : new File(dir, path);
+  }
+
+  /**
+   * Evaluates all entries on a pool of worker threads. A loaded circuit is never simulated by two
+   * threads at once: some components change their attributes while being simulated, and the SoC
+   * simulation manager of a circuit keeps a single state. So the runs of a circuit file are split
+   * over at most <code>threads</code> copies of it, each simulating its share of the runs in turn
+   * on one worker. The copies are loaded on the calling thread, as loading is not thread-safe, while
+   * the copies loaded before are already being evaluated.
+   *
+   * @return the results, in the order of the entries.
+   */
+  public static List<Result> runAll(List<Entry> entries, Map<File, File> substitutions,
+      int threads) {
+    final var runsPerFile = new LinkedHashMap<File, List<Integer>>();
+    for (var i = 0; i < entries.size(); i++) {
+      runsPerFile.computeIfAbsent(entries.get(i).circFile(), k -> new ArrayList<>()).add(i);
+    }
+    final var results = new Result[entries.size()];
+    final var pool = Executors.newFixedThreadPool(Math.max(1, threads),
+        r -> new UniquelyNamedThread(r, "TestBatch"));
+    try {
+      final var futures = new ArrayList<Future<?>>();
+      final var shares = new ArrayList<List<Integer>>();
+      for (final var runs : runsPerFile.entrySet()) {
+        final var indices = runs.getValue();
+        final var copies = Math.min(Math.max(1, threads), indices.size());
+        for (var copy = 0; copy < copies; copy++) {
+          final var share = new ArrayList<Integer>();
+          for (var i = copy; i < indices.size(); i += copies) share.add(indices.get(i));
+          final Project project;
+          try {
+            project = new Project(new Loader(null).openLogisimFile(runs.getKey(), substitutions));
+          } catch (LoadFailedException e) {
+            // the runs of this copy and the copies not loaded yet
+            for (var i = 0; i < indices.size(); i++) {
+              if (i % copies < copy) continue;
+              final var run = indices.get(i);
+              results[run] = new Result(entries.get(run), 0, 0, e.getMessage(), List.of(), 0);
+            }
+            break;
+          }
+          shares.add(share);
+          futures.add(pool.submit(() -> {
+            for (final var i : share) results[i] = evaluate(project, entries.get(i));
+          }));
+        }
+      }
+      for (var i = 0; i < futures.size(); i++) {
+        try {
+          futures.get(i).get();
+        } catch (ExecutionException e) {
+          for (final var run : shares.get(i)) {
+            if (results[run] == null) {
+              results[run] = new Result(entries.get(run), 0, 0, e.getCause().toString(),
+                  List.of(), 0);
+            }
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+      final var ret = new ArrayList<Result>(entries.size());
+      for (final var result : results) {
+        if (result == null) break;
+        ret.add(result);
+      }
+      return ret;
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /** Runs one test vector; must be called on the thread that will own the propagator. */
+  private static Result evaluate(Project project, Entry entry) {
+    final var start = System.nanoTime();
+    final var file = project.getLogisimFile();
+    final var circuit = entry.circuitName() == null
+        ? file.getMainCircuit()
+        : file.getCircuit(entry.circuitName());
+    if (circuit == null) {
+      return new Result(entry, 0, 0, S.get("testBatchNoCircuit", entry.circuitName()), List.of(),
+          System.nanoTime() - start);
+    }
+    try {
+      final var vector = new TestVector(entry.vectorFile());
+      final var state = CircuitState.createRootState(project, circuit, Thread.currentThread());
+      final var evaluator = new TestVectorEvaluator(state, vector);
+      final var failures = new ArrayList<String>();
+      final var passFail = evaluator.evaluate((row, report) -> {
+        if (report.isEmpty() || failures.size() >= MAX_REPORTED_FAILURES) return;
+        final var line = new StringBuilder(S.get("testFailed", Integer.toString(row + 1)));
+        for (final var e : report) line.append(' ').append(e);
+        failures.add(line.toString());
+      });
+      return new Result(entry, passFail[0], passFail[1], null, failures,
+          System.nanoTime() - start);
+    } catch (Exception e) {
+      return new Result(entry, 0, 0, e.getMessage() != null ? e.getMessage() : e.toString(),
+          List.of(), System.nanoTime() - start);
+    }
+  }
+
+  /** Writes one CSV line per run. */
+  public static void writeCsv(List<Result> results, Writer out) throws IOException {
+    out.write("circuit_file,circuit,vector_file,passed,failed,error,millis\n");
+    for (final var result : results) {
+      final var entry = result.entry();
+      out.write(csvField(entry.circFile().getPath()) + ","
+          + csvField(entry.circuitName() == null ? "" : entry.circuitName()) + ","
+          + csvField(entry.vectorFile().getPath()) + ","
+          + result.passed() + "," + result.failed() + ","
+          + csvField(result.error() == null ? "" : result.error()) + ","
+          + (result.nanos() / 1_000_000) + "\n");
+    }
+  }
+
+  static String csvField(String value) {
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) return value;
+    return "\"" + value.replace("\"", "\"\"") + "\"";
+  }
+
+  /**
+   * Writes the results in the JUnit XML format understood by CI servers: one test suite per
+   * circuit file and one test case per run.
+   */
+  public static void writeJUnitXml(List<Result> results, long totalNanos, OutputStream out)
+      throws ParserConfigurationException, TransformerException {
+    final var doc = XmlUtil.getHardenedBuilderFactory().newDocumentBuilder().newDocument();
+    final var root = doc.createElement("testsuites");
+    root.setAttribute("name", "logisim");
+    doc.appendChild(root);
+
+    final var suites = new LinkedHashMap<File, List<Result>>();
+    for (final var result : results) {
+      suites.computeIfAbsent(result.entry().circFile(), f -> new ArrayList<>()).add(result);
+    }
+    var failures = 0;
+    var errors = 0;
+    for (final var suite : suites.entrySet()) {
+      final var suiteElt = doc.createElement("testsuite");
+      var suiteFailures = 0;
+      var suiteErrors = 0;
+      var suiteNanos = 0L;
+      for (final var result : suite.getValue()) {
+        final var entry = result.entry();
+        final var caseElt = doc.createElement("testcase");
+        caseElt.setAttribute("classname", entry.circuitName() == null ? "main" : entry.circuitName());
+        caseElt.setAttribute("name", entry.vectorFile().getName());
+        caseElt.setAttribute("time", seconds(result.nanos()));
+        if (result.error() != null) {
+          final var elt = doc.createElement("error");
+          elt.setAttribute("message", result.error());
+          caseElt.appendChild(elt);
+          suiteErrors++;
+        } else if (result.failed() > 0) {
+          final var elt = doc.createElement("failure");
+          elt.setAttribute("message", S.get("testResults", Integer.toString(result.passed()),
+              Integer.toString(result.failed())));
+          elt.setTextContent(String.join("\n", result.failures()));
+          caseElt.appendChild(elt);
+          suiteFailures++;
+        }
+        suiteNanos += result.nanos();
+        suiteElt.appendChild(caseElt);
+      }
+      suiteElt.setAttribute("name", suite.getKey().getPath());
+      suiteElt.setAttribute("tests", Integer.toString(suite.getValue().size()));
+      suiteElt.setAttribute("failures", Integer.toString(suiteFailures));
+      suiteElt.setAttribute("errors", Integer.toString(suiteErrors));
+      suiteElt.setAttribute("time", seconds(suiteNanos));
+      root.appendChild(suiteElt);
+      failures += suiteFailures;
+      errors += suiteErrors;
+    }
+    root.setAttribute("tests", Integer.toString(results.size()));
+    root.setAttribute("failures", Integer.toString(failures));
+    root.setAttribute("errors", Integer.toString(errors));
+    root.setAttribute("time", seconds(totalNanos));
+
+    final var tf = TransformerFactory.newInstance().newTransformer();
+    tf.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+    tf.setOutputProperty(OutputKeys.INDENT, "yes");
+    tf.transform(new DOMSource(doc), new StreamResult(out));
+  }
+
+  private static String seconds(long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / 1e9);
+  }
+}
@@ -310,6 +310,17 @@ public final class InstanceComponent implements Component, AttributeListener, To
     }
   }
 
+  void fireBoundsChanged() {
+    final var listeners = this.listeners;
+    if (listeners != null) {
+      ComponentEvent e = null;
+      for (final var listener : listeners) {
+        if (e == null) e = new ComponentEvent(this);
+        listener.boundsChanged(e);
+      }
+    }
+  }
+
   public void fireInvalidated() {
     final var listeners = this.listeners;
     if (listeners != null) {
@@ -427,7 +438,9 @@ public final class InstanceComponent implements Component, AttributeListener, To
 
   void recomputeBounds() {
     Location p = loc;
+    final var old = bounds;
     bounds = factory.getOffsetBounds(attrs).translate(p.getX(), p.getY());
+    if (!bounds.equals(old)) fireBoundsChanged();
   }
 
   @Override
@@ -482,6 +495,7 @@ public final class InstanceComponent implements Component, AttributeListener, To
     } else {
       field.update(labelAttr, fontAttr, x, y, halign, valign, multiline);
     }
+    fireBoundsChanged();
   }
 
   @Override
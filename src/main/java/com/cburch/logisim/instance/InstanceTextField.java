@@ -60,12 +60,15 @@ public class InstanceTextField implements AttributeListener, TextFieldListener,
     final var attr = e.getAttribute();
     if (attr == labelAttr) {
       updateField(comp.getAttributeSet());
+      comp.fireBoundsChanged();
     } else if (attr == fontAttr) {
       if (field != null) field.setFont((Font) e.getValue());
+      comp.fireBoundsChanged();
     } else if (attr == StdAttr.LABEL_COLOR) {
       fontColor = (Color) e.getValue();
     } else if (attr == StdAttr.LABEL_VISIBILITY) {
       isLabelVisible = (Boolean) e.getValue();
+      comp.fireBoundsChanged();
     }
   }
 
@@ -990,13 +990,17 @@ public class AppPreferences {
   public static final String SIM_QUEUE_LINKED = "linked";
   public static final String SIM_QUEUE_LIST_OF_QUEUES = "listOfQueues";
   public static final String SIM_QUEUE_TREE_OF_QUEUES = "treeOfQueues";
+  public static final String SIM_QUEUE_TIME_WHEEL = "timeWheel";
   public static final PrefMonitor<String> SIMULATION_QUEUE =
       create(
           new PrefMonitorStringOpts("simQueue",
               new String[] {SIM_QUEUE_DEFAULT, SIM_QUEUE_PRIORITY, SIM_QUEUE_SPLAY,
-                            SIM_QUEUE_LINKED, SIM_QUEUE_LIST_OF_QUEUES, SIM_QUEUE_TREE_OF_QUEUES},
+                            SIM_QUEUE_LINKED, SIM_QUEUE_LIST_OF_QUEUES, SIM_QUEUE_TREE_OF_QUEUES,
+                            SIM_QUEUE_TIME_WHEEL},
               SIM_QUEUE_DEFAULT)
       );
+  public static final PrefMonitor<Boolean> SIMULATION_PARALLEL =
+      create(new PrefMonitorBoolean("simParallel", false));
   public static final PrefMonitor<Boolean> AntiAliassing =
       create(new PrefMonitorBoolean("AntiAliassing", true));
 
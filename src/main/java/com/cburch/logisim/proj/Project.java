@@ -21,6 +21,7 @@ import com.cburch.logisim.file.LogisimFile;
 import com.cburch.logisim.file.Options;
 import com.cburch.logisim.gui.log.LogFrame;
 import com.cburch.logisim.gui.main.Frame;
+import com.cburch.logisim.gui.main.ProfileFrame;
 import com.cburch.logisim.gui.main.Selection;
 import com.cburch.logisim.gui.main.SelectionActions;
 import com.cburch.logisim.gui.opts.OptionsFrame;
@@ -144,6 +145,7 @@ public class Project {
   private OptionsFrame optionsFrame = null;
   private LogFrame logFrame = null;
   private TestFrame testFrame = null;
+  private ProfileFrame profileFrame = null;
   private Tool tool = null;
   private final LinkedList<ActionData> undoLog = new LinkedList<>();
   private int undoMods = 0;
@@ -394,6 +396,11 @@ public class Project {
     return optionsFrame;
   }
 
+  public ProfileFrame getProfileFrame() {
+    if (profileFrame == null) profileFrame = new ProfileFrame(this);
+    return profileFrame;
+  }
+
   public Selection getSelection() {
     if (frame == null) return null;
     final var canvas = frame.getCanvas();
@@ -735,7 +735,7 @@ public final class ProjectActions {
     } while (!validFilename);
 
     var selectedFile = chooser.getSelectedFile();
-    if (!selectedFile.getName().endsWith(Loader.LOGISIM_EXTENSION)) {
+    if (!Loader.isProjectFileName(selectedFile.getName())) {
       var old = selectedFile.getName();
       int ext0 = old.lastIndexOf('.');
       if (ext0 < 0 || !Pattern.matches("\\.\\p{L}{2,}\\d?", old.substring(ext0))) {
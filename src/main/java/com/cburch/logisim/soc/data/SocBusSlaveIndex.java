@@ -0,0 +1,99 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.soc.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * The address ranges of the slaves on a bus, sorted, so that the slave answering an address is
+ * found by a binary search instead of asking every slave.
+ *
+ * <p>The ranges are cut where slaves overlap, at build time. Addresses where more than one slave
+ * answers are kept as ranges without a slave, as are addresses where none answers. An index is
+ * immutable; the memory map builds a new one whenever a slave is added, removed or moved.
+ */
+public final class SocBusSlaveIndex {
+  private static final long ADDRESS_MASK = 0xFFFFFFFFL;
+
+  private final long[] starts;
+  private final long[] ends; // inclusive
+  private final SocBusSlaveInterface[] owners; // null where slaves overlap
+  private final boolean overlaps;
+
+  public SocBusSlaveIndex(List<SocBusSlaveInterface> slaves) {
+    final var lows = new long[slaves.size()];
+    final var highs = new long[slaves.size()];
+    final var bounds = new TreeSet<Long>();
+    for (var i = 0; i < slaves.size(); i++) {
+      final var slave = slaves.get(i);
+      lows[i] = slave.getStartAddress() & ADDRESS_MASK;
+      highs[i] = lows[i] + (slave.getMemorySize() & ADDRESS_MASK) - 1;
+      if (highs[i] < lows[i]) continue;
+      bounds.add(lows[i]);
+      bounds.add(highs[i] + 1);
+    }
+    final var segStarts = new ArrayList<Long>();
+    final var segEnds = new ArrayList<Long>();
+    final var segOwners = new ArrayList<SocBusSlaveInterface>();
+    var overlapping = false;
+    Long from = null;
+    for (final var to : bounds) {
+      if (from != null) {
+        // the slaves answering the addresses from..to-1, which all answer the same ones
+        SocBusSlaveInterface owner = null;
+        var count = 0;
+        for (var i = 0; i < lows.length; i++) {
+          if (lows[i] <= from && highs[i] >= from) {
+            owner = slaves.get(i);
+            count++;
+          }
+        }
+        if (count > 1) {
+          owner = null;
+          overlapping = true;
+        }
+        final var last = segOwners.size() - 1;
+        if (count == 0) {
+          // nothing answers here
+        } else if (last >= 0 && segOwners.get(last) == owner && segEnds.get(last) == from - 1) {
+          segEnds.set(last, to - 1);
+        } else {
+          segStarts.add(from);
+          segEnds.add(to - 1);
+          segOwners.add(owner);
+        }
+      }
+      from = to;
+    }
+    starts = segStarts.stream().mapToLong(Long::longValue).toArray();
+    ends = segEnds.stream().mapToLong(Long::longValue).toArray();
+    owners = segOwners.toArray(new SocBusSlaveInterface[0]);
+    overlaps = overlapping;
+  }
+
+  /**
+   * @return the only slave whose address range holds the given address, or null when no slave or
+   *     more than one slave does.
+   */
+  public SocBusSlaveInterface find(int address) {
+    final var addr = address & ADDRESS_MASK;
+    var index = Arrays.binarySearch(starts, addr);
+    if (index < 0) index = -index - 2; // the range starting below addr
+    return index >= 0 && addr <= ends[index] ? owners[index] : null;
+  }
+
+  /** @return whether the address ranges of some slaves overlap. */
+  public boolean hasOverlaps() {
+    return overlaps;
+  }
+}
@@ -54,6 +54,7 @@ public class SocBusStateInfo extends JDialog
   public static final int TRACE_WIDTH = 630;
   public static final int TRACE_HEIGHT = 30;
   public static final int BLOCK_WIDTH = 238;
+  public static final int WRITE_LOG_SIZE = 256;
 
   public interface SocBusStateListener {
     void fireCanged(SocBusState item);
@@ -204,6 +205,9 @@ public class SocBusStateInfo extends JDialog
   private final JLabel title;
   private final JScrollPane scroll;
   private final SocMemMapModel memMap;
+  // addresses of the last successful writes, see getWriteAddress
+  private final int[] writeLog = new int[WRITE_LOG_SIZE];
+  private volatile long nrOfWrites;
 
   public SocBusStateInfo(SocSimulationManager man, Component comp) {
     super();
@@ -291,15 +295,25 @@ public class SocBusStateInfo extends JDialog
         && !trans.isAtomicTransaction()) {
       trans.setError(SocBusTransaction.NONE_ATOMIC_READ_WRITE_ERROR);
     } else {
-      for (int i = 0; i < slaves.size(); i++) {
-        if (slaves.get(i).canHandleTransaction(trans)) {
-          nrOfReponders++;
-          reponder = i;
+      final var slave = memMap.getSlaveIndex().find(trans.getAddress());
+      if (slave != null && slave.canHandleTransaction(trans)) {
+        slave.handleTransaction(trans);
+      } else {
+        // no or several slaves answer, ask them all to tell which
+        for (int i = 0; i < slaves.size(); i++) {
+          if (slaves.get(i).canHandleTransaction(trans)) {
+            nrOfReponders++;
+            reponder = i;
+          }
         }
+        if (nrOfReponders == 0) trans.setError(SocBusTransaction.NO_RESPONS_ERROR);
+        else if (nrOfReponders != 1) trans.setError(SocBusTransaction.MULTIPLE_SLAVES_ERROR);
+        else slaves.get(reponder).handleTransaction(trans);
       }
-      if (nrOfReponders == 0) trans.setError(SocBusTransaction.NO_RESPONS_ERROR);
-      else if (nrOfReponders != 1) trans.setError(SocBusTransaction.MULTIPLE_SLAVES_ERROR);
-      else slaves.get(reponder).handleTransaction(trans);
+    }
+    if (trans.isWriteTransaction() && !trans.hasError()) {
+      writeLog[(int) nrOfWrites & (WRITE_LOG_SIZE - 1)] = trans.getAddress();
+      nrOfWrites++;
     }
     if (!trans.hasError() && !trans.isHidden()) {
       for (SocBusSnifferInterface sniffer : sniffers) sniffer.sniffTransaction(trans);
@@ -314,6 +328,25 @@ public class SocBusStateInfo extends JDialog
     }
   }
 
+  /** @return the number of successful write transactions so far, hidden ones included. */
+  public long getNrOfWrites() {
+    return nrOfWrites;
+  }
+
+  /**
+   * @return the address written by write transaction number n. Only the last {@link
+   *     #WRITE_LOG_SIZE} writes are remembered, so that caches of the bus contents can catch up
+   *     with the writes since they last looked.
+   */
+  public int getWriteAddress(long n) {
+    return writeLog[(int) n & (WRITE_LOG_SIZE - 1)];
+  }
+
+  public boolean isTraceVisible() {
+    return myComp != null
+        && myComp.getAttributeSet().getValue(SocBusAttributes.SOC_TRACE_VISIBLE);
+  }
+
   public void paint(
       int x, int y, Graphics2D g2, Instance inst, boolean visible, InstanceData info) {
     Graphics2D g = (Graphics2D) g2.create();
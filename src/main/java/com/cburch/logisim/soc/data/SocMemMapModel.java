@@ -26,12 +26,15 @@ import javax.swing.JLabel;
 import javax.swing.JTable;
 import javax.swing.table.AbstractTableModel;
 import javax.swing.table.TableCellRenderer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class SocMemMapModel extends AbstractTableModel
     implements SocBusSlaveListener, LocaleListener, BaseMouseListenerContract {
 
   private static final long serialVersionUID = 1L;
   private static final long longMask = Long.parseUnsignedLong("FFFFFFFF", 16);
+  static final Logger logger = LoggerFactory.getLogger(SocMemMapModel.class);
 
   public static class MemoryMapHeaderRenderer extends JLabel implements TableCellRenderer {
     private static final long serialVersionUID = 1L;
@@ -203,6 +206,7 @@ public class SocMemMapModel extends AbstractTableModel
   private final SlaveInfoRenderer slaveRenderer;
   private final MemoryMapHeaderRenderer headRenderer;
   private InstanceComponent marked;
+  private volatile SocBusSlaveIndex slaveIndex;
 
   public SocMemMapModel() {
     super();
@@ -235,6 +239,11 @@ public class SocMemMapModel extends AbstractTableModel
     return slaves;
   }
 
+  /** @return the address ranges of the slaves, as of the last change of the memory map. */
+  public SocBusSlaveIndex getSlaveIndex() {
+    return slaveIndex;
+  }
+
   public SlaveInfoRenderer getCellRender() {
     return slaveRenderer;
   }
@@ -285,6 +294,10 @@ public class SocMemMapModel extends AbstractTableModel
   }
 
   private void rebuild() {
+    final var hadOverlaps = slaveIndex != null && slaveIndex.hasOverlaps();
+    slaveIndex = new SocBusSlaveIndex(slaves);
+    if (slaveIndex.hasOverlaps() && !hadOverlaps)
+      logger.warn("The address ranges of some slaves on a SoC bus overlap");
     slaveMap.clear();
     if (slaves.isEmpty())
       slaveMap.add(new SlaveInfo(0, -1));
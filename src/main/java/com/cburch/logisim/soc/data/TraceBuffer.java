@@ -0,0 +1,66 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.soc.data;
+
+import java.util.LinkedList;
+
+/**
+ * The last executed instructions of a processor, kept in preallocated arrays so that recording one
+ * does not allocate. {@link TraceInfo} objects are only created when the trace is drawn.
+ */
+public class TraceBuffer {
+  private final int[] pcs;
+  private final int[] instructions;
+  private final String[] asms;
+  private final boolean[] errors;
+  private int next; // where the next instruction goes
+  private int size;
+
+  public TraceBuffer(int capacity) {
+    pcs = new int[capacity];
+    instructions = new int[capacity];
+    asms = new String[capacity];
+    errors = new boolean[capacity];
+  }
+
+  public synchronized void add(int pc, int instruction, String asm, boolean error) {
+    pcs[next] = pc;
+    instructions[next] = instruction;
+    asms[next] = asm;
+    errors[next] = error;
+    if (++next == pcs.length) next = 0;
+    if (size < pcs.length) size++;
+  }
+
+  /** Marks the last added instruction as having failed. */
+  public synchronized void setLastError() {
+    if (size > 0) errors[next == 0 ? pcs.length - 1 : next - 1] = true;
+  }
+
+  public synchronized void clear() {
+    next = 0;
+    size = 0;
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  /** @return the recorded instructions, the most recent first. */
+  public synchronized LinkedList<TraceInfo> getTraces() {
+    final var traces = new LinkedList<TraceInfo>();
+    var index = next;
+    for (var i = 0; i < size; i++) {
+      index = (index == 0 ? pcs.length : index) - 1;
+      traces.add(new TraceInfo(pcs[index], instructions[index], asms[index], errors[index]));
+    }
+    return traces;
+  }
+}
@@ -34,6 +34,18 @@ public class TraceInfo {
     error = true;
   }
 
+  public boolean hasError() {
+    return error;
+  }
+
+  public int getProgramCounter() {
+    return pc;
+  }
+
+  public int getInstruction() {
+    return instruction;
+  }
+
   public void paint(Graphics2D g, int yOffset, boolean scale) {
     int blockWidth = CpuDrawSupport.getBlockWidth(g, scale);
     if (scale) blockWidth = AppPreferences.getDownScaled(blockWidth);
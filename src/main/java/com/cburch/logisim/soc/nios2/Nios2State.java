@@ -30,13 +30,16 @@ import com.cburch.logisim.soc.data.SocUpMenuProvider;
 import com.cburch.logisim.soc.data.SocUpSimulationState;
 import com.cburch.logisim.soc.data.SocUpSimulationStateListener;
 import com.cburch.logisim.soc.data.SocUpStateInterface;
+import com.cburch.logisim.soc.data.TraceBuffer;
 import com.cburch.logisim.soc.data.TraceInfo;
 import com.cburch.logisim.soc.file.ElfHeader;
 import com.cburch.logisim.soc.file.ElfProgramHeader;
 import com.cburch.logisim.soc.file.ElfSectionHeader;
 import com.cburch.logisim.soc.gui.BreakpointPanel;
 import com.cburch.logisim.soc.gui.CpuDrawSupport;
+import com.cburch.logisim.soc.util.AssemblerExecutionInterface;
 import com.cburch.logisim.soc.util.AssemblerInterface;
+import com.cburch.logisim.soc.util.InstructionCache;
 import com.cburch.logisim.util.GraphicsUtil;
 import com.cburch.logisim.util.StringUtil;
 import java.awt.Color;
@@ -55,6 +58,7 @@ public class Nios2State implements SocUpSimulationStateListener, SocProcessorInt
   public class ProcessorState extends JPanel implements InstanceData, Cloneable, ComponentDataGuiProvider, BaseWindowListenerContract, SocUpStateInterface {
     private static final int STATUS_RSIE = 1 << 23;
     private static final int STATUS_PIE = 1;
+    private static final int INSTRUCTION_CACHE_SIZE = 4096;
     private static final long serialVersionUID = 1L;
     private final int[] registers;
     private final Boolean[] registers_valid;
@@ -65,8 +69,9 @@ public class Nios2State implements SocUpSimulationStateListener, SocProcessorInt
     private int ienable;
     private int ipending;
     private int lastRegisterWritten = -1;
-    private final LinkedList<TraceInfo> instrTrace;
-    private final Object instrTraceLock = new Object();
+    private final TraceBuffer instrTrace;
+    private final InstructionCache instrCache;
+    private AssemblerExecutionInterface lastExe;
     private Value lastClock;
     private final SocUpSimulationState simState;
     private final Instance myInstance;
@@ -78,7 +83,8 @@ public class Nios2State implements SocUpSimulationStateListener, SocProcessorInt
     public ProcessorState(Instance inst) {
       registers = new int[32];
       registers_valid = new Boolean[32];
-      instrTrace = new LinkedList<>();
+      instrTrace = new TraceBuffer(CpuDrawSupport.NR_OF_TRACES);
+      instrCache = new InstructionCache(INSTRUCTION_CACHE_SIZE);
       lastClock = Value.createUnknown(BitWidth.ONE);
       simState = new SocUpSimulationState();
       myInstance = inst;
@@ -122,9 +128,9 @@ public class Nios2State implements SocUpSimulationStateListener, SocProcessorInt
       bstatus = 0;
       ienable = 0;
       ipending = 0;
-      synchronized (instrTraceLock) {
-        instrTrace.clear();
-      }
+      instrTrace.clear();
+      instrCache.clear();
+      lastExe = null;
       if (visible) repaint();
       simState.reset();
     }
@@ -282,7 +288,7 @@ public class Nios2State implements SocUpSimulationStateListener, SocProcessorInt
       /* check the simulation state */
       if (!simState.canExecute()) return;
       /* here we handle the custom instructions */
-      if (ASSEMBLER.getExeUnit() != null && ASSEMBLER.getExeUnit() instanceof Nios2CustomInstructions cust) {
+      if (lastExe instanceof Nios2CustomInstructions cust) {
         if (cust.isValid() && cust.waitingOnReady(this, cState)) return;
       }
       Map<Integer, Integer> breakPoints = bPanel.getBreakPoints();
@@ -306,46 +312,53 @@ public class Nios2State implements SocUpSimulationStateListener, SocProcessorInt
           repaint();
         }
       }
-      /* fetch an instruction */
-      SocBusTransaction trans =
-          new SocBusTransaction(SocBusTransaction.READ_TRANSACTION, pc, 0, SocBusTransaction.WORD_ACCESS, attachedBus.getComponent());
-      attachedBus
-          .getSocSimulationManager()
-          .initializeTransaction(trans, attachedBus.getBusId(), cState);
-      if (trans.hasError()) {
-        OptionPane.showMessageDialog(
-            null,
-            trans.getErrorMessage(),
-            SocSupport.getMasterName(cState, Nios2State.this.getName()) + S.get("RV32imFetchTransaction"),
-            OptionPane.ERROR_MESSAGE);
-        simState.errorInExecution();
-        return;
+      /* fetch an instruction, it is only fetched again when it changed or the bus shows it */
+      final var bus =
+          attachedBus.getSocSimulationManager().getSocBusState(attachedBus.getBusId());
+      instrCache.sync(bus);
+      var cached = instrCache.get(pc);
+      if (cached == null || bus == null || bus.isTraceVisible()) {
+        SocBusTransaction trans =
+            new SocBusTransaction(SocBusTransaction.READ_TRANSACTION, pc, 0, SocBusTransaction.WORD_ACCESS, attachedBus.getComponent());
+        attachedBus
+            .getSocSimulationManager()
+            .initializeTransaction(trans, attachedBus.getBusId(), cState);
+        if (trans.hasError()) {
+          OptionPane.showMessageDialog(
+              null,
+              trans.getErrorMessage(),
+              SocSupport.getMasterName(cState, Nios2State.this.getName()) + S.get("RV32imFetchTransaction"),
+              OptionPane.ERROR_MESSAGE);
+          simState.errorInExecution();
+          return;
+        }
+        /* decode instruction */
+        final var instruction = trans.getReadData();
+        if (cached == null || cached.getInstruction() != instruction) {
+          ASSEMBLER.decode(instruction);
+          final var exe = ASSEMBLER.getExeUnit();
+          if (exe == null) {
+            lastRegisterWritten = -1;
+            lastExe = null;
+            OptionPane.showMessageDialog(
+                null,
+                S.get("RV32imFetchInvalidInstruction"),
+                SocSupport.getMasterName(cState, Nios2State.this.getName()) + S.get("RV32imFetchTransaction"),
+                OptionPane.ERROR_MESSAGE);
+            simState.errorInExecution();
+            instrTrace.add(pc, instruction, S.get("RV32imFetchInvInstrAsm"), true);
+            pc = pc + 4;
+            if (visible) repaint();
+            return;
+          }
+          cached = instrCache.put(pc, instruction, exe);
+        }
       }
-      /* decode instruction */
-      final var instruction = trans.getReadData();
-      ASSEMBLER.decode(instruction);
       /* execute instruction */
-      final var exe = ASSEMBLER.getExeUnit();
+      final var exe = cached.decode();
+      lastExe = exe;
       lastRegisterWritten = -1;
-      synchronized (instrTraceLock) {
-        while (instrTrace.size() >= CpuDrawSupport.NR_OF_TRACES)
-          instrTrace.removeLast();
-      }
-      if (exe == null) {
-        OptionPane.showMessageDialog(
-            null,
-            S.get("RV32imFetchInvalidInstruction"),
-            SocSupport.getMasterName(cState, Nios2State.this.getName()) + S.get("RV32imFetchTransaction"),
-            OptionPane.ERROR_MESSAGE);
-        simState.errorInExecution();
-        synchronized (instrTraceLock) {
-          instrTrace.addFirst(new TraceInfo(pc, instruction, S.get("RV32imFetchInvInstrAsm"), true));
-        }
-        pc = pc + 4;
-        if (visible) repaint();
-        return;
-      }
-      final var trace = new TraceInfo(pc, instruction, exe.getAsmInstruction(), false);
+      instrTrace.add(pc, cached.getInstruction(), cached.getAsmInstruction(), false);
       if (!exe.execute(this, cState)) {
         final var s = new StringBuilder();
         s.append(S.get("RV32imFetchExecutionError"));
@@ -357,16 +370,10 @@ public class Nios2State implements SocUpSimulationStateListener, SocProcessorInt
             SocSupport.getMasterName(cState, Nios2State.this.getName()) + S.get("RV32imFetchTransaction"),
             OptionPane.ERROR_MESSAGE);
         simState.errorInExecution();
-        trace.setError();
-        synchronized (instrTraceLock) {
-          instrTrace.addFirst(trace);
-        }
+        instrTrace.setLastError();
         if (visible) repaint();
         return;
       }
-      synchronized (instrTraceLock) {
-        instrTrace.addFirst(trace);
-      }
       /* all done increment pc */
       if (!exe.performedJump()) pc = pc + 4;
       if (visible) repaint();
@@ -449,11 +456,7 @@ public class Nios2State implements SocUpSimulationStateListener, SocProcessorInt
 
     @Override
     public LinkedList<TraceInfo> getTraces() {
-      synchronized (instrTraceLock) {
-        @SuppressWarnings("unchecked")
-        LinkedList<TraceInfo> ret = (LinkedList<TraceInfo>) instrTrace.clone();
-        return ret;
-      }
+      return instrTrace.getTraces();
     }
 
     @Override
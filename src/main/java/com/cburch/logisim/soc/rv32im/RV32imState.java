@@ -31,6 +31,7 @@ import com.cburch.logisim.soc.data.SocUpMenuProvider;
 import com.cburch.logisim.soc.data.SocUpSimulationState;
 import com.cburch.logisim.soc.data.SocUpSimulationStateListener;
 import com.cburch.logisim.soc.data.SocUpStateInterface;
+import com.cburch.logisim.soc.data.TraceBuffer;
 import com.cburch.logisim.soc.data.TraceInfo;
 import com.cburch.logisim.soc.file.ElfHeader;
 import com.cburch.logisim.soc.file.ElfProgramHeader;
@@ -38,6 +39,7 @@ import com.cburch.logisim.soc.file.ElfSectionHeader;
 import com.cburch.logisim.soc.gui.BreakpointPanel;
 import com.cburch.logisim.soc.gui.CpuDrawSupport;
 import com.cburch.logisim.soc.util.AssemblerInterface;
+import com.cburch.logisim.soc.util.InstructionCache;
 import com.cburch.logisim.util.GraphicsUtil;
 import com.cburch.logisim.util.StringUtil;
 import java.awt.Color;
@@ -90,14 +92,16 @@ public class RV32imState implements SocUpSimulationStateListener, SocProcessorIn
     private static final int MCAUSE_INTERRUPT = 1 << 31;
     private static final int MCAUSE_MACHINE_EXTERNAL_INTERRUPT = 11;
 
+    private static final int INSTRUCTION_CACHE_SIZE = 4096;
+
     private static final long serialVersionUID = 1L;
     private final int[] registers;
     private final int[] csrs;
     private final Boolean[] registers_valid;
     private int pc;
     private int lastRegisterWritten = -1;
-    private final LinkedList<TraceInfo> instrTrace;
-    private final Object instrTraceLock = new Object();
+    private final TraceBuffer instrTrace;
+    private final InstructionCache instrCache;
     private Value lastClock;
     private final SocUpSimulationState simState;
     private final Instance myInstance;
@@ -110,7 +114,8 @@ public class RV32imState implements SocUpSimulationStateListener, SocProcessorIn
       csrs = new int[implementedSprs.length];
       registers = new int[32];
       registers_valid = new Boolean[32];
-      instrTrace = new LinkedList<>();
+      instrTrace = new TraceBuffer(CpuDrawSupport.NR_OF_TRACES);
+      instrCache = new InstructionCache(INSTRUCTION_CACHE_SIZE);
       lastClock = Value.createUnknown(BitWidth.ONE);
       simState = new SocUpSimulationState();
       myInstance = inst;
@@ -157,9 +162,8 @@ public class RV32imState implements SocUpSimulationStateListener, SocProcessorIn
       Arrays.fill(csrs, 0);
       // mtvec remains 0 until firmware initializes it
       lastRegisterWritten = -1;
-      synchronized (instrTraceLock) {
-        instrTrace.clear();
-      }
+      instrTrace.clear();
+      instrCache.clear();
       if (visible) repaint();
       simState.reset();
     }
@@ -317,53 +321,58 @@ public class RV32imState implements SocUpSimulationStateListener, SocProcessorIn
       }
       /* Check interrupts */
       if (isMachineExternalInterruptEnabled()) takeMachineExternalInterrupt();
-      /* fetch an instruction */
-      final var trans =
-          new SocBusTransaction(
-              SocBusTransaction.READ_TRANSACTION,
-              pc,
-              0,
-              SocBusTransaction.WORD_ACCESS,
-              attachedBus.getComponent());
-      attachedBus
-          .getSocSimulationManager()
-          .initializeTransaction(trans, attachedBus.getBusId(), cState);
-      if (trans.hasError()) {
-        OptionPane.showMessageDialog(
-            null,
-            trans.getErrorMessage(),
-            SocSupport.getMasterName(cState, RV32imState.this.getName())
-                + S.get("RV32imFetchTransaction"),
-            OptionPane.ERROR_MESSAGE);
-        simState.errorInExecution();
-        return;
+      /* fetch an instruction, it is only fetched again when it changed or the bus shows it */
+      final var bus =
+          attachedBus.getSocSimulationManager().getSocBusState(attachedBus.getBusId());
+      instrCache.sync(bus);
+      var cached = instrCache.get(pc);
+      if (cached == null || bus == null || bus.isTraceVisible()) {
+        final var trans =
+            new SocBusTransaction(
+                SocBusTransaction.READ_TRANSACTION,
+                pc,
+                0,
+                SocBusTransaction.WORD_ACCESS,
+                attachedBus.getComponent());
+        attachedBus
+            .getSocSimulationManager()
+            .initializeTransaction(trans, attachedBus.getBusId(), cState);
+        if (trans.hasError()) {
+          OptionPane.showMessageDialog(
+              null,
+              trans.getErrorMessage(),
+              SocSupport.getMasterName(cState, RV32imState.this.getName())
+                  + S.get("RV32imFetchTransaction"),
+              OptionPane.ERROR_MESSAGE);
+          simState.errorInExecution();
+          return;
+        }
+        /* decode instruction */
+        final var instruction = trans.getReadData();
+        if (cached == null || cached.getInstruction() != instruction) {
+          ASSEMBLER.decode(instruction);
+          final var exe = ASSEMBLER.getExeUnit();
+          if (exe == null) {
+            lastRegisterWritten = -1;
+            OptionPane.showMessageDialog(
+                null,
+                S.get("RV32imFetchInvalidInstruction"),
+                SocSupport.getMasterName(cState, RV32imState.this.getName())
+                    + S.get("RV32imFetchTransaction"),
+                OptionPane.ERROR_MESSAGE);
+            simState.errorInExecution();
+            instrTrace.add(pc, instruction, S.get("RV32imFetchInvInstrAsm"), true);
+            pc = pc + 4;
+            if (visible) repaint();
+            return;
+          }
+          cached = instrCache.put(pc, instruction, exe);
+        }
       }
-      /* decode instruction */
-      int instruction = trans.getReadData();
-      ASSEMBLER.decode(instruction);
       /* execute instruction */
-      final var exe = ASSEMBLER.getExeUnit();
+      final var exe = cached.decode();
       lastRegisterWritten = -1;
-      synchronized (instrTraceLock) {
-        while (instrTrace.size() >= CpuDrawSupport.NR_OF_TRACES) 
-          instrTrace.removeLast();
-      }
-      if (exe == null) {
-        OptionPane.showMessageDialog(
-            null,
-            S.get("RV32imFetchInvalidInstruction"),
-            SocSupport.getMasterName(cState, RV32imState.this.getName())
-                + S.get("RV32imFetchTransaction"),
-            OptionPane.ERROR_MESSAGE);
-        simState.errorInExecution();
-        synchronized (instrTraceLock) {
-          instrTrace.addFirst(new TraceInfo(pc, instruction, S.get("RV32imFetchInvInstrAsm"), true));
-        }
-        pc = pc + 4;
-        if (visible) repaint();
-        return;
-      }
-      final var trace = new TraceInfo(pc, instruction, exe.getAsmInstruction(), false);
+      instrTrace.add(pc, cached.getInstruction(), cached.getAsmInstruction(), false);
       if (!exe.execute(this, cState)) {
         final var s = new StringBuilder();
         s.append(S.get("RV32imFetchExecutionError"));
@@ -375,16 +384,10 @@ public class RV32imState implements SocUpSimulationStateListener, SocProcessorIn
                 + S.get("RV32imFetchTransaction"),
             OptionPane.ERROR_MESSAGE);
         simState.errorInExecution();
-        trace.setError();
-        synchronized (instrTraceLock) {
-          instrTrace.addFirst(trace);
-        }
+        instrTrace.setLastError();
         if (visible) repaint();
         return;
       }
-      synchronized (instrTraceLock) {
-        instrTrace.addFirst(trace);
-      }
       /* all done increment pc */
       if (!exe.performedJump()) pc = pc + 4;
       if (visible) repaint();
@@ -461,11 +464,7 @@ public class RV32imState implements SocUpSimulationStateListener, SocProcessorIn
 
     @Override
     public LinkedList<TraceInfo> getTraces() {
-      synchronized (instrTraceLock) {
-        @SuppressWarnings("unchecked")
-        LinkedList<TraceInfo> ret = (LinkedList<TraceInfo>) instrTrace.clone();
-        return ret;
-      }
+      return instrTrace.getTraces();
     }
 
     @Override
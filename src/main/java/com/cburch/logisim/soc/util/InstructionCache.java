@@ -0,0 +1,115 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.soc.util;
+
+import com.cburch.logisim.soc.data.SocBusStateInfo;
+import java.util.Arrays;
+
+/**
+ * Remembers, per program counter, the instruction word found there and the execution unit that
+ * decodes it, so that a processor does not have to fetch it from the bus and ask every execution
+ * unit of its assembler about it each time it executes it again.
+ *
+ * <p>The cache is direct mapped on the word address. Entries are dropped when their address is
+ * written on the bus; the processor calls {@link #sync} before each lookup to catch up with the
+ * writes done since, by itself or any other master.
+ */
+public class InstructionCache {
+
+  public static final class Entry {
+    private final int pc;
+    private final int instruction;
+    private final AssemblerExecutionInterface exe;
+    private final String asm;
+
+    private Entry(int pc, int instruction, AssemblerExecutionInterface exe) {
+      this.pc = pc;
+      this.instruction = instruction;
+      this.exe = exe;
+      this.asm = exe.getAsmInstruction();
+    }
+
+    public int getInstruction() {
+      return instruction;
+    }
+
+    public String getAsmInstruction() {
+      return asm;
+    }
+
+    /**
+     * @return the execution unit of the instruction, ready to execute it. The units are shared by
+     *     all instructions, so the instruction is set on it again.
+     */
+    public AssemblerExecutionInterface decode() {
+      exe.setBinInstruction(instruction);
+      return exe;
+    }
+  }
+
+  private final Entry[] entries;
+  private final int mask;
+  private SocBusStateInfo bus;
+  private long nrOfWrites;
+
+  /** @param size the number of entries, a power of two. */
+  public InstructionCache(int size) {
+    if (Integer.bitCount(size) != 1) throw new IllegalArgumentException("size " + size);
+    entries = new Entry[size];
+    mask = size - 1;
+  }
+
+  private int index(int address) {
+    return (address >>> 2) & mask;
+  }
+
+  /** @return the entry of the instruction at pc, or null when it is not cached. */
+  public Entry get(int pc) {
+    final var entry = entries[index(pc)];
+    return entry != null && entry.pc == pc ? entry : null;
+  }
+
+  /**
+   * Caches the instruction at pc, which the assembler just decoded to the given execution unit.
+   *
+   * @return the new entry.
+   */
+  public Entry put(int pc, int instruction, AssemblerExecutionInterface exe) {
+    final var entry = new Entry(pc, instruction, exe);
+    entries[index(pc)] = entry;
+    return entry;
+  }
+
+  /** Drops the instruction containing the given byte address, if cached. */
+  public void invalidate(int address) {
+    final var index = index(address);
+    final var entry = entries[index];
+    if (entry != null && entry.pc == (address & ~3)) entries[index] = null;
+  }
+
+  public void clear() {
+    Arrays.fill(entries, null);
+  }
+
+  /**
+   * Drops the instructions written on the bus since the last call, or everything when the bus
+   * changed or more writes happened than it remembers.
+   */
+  public void sync(SocBusStateInfo bus) {
+    final var writes = bus == null ? 0 : bus.getNrOfWrites();
+    if (bus != this.bus || writes - nrOfWrites > SocBusStateInfo.WRITE_LOG_SIZE) {
+      clear();
+    } else {
+      for (var n = nrOfWrites; n < writes; n++) invalidate(bus.getWriteAddress(n));
+    }
+    this.bus = bus;
+    nrOfWrites = writes;
+  }
+}
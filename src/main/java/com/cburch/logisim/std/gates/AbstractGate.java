@@ -12,6 +12,7 @@ package com.cburch.logisim.std.gates;
 import com.cburch.logisim.LogisimVersion;
 import com.cburch.logisim.analyze.model.Expression;
 import com.cburch.logisim.analyze.model.Expressions;
+import com.cburch.logisim.circuit.CompiledPropagation;
 import com.cburch.logisim.circuit.ExpressionComputer;
 import com.cburch.logisim.comp.TextField;
 import com.cburch.logisim.data.Attribute;
@@ -19,6 +20,7 @@ import com.cburch.logisim.data.AttributeSet;
 import com.cburch.logisim.data.Bounds;
 import com.cburch.logisim.data.Direction;
 import com.cburch.logisim.data.Location;
+import com.cburch.logisim.data.PackedValue;
 import com.cburch.logisim.data.Value;
 import com.cburch.logisim.file.Options;
 import com.cburch.logisim.fpga.designrulecheck.CorrectLabel;
@@ -43,6 +45,9 @@ import java.awt.Graphics2D;
 import java.awt.font.TextLayout;
 
 abstract class AbstractGate extends InstanceFactory {
+  private static final ThreadLocal<long[]> PACKED_SCRATCH =
+      ThreadLocal.withInitial(() -> PackedValue.allocate(1));
+
   static Value pullOutput(Value value, Object outType) {
     if (outType == GateAttributes.OUTPUT_01) {
       return value;
@@ -116,6 +121,14 @@ abstract class AbstractGate extends InstanceFactory {
 
   protected abstract Value computeOutput(Value[] inputs, int numInputs, InstanceState state);
 
+  /**
+   * @return the packed value buffer of the current thread, which computeOutput() may use as
+   *     scratch space. Gates are shared by all simulation threads, so it cannot be a field.
+   */
+  static long[] packedScratch() {
+    return PACKED_SCRATCH.get();
+  }
+
   void computePorts(Instance instance) {
     final var attrs = (GateAttributes) instance.getAttributeSet();
     int inputs = attrs.inputs;
@@ -275,6 +288,7 @@ abstract class AbstractGate extends InstanceFactory {
     if (key == WireRepair.class) {
       return (WireRepair) data -> AbstractGate.this.shouldRepairWire(instance, data);
     }
+    if (key == CompiledPropagation.class) return CompiledPropagation.COMBINATIONAL;
     if (key == ExpressionComputer.class) {
       return (ExpressionComputer)
           expressionMap -> {
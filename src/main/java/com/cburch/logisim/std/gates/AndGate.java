@@ -71,7 +71,7 @@ class AndGate extends AbstractGate {
 
   @Override
   protected Value computeOutput(Value[] inputs, int numInputs, InstanceState state) {
-    return GateFunctions.computeAnd(inputs, numInputs);
+    return GateFunctions.computeAnd(inputs, numInputs, packedScratch());
   }
 
   @Override
@@ -11,6 +11,7 @@ package com.cburch.logisim.std.gates;
 
 import static com.cburch.logisim.std.Strings.S;
 
+import com.cburch.logisim.circuit.CompiledPropagation;
 import com.cburch.logisim.circuit.ExpressionComputer;
 import com.cburch.logisim.data.Attribute;
 import com.cburch.logisim.data.AttributeSet;
@@ -124,6 +125,7 @@ class Buffer extends InstanceFactory {
 
   @Override
   public Object getInstanceFeature(final Instance instance, Object key) {
+    if (key == CompiledPropagation.class) return CompiledPropagation.COMBINATIONAL;
     if (key == ExpressionComputer.class) {
       return (ExpressionComputer) expressionMap -> {
         final var width = instance.getAttributeValue(StdAttr.WIDTH).getWidth();
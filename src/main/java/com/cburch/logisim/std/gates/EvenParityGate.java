@@ -46,7 +46,7 @@ class EvenParityGate extends AbstractGate {
 
   @Override
   protected Value computeOutput(Value[] inputs, int numInputs, InstanceState state) {
-    return GateFunctions.computeOddParity(inputs, numInputs).not();
+    return GateFunctions.computeOddParity(inputs, numInputs, packedScratch()).not();
   }
 
   @Override
@@ -9,10 +9,32 @@
 
 package com.cburch.logisim.std.gates;
 
+import com.cburch.logisim.data.PackedValue;
 import com.cburch.logisim.data.Value;
 
 class GateFunctions {
-  static Value computeAnd(Value[] inputs, int numInputs) {
+  /*
+   * Multi-bit gates with more than two inputs are reduced in packed form, so that only the
+   * final result becomes a Value. One-bit operations never allocate, so they keep using Value.
+   * The packed accumulator is a scratch buffer of PackedValue.SIZE longs owned by the caller
+   * (see AbstractGate.packedScratch()), so evaluating a gate does not allocate it again.
+   */
+  private static boolean usePacked(Value[] inputs, int numInputs) {
+    return numInputs > 2 && inputs[0].getWidth() > 1;
+  }
+
+  private static int maxWidth(Value[] inputs, int numInputs) {
+    var width = 0;
+    for (var i = 0; i < numInputs; i++) width = Math.max(width, inputs[i].getWidth());
+    return width;
+  }
+
+  static Value computeAnd(Value[] inputs, int numInputs, long[] acc) {
+    if (usePacked(inputs, numInputs)) {
+      PackedValue.set(acc, 0, inputs[0]);
+      for (var i = 1; i < numInputs; i++) PackedValue.and(acc, 0, inputs[i]);
+      return PackedValue.get(maxWidth(inputs, numInputs), acc, 0);
+    }
     var ret = inputs[0];
     for (int i = 1; i < numInputs; i++) {
       ret = ret.and(inputs[i]);
@@ -20,34 +42,29 @@ class GateFunctions {
     return ret;
   }
 
-  static Value computeExactlyOne(Value[] inputs, int numInputs) {
+  static Value computeExactlyOne(Value[] inputs, int numInputs, long[] acc) {
     final var width = inputs[0].getWidth();
-    final var ret = new Value[width];
-    for (var i = 0; i < width; i++) {
-      var count = 0;
-      for (var j = 0; j < numInputs; j++) {
-        final var v = inputs[j].get(i);
-        if (v == Value.TRUE) {
-          count++;
-        } else if (v == Value.FALSE) {
-          // do nothing
-        } else {
-          count = -1;
-          break;
-        }
-      }
-      if (count < 0) {
-        ret[i] = Value.ERROR;
-      } else if (count == 1) {
-        ret[i] = Value.TRUE;
-      } else {
-        ret[i] = Value.FALSE;
-      }
+    var error = 0L;
+    var once = 0L;
+    var more = 0L;
+    for (var j = 0; j < numInputs; j++) {
+      PackedValue.set(acc, 0, inputs[j]);
+      final var undefined = acc[PackedValue.ERROR] | acc[PackedValue.UNKNOWN];
+      final var trues = acc[PackedValue.VALUE] & ~undefined;
+      error |= undefined;
+      more |= once & trues;
+      once |= trues;
     }
-    return Value.create(ret);
+    PackedValue.set(acc, 0, error, 0, once & ~more);
+    return PackedValue.get(width, acc, 0);
   }
 
-  static Value computeOddParity(Value[] inputs, int numInputs) {
+  static Value computeOddParity(Value[] inputs, int numInputs, long[] acc) {
+    if (usePacked(inputs, numInputs)) {
+      PackedValue.set(acc, 0, inputs[0]);
+      for (var i = 1; i < numInputs; i++) PackedValue.xor(acc, 0, inputs[i]);
+      return PackedValue.get(maxWidth(inputs, numInputs), acc, 0);
+    }
     var ret = inputs[0];
     for (int i = 1; i < numInputs; i++) {
       ret = ret.xor(inputs[i]);
@@ -55,7 +72,12 @@ class GateFunctions {
     return ret;
   }
 
-  static Value computeOr(Value[] inputs, int numInputs) {
+  static Value computeOr(Value[] inputs, int numInputs, long[] acc) {
+    if (usePacked(inputs, numInputs)) {
+      PackedValue.set(acc, 0, inputs[0]);
+      for (var i = 1; i < numInputs; i++) PackedValue.or(acc, 0, inputs[i]);
+      return PackedValue.get(maxWidth(inputs, numInputs), acc, 0);
+    }
     var ret = inputs[0];
     for (int i = 1; i < numInputs; i++) {
       ret = ret.or(inputs[i]);
@@ -77,7 +77,7 @@ class NandGate extends AbstractGate {
 
   @Override
   protected Value computeOutput(Value[] inputs, int numInputs, InstanceState state) {
-    return GateFunctions.computeAnd(inputs, numInputs).not();
+    return GateFunctions.computeAnd(inputs, numInputs, packedScratch()).not();
   }
 
   @Override
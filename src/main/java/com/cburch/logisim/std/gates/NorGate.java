@@ -74,7 +74,7 @@ class NorGate extends AbstractGate {
 
   @Override
   protected Value computeOutput(Value[] inputs, int numInputs, InstanceState state) {
-    return GateFunctions.computeOr(inputs, numInputs).not();
+    return GateFunctions.computeOr(inputs, numInputs, packedScratch()).not();
   }
 
   @Override
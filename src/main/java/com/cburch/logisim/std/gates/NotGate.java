@@ -12,6 +12,7 @@ package com.cburch.logisim.std.gates;
 import static com.cburch.logisim.std.Strings.S;
 
 import com.cburch.logisim.analyze.model.Expressions;
+import com.cburch.logisim.circuit.CompiledPropagation;
 import com.cburch.logisim.circuit.ExpressionComputer;
 import com.cburch.logisim.comp.TextField;
 import com.cburch.logisim.data.Attribute;
@@ -140,6 +141,7 @@ class NotGate extends InstanceFactory {
 
   @Override
   protected Object getInstanceFeature(final Instance instance, Object key) {
+    if (key == CompiledPropagation.class) return CompiledPropagation.COMBINATIONAL;
     if (key == ExpressionComputer.class) {
       return (ExpressionComputer)
           expressionMap -> {
@@ -46,7 +46,7 @@ class OddParityGate extends AbstractGate {
 
   @Override
   protected Value computeOutput(Value[] inputs, int numInputs, InstanceState state) {
-    return GateFunctions.computeOddParity(inputs, numInputs);
+    return GateFunctions.computeOddParity(inputs, numInputs, packedScratch());
   }
 
   @Override
@@ -69,7 +69,7 @@ class OrGate extends AbstractGate {
 
   @Override
   protected Value computeOutput(Value[] inputs, int numInputs, InstanceState state) {
-    return GateFunctions.computeOr(inputs, numInputs);
+    return GateFunctions.computeOr(inputs, numInputs, packedScratch());
   }
 
   @Override
@@ -52,9 +52,9 @@ class XnorGate extends AbstractGate {
   protected Value computeOutput(Value[] inputs, int numInputs, InstanceState state) {
     Object behavior = state.getAttributeValue(GateAttributes.ATTR_XOR);
     if (behavior == GateAttributes.XOR_ODD) {
-      return GateFunctions.computeOddParity(inputs, numInputs).not();
+      return GateFunctions.computeOddParity(inputs, numInputs, packedScratch()).not();
     } else {
-      return GateFunctions.computeExactlyOne(inputs, numInputs).not();
+      return GateFunctions.computeExactlyOne(inputs, numInputs, packedScratch()).not();
     }
   }
 
@@ -64,9 +64,9 @@ class XorGate extends AbstractGate {
   protected Value computeOutput(Value[] inputs, int numInputs, InstanceState state) {
     Object behavior = state.getAttributeValue(GateAttributes.ATTR_XOR);
     if (behavior == GateAttributes.XOR_ODD) {
-      return GateFunctions.computeOddParity(inputs, numInputs);
+      return GateFunctions.computeOddParity(inputs, numInputs, packedScratch());
     } else {
-      return GateFunctions.computeExactlyOne(inputs, numInputs);
+      return GateFunctions.computeExactlyOne(inputs, numInputs, packedScratch());
     }
   }
 
@@ -53,11 +53,21 @@ public abstract class Mem extends InstanceFactory {
   static class MemListener implements HexModelListener {
 
     final Instance instance;
+    /** The contents this listener is registered with by listenTo(). */
+    private MemContents contents;
 
     MemListener(Instance instance) {
       this.instance = instance;
     }
 
+    /** Registers this listener with <code>value</code> instead of the contents it listened to. */
+    void listenTo(MemContents value) {
+      if (contents == value) return;
+      if (contents != null) contents.removeHexModelListener(this);
+      contents = value;
+      if (value != null) value.addHexModelListener(this);
+    }
+
     @Override
     public void bytesChanged(HexModel source, long start, long numBytes, long[] values) {
       if (SwingUtilities.isEventDispatchThread()) instance.fireInvalidated();
@@ -13,6 +13,8 @@ import com.cburch.hex.HexModel;
 import com.cburch.hex.HexModelListener;
 import com.cburch.logisim.prefs.AppPreferences;
 import com.cburch.logisim.util.EventSourceWeakSupport;
+import java.io.File;
+import java.io.IOException;
 import java.util.Arrays;
 
 public class MemContents implements Cloneable, HexModel {
@@ -20,6 +22,27 @@ public class MemContents implements Cloneable, HexModel {
     return new MemContents(addrBits, width, randomize);
   }
 
+  /**
+   * Creates contents backed by a binary image file (see MemMappedFile) instead of heap pages.
+   * Reads go through to the memory-mapped file; a page is copied to the heap the first time it
+   * is written, so the file is never modified and clones share all untouched pages.
+   */
+  public static MemContents createMapped(File file, int addrBits, int width) throws IOException {
+    final var ret = new MemContents(addrBits, width, false);
+    ret.mapFile(MemMappedFile.open(file, width));
+    return ret;
+  }
+
+  /**
+   * Creates contents referring to an image file that could not be read. They read as zero, but
+   * keep the reference, so that saving the project does not lose it.
+   */
+  public static MemContents createMissing(File file, int addrBits, int width) {
+    final var ret = new MemContents(addrBits, width, false);
+    ret.mapFile(MemMappedFile.missing(file, width));
+    return ret;
+  }
+
   private static final int PAGE_SIZE_BITS = 12;
   private static final int PAGE_SIZE = 1 << PAGE_SIZE_BITS;
 
@@ -31,6 +54,10 @@ public class MemContents implements Cloneable, HexModel {
   private long mask;
   private Page[] pages;
   private boolean randomize;
+  /** The image file backing this memory, or null when all pages live on the heap. */
+  private MemMappedFile mapped = null;
+  /** Whether the contents differ from the backing file. */
+  private boolean mappedModified = false;
 
   private MemContents(int addrBits, int width, boolean randomize) {
     listeners = null;
@@ -105,9 +132,33 @@ public class MemContents implements Cloneable, HexModel {
   private void ensurePage(int index) {
     if (pages[index] == null) {
       pages[index] = MemContentsSub.createPage(PAGE_SIZE, width, randomize);
+    } else if (pages[index].isReadOnly()) {
+      final var page = pages[index];
+      final var copy = MemContentsSub.createPage(page.getLength(), width, false);
+      copy.load(0, page.get(0, page.getLength()), mask);
+      pages[index] = copy;
+    }
+  }
+
+  private void mapFile(MemMappedFile file) {
+    mapped = file;
+    mappedModified = false;
+    final var pageLength = addrBits < PAGE_SIZE_BITS ? 1 << addrBits : PAGE_SIZE;
+    for (var i = 0; i < pages.length; i++) {
+      pages[i] = file.createPage((long) i * pageLength, pageLength);
     }
   }
 
+  /** @return the image file backing this memory, or null if it is held on the heap only. */
+  public File getBackingFile() {
+    return mapped == null ? null : mapped.getFile();
+  }
+
+  /** @return whether this memory has a backing file whose data it still matches. */
+  public boolean isBackingFileCurrent() {
+    return mapped != null && !mappedModified;
+  }
+
   @Override
   public void fill(long start, long len, long value) {
     if (len == 0) return;
@@ -166,13 +217,14 @@ public class MemContents implements Cloneable, HexModel {
         }
       }
       if (endOffs >= 0) {
-        final var page = pages[pageEnd];
+        var page = pages[pageEnd];
         if (value == 0 && page == null) {
           // nothing to do
         } else {
           ensurePage(pageEnd);
           final var vals = new long[endOffs + 1];
           Arrays.fill(vals, value);
+          page = pages[pageEnd];
           if (!page.matches(vals, 0, mask)) {
             final var oldValues = page.get(0, endOffs + 1);
             page.load(0, vals, mask);
@@ -185,6 +237,7 @@ public class MemContents implements Cloneable, HexModel {
   }
 
   private void fireBytesChanged(long start, long numBytes, long[] oldValues) {
+    if (mapped != null) mappedModified = true;
     if (listeners == null) return;
     var found = false;
     for (final var l : listeners) {
@@ -249,7 +302,7 @@ public class MemContents implements Cloneable, HexModel {
   @Override
   public void removeHexModelListener(HexModelListener l) {
     if (listeners == null) return;
-    listeners.add(l);
+    listeners.remove(l);
     if (listeners.isEmpty()) listeners = null;
   }
 
@@ -261,9 +314,7 @@ public class MemContents implements Cloneable, HexModel {
     long old = pages[page] == null ? 0 : pages[page].get(offs) & mask;
     long val = value & mask;
     if (old != val) {
-      if (pages[page] == null) {
-        pages[page] = MemContentsSub.createPage(PAGE_SIZE, width, randomize);
-      }
+      ensurePage(page);
       pages[page].set(offs, val);
       fireBytesChanged(addr, 1, new long[] {old});
     }
@@ -324,7 +375,9 @@ public class MemContents implements Cloneable, HexModel {
         }
         if (page != null) {
           System.arraycopy(values, offs, vals, 0, PAGE_SIZE);
-          if (!page.matches(vals, startOffs, mask)) {
+          if (!page.matches(vals, 0, mask)) {
+            ensurePage(i);
+            page = pages[i];
             final var oldValues = page.get(0, PAGE_SIZE);
             page.load(0, vals, mask);
             if (page.isClear()) pages[i] = null;
@@ -337,7 +390,7 @@ public class MemContents implements Cloneable, HexModel {
         vals = new long[endOffs + 1];
         System.arraycopy(values, offs, vals, 0, endOffs + 1);
         final var page = pages[pageEnd];
-        if (!page.matches(vals, startOffs, mask)) {
+        if (!page.matches(vals, 0, mask)) {
           final var oldValues = page.get(0, endOffs + 1);
           page.load(0, vals, mask);
           if (page.isClear()) pages[pageEnd] = null;
@@ -377,7 +430,8 @@ public class MemContents implements Cloneable, HexModel {
         // clearing locations di..di+n on this page
         fill(dp * PAGE_SIZE + di, n, 0);
       } else {
-        if (dstPage == null) dstPage = pages[dp] = MemContentsSub.createPage(PAGE_SIZE, width, randomize);
+        ensurePage(dp);
+        dstPage = pages[dp];
         // copy locations di..di+n on this page
         final var vals = srcPage.get(si, n);
         dstPage.set(di, vals);
@@ -414,6 +468,22 @@ public class MemContents implements Cloneable, HexModel {
       pageLength = PAGE_SIZE;
     }
     pages = new Page[pageCount];
+    if (mapped != null && !mappedModified) {
+      // nothing was changed, so the image can simply be mapped again with the new word size
+      try {
+        mapFile(MemMappedFile.open(mapped.getFile(), width));
+        fireMetainfoChanged();
+        return;
+      } catch (IOException e) {
+        if (mapped.isMissing()) {
+          mapFile(MemMappedFile.missing(mapped.getFile(), width));
+          fireMetainfoChanged();
+          return;
+        }
+        // keep whatever the old pages hold, on the heap
+      }
+    }
+    mapped = null;
     if (oldPages != null) {
       final var n = Math.min(oldPages.length, pages.length);
       for (var i = 0; i < n; i++) {
@@ -465,6 +535,11 @@ public class MemContents implements Cloneable, HexModel {
 
     abstract int getLength();
 
+    /** @return whether the page must be copied by MemContents before it is written. */
+    boolean isReadOnly() {
+      return false;
+    }
+
     boolean isClear() {
       for (int i = 0, n = getLength(); i < n; i++) {
         if (get(i) != 0) return false;
@@ -0,0 +1,176 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.std.memory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A binary memory image mapped into the address space, used as read-only backing store for
+ * {@link MemContents#createMapped}. The layout is the one of the "Binary data little-endian"
+ * format of HexFile: the words are packed without padding into a little-endian bit stream, word 0
+ * taking the least significant bits of the first byte, so images saved in that format can be
+ * mapped directly.
+ *
+ * <p>The file is mapped in chunks, since a single buffer cannot exceed 2 GB. Only absolute reads
+ * are done on the buffers, which makes them safe to share between clones of the contents and
+ * between threads. The file itself is never written.
+ */
+final class MemMappedFile {
+  /** Words per mapped chunk; keeps each buffer below 2 GB for 64-bit words. */
+  private static final int CHUNK_WORDS_BITS = 26;
+  private static final long CHUNK_WORDS_MASK = (1L << CHUNK_WORDS_BITS) - 1;
+
+  private final File file;
+  private final int width;
+  private final long wordCount;
+  private final ByteBuffer[] chunks;
+  /** Whether the file could not be read; see missing(). */
+  private final boolean missing;
+
+  private MemMappedFile(File file, int width, long wordCount, ByteBuffer[] chunks,
+      boolean missing) {
+    this.file = file;
+    this.width = width;
+    this.wordCount = wordCount;
+    this.chunks = chunks;
+    this.missing = missing;
+  }
+
+  /**
+   * Maps <code>file</code> as an image of words of <code>width</code> bits. Words past the end of
+   * the file read as zero; a trailing partial word is ignored.
+   */
+  static MemMappedFile open(File file, int width) throws IOException {
+    try (final var channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      final var wordCount = channel.size() * 8 / width;
+      final var chunkCount = (int) ((wordCount + CHUNK_WORDS_MASK) >>> CHUNK_WORDS_BITS);
+      final var chunks = new ByteBuffer[chunkCount];
+      for (var i = 0; i < chunkCount; i++) {
+        final var firstWord = (long) i << CHUNK_WORDS_BITS;
+        final var words = Math.min(wordCount - firstWord, 1L << CHUNK_WORDS_BITS);
+        // a chunk holds a multiple of 8 words, so it starts on a byte boundary
+        final var offset = firstWord * width / 8;
+        final var length = (words * width + 7) / 8;
+        // the mapping stays valid after the channel is closed
+        chunks[i] = channel
+            .map(FileChannel.MapMode.READ_ONLY, offset, length)
+            .order(ByteOrder.LITTLE_ENDIAN);
+      }
+      return new MemMappedFile(file, width, wordCount, chunks, false);
+    }
+  }
+
+  /**
+   * @return a placeholder for <code>file</code> when it cannot be read: it holds no words, so the
+   *     memory reads as zero, but the reference to the file is kept.
+   */
+  static MemMappedFile missing(File file, int width) {
+    return new MemMappedFile(file, width, 0, new ByteBuffer[0], true);
+  }
+
+  File getFile() {
+    return file;
+  }
+
+  /** @return whether this is a placeholder for a file that could not be read. */
+  boolean isMissing() {
+    return missing;
+  }
+
+  /** @return the number of complete words in the file. */
+  long getWordCount() {
+    return wordCount;
+  }
+
+  /** @return the word at <code>index</code>, or 0 past the end of the file. */
+  long get(long index) {
+    if (index < 0 || index >= wordCount) return 0;
+    final var buf = chunks[(int) (index >>> CHUNK_WORDS_BITS)];
+    final var bit = (index & CHUNK_WORDS_MASK) * width;
+    final var pos = (int) (bit >>> 3);
+    final var shift = (int) (bit & 7);
+    if (shift == 0 && (width == 8 || width == 16 || width == 32 || width == 64)) {
+      return switch (width) {
+        case 8 -> buf.get(pos) & 0xffL;
+        case 16 -> buf.getShort(pos) & 0xffffL;
+        case 32 -> buf.getInt(pos) & 0xffffffffL;
+        default -> buf.getLong(pos);
+      };
+    }
+    // the word spans at most nine bytes; gather the first eight, then the carry of the ninth
+    final var bytes = (shift + width + 7) / 8;
+    var value = 0L;
+    for (var i = Math.min(bytes, 8) - 1; i >= 0; i--) {
+      value = (value << 8) | (buf.get(pos + i) & 0xffL);
+    }
+    value >>>= shift;
+    if (bytes > 8) value |= (buf.get(pos + 8) & 0xffL) << (64 - shift);
+    return width == 64 ? value : value & ((1L << width) - 1);
+  }
+
+  /**
+   * @return a read-only page covering words <code>start</code> to <code>start + length - 1
+   *     </code>, or null when the file holds none of them.
+   */
+  MemContents.Page createPage(long start, int length) {
+    return start < wordCount ? new MappedPage(this, start, length) : null;
+  }
+
+  /**
+   * Page that reads through to the mapped file. It is never modified: MemContents replaces it by
+   * a heap page before the first write, so clones can keep sharing the same instance.
+   */
+  private static final class MappedPage extends MemContents.Page {
+    private final MemMappedFile file;
+    private final long start;
+    private final int length;
+
+    MappedPage(MemMappedFile file, long start, int length) {
+      this.file = file;
+      this.start = start;
+      this.length = length;
+    }
+
+    @Override
+    public MappedPage clone() {
+      return this;
+    }
+
+    @Override
+    boolean isReadOnly() {
+      return true;
+    }
+
+    @Override
+    long get(long addr) {
+      return addr >= 0 && addr < length ? file.get(start + addr) : 0;
+    }
+
+    @Override
+    int getLength() {
+      return length;
+    }
+
+    @Override
+    void load(long start, long[] values, long mask) {
+      throw new UnsupportedOperationException("mapped memory pages are read-only");
+    }
+
+    @Override
+    void set(long addr, long value) {
+      throw new UnsupportedOperationException("mapped memory pages are read-only");
+    }
+  }
+}
@@ -17,9 +17,12 @@ import com.cburch.logisim.gui.hex.HexFile;
 import com.cburch.logisim.instance.Instance;
 import com.cburch.logisim.proj.Project;
 import com.cburch.logisim.tools.MenuExtender;
+import com.cburch.logisim.tools.SetAttributeAction;
 import java.awt.Frame;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
+import javax.swing.JFileChooser;
 import javax.swing.JMenuItem;
 import javax.swing.JPopupMenu;
 
@@ -33,6 +36,7 @@ class MemMenu implements ActionListener, MenuExtender {
   private JMenuItem clear;
   private JMenuItem load;
   private JMenuItem save;
+  private JMenuItem map;
 
   MemMenu(Mem factory, Instance instance) {
     this.factory = factory;
@@ -46,6 +50,7 @@ class MemMenu implements ActionListener, MenuExtender {
     else if (src == clear) doClear();
     else if (src == load) doLoad();
     else if (src == save) doSave();
+    else if (src == map) doMap();
   }
 
   @Override
@@ -70,6 +75,10 @@ class MemMenu implements ActionListener, MenuExtender {
     menu.add(clear);
     menu.add(load);
     menu.add(save);
+    if (attrs instanceof RomAttributes) {
+      map = createItem(enabled, S.get("romMapMenuItem"));
+      menu.add(map);
+    }
   }
 
   private JMenuItem createItem(boolean enabled, String label) {
@@ -107,6 +116,25 @@ class MemMenu implements ActionListener, MenuExtender {
     HexFile.open(m, frame, proj, instance);
   }
 
+  /** Replaces the ROM contents by a view of a binary image file, which the project refers to. */
+  private void doMap() {
+    final var old = Rom.getMemContents(instance);
+    final var chooser = proj.createChooser();
+    if (old.getBackingFile() != null) chooser.setSelectedFile(old.getBackingFile());
+    chooser.setDialogTitle(S.get("romMapDialogTitle"));
+    if (chooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) return;
+    final MemContents contents;
+    try {
+      contents = MemContents.createMapped(chooser.getSelectedFile(), old.getLogLength(), old.getWidth());
+    } catch (IOException e) {
+      OptionPane.showMessageDialog(frame, e.getMessage(), S.get("romMapErrorTitle"), OptionPane.ERROR_MESSAGE);
+      return;
+    }
+    final var act = new SetAttributeAction(circState.getCircuit(), S.getter("romMapAction"));
+    act.set(instance.getComponent(), Rom.CONTENTS_ATTR, contents);
+    proj.doAction(act);
+  }
+
   private void doSave() {
     final var m = factory.getState(instance, circState).getContents();
     HexFile.save(m, frame, proj, instance);
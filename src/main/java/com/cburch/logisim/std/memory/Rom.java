@@ -14,6 +14,7 @@ import static com.cburch.logisim.std.Strings.S;
 import com.cburch.contracts.BaseMouseListenerContract;
 import com.cburch.logisim.circuit.Circuit;
 import com.cburch.logisim.circuit.CircuitState;
+import com.cburch.logisim.circuit.CompiledPropagation;
 import com.cburch.logisim.comp.Component;
 import com.cburch.logisim.data.Attribute;
 import com.cburch.logisim.data.AttributeSet;
@@ -31,7 +32,10 @@ import com.cburch.logisim.instance.StdAttr;
 import com.cburch.logisim.proj.Project;
 import java.awt.Window;
 import java.awt.event.MouseEvent;
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.StringTokenizer;
 import java.util.WeakHashMap;
@@ -47,6 +51,9 @@ public class Rom extends Mem {
   public static final String _ID = "ROM";
 
   static class ContentsAttribute extends Attribute<MemContents> {
+    /** Prefix of the line that replaces the hex data for contents backed by an image file. */
+    private static final String FILE_PREFIX = "file: ";
+
     public ContentsAttribute() {
       super("contents", S.getter("romContentsAttr"));
     }
@@ -64,6 +71,11 @@ public class Rom extends Mem {
 
     @Override
     public MemContents parse(String value) {
+      return parse(null, value, new ArrayList<>());
+    }
+
+    @Override
+    public MemContents parse(File projectDir, String value, List<String> warnings) {
       final var lineBreak = value.indexOf('\n');
       final var first = lineBreak < 0 ? value : value.substring(0, lineBreak);
       final var rest = lineBreak < 0 ? "" : value.substring(lineBreak + 1);
@@ -73,6 +85,17 @@ public class Rom extends Mem {
         if (!header.equals("addr/data:")) return null;
         final var addr = Integer.parseInt(toks.nextToken());
         final var data = Integer.parseInt(toks.nextToken());
+        if (rest.startsWith(FILE_PREFIX)) {
+          var file = new File(rest.substring(FILE_PREFIX.length()).trim());
+          if (!file.isAbsolute() && projectDir != null) file = new File(projectDir, file.getPath());
+          try {
+            return MemContents.createMapped(file, addr, data);
+          } catch (IOException e) {
+            // keep the reference, so that saving the project does not drop the image
+            warnings.add(S.get("romImageReadError", file.getPath(), e.toString()));
+            return MemContents.createMissing(file, addr, data);
+          }
+        }
         return HexFile.parseFromCircFile(rest, addr, data);
       } catch (IOException | NoSuchElementException | NumberFormatException e) {
         return null;
@@ -86,11 +109,32 @@ public class Rom extends Mem {
 
     @Override
     public String toStandardString(MemContents state) {
+      return toStandardString(null, state);
+    }
+
+    @Override
+    public String toStandardString(File projectDir, MemContents state) {
       final var addr = state.getLogLength();
       final var data = state.getWidth();
+      if (state.isBackingFileCurrent()) {
+        // the image stays in its own file; once edited here it is saved inline again
+        return "addr/data: " + addr + " " + data + "\n" + FILE_PREFIX
+            + relativize(projectDir, state.getBackingFile());
+      }
       final var contents = HexFile.saveToString(state);
       return "addr/data: " + addr + " " + data + "\n" + contents;
     }
+
+    private static String relativize(File projectDir, File file) {
+      if (projectDir == null) return file.getPath();
+      try {
+        return projectDir.getAbsoluteFile().toPath().relativize(file.getAbsoluteFile().toPath())
+            .toString();
+      } catch (IllegalArgumentException e) {
+        // on another drive or file system root
+        return file.getAbsolutePath();
+      }
+    }
   }
 
   @SuppressWarnings("serial")
@@ -130,10 +174,9 @@ public class Rom extends Mem {
   @Override
   protected void configureNewInstance(Instance instance) {
     super.configureNewInstance(instance);
-    final var contents = getMemContents(instance);
     final var listener = new MemListener(instance);
     memListeners.put(instance, listener);
-    contents.addHexModelListener(listener);
+    listener.listenTo(getMemContents(instance));
     instance.addAttributeListener();
   }
 
@@ -175,8 +218,8 @@ public class Rom extends Mem {
   @Override
   MemState getState(Instance instance, CircuitState state) {
     var ret = (MemState) instance.getData(state);
-    if (ret == null) {
-      final var contents = getMemContents(instance);
+    final var contents = getMemContents(instance);
+    if (ret == null || ret.getContents() != contents) {
       ret = new MemState(contents);
       instance.setData(state, ret);
     }
@@ -186,8 +229,8 @@ public class Rom extends Mem {
   @Override
   MemState getState(InstanceState state) {
     var ret = (MemState) state.getData();
-    if (ret == null) {
-      final var contents = getMemContents(state.getInstance());
+    final var contents = getMemContents(state.getInstance());
+    if (ret == null || ret.getContents() != contents) {
       ret = new MemState(contents);
       state.setData(ret);
     }
@@ -199,6 +242,10 @@ public class Rom extends Mem {
     if (attr == Mem.DATA_ATTR || attr == Mem.ADDR_ATTR || attr == StdAttr.APPEARANCE || attr == Mem.LINE_ATTR) {
       instance.recomputeBounds();
       configurePorts(instance);
+    } else if (attr == CONTENTS_ATTR) {
+      final var listener = memListeners.get(instance);
+      if (listener != null) listener.listenTo(getMemContents(instance));
+      instance.fireInvalidated();
     }
   }
 
@@ -211,6 +258,12 @@ public class Rom extends Mem {
     }
   }
 
+  @Override
+  protected Object getInstanceFeature(Instance instance, Object key) {
+    if (key == CompiledPropagation.class) return CompiledPropagation.COMBINATIONAL;
+    return super.getInstanceFeature(instance, key);
+  }
+
   @Override
   public void propagate(InstanceState state) {
     final var myState = getState(state);
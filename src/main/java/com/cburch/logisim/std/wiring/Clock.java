@@ -13,6 +13,7 @@ import static com.cburch.logisim.std.Strings.S;
 
 import com.cburch.logisim.LogisimVersion;
 import com.cburch.logisim.circuit.CircuitState;
+import com.cburch.logisim.circuit.CompiledPropagation;
 import com.cburch.logisim.circuit.RadixOption;
 import com.cburch.logisim.circuit.Wire;
 import com.cburch.logisim.comp.Component;
@@ -367,6 +368,24 @@ public class Clock extends InstanceFactory {
     painter.drawPorts();
   }
 
+  @Override
+  protected Object getInstanceFeature(Instance instance, Object key) {
+    if (key == CompiledPropagation.class) {
+      return new CompiledPropagation() {
+        @Override
+        public boolean isSequential() {
+          return true;
+        }
+
+        @Override
+        public boolean tick(InstanceState state) {
+          return getState(state).updateTick(state.getTickCount(), state.getAttributeSet());
+        }
+      };
+    }
+    return super.getInstanceFeature(instance, key);
+  }
+
   @Override
   public void propagate(InstanceState state) {
     Value val = state.getPortValue(0);
@@ -12,6 +12,7 @@ package com.cburch.logisim.std.wiring;
 import static com.cburch.logisim.std.Strings.S;
 
 import com.cburch.logisim.analyze.model.Expressions;
+import com.cburch.logisim.circuit.CompiledPropagation;
 import com.cburch.logisim.circuit.ExpressionComputer;
 import com.cburch.logisim.data.AbstractAttributeSet;
 import com.cburch.logisim.data.Attribute;
@@ -159,6 +160,7 @@ public class Constant extends InstanceFactory {
   @Override
   protected Object getInstanceFeature(Instance instance, Object key) {
     if (key == ExpressionComputer.class) return new ConstantExpression(instance);
+    if (key == CompiledPropagation.class) return CompiledPropagation.COMBINATIONAL;
     return super.getInstanceFeature(instance, key);
   }
 
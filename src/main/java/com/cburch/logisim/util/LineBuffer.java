@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.commons.text.WordUtils;
@@ -36,6 +37,12 @@ public class LineBuffer implements RandomAccess {
   public static final int DEFAULT_INDENT = 1;
   public static final int MAX_ALLOWED_INDENT = MAX_LINE_LENGTH - (2 * Hdl.REMARK_MARKER_LENGTH);
 
+  private static final String PLACEHOLDER_START = "{{";
+  private static final String PLACEHOLDER_END = "}}";
+  private static final Pattern PLACEHOLDER_PATTERN =
+      Pattern.compile("(\\{\\{.+?\\}\\})+", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+  private static final Pattern POSITIONAL_KEY_PATTERN = Pattern.compile("^\\d+$");
+
   // Internal buffer holding separate lines.
   private final ArrayList<String> contents = new java.util.ArrayList<>();
 
@@ -383,15 +390,24 @@ public class LineBuffer implements RandomAccess {
    * @return Formatted string.
    */
   public static String applyPairs(String format, Pairs pairs) {
-    if (pairs != null) {
-      for (final var set : pairs.getContainer().entrySet()) {
-        final var searchRegExp = String.format("\\{\\{\\s*%s\\s*\\}\\}", set.getKey());
-        // Both backslashes (\) and dollar signs ($) in the replacement string may cause the
-        // results to be different than if it were being treated as a literal replacement string
-        // so as we do not need to support i.e. group references etc, we just need to escape it.
-        final var replacement = Matcher.quoteReplacement(set.getValue().toString());
-        format = format.replaceAll(searchRegExp, replacement);
-      }
+    if (pairs == null || format.indexOf(PLACEHOLDER_START) < 0) return format;
+    final var applied = Template.of(format).apply(pairs);
+    return applied != null ? applied : applyPairsOneByOne(format, pairs);
+  }
+
+  /**
+   * Replaces the placeholders of each pair in turn, so that placeholders brought in by the value of
+   * one pair are replaced by the pairs that come later. Only used for such values, as it compiles a
+   * regular expression per pair.
+   */
+  private static String applyPairsOneByOne(String format, Pairs pairs) {
+    for (final var set : pairs.getContainer().entrySet()) {
+      final var searchRegExp = String.format("\\{\\{\\s*%s\\s*\\}\\}", set.getKey());
+      // Both backslashes (\) and dollar signs ($) in the replacement string may cause the
+      // results to be different than if it were being treated as a literal replacement string
+      // so as we do not need to support i.e. group references etc, we just need to escape it.
+      final var replacement = Matcher.quoteReplacement(set.getValue().toString());
+      format = format.replaceAll(searchRegExp, replacement);
     }
     return format;
   }
@@ -718,9 +734,8 @@ public class LineBuffer implements RandomAccess {
     pairedPlaceholders.clear();
 
     // Separate positionals and other placeholders
-    final var pattern = Pattern.compile("^\\d+$");
     for (final var phKey : placeholders) {
-      if (pattern.matcher(phKey).find()) positionalPlaceholders.add(phKey);
+      if (POSITIONAL_KEY_PATTERN.matcher(phKey).find()) positionalPlaceholders.add(phKey);
       else pairedPlaceholders.add(phKey);
     }
 
@@ -832,10 +847,9 @@ public class LineBuffer implements RandomAccess {
    */
   public List<String> extractPlaceholders(String fmt) {
     final var keys = new ArrayList<String>();
+    if (fmt.indexOf(PLACEHOLDER_START) < 0) return keys;
 
-    final var regex = "(\\{\\{.+?\\}\\})+";
-    final var pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
-    final var matcher = pattern.matcher(fmt);
+    final var matcher = PLACEHOLDER_PATTERN.matcher(fmt);
     while (matcher.find()) {
       // Extract key from between the brackets:
       final var bracketsCharCount = 2;
@@ -890,6 +904,93 @@ public class LineBuffer implements RandomAccess {
 
   /* ********************************************************************************************* */
 
+  /**
+   * Formatting string split once into its literal text and its `{{placeholders}}`, so it can be
+   * applied to any number of pair containers without regular expressions. Templates of the
+   * formatting strings seen are kept, up to {@link #MAX_CACHED} of them, as most are constants of
+   * the HDL generators used over and over.
+   */
+  public static final class Template {
+    private static final int MAX_CACHED = 4096;
+    private static final ConcurrentHashMap<String, Template> cache = new ConcurrentHashMap<>();
+
+    // literals[i] comes before keys[i]; the last literal comes after the last key.
+    private final String[] literals;
+    private final String[] keys;
+    // the placeholders as written, for those that have no pair
+    private final String[] placeholders;
+
+    private Template(String fmt) {
+      final var literalList = new ArrayList<String>();
+      final var keyList = new ArrayList<String>();
+      final var placeholderList = new ArrayList<String>();
+      var literalStart = 0;
+      var start = fmt.indexOf(PLACEHOLDER_START);
+      while (start >= 0) {
+        final var end = fmt.indexOf(PLACEHOLDER_END, start + PLACEHOLDER_START.length());
+        if (end < 0) break;
+        final var key = fmt.substring(start + PLACEHOLDER_START.length(), end).strip();
+        if (key.isEmpty() || key.indexOf('{') >= 0) {
+          // not a placeholder itself, but one may start within, as in "{{{1}}"
+          start = fmt.indexOf(PLACEHOLDER_START, start + 1);
+          continue;
+        }
+        literalList.add(fmt.substring(literalStart, start));
+        keyList.add(key);
+        placeholderList.add(fmt.substring(start, end + PLACEHOLDER_END.length()));
+        literalStart = end + PLACEHOLDER_END.length();
+        start = fmt.indexOf(PLACEHOLDER_START, literalStart);
+      }
+      literalList.add(fmt.substring(literalStart));
+      literals = literalList.toArray(new String[0]);
+      keys = keyList.toArray(new String[0]);
+      placeholders = placeholderList.toArray(new String[0]);
+    }
+
+    /**
+     * Returns the template of the given formatting string.
+     *
+     * @param fmt Formatting string.
+     * @return Template, shared with other callers using the same string.
+     */
+    public static Template of(String fmt) {
+      var template = cache.get(fmt);
+      if (template == null) {
+        template = new Template(fmt);
+        if (cache.size() < MAX_CACHED) cache.putIfAbsent(fmt, template);
+      }
+      return template;
+    }
+
+    /**
+     * Replaces the placeholders having a pair by their value. Placeholders without a pair are left
+     * as they are.
+     *
+     * @param pairs Pairs holding the replacements for placeholders.
+     * @return Formatted string, or null if the value of a pair holds a placeholder itself, in which
+     *     case the result would depend on the order the pairs are applied in.
+     */
+    public String apply(Pairs pairs) {
+      if (keys.length == 0) return literals[0];
+      final var container = pairs.getContainer();
+      final var ret = new StringBuilder(literals[0]);
+      for (var i = 0; i < keys.length; i++) {
+        final var value = container.get(keys[i]);
+        if (value == null) {
+          ret.append(placeholders[i]);
+        } else {
+          final var text = value.toString();
+          if (text.contains(PLACEHOLDER_START)) return null;
+          ret.append(text);
+        }
+        ret.append(literals[i + 1]);
+      }
+      return ret.toString();
+    }
+  }
+
+  /* ********************************************************************************************* */
+
   /** Container holding all the key-value pairs used by LineBuffer. */
   public static class Pairs implements Cloneable {
     /** Internal pair container. */
@@ -946,7 +1047,7 @@ public class LineBuffer implements RandomAccess {
      */
     public Pairs addNonPositionalPair(String key, Object value) {
       // Numeric only keys are not allowed because these are reserved for positional placeholders.
-      if (key.matches("^\\d+$")) {
+      if (POSITIONAL_KEY_PATTERN.matcher(key).matches()) {
         throw new RuntimeException(
             format("Invalid pair key '{{1}}'. You cannot add positional arguments as pairs.", key));
       }
@@ -975,7 +1076,7 @@ public class LineBuffer implements RandomAccess {
      * @return Returns instance of container for easy chaining.
      */
     public Pairs addPositionalPair(String key, Object value) {
-      if (!key.matches("^\\d+$")) {
+      if (!POSITIONAL_KEY_PATTERN.matcher(key).matches()) {
         throw new RuntimeException(
             format("Invalid pair key '{{1}}'. Positional arguments' keys must be numeric.", key));
       }
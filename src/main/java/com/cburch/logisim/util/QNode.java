@@ -10,7 +10,8 @@
 package com.cburch.logisim.util;
 
 public class QNode implements Comparable<QNode> {
-  public final int timeKey, serialNumber;
+  /** Must not be changed while the node is held in a queue, see {@link #reuse(int, int)}. */
+  public int timeKey, serialNumber;
   QNode left, right;
 
   public QNode(int timeKey, int serialNumber) {
@@ -18,6 +19,16 @@ public class QNode implements Comparable<QNode> {
     this.serialNumber = serialNumber;
   }
 
+  /**
+   * Re-initializes a node that has been removed from its queue so it can be added again,
+   * which allows callers to pool nodes instead of allocating one per add.
+   */
+  protected void reuse(int timeKey, int serialNumber) {
+    this.timeKey = timeKey;
+    this.serialNumber = serialNumber;
+    left = right = null;
+  }
+
   @Override
   public int compareTo(QNode other) {
     // Yes, these subtractions may overflow. This is intentional, as it
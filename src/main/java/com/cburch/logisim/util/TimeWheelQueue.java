@@ -0,0 +1,153 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.util;
+
+import java.util.Arrays;
+
+/**
+ * A timing wheel (calendar queue) implementation, using values that extend type QNode. This
+ * supports (approximately) a subset of the java.util.PriorityQueue API, but only enough to
+ * support Propagator. Objects in the queue must be subclasses of QNode.
+ */
+public class TimeWheelQueue<T extends QNode> implements QNodeQueue<T> {
+  /*
+   * The queue is a power-of-two sized ring of buckets indexed by (timeKey & mask). Each bucket
+   * holds an intrusive FIFO list of QNodes (linked through QNode.right), so adding or removing a
+   * node never allocates. As in QueueOfQueues, the serial numbers of nodes with equal timeKey
+   * arrive in increasing order, hence a FIFO per timeKey is sufficient.
+   *
+   * Invariants of the class:
+   * 1. If size > 0, every queued timeKey t satisfies firstTime <= t <= lastTime, and the bucket
+   *    of firstTime is not empty.
+   * 2. lastTime - firstTime <= mask, so no two different timeKeys share a bucket.
+   *
+   * The ring only grows (when a timeKey falls outside the current window), so once the
+   * propagation delays of a circuit have been seen the steady state is allocation-free.
+   */
+  private static final int DEFAULT_CAPACITY = 256;
+
+  private QNode[] heads;
+  private QNode[] tails;
+  private int mask;
+  private int firstTime;
+  private int lastTime;
+  private int size;
+
+  public TimeWheelQueue() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public TimeWheelQueue(int capacity) {
+    var cap = 1;
+    while (cap < capacity) cap <<= 1;
+    heads = new QNode[cap];
+    tails = new QNode[cap];
+    mask = cap - 1;
+  }
+
+  @Override
+  public boolean add(T node) {
+    final var time = node.timeKey;
+    if (size == 0) {
+      firstTime = lastTime = time;
+    } else {
+      // Subtractions may overflow on purpose, see QNode.compareTo
+      final var newFirst = (time - firstTime < 0) ? time : firstTime;
+      final var newLast = (time - lastTime > 0) ? time : lastTime;
+      if (newLast - newFirst > mask) grow(newLast - newFirst);
+      firstTime = newFirst;
+      lastTime = newLast;
+    }
+    final var bucket = time & mask;
+    node.left = node.right = null;
+    if (heads[bucket] == null) {
+      heads[bucket] = tails[bucket] = node;
+    } else {
+      tails[bucket].right = node;
+      tails[bucket] = node;
+    }
+    size++;
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(heads, null);
+    Arrays.fill(tails, null);
+    size = 0;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public T peek() {
+    if (size == 0) return null;
+    @SuppressWarnings("unchecked")
+    final var ret = (T) heads[firstTime & mask];
+    return ret;
+  }
+
+  @Override
+  public T remove() {
+    if (size == 0) return null;
+    var bucket = firstTime & mask;
+    final var ret = heads[bucket];
+    heads[bucket] = ret.right;
+    ret.right = null;
+    size--;
+    if (heads[bucket] == null) {
+      tails[bucket] = null;
+      if (size > 0) {
+        // advance to the next occupied bucket, which is at most lastTime - firstTime away
+        do {
+          firstTime++;
+          bucket = firstTime & mask;
+        } while (heads[bucket] == null);
+      }
+    }
+    @SuppressWarnings("unchecked")
+    final var node = (T) ret;
+    return node;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /** @return the number of buckets currently in the ring. */
+  public int capacity() {
+    return mask + 1;
+  }
+
+  /**
+   * Enlarges the ring so that it can hold timeKeys spanning at least span + 1 consecutive values.
+   * As every bucket holds exactly one timeKey, whole bucket lists are moved without relinking.
+   */
+  private void grow(int span) {
+    var cap = heads.length;
+    while (cap <= span) cap <<= 1;
+    final var newHeads = new QNode[cap];
+    final var newTails = new QNode[cap];
+    final var newMask = cap - 1;
+    for (var i = 0; i < heads.length; i++) {
+      if (heads[i] == null) continue;
+      final var bucket = heads[i].timeKey & newMask;
+      newHeads[bucket] = heads[i];
+      newTails[bucket] = tails[i];
+    }
+    heads = newHeads;
+    tails = newTails;
+    mask = newMask;
+  }
+}
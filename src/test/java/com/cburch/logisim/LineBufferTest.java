@@ -11,6 +11,7 @@ package com.cburch.logisim;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mockStatic;
@@ -349,6 +350,35 @@ public class LineBufferTest extends TestBase {
     assertEquals(exp, buffer.get(0));
   }
 
+  /** Tests that placeholders are replaced by their pairs, with or without spaces in them. */
+  @Test
+  public void testApplyPairs() {
+    final var pairs = new LineBuffer.Pairs().pair("name", "s_reg").pair("width", 8);
+    assertEquals(
+        "SIGNAL s_reg : std_logic_vector(8 - 1 DOWNTO 0);",
+        LineBuffer.applyPairs("SIGNAL {{name}} : std_logic_vector({{ width }} - 1 DOWNTO 0);", pairs));
+    assertEquals("a $1 \\b", LineBuffer.format("a {{1}} {{2}}", "$1", "\\b"));
+    assertEquals("{{other}} s_reg", LineBuffer.applyPairs("{{other}} {{name}}", pairs));
+    assertEquals("{s_reg}", LineBuffer.applyPairs("{{{name}}}", pairs));
+    assertEquals("{{}} s_reg", LineBuffer.applyPairs("{{}} {{name}}", pairs));
+    assertEquals("no placeholders", LineBuffer.applyPairs("no placeholders", pairs));
+  }
+
+  /** Tests that placeholders in values are replaced by the pairs that come later, as before. */
+  @Test
+  public void testPlaceholdersInValues() {
+    final var pairs = new LineBuffer.Pairs().pair("first", "{{second}}").pair("second", "done");
+    assertEquals("done", LineBuffer.applyPairs("{{first}}", pairs));
+  }
+
+  /** Tests that formatting strings are split once and shared. */
+  @Test
+  public void testTemplateShared() {
+    final var fmt = "{{1}} <= {{2}};";
+    assertSame(LineBuffer.Template.of(fmt), LineBuffer.Template.of(fmt));
+    assertEquals("a <= b;", LineBuffer.Template.of(fmt).apply(LineBuffer.Pairs.fromArgs("a", "b")));
+  }
+
   /* ********************************************************************************************* */
 
   @Test
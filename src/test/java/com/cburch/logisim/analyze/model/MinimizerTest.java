@@ -0,0 +1,151 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.analyze.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class MinimizerTest {
+
+  private static long[] newBits(int nrOfInputs) {
+    return new long[((1 << nrOfInputs) + 63) >>> 6];
+  }
+
+  private static boolean get(long[] bits, int row) {
+    return (bits[row >>> 6] & (1L << row)) != 0;
+  }
+
+  /** Fills the bitsets with a random function, about 40% ones and 10% don't cares. */
+  private static void randomFunction(
+      Random random, int nrOfInputs, long[] desired, long[] dontCare) {
+    for (var row = 0; row < 1 << nrOfInputs; row++) {
+      final var value = random.nextInt(10);
+      if (value < 4) desired[row >>> 6] |= 1L << row;
+      else if (value < 5) dontCare[row >>> 6] |= 1L << row;
+    }
+  }
+
+  private static boolean covers(Implicant implicant, int row) {
+    return (row & ~implicant.unknowns) == implicant.values;
+  }
+
+  private static void assertCover(
+      int nrOfInputs, long[] desired, long[] dontCare, List<Implicant> cover) {
+    for (var row = 0; row < 1 << nrOfInputs; row++) {
+      var covered = false;
+      for (final var implicant : cover) {
+        if (!covers(implicant, row)) continue;
+        covered = true;
+        assertTrue(get(desired, row) || get(dontCare, row), "row " + row + " must not be covered");
+      }
+      if (get(desired, row)) assertTrue(covered, "row " + row + " must be covered");
+    }
+  }
+
+  /** @return the fewest implicants covering the desired rows, by trying all combinations. */
+  private static int minimalCoverSize(int nrOfInputs, long[] desired, long[] dontCare) {
+    final var mask = (1 << nrOfInputs) - 1;
+    final var implicants = new ArrayList<Implicant>();
+    for (var unknowns = 0; unknowns <= mask; unknowns++) {
+      for (var values = 0; values <= mask; values++) {
+        if ((values & unknowns) != 0) continue;
+        final var implicant = new Implicant(unknowns, values);
+        var allowed = true;
+        var useful = false;
+        for (var row = 0; row <= mask; row++) {
+          if (!covers(implicant, row)) continue;
+          allowed &= get(desired, row) || get(dontCare, row);
+          useful |= get(desired, row);
+        }
+        if (allowed && useful) implicants.add(implicant);
+      }
+    }
+    for (var size = 0; ; size++) {
+      if (hasCover(implicants, desired, mask, size, 0, new ArrayList<>())) return size;
+    }
+  }
+
+  private static boolean hasCover(
+      List<Implicant> implicants,
+      long[] desired,
+      int mask,
+      int size,
+      int start,
+      List<Implicant> chosen) {
+    if (chosen.size() == size) {
+      for (var row = 0; row <= mask; row++) {
+        if (!get(desired, row)) continue;
+        final var r = row;
+        if (chosen.stream().noneMatch(implicant -> covers(implicant, r))) return false;
+      }
+      return true;
+    }
+    for (var i = start; i < implicants.size(); i++) {
+      chosen.add(implicants.get(i));
+      if (hasCover(implicants, desired, mask, size, i + 1, chosen)) return true;
+      chosen.remove(chosen.size() - 1);
+    }
+    return false;
+  }
+
+  @Test
+  void smallFunctionsAreMinimal() {
+    final var random = new Random(42);
+    for (var test = 0; test < 100; test++) {
+      final var nrOfInputs = 2 + random.nextInt(3);
+      final var desired = newBits(nrOfInputs);
+      final var dontCare = newBits(nrOfInputs);
+      randomFunction(random, nrOfInputs, desired, dontCare);
+      final var cover = new Minimizer(nrOfInputs, desired, dontCare, null).minimize();
+      assertCover(nrOfInputs, desired, dontCare, cover);
+      assertEquals(minimalCoverSize(nrOfInputs, desired, dontCare), cover.size());
+    }
+  }
+
+  @Test
+  void largeFunctionsAreCovered() {
+    final var random = new Random(7);
+    for (final var nrOfInputs : new int[] {8, 12, 14}) {
+      final var desired = newBits(nrOfInputs);
+      final var dontCare = newBits(nrOfInputs);
+      randomFunction(random, nrOfInputs, desired, dontCare);
+      final var cover = new Minimizer(nrOfInputs, desired, dontCare, null).minimize();
+      assertCover(nrOfInputs, desired, dontCare, cover);
+    }
+  }
+
+  @Test
+  void parityIsNotMerged() {
+    final var nrOfInputs = 12;
+    final var desired = newBits(nrOfInputs);
+    for (var row = 0; row < 1 << nrOfInputs; row++) {
+      if (Integer.bitCount(row) % 2 == 1) desired[row >>> 6] |= 1L << row;
+    }
+    final var cover = new Minimizer(nrOfInputs, desired, newBits(nrOfInputs), null).minimize();
+    assertEquals(1 << (nrOfInputs - 1), cover.size());
+  }
+
+  @Test
+  void constantFunctions() {
+    final var nrOfInputs = 5;
+    final var ones = newBits(nrOfInputs);
+    ones[0] = (1L << 32) - 1;
+    final var all = new Minimizer(nrOfInputs, ones, newBits(nrOfInputs), null).minimize();
+    assertEquals(1, all.size());
+    assertEquals((1 << nrOfInputs) - 1, all.get(0).unknowns);
+    final var none = newBits(nrOfInputs);
+    assertTrue(new Minimizer(nrOfInputs, none, ones, null).minimize().isEmpty());
+  }
+}
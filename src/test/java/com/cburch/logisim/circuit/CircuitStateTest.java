@@ -12,6 +12,7 @@ package com.cburch.logisim.circuit;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.cburch.logisim.comp.Component;
 import com.cburch.logisim.comp.EndData;
@@ -19,9 +20,24 @@ import com.cburch.logisim.data.Location;
 import com.cburch.logisim.data.Value;
 import com.cburch.logisim.file.Loader;
 import com.cburch.logisim.file.LogisimFile;
+import com.cburch.logisim.instance.InstanceFactory;
+import com.cburch.logisim.instance.InstancePainter;
+import com.cburch.logisim.instance.InstanceState;
+import com.cburch.logisim.instance.InstanceStateImpl;
+import com.cburch.logisim.instance.Port;
+import com.cburch.logisim.instance.StdAttr;
 import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.std.gates.GatesLibrary;
 import com.cburch.logisim.std.memory.Ram;
 import com.cburch.logisim.std.wiring.Pin;
+import com.cburch.logisim.std.wiring.Tunnel;
+import com.cburch.logisim.tools.AddTool;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.junit.jupiter.api.Test;
 
 class CircuitStateTest {
@@ -110,6 +126,235 @@ class CircuitStateTest {
     assertEquals(Value.UNKNOWN, state.getValue(outputEnd.getLocation()));
   }
 
+  @Test
+  void valuesFarOutsideTheOriginAreStoredAndCloned() {
+    final var fixture = new Fixture();
+    final var input = Pin.FACTORY.createComponent(Location.create(-3000, 5000, true), Pin.FACTORY.createAttributeSet());
+    final var outputAttrs = Pin.FACTORY.createAttributeSet();
+    outputAttrs.setValue(Pin.ATTR_TYPE, Pin.OUTPUT);
+    final var output = Pin.FACTORY.createComponent(Location.create(9000, 5000, true), outputAttrs);
+    add(fixture.circuit, input);
+    add(fixture.circuit, output);
+    add(fixture.circuit, Wire.create(input.getLocation(), output.getLocation()));
+
+    final var state = CircuitState.createRootState(fixture.project, fixture.circuit, Thread.currentThread());
+    state.getPropagator().propagate();
+    Pin.FACTORY.driveInputPin(state.getInstanceState(input), Value.TRUE);
+    state.markComponentAsDirty(input);
+    state.getPropagator().propagate();
+
+    assertEquals(Value.TRUE, state.getValue(input.getLocation()));
+    assertEquals(Value.TRUE, state.getValue(output.getLocation()));
+    assertEquals(Value.TRUE, state.cloneAsNewRootState(Thread.currentThread()).getValue(output.getLocation()));
+  }
+
+  @Test
+  void parallelPropagationMatchesSequential() {
+    final var fixture = new Fixture();
+    final var tile = new Circuit("tile", fixture.file, fixture.project);
+    fixture.file.addCircuit(tile);
+    final var notGate = ((AddTool) new GatesLibrary().getTool("NOT Gate")).getFactory();
+    final var tileInput = Pin.FACTORY.createComponent(Location.create(100, 100, true), Pin.FACTORY.createAttributeSet());
+    add(tile, tileInput);
+    final var gateOutputs = new ArrayList<Location>();
+    var end = tileInput.getLocation();
+    for (var i = 0; i < 6; i++) {
+      final var gate = notGate.createComponent(Location.create(0, 0, true), notGate.createAttributeSet());
+      final var dx = end.getX() - gate.getEnd(1).getLocation().getX();
+      final var placed = notGate.createComponent(Location.create(dx, end.getY(), true), gate.getAttributeSet());
+      add(tile, placed);
+      end = placed.getEnd(0).getLocation();
+      gateOutputs.add(end);
+    }
+
+    final var input = Pin.FACTORY.createComponent(Location.create(40, 40, true), Pin.FACTORY.createAttributeSet());
+    add(fixture.circuit, input);
+    add(fixture.circuit, tunnel(input.getLocation()));
+    final var instances = new ArrayList<Component>();
+    for (var t = 0; t < 6; t++) {
+      final var instance = tile.getSubcircuitFactory()
+          .createComponent(Location.create(200, 100 + 100 * t, true), tile.getSubcircuitFactory().createAttributeSet());
+      add(fixture.circuit, instance);
+      add(fixture.circuit, tunnel(instance.getEnd(0).getLocation()));
+      instances.add(instance);
+    }
+
+    final var sequential = CircuitState.createRootState(fixture.project, fixture.circuit, Thread.currentThread());
+    final var parallel = CircuitState.createRootState(fixture.project, fixture.circuit, Thread.currentThread());
+    parallel.getPropagator().parallel = true;
+    var value = Value.FALSE;
+    for (var step = 0; step < 4; step++) {
+      for (final var state : new CircuitState[] {sequential, parallel}) {
+        Pin.FACTORY.driveInputPin(state.getInstanceState(input), value);
+        state.markComponentAsDirty(input);
+        state.getPropagator().propagate();
+      }
+      for (final var instance : instances) {
+        final var seqSub = tile.getSubcircuitFactory().getSubstate(sequential, instance);
+        final var parSub = tile.getSubcircuitFactory().getSubstate(parallel, instance);
+        for (final var loc : gateOutputs) {
+          assertEquals(seqSub.getValue(loc), parSub.getValue(loc), "at " + loc + " in step " + step);
+        }
+        assertEquals(value, parSub.getValue(gateOutputs.get(gateOutputs.size() - 1)));
+      }
+      value = value.not();
+    }
+  }
+
+  @Test
+  void parallelPropagationTakesComponentsMarkedByEarlierStates() {
+    final var fixture = new Fixture();
+    final var tile = new Circuit("tile", fixture.file, fixture.project);
+    fixture.file.addCircuit(tile);
+    final var notGate = ((AddTool) new GatesLibrary().getTool("NOT Gate")).getFactory();
+    final var gate = notGate.createComponent(Location.create(200, 100, true), notGate.createAttributeSet());
+    add(tile, gate);
+    // the toggle is marked from the parent; the recorder notes the step in which its output changes
+    final var toggle = TogglingFactory.INSTANCE.createComponent(
+        Location.create(300, 100, true), TogglingFactory.INSTANCE.createAttributeSet());
+    add(tile, toggle);
+    final var recorder = new RecordingFactory();
+    add(tile, recorder.createComponent(Location.create(300, 100, true), recorder.createAttributeSet()));
+
+    final var instances = new ArrayList<Component>();
+    for (var t = 0; t < 6; t++) {
+      final var instance = tile.getSubcircuitFactory()
+          .createComponent(Location.create(200, 100 + 100 * t, true), tile.getSubcircuitFactory().createAttributeSet());
+      add(fixture.circuit, instance);
+      instances.add(instance);
+    }
+    // a component of the parent that marks a component in every substate when propagated
+    final var marker = new MarkingFactory(tile.getSubcircuitFactory(), instances, toggle);
+    final var marking = marker.createComponent(Location.create(40, 40, true), marker.createAttributeSet());
+    add(fixture.circuit, marking);
+
+    final var sequential = CircuitState.createRootState(fixture.project, fixture.circuit, Thread.currentThread());
+    final var parallel = CircuitState.createRootState(fixture.project, fixture.circuit, Thread.currentThread());
+    parallel.getPropagator().parallel = true;
+    final var traces = new HashMap<Integer, List<List<Integer>>>();
+    for (final var state : new CircuitState[] {sequential, parallel}) {
+      state.getPropagator().propagate();
+      // propagate() stops once no events are left, even with components marked in its last pass
+      while (state.getPropagator().step(null)) continue;
+      // the parent goes on the worklist first, with a subcircuit that keeps it on this thread,
+      // followed by the substates with nothing but self-contained components
+      state.markComponentAsDirty(marking);
+      state.markComponentAsDirty(instances.get(0));
+      for (final var instance : instances) {
+        tile.getSubcircuitFactory().getSubstate(state, instance).markComponentAsDirty(gate);
+      }
+      recorder.log.clear();
+      var step = 0;
+      do {
+        recorder.step = step++;
+      } while (state.getPropagator().step(null));
+      for (var t = 0; t < instances.size(); t++) {
+        final var subState = tile.getSubcircuitFactory().getSubstate(state, instances.get(t));
+        traces.computeIfAbsent(t, k -> new ArrayList<>()).add(recorder.log.get(subState));
+      }
+    }
+    for (final var trace : traces.values()) {
+      assertEquals(List.of(0), trace.get(0));
+      assertEquals(trace.get(0), trace.get(1));
+    }
+  }
+
+  @Test
+  void removedAndAddedBackComponentIsPropagated() {
+    final var fixture = new Fixture();
+    final var notGate = ((AddTool) new GatesLibrary().getTool("NOT Gate")).getFactory();
+    final var gate =
+        notGate.createComponent(Location.create(200, 100, true), notGate.createAttributeSet());
+    add(fixture.circuit, gate);
+    final var state = CircuitState.createRootState(fixture.project, fixture.circuit, Thread.currentThread());
+    state.getPropagator().propagate();
+
+    // as done by deleting the gate and undoing it, before the simulator takes the next step
+    final var remove = new CircuitMutation(fixture.circuit);
+    remove.remove(gate);
+    remove.execute();
+    add(fixture.circuit, gate);
+    state.markComponentAsDirty(gate);
+    final var profile = new SimulationProfile();
+    state.getPropagator().setProfile(profile);
+    state.getPropagator().propagate();
+
+    final var gateCalls = profile.getComponentStats().stream()
+        .filter(stat -> stat.factory() == notGate)
+        .mapToLong(SimulationProfile.ComponentStat::calls)
+        .sum();
+    assertTrue(gateCalls > 0);
+  }
+
+  /** Inverts the value at its output whenever propagated. */
+  private static final class TogglingFactory extends InstanceFactory {
+    private static final TogglingFactory INSTANCE = new TogglingFactory();
+
+    private TogglingFactory() {
+      super("Toggling");
+      setPorts(new Port[] {new Port(0, 0, Port.OUTPUT, 1)});
+    }
+
+    @Override
+    public void paintInstance(InstancePainter painter) {}
+
+    @Override
+    public void propagate(InstanceState state) {
+      state.setPort(0, state.getPortValue(0) == Value.TRUE ? Value.FALSE : Value.TRUE, 1);
+    }
+  }
+
+  /** Records, per state, the steps in which it was propagated. */
+  private static final class RecordingFactory extends InstanceFactory {
+    private final Map<CircuitState, List<Integer>> log = new ConcurrentHashMap<>();
+    private volatile int step;
+
+    private RecordingFactory() {
+      super("Recording");
+      setPorts(new Port[] {new Port(0, 0, Port.INPUT, 1)});
+    }
+
+    @Override
+    public void paintInstance(InstancePainter painter) {}
+
+    @Override
+    public void propagate(InstanceState state) {
+      final var circuitState = ((InstanceStateImpl) state).getCircuitState();
+      log.computeIfAbsent(circuitState, k -> Collections.synchronizedList(new ArrayList<>())).add(step);
+    }
+  }
+
+  /** Marks a component in the substates of the given subcircuits when propagated. */
+  private static final class MarkingFactory extends InstanceFactory {
+    private final SubcircuitFactory subcircuit;
+    private final List<Component> instances;
+    private final Component target;
+
+    private MarkingFactory(SubcircuitFactory subcircuit, List<Component> instances, Component target) {
+      super("Marking");
+      this.subcircuit = subcircuit;
+      this.instances = instances;
+      this.target = target;
+    }
+
+    @Override
+    public void paintInstance(InstancePainter painter) {}
+
+    @Override
+    public void propagate(InstanceState state) {
+      final var circuitState = ((InstanceStateImpl) state).getCircuitState();
+      for (final var instance : instances) {
+        subcircuit.getSubstate(circuitState, instance).markComponentAsDirty(target);
+      }
+    }
+  }
+
+  private static Component tunnel(Location loc) {
+    final var attrs = Tunnel.FACTORY.createAttributeSet();
+    attrs.setValue(StdAttr.LABEL, "in");
+    return Tunnel.FACTORY.createComponent(loc, attrs);
+  }
+
   private static void add(Circuit circuit, Component component) {
     final var mutation = new CircuitMutation(circuit);
     mutation.add(component);
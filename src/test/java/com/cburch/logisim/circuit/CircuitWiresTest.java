@@ -0,0 +1,116 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.circuit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.data.BitWidth;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.instance.StdAttr;
+import com.cburch.logisim.std.wiring.Pin;
+import com.cburch.logisim.std.wiring.Tunnel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class CircuitWiresTest {
+
+  private static Location at(int x, int y) {
+    return Location.create(x * 10, y * 10, false);
+  }
+
+  private static Component pin(Location loc, int width) {
+    final var attrs = Pin.FACTORY.createAttributeSet();
+    attrs.setValue(StdAttr.WIDTH, BitWidth.create(width));
+    return Pin.FACTORY.createComponent(loc, attrs);
+  }
+
+  private static Component tunnel(Location loc, String label) {
+    final var attrs = Tunnel.FACTORY.createAttributeSet();
+    attrs.setValue(StdAttr.LABEL, label);
+    return Tunnel.FACTORY.createComponent(loc, attrs);
+  }
+
+  private static Set<Location> net(CircuitWires wires, Location loc) {
+    final var bundle = wires.getWireBundle(loc);
+    return bundle == null ? null : new HashSet<>(List.of(bundle.xpoints));
+  }
+
+  @Test
+  void incrementalUpdatesMatchFullRebuild() {
+    final var rand = new Random(5);
+    final var incremental = new CircuitWires();
+    final var full = new CircuitWires();
+    full.incrementalConnectivity = false;
+    final var present = new ArrayList<Component>();
+    final var locations = new HashSet<Location>();
+
+    for (var step = 0; step < 400; step++) {
+      if (present.size() > 40 && rand.nextInt(3) == 0) {
+        final var comp = present.remove(rand.nextInt(present.size()));
+        incremental.remove(comp);
+        full.remove(comp);
+      } else {
+        final var x = rand.nextInt(30);
+        final var y = rand.nextInt(30);
+        final var kind = rand.nextInt(10);
+        final Component comp;
+        if (kind < 7) {
+          final var len = 1 + rand.nextInt(4);
+          comp = rand.nextBoolean()
+              ? Wire.create(at(x, y), at(x + len, y))
+              : Wire.create(at(x, y), at(x, y + len));
+        } else if (kind < 9) {
+          comp = pin(at(x, y), rand.nextBoolean() ? 1 : 8);
+        } else {
+          comp = tunnel(at(x, y), "t" + rand.nextInt(3));
+        }
+        if (!incremental.add(comp)) continue;
+        full.add(comp);
+        present.add(comp);
+        for (final var end : comp.getEnds()) locations.add(end.getLocation());
+      }
+      // querying after every few edits also checks updates spanning several edits
+      if (step % 3 != 0) continue;
+      for (final var loc : locations) {
+        assertEquals(net(full, loc), net(incremental, loc), "net at " + loc + " after step " + step);
+        assertEquals(full.getWidth(loc), incremental.getWidth(loc), "width at " + loc);
+      }
+    }
+  }
+
+  @Test
+  void unrelatedBundlesAreKept() {
+    final var wires = new CircuitWires();
+    for (var i = 0; i < 20; i++) wires.add(Wire.create(at(0, 2 * i), at(5, 2 * i)));
+    final var kept = wires.getWireBundle(at(0, 0));
+    final var edited = wires.getWireBundle(at(0, 10));
+    assertNotNull(kept);
+
+    final var wire = Wire.create(at(5, 10), at(8, 10));
+    wires.add(wire);
+    assertSame(kept, wires.getWireBundle(at(0, 0)));
+    assertNotSame(edited, wires.getWireBundle(at(0, 10)));
+    assertEquals(3, wires.getWireBundle(at(0, 10)).xpoints.length);
+    assertSame(wires.getWireBundle(at(0, 10)), wires.getWireBundle(at(8, 10)));
+
+    wires.remove(wire);
+    assertEquals(2, wires.getWireBundle(at(0, 10)).xpoints.length);
+    assertNull(wires.getWireBundle(at(8, 10)));
+  }
+}
@@ -0,0 +1,232 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.circuit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.comp.ComponentFactory;
+import com.cburch.logisim.comp.EndData;
+import com.cburch.logisim.data.BitWidth;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.data.Value;
+import com.cburch.logisim.file.Loader;
+import com.cburch.logisim.file.LogisimFile;
+import com.cburch.logisim.instance.Instance;
+import com.cburch.logisim.instance.StdAttr;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.std.arith.ArithmeticLibrary;
+import com.cburch.logisim.std.arith.Comparator;
+import com.cburch.logisim.std.arith.Multiplier;
+import com.cburch.logisim.std.arith.Shifter;
+import com.cburch.logisim.std.gates.GatesLibrary;
+import com.cburch.logisim.std.plexers.Decoder;
+import com.cburch.logisim.std.plexers.PlexersLibrary;
+import com.cburch.logisim.std.wiring.Clock;
+import com.cburch.logisim.std.wiring.Pin;
+import com.cburch.logisim.tools.AddTool;
+import com.cburch.logisim.tools.Library;
+import java.util.ArrayList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class CompiledNetlistTest {
+
+  private static final ComponentFactory NOT_GATE =
+      ((AddTool) new GatesLibrary().getTool("NOT Gate")).getFactory();
+
+  private static final class Fixture {
+    private final LogisimFile file;
+    private final Project project;
+    private final Circuit circuit;
+
+    private Fixture() {
+      file = LogisimFile.createNew(new Loader(null), null);
+      project = new Project(file);
+      circuit = file.getMainCircuit();
+      circuit.setProject(project);
+    }
+
+    private CircuitState createState() {
+      final var state = CircuitState.createRootState(project, circuit, Thread.currentThread());
+      state.getPropagator().propagate();
+      return state;
+    }
+  }
+
+  @Test
+  void notChainMatchesEventDrivenSimulation() {
+    final var fixture = new Fixture();
+    final var dx = notGateLength();
+    final var input = addPin(fixture.circuit, Location.create(100, 100, true), false);
+    for (var i = 1; i <= 3; i++) {
+      add(fixture.circuit, createNotGate(Location.create(100 + i * dx, 100, true)));
+    }
+    final var output = addPin(fixture.circuit, Location.create(100 + 3 * dx, 100, true), true);
+
+    for (final var in : new Value[] {Value.FALSE, Value.TRUE}) {
+      final var state = fixture.createState();
+      Pin.FACTORY.driveInputPin(state.getInstanceState(input), in);
+      state.markComponentAsDirty(input);
+      state.getPropagator().propagate();
+
+      final var compiled = CompiledNetlist.compile(state);
+      assertEquals(4, compiled.getNetCount());
+      assertEquals(3, compiled.getNodeCount());
+      assertEquals(in.not(), compiled.getPinValue(instance(output)));
+      assertEquals(Pin.FACTORY.getValue(state.getInstanceState(output)),
+          compiled.getPinValue(instance(output)));
+    }
+  }
+
+  @Test
+  void subcircuitPortsAreMerged() {
+    final var fixture = new Fixture();
+    final var dx = notGateLength();
+    final var child = new Circuit("child", fixture.file, fixture.project);
+    fixture.file.addCircuit(child);
+    addPin(child, Location.create(100, 100, true), false);
+    add(child, createNotGate(Location.create(100 + dx, 100, true)));
+    addPin(child, Location.create(100 + dx, 100, true), true);
+
+    final var factory = child.getSubcircuitFactory();
+    final var sub = factory.createComponent(Location.create(300, 200, true),
+        factory.createAttributeSet());
+    add(fixture.circuit, sub);
+    Component input = null;
+    Component output = null;
+    for (final var end : sub.getEnds()) {
+      if (end.getType() == EndData.INPUT_ONLY) {
+        input = addPin(fixture.circuit, end.getLocation(), false);
+      } else {
+        output = addPin(fixture.circuit, end.getLocation(), true);
+      }
+    }
+
+    final var state = fixture.createState();
+    Pin.FACTORY.driveInputPin(state.getInstanceState(input), Value.TRUE);
+    state.markComponentAsDirty(input);
+    state.getPropagator().propagate();
+
+    final var compiled = CompiledNetlist.compile(state);
+    assertEquals(2, compiled.getNetCount());
+    assertEquals(Value.FALSE, compiled.getPinValue(instance(output)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {Comparator._ID, Multiplier._ID, Shifter._ID, Decoder._ID})
+  void stdComponentsMatchEventDrivenSimulation(String name) {
+    final var fixture = new Fixture();
+    final Library library =
+        name.equals(Decoder._ID) ? new PlexersLibrary() : new ArithmeticLibrary();
+    final var factory = ((AddTool) library.getTool(name)).getFactory();
+    final var comp = factory.createComponent(Location.create(300, 300, true),
+        factory.createAttributeSet());
+    add(fixture.circuit, comp);
+    final var inputs = new ArrayList<Component>();
+    final var outputs = new ArrayList<Component>();
+    for (final var end : comp.getEnds()) {
+      final var output = end.getType() == EndData.OUTPUT_ONLY;
+      final var pin = addPin(fixture.circuit, end.getLocation(), output, end.getWidth());
+      (output ? outputs : inputs).add(pin);
+    }
+
+    for (var seed = 1; seed <= 5; seed++) {
+      final var state = fixture.createState();
+      for (var i = 0; i < inputs.size(); i++) {
+        final var pin = inputs.get(i);
+        final var width = pin.getAttributeSet().getValue(StdAttr.WIDTH).getWidth();
+        final var value = Value.createKnown(width, (seed * 0x9e3779b9L) >>> (7 * i));
+        Pin.FACTORY.driveInputPin(state.getInstanceState(pin), value);
+        state.markComponentAsDirty(pin);
+      }
+      state.getPropagator().propagate();
+
+      final var compiled = CompiledNetlist.compile(state);
+      assertEquals(1, compiled.getNodeCount());
+      for (final var output : outputs) {
+        assertEquals(Pin.FACTORY.getValue(state.getInstanceState(output)),
+            compiled.getPinValue(instance(output)));
+      }
+    }
+  }
+
+  @Test
+  void clockTogglesOnEveryTick() {
+    final var fixture = new Fixture();
+    final var clock = Clock.FACTORY.createComponent(Location.create(100, 100, true),
+        Clock.FACTORY.createAttributeSet());
+    add(fixture.circuit, clock);
+    final var output = addPin(fixture.circuit, Location.create(100, 100, true), true);
+
+    final var compiled = CompiledNetlist.compile(fixture.createState());
+    final var initial = compiled.getPinValue(instance(output));
+    assertTrue(initial.isFullyDefined());
+    assertTrue(compiled.tick());
+    assertEquals(1, compiled.getTickCount());
+    assertNotEquals(initial, compiled.getPinValue(instance(output)));
+    assertTrue(compiled.tick());
+    assertEquals(initial, compiled.getPinValue(instance(output)));
+  }
+
+  @Test
+  void combinationalLoopIsRejected() {
+    final var fixture = new Fixture();
+    final var dx = notGateLength();
+    final var in = Location.create(100, 100, true);
+    final var out = Location.create(100 + dx, 100, true);
+    add(fixture.circuit, createNotGate(out));
+    add(fixture.circuit, Wire.create(out, Location.create(out.getX(), 140, true)));
+    add(fixture.circuit, Wire.create(Location.create(out.getX(), 140, true),
+        Location.create(in.getX(), 140, true)));
+    add(fixture.circuit, Wire.create(Location.create(in.getX(), 140, true), in));
+
+    final var state = fixture.createState();
+    final var e = assertThrows(UnsupportedOperationException.class,
+        () -> CompiledNetlist.compile(state));
+    assertTrue(e.getMessage().startsWith("combinational loop"));
+  }
+
+  private static int notGateLength() {
+    final var proto = createNotGate(Location.create(0, 0, true));
+    return proto.getEnd(0).getLocation().getX() - proto.getEnd(1).getLocation().getX();
+  }
+
+  private static Component createNotGate(Location loc) {
+    return NOT_GATE.createComponent(loc, NOT_GATE.createAttributeSet());
+  }
+
+  private static Component addPin(Circuit circuit, Location loc, boolean output) {
+    return addPin(circuit, loc, output, BitWidth.ONE);
+  }
+
+  private static Component addPin(Circuit circuit, Location loc, boolean output, BitWidth width) {
+    final var attrs = Pin.FACTORY.createAttributeSet();
+    if (output) attrs.setValue(Pin.ATTR_TYPE, Pin.OUTPUT);
+    attrs.setValue(StdAttr.WIDTH, width);
+    final var pin = Pin.FACTORY.createComponent(loc, attrs);
+    add(circuit, pin);
+    return pin;
+  }
+
+  private static Instance instance(Component comp) {
+    return Instance.getInstanceFor(comp);
+  }
+
+  private static void add(Circuit circuit, Component component) {
+    final var mutation = new CircuitMutation(circuit);
+    mutation.add(component);
+    mutation.execute();
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.circuit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.cburch.logisim.data.Bounds;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class ComponentGridTest {
+
+  private static boolean meets(Bounds a, Bounds b) {
+    return a.getX() <= b.getX() + b.getWidth()
+        && b.getX() <= a.getX() + a.getWidth()
+        && a.getY() <= b.getY() + b.getHeight()
+        && b.getY() <= a.getY() + a.getHeight();
+  }
+
+  private static Bounds randomBounds(Random rand) {
+    // mostly gate sized, some spanning many cells, some at negative coordinates
+    final var size = rand.nextInt(10) == 0 ? 2000 : 60;
+    return Bounds.create(
+        rand.nextInt(8000) - 1000, rand.nextInt(8000) - 1000, rand.nextInt(size), rand.nextInt(size));
+  }
+
+  /** Tests that queries agree with a scan of all elements, also after moving and removing some. */
+  @Test
+  public void testMatchesScan() {
+    final var rand = new Random(5);
+    final var reference = new LinkedHashMap<Integer, Bounds>();
+    final var grid = new ComponentGrid<Integer>();
+    for (var i = 0; i < 2000; i++) {
+      final var bds = randomBounds(rand);
+      reference.put(i, bds);
+      grid.add(i, bds);
+    }
+    for (var i = 0; i < 500; i++) {
+      final var element = rand.nextInt(2000);
+      if (rand.nextBoolean()) {
+        reference.remove(element);
+        grid.remove(element);
+      } else {
+        final var bds = randomBounds(rand);
+        if (reference.containsKey(element)) reference.put(element, bds);
+        grid.update(element, bds);
+      }
+    }
+    assertEquals(reference.size(), grid.size());
+    for (var q = 0; q < 300; q++) {
+      final var area =
+          q % 3 == 0
+              ? Bounds.create(rand.nextInt(8000) - 1000, rand.nextInt(8000) - 1000, 1, 1)
+              : Bounds.create(rand.nextInt(8000) - 1000, rand.nextInt(8000) - 1000,
+                  rand.nextInt(q < 250 ? 500 : 20000), rand.nextInt(q < 250 ? 500 : 20000));
+      final List<Integer> expected = new ArrayList<>();
+      for (final var entry : reference.entrySet()) {
+        if (meets(entry.getValue(), area)) expected.add(entry.getKey());
+      }
+      assertEquals(expected, grid.query(area));
+    }
+  }
+
+  /** Tests that an element keeps its place in the order when it is updated. */
+  @Test
+  public void testOrderKeptOnUpdate() {
+    final var grid = new ComponentGrid<String>();
+    grid.add("a", Bounds.create(0, 0, 10, 10));
+    grid.add("b", Bounds.create(5, 5, 10, 10));
+    grid.update("a", Bounds.create(300, 300, 10, 10));
+    grid.update("a", Bounds.create(0, 0, 20, 20));
+    grid.update("c", Bounds.create(0, 0, 20, 20));
+    assertEquals(List.of("a", "b"), grid.query(Bounds.create(6, 6, 1, 1)));
+  }
+}
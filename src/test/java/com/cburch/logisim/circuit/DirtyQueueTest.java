@@ -0,0 +1,74 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.circuit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class DirtyQueueTest {
+
+  /** Tests that elements are drained oldest first, after whatever the target already holds. */
+  @Test
+  public void testDrainOrder() {
+    final var queue = new DirtyQueue<Integer>();
+    queue.add(1);
+    queue.addAll(List.of(2, 3, 4));
+    queue.add(5);
+    assertEquals(List.of(1, 2, 3, 4, 5), queue.snapshot());
+
+    final var dst = new ArrayList<>(List.of(0));
+    queue.drainTo(dst);
+    assertEquals(List.of(0, 1, 2, 3, 4, 5), dst);
+    assertTrue(queue.isEmpty());
+    queue.drainTo(dst);
+    assertEquals(6, dst.size());
+  }
+
+  /** Tests that nothing is lost or duplicated while producers race with the consumer. */
+  @Test
+  public void testConcurrentProducers() throws InterruptedException {
+    final var producers = 4;
+    final var perProducer = 20_000;
+    final var queue = new DirtyQueue<Integer>();
+    final var threads = new ArrayList<Thread>();
+    for (var p = 0; p < producers; p++) {
+      final var base = p * perProducer;
+      threads.add(new Thread(() -> {
+        for (var i = 0; i < perProducer; i += 2) {
+          queue.add(base + i);
+          queue.addAll(List.of(base + i + 1));
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    final var seen = new ArrayList<Integer>();
+    final var lastSeen = new int[producers];
+    Arrays.fill(lastSeen, -1);
+    while (seen.size() < producers * perProducer) {
+      final var start = seen.size();
+      queue.drainTo(seen);
+      for (var i = start; i < seen.size(); i++) {
+        // each producer's elements must come out in the order it added them
+        final var item = seen.get(i);
+        final var p = item / perProducer;
+        assertTrue(item % perProducer > lastSeen[p]);
+        lastSeen[p] = item % perProducer;
+      }
+    }
+    for (final var thread : threads) thread.join();
+    assertTrue(queue.isEmpty());
+    assertEquals(producers * perProducer, seen.size());
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.circuit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.cburch.logisim.data.Location;
+import java.util.HashMap;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class LocationIndexTest {
+
+  /** Tests that lookups agree with a HashMap, including negative and far away coordinates. */
+  @Test
+  public void testMatchesHashMap() {
+    final var rand = new Random(3);
+    final var reference = new HashMap<Location, Integer>();
+    final var index = new LocationIndex(1000);
+    while (reference.size() < 1000) {
+      final var loc = Location.create(rand.nextInt(200_000) - 100_000, rand.nextInt(2000) * 10, false);
+      if (reference.containsKey(loc)) continue;
+      reference.put(loc, reference.size());
+      assertEquals(LocationIndex.NONE, index.put(loc, reference.get(loc)));
+    }
+    assertEquals(1000, index.size());
+    for (final var entry : reference.entrySet()) {
+      assertEquals(entry.getValue().intValue(), index.get(entry.getKey()));
+    }
+    assertEquals(LocationIndex.NONE, index.get(Location.create(100_001, 0, false)));
+  }
+
+  /** Tests that putting a location again replaces its slot. */
+  @Test
+  public void testReplace() {
+    final var index = new LocationIndex(2);
+    final var loc = Location.create(10, 20, false);
+    index.put(loc, 4);
+    assertEquals(4, index.put(loc, 7));
+    assertEquals(7, index.get(loc));
+    assertEquals(1, index.size());
+  }
+}
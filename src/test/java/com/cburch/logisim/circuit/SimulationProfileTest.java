@@ -0,0 +1,82 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.circuit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.data.Value;
+import com.cburch.logisim.file.Loader;
+import com.cburch.logisim.file.LogisimFile;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.std.gates.GatesLibrary;
+import com.cburch.logisim.std.wiring.Pin;
+import com.cburch.logisim.tools.AddTool;
+import org.junit.jupiter.api.Test;
+
+class SimulationProfileTest {
+
+  private static final int CHAIN_LENGTH = 5;
+
+  /** Tests that propagating a chain of NOT gates is counted against the NOT gate factory. */
+  @Test
+  void countsPropagationOfNotChain() {
+    final var file = LogisimFile.createNew(new Loader(null), null);
+    final var project = new Project(file);
+    final var circuit = file.getMainCircuit();
+    circuit.setProject(project);
+
+    final var notGate = ((AddTool) new GatesLibrary().getTool("NOT Gate")).getFactory();
+    final var proto = notGate.createComponent(Location.create(0, 0, true), notGate.createAttributeSet());
+    final var dx = proto.getEnd(0).getLocation().getX() - proto.getEnd(1).getLocation().getX();
+    final var inX = proto.getEnd(1).getLocation().getX();
+    final var mutation = new CircuitMutation(circuit);
+    final var input = Pin.FACTORY.createComponent(Location.create(100, 100, true),
+        Pin.FACTORY.createAttributeSet());
+    mutation.add(input);
+    for (var i = 0; i < CHAIN_LENGTH; i++) {
+      mutation.add(notGate.createComponent(Location.create(100 - inX + i * dx, 100, true),
+          notGate.createAttributeSet()));
+    }
+    mutation.execute();
+
+    final var state = CircuitState.createRootState(project, circuit, Thread.currentThread());
+    final var prop = state.getPropagator();
+    prop.propagate();
+
+    final var profile = new SimulationProfile();
+    prop.setProfile(profile);
+    Pin.FACTORY.driveInputPin(state.getInstanceState(input), Value.TRUE);
+    state.markComponentAsDirty(input);
+    prop.propagate();
+    prop.setProfile(null);
+
+    // every gate sees its input change once, one gate per time step
+    final var stats = profile.getComponentStats();
+    final var notStat = stats.stream().filter(s -> s.factory() == notGate).findFirst().orElseThrow();
+    assertEquals(CHAIN_LENGTH, notStat.calls());
+    assertTrue(profile.getEventCount() >= CHAIN_LENGTH);
+    assertTrue(profile.getTimeStepCount() >= CHAIN_LENGTH);
+    assertTrue(profile.getWirePropagationCount() > 0);
+    assertEquals(0, profile.getOscillationCheckCount());
+
+    // nothing is counted once the profile is detached
+    final var events = profile.getEventCount();
+    Pin.FACTORY.driveInputPin(state.getInstanceState(input), Value.FALSE);
+    state.markComponentAsDirty(input);
+    prop.propagate();
+    assertEquals(events, profile.getEventCount());
+
+    profile.reset();
+    assertEquals(0, profile.getEventCount());
+    assertTrue(profile.getComponentStats().isEmpty());
+  }
+}
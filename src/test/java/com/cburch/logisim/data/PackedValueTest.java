@@ -0,0 +1,103 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class PackedValueTest {
+
+  private static final int[] WIDTHS = {1, 2, 8, 32, 63, 64};
+  private static final int A = 0;
+  private static final int B = PackedValue.SIZE;
+  private static final int DST = 2 * PackedValue.SIZE;
+
+  private static Value random(Random rand, int width) {
+    // sparse error and unknown planes, so that all four bit states show up
+    return Value.create(width, rand.nextLong() & rand.nextLong() & rand.nextLong(),
+        rand.nextLong() & rand.nextLong(), rand.nextLong());
+  }
+
+  /** Tests that every packed operation agrees with the corresponding Value operation. */
+  @Test
+  public void testMatchesValueOperations() {
+    final var rand = new Random(7);
+    final var buf = PackedValue.allocate(3);
+    for (final var width : WIDTHS) {
+      for (var i = 0; i < 500; i++) {
+        final var a = random(rand, width);
+        final var b = random(rand, width);
+        PackedValue.set(buf, A, a);
+        PackedValue.set(buf, B, b);
+
+        PackedValue.and(buf, DST, A, B);
+        assertEquals(a.and(b), PackedValue.get(width, buf, DST));
+        PackedValue.or(buf, DST, A, B);
+        assertEquals(a.or(b), PackedValue.get(width, buf, DST));
+        PackedValue.xor(buf, DST, A, B);
+        assertEquals(a.xor(b), PackedValue.get(width, buf, DST));
+        PackedValue.combine(buf, DST, A, B);
+        assertEquals(a.combine(b), PackedValue.get(width, buf, DST));
+        PackedValue.not(buf, DST, A);
+        assertEquals(a.not(), PackedValue.get(width, buf, DST));
+
+        final var which = rand.nextInt(width);
+        PackedValue.copy(buf, DST, A);
+        PackedValue.setBit(buf, DST, which, b.get(0));
+        assertEquals(a.set(which, b.get(0)), PackedValue.get(width, buf, DST));
+        assertSame(a.get(which), PackedValue.getBit(buf, A, which));
+        assertEquals(a.isFullyDefined(), PackedValue.isFullyDefined(width, buf, A));
+
+        if (width < 64) {
+          for (final var fill : new Value[] {Value.FALSE, Value.TRUE, Value.UNKNOWN, Value.ERROR}) {
+            PackedValue.extendWidth(buf, DST, A, width, 64, fill);
+            assertEquals(a.extendWidth(64, fill), PackedValue.get(64, buf, DST));
+          }
+        }
+      }
+    }
+  }
+
+  /** Tests that results stay exact when operations are chained in place. */
+  @Test
+  public void testChainedInPlace() {
+    final var rand = new Random(11);
+    final var acc = PackedValue.allocate(1);
+    for (final var width : WIDTHS) {
+      final var inputs = new Value[8];
+      for (var i = 0; i < inputs.length; i++) inputs[i] = random(rand, width);
+      var expected = inputs[0];
+      PackedValue.set(acc, 0, inputs[0]);
+      for (var i = 1; i < inputs.length; i++) {
+        expected = expected.and(inputs[i]).not().or(inputs[i]);
+        PackedValue.and(acc, 0, inputs[i]);
+        PackedValue.not(acc, 0, 0);
+        PackedValue.or(acc, 0, inputs[i]);
+      }
+      assertEquals(expected, PackedValue.get(width, acc, 0));
+    }
+  }
+
+  /** Tests that bits above the width are ignored by equals and get. */
+  @Test
+  public void testBitsAboveWidthAreIgnored() {
+    final var buf = PackedValue.allocate(2);
+    PackedValue.setKnown(buf, 0, 0x1_05L);
+    PackedValue.setKnown(buf, PackedValue.SIZE, 0x05L);
+    assertTrue(PackedValue.equals(8, buf, 0, PackedValue.SIZE));
+    assertEquals(Value.createKnown(8, 5), PackedValue.get(8, buf, 0));
+    PackedValue.setUnknown(buf, 0);
+    assertTrue(PackedValue.get(8, buf, 0).isUnknown());
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cburch.logisim.circuit.Circuit;
+import com.cburch.logisim.circuit.CircuitMutation;
+import com.cburch.logisim.circuit.Wire;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.std.base.BaseLibrary;
+import com.cburch.logisim.std.base.Text;
+import com.cburch.logisim.std.gates.GatesLibrary;
+import com.cburch.logisim.std.memory.MemContents;
+import com.cburch.logisim.std.memory.MemoryLibrary;
+import com.cburch.logisim.std.memory.Rom;
+import com.cburch.logisim.std.wiring.Pin;
+import com.cburch.logisim.std.wiring.WiringLibrary;
+import com.cburch.logisim.tools.AddTool;
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BinaryProjectFormatTest {
+
+  @TempDir Path tempDir;
+
+  private static LogisimFile createProject(Loader loader) {
+    final var file = LogisimFile.createNew(loader, null);
+    final var builtin = loader.getBuiltin();
+    file.addLibrary(builtin.getLibrary(BaseLibrary._ID));
+    file.addLibrary(builtin.getLibrary(GatesLibrary._ID));
+    file.addLibrary(builtin.getLibrary(MemoryLibrary._ID));
+    file.addLibrary(builtin.getLibrary(WiringLibrary._ID));
+
+    // a circuit further on in the file, used as a subcircuit of the main one
+    final var sub = new Circuit("sub", file, null);
+    file.addCircuit(sub);
+    final var subMutation = new CircuitMutation(sub);
+    subMutation.add(Pin.FACTORY.createComponent(Location.create(100, 100, true), Pin.FACTORY.createAttributeSet()));
+    subMutation.execute();
+
+    final var mutation = new CircuitMutation(file.getMainCircuit());
+    final var subFactory = sub.getSubcircuitFactory();
+    mutation.add(subFactory.createComponent(Location.create(700, 100, true), subFactory.createAttributeSet()));
+    final var notGate = ((AddTool) builtin.getLibrary(GatesLibrary._ID).getTool("NOT Gate")).getFactory();
+    for (var i = 0; i < 20; i++) {
+      mutation.add(notGate.createComponent(Location.create(100 + 60 * i, 100, true),
+          notGate.createAttributeSet()));
+      mutation.add(Wire.create(Location.create(100 + 60 * i, 200, true),
+          Location.create(100 + 60 * i, 300, true)));
+    }
+    final var rom = ((AddTool) builtin.getLibrary(MemoryLibrary._ID).getTool(Rom._ID)).getFactory();
+    final var romAttrs = rom.createAttributeSet();
+    final var contents = MemContents.create(8, 8, false);
+    for (var addr = 0; addr < 200; addr++) contents.set(addr, (addr * 37) & 0xff);
+    romAttrs.setValue(Rom.CONTENTS_ATTR, contents);
+    mutation.add(rom.createComponent(Location.create(400, 500, true), romAttrs));
+    final var textAttrs = Text.FACTORY.createAttributeSet();
+    textAttrs.setValue(Text.ATTR_TEXT, "first line\nsecond line");
+    mutation.add(Text.FACTORY.createComponent(Location.create(100, 600, false), textAttrs));
+    mutation.execute();
+    return file;
+  }
+
+  @Test
+  void binaryProjectConvertsBackToTheSameCircFile() throws Exception {
+    final var loader = new Loader(null);
+    final var file = createProject(loader);
+    final var xmlPath = tempDir.resolve("design.circ").toFile();
+    final var binaryPath = tempDir.resolve("design.circb").toFile();
+    assertTrue(loader.save(file, xmlPath));
+    assertTrue(loader.save(file, binaryPath));
+    assertTrue(binaryPath.length() < xmlPath.length());
+
+    // the libraries can be found without reading the circuits
+    try (final var in = new BufferedInputStream(new FileInputStream(binaryPath))) {
+      assertTrue(BinaryProjectReader.isBinaryProject(in));
+      final var libraries = BinaryProjectReader.readLibraryDescriptors(in);
+      assertTrue(libraries.contains("#Gates"));
+      assertTrue(libraries.contains("#Memory"));
+    }
+
+    // the project opened from it is saved as the same XML again
+    final var reloadLoader = new Loader(null);
+    final var reloaded = reloadLoader.openLogisimFile(binaryPath);
+    final var resaved = tempDir.resolve("resaved.circ").toFile();
+    assertTrue(reloadLoader.save(reloaded, resaved));
+    assertEquals(Files.readString(xmlPath.toPath()), Files.readString(resaved.toPath()));
+  }
+}
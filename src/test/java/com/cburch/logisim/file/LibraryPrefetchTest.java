@@ -0,0 +1,134 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cburch.logisim.circuit.CircuitMutation;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.tools.AddTool;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LibraryPrefetchTest {
+
+  @TempDir Path tempDir;
+
+  private static void saveLibrary(String circuitName, File path) {
+    final var loader = new RecordingLoader();
+    final var file = LogisimFile.createNew(loader, null);
+    file.getMainCircuit().setName(circuitName);
+    assertTrue(loader.save(file, path), loader.errors());
+  }
+
+  @Test
+  void sameFileNamedThroughDifferentPathsIsLoadedOnce() throws Exception {
+    Files.createDirectories(tempDir.resolve("libs"));
+    Files.createDirectories(tempDir.resolve("p1"));
+    Files.createDirectories(tempDir.resolve("p2"));
+    saveLibrary("Common", tempDir.resolve("libs/Shared.circ").toFile());
+
+    final var first = new RecordingLoader();
+    final var fromP1 = first.loadLogisimLibrary(tempDir.resolve("p1/../libs/Shared.circ").toFile());
+    final var second = new RecordingLoader();
+    final var fromP2 = second.loadLogisimLibrary(tempDir.resolve("p2/../libs/Shared.circ").toFile());
+    assertNotNull(fromP1, first.errors());
+    assertSame(fromP1, fromP2);
+
+    // once the file changes, a project opening it gets the new contents
+    saveLibrary("Changed", tempDir.resolve("libs/Shared.circ").toFile());
+    final var third = new RecordingLoader();
+    final var changed = third.loadLogisimLibrary(tempDir.resolve("libs/../libs/Shared.circ").toFile());
+    assertNotSame(fromP1, changed);
+    assertNotNull(changed.getTool("Changed"));
+    assertFalse(first.hasErrors() || second.hasErrors() || third.hasErrors());
+  }
+
+  @Test
+  void copiesOfOneLibraryAreParsedOnce() throws Exception {
+    Files.createDirectories(tempDir.resolve("p1"));
+    Files.createDirectories(tempDir.resolve("p2"));
+    saveLibrary("Copied", tempDir.resolve("p1/Copy.circ").toFile());
+    Files.copy(tempDir.resolve("p1/Copy.circ"), tempDir.resolve("p2/Copy.circ"));
+
+    final var first = new RecordingLoader();
+    final var fromP1 = first.loadLogisimLibrary(tempDir.resolve("p1/Copy.circ").toFile());
+    final var second = new RecordingLoader();
+    final var fromP2 = second.loadLogisimLibrary(tempDir.resolve("p2/Copy.circ").toFile());
+    assertNotNull(fromP1, first.errors());
+    // the circuits are parsed once, but each copy is saved as a reference to its own file
+    assertNotSame(fromP1, fromP2);
+    assertSame(((LoadedLibrary) fromP1).getBase(), ((LoadedLibrary) fromP2).getBase());
+    final var top = LogisimFile.createNew(second, null);
+    top.addLibrary(fromP2);
+    final var topPath = tempDir.resolve("p2/Top.circ");
+    assertTrue(second.save(top, topPath.toFile()), second.errors());
+    assertTrue(Files.readString(topPath).contains("desc=\"file#Copy.circ\""));
+    assertFalse(first.hasErrors() || second.hasErrors());
+  }
+
+  @Test
+  void projectWithManyLibrariesOpensWithAllOfThem() throws Exception {
+    final var loader = new RecordingLoader();
+    final var top = LogisimFile.createNew(loader, null);
+    final var count = 8;
+    for (var i = 0; i < count; i++) {
+      final var path = tempDir.resolve("Lib" + i + ".circ").toFile();
+      saveLibrary("Part" + i, path);
+      final var lib = loader.loadLogisimLibrary(path);
+      top.addLibrary(lib);
+      final var factory = ((AddTool) lib.getTool("Part" + i)).getFactory();
+      final var mutation = new CircuitMutation(top.getMainCircuit());
+      mutation.add(factory.createComponent(Location.create(100, 100 + 100 * i, true), factory.createAttributeSet()));
+      mutation.execute();
+    }
+    final var topPath = tempDir.resolve("Top.circ").toFile();
+    assertTrue(loader.save(top, topPath), loader.errors());
+
+    final var reloadLoader = new RecordingLoader();
+    final var reloaded = reloadLoader.openLogisimFile(topPath);
+    assertFalse(reloadLoader.hasErrors(), reloadLoader.errors());
+    assertEquals(count, reloaded.getMainCircuit().getNonWires().size());
+    final var resaved = tempDir.resolve("Resaved.circ").toFile();
+    assertTrue(reloadLoader.save(reloaded, resaved));
+    assertEquals(Files.readString(topPath.toPath()), Files.readString(resaved.toPath()));
+  }
+
+  private static class RecordingLoader extends Loader {
+    private final List<String> errors = new ArrayList<>();
+
+    RecordingLoader() {
+      super(null);
+    }
+
+    String errors() {
+      return String.join("\n", errors);
+    }
+
+    boolean hasErrors() {
+      return !errors.isEmpty();
+    }
+
+    @Override
+    public void showError(String description) {
+      errors.add(description);
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cburch.logisim.circuit.Circuit;
+import com.cburch.logisim.circuit.CircuitMutation;
+import com.cburch.logisim.circuit.Wire;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.std.base.BaseLibrary;
+import com.cburch.logisim.std.gates.GatesLibrary;
+import com.cburch.logisim.std.wiring.Pin;
+import com.cburch.logisim.std.wiring.WiringLibrary;
+import com.cburch.logisim.tools.AddTool;
+import com.cburch.logisim.tools.Library;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StreamingXmlReaderTest {
+
+  @TempDir Path tempDir;
+
+  private static LogisimFile createProject(Loader loader) {
+    final var file = LogisimFile.createNew(loader, null);
+    final var builtin = loader.getBuiltin();
+    file.addLibrary(builtin.getLibrary(BaseLibrary._ID));
+    file.addLibrary(builtin.getLibrary(WiringLibrary._ID));
+    final Library gates = builtin.getLibrary(GatesLibrary._ID);
+    file.addLibrary(gates);
+
+    final var notGate = ((AddTool) gates.getTool("NOT Gate")).getFactory();
+    final var andGate = ((AddTool) gates.getTool("AND Gate")).getFactory();
+    final var sub = new Circuit("sub", file, null);
+    file.addCircuit(sub);
+    for (final var circuit : new Circuit[] {file.getMainCircuit(), sub}) {
+      final var mutation = new CircuitMutation(circuit);
+      for (var i = 0; i < 15; i++) {
+        final var gate = i % 2 == 0 ? notGate : andGate;
+        mutation.add(gate.createComponent(Location.create(100 + 60 * i, 100, true), gate.createAttributeSet()));
+        mutation.add(Wire.create(Location.create(100 + 60 * i, 200, true),
+            Location.create(100 + 60 * i, 300, true)));
+      }
+      final var pinAttrs = Pin.FACTORY.createAttributeSet();
+      mutation.add(Pin.FACTORY.createComponent(Location.create(40, 400, true), pinAttrs));
+      mutation.execute();
+    }
+    final var mutation = new CircuitMutation(file.getMainCircuit());
+    mutation.add(sub.getSubcircuitFactory().createComponent(Location.create(600, 500, true),
+        sub.getSubcircuitFactory().createAttributeSet()));
+    mutation.execute();
+    return file;
+  }
+
+  private String reload(Path saved, boolean streaming) throws Exception {
+    final var old = XmlReader.streamingReader;
+    XmlReader.streamingReader = streaming;
+    try {
+      final var loader = new Loader(null);
+      final var file = loader.openLogisimFile(saved.toFile());
+      final var resaved = tempDir.resolve((streaming ? "streamed" : "dom") + ".circ");
+      assertTrue(loader.save(file, resaved.toFile()));
+      return Files.readString(resaved);
+    } finally {
+      XmlReader.streamingReader = old;
+    }
+  }
+
+  @Test
+  void streamingReaderBuildsTheSameProjectAsTheDomReader() throws Exception {
+    final var loader = new Loader(null);
+    final var saved = tempDir.resolve("design.circ");
+    assertTrue(loader.save(createProject(loader), saved.toFile()));
+
+    final var dom = reload(saved, false);
+    assertEquals(dom, reload(saved, true));
+    assertEquals(Files.readString(saved), dom);
+  }
+
+  @Test
+  void olderFilesAreLeftToTheDomReader() throws Exception {
+    final var old = new BufferedInputStream(new ByteArrayInputStream(
+        "<project source=\"3.8.0\" version=\"1.0\"></project>".getBytes(StandardCharsets.UTF_8)));
+    assertFalse(StreamingXmlReader.canRead(old));
+    assertEquals('<', old.read());
+
+    final var unknown = new BufferedInputStream(new ByteArrayInputStream(
+        "<project version=\"1.0\"></project>".getBytes(StandardCharsets.UTF_8)));
+    assertFalse(StreamingXmlReader.canRead(unknown));
+
+    final var loader = new Loader(null);
+    final var saved = tempDir.resolve("current.circ");
+    assertTrue(loader.save(createProject(loader), saved.toFile()));
+    try (final var in = new BufferedInputStream(Files.newInputStream(saved))) {
+      assertTrue(StreamingXmlReader.canRead(in));
+      assertEquals('<', in.read());
+    }
+  }
+}
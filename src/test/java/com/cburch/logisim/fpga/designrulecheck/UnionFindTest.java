@@ -0,0 +1,42 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.fpga.designrulecheck;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class UnionFindTest {
+
+  @Test
+  void joinedNumbersShareTheirSet() {
+    final var sets = new UnionFind(6);
+    assertTrue(sets.union(0, 1));
+    assertTrue(sets.union(2, 3));
+    assertTrue(sets.union(1, 3));
+    assertFalse(sets.union(0, 2));
+    assertEquals(sets.find(0), sets.find(3));
+    assertNotEquals(sets.find(0), sets.find(4));
+    assertNotEquals(sets.find(4), sets.find(5));
+    assertEquals(5, sets.find(5));
+  }
+
+  @Test
+  void longChainsAreJoined() {
+    final var count = 100_000;
+    final var sets = new UnionFind(count);
+    for (var i = 1; i < count; i++) sets.union(i - 1, i);
+    final var root = sets.find(0);
+    for (var i = 0; i < count; i++) assertEquals(root, sets.find(i));
+  }
+}
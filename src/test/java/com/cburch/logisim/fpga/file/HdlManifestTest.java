@@ -0,0 +1,110 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.fpga.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cburch.logisim.data.Attribute;
+import com.cburch.logisim.data.AttributeSets;
+import com.cburch.logisim.fpga.hdlgenerator.Hdl;
+import com.cburch.logisim.std.memory.MemContents;
+import com.cburch.logisim.std.memory.Rom;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class HdlManifestTest {
+
+  private static final List<String> CONTENTS = List.of("-- generated", "", "END;");
+
+  private static void writeComponent(HdlManifest manifest, String dir, String name, String key) {
+    if (Hdl.isVhdl()) assertTrue(manifest.write(dir, name, true, CONTENTS, key));
+    assertTrue(manifest.write(dir, name, false, CONTENTS, key));
+  }
+
+  private static void delete(Path dir) throws IOException {
+    try (final var files = Files.walk(dir)) {
+      for (final var file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+    }
+  }
+
+  @Test
+  void unchangedFilesAreKept() throws IOException {
+    final var project = Files.createTempDirectory("hdlmanifest");
+    try {
+      final var sandbox = project.resolve("sandbox").toString();
+      final var sources = project.resolve("sources").toString();
+      final var filesPerComponent = Hdl.isVhdl() ? 2 : 1;
+
+      var manifest = new HdlManifest(project.toString(), sandbox);
+      assertFalse(manifest.hasPrevious());
+      writeComponent(manifest, sources, "gate", "key1");
+      writeComponent(manifest, sources, "top", null);
+      assertEquals(2 * filesPerComponent, manifest.getRegenerated());
+      manifest.save();
+
+      manifest = new HdlManifest(project.toString(), sandbox);
+      assertTrue(manifest.hasPrevious());
+      assertFalse(manifest.reuse(sources, "gate", "key2"));
+      assertFalse(manifest.reuse(sources, "top", null));
+      assertTrue(manifest.reuse(sources, "gate", "key1"));
+      writeComponent(manifest, sources, "top", null);
+      assertEquals(0, manifest.getRegenerated());
+      assertEquals(2 * filesPerComponent, manifest.getReused());
+      final var stale = new File(sources, "stale.txt");
+      Files.writeString(stale.toPath(), "stale");
+      manifest.prune(sources);
+      assertFalse(stale.exists());
+      assertTrue(FileWriter.getHdlFile(sources, "gate", false).exists());
+      manifest.save();
+
+      // a file changed by hand is written again
+      final var gate = FileWriter.getHdlFile(sources, "gate", false);
+      Files.writeString(gate.toPath(), "changed");
+      manifest = new HdlManifest(project.toString(), sandbox);
+      assertFalse(manifest.reuse(sources, "gate", "key1"));
+      writeComponent(manifest, sources, "gate", "key1");
+      assertNotEquals(0, manifest.getRegenerated());
+      assertEquals(CONTENTS, Files.readAllLines(gate.toPath()));
+    } finally {
+      delete(project);
+    }
+  }
+
+  private static String romKey(File image) throws IOException {
+    final var attrs =
+        AttributeSets.fixedSet(
+            new Attribute<?>[] {Rom.CONTENTS_ATTR},
+            new Object[] {MemContents.createMapped(image, 4, 8)});
+    return new HdlManifest.KeyBuilder().add(attrs).build();
+  }
+
+  @Test
+  void keyOfMappedRomFollowsItsImage() throws IOException {
+    final var image = Files.createTempFile("hdlmanifest", ".bin");
+    try {
+      Files.write(image, new byte[] {1, 2, 3, 4});
+      final var key = romKey(image.toFile());
+      assertEquals(key, romKey(image.toFile()));
+      // the attribute only names the file, which is the same
+      Files.write(image, new byte[] {1, 2, 3, 5});
+      assertNotEquals(key, romKey(image.toFile()));
+    } finally {
+      Files.delete(image);
+    }
+  }
+}
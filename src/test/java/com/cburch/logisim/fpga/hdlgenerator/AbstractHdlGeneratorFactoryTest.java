@@ -11,8 +11,16 @@ package com.cburch.logisim.fpga.hdlgenerator;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import com.cburch.logisim.circuit.Circuit;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.fpga.designrulecheck.Netlist;
+import com.cburch.logisim.fpga.designrulecheck.netlistComponent;
+import com.cburch.logisim.std.gates.GateAttributes;
+import com.cburch.logisim.std.gates.GatesLibrary;
+import com.cburch.logisim.tools.AddTool;
 import com.cburch.logisim.util.LocaleManager;
 import java.util.Locale;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 
 class AbstractHdlGeneratorFactoryTest {
@@ -44,4 +52,21 @@ class AbstractHdlGeneratorFactoryTest {
       LocaleManager.setLocale(originalLocale);
     }
   }
+
+  @Test
+  void portMapDoesNotNeedTheEntityOfTheComponent() {
+    final var nets = new Netlist(new Circuit("main", null, null));
+    final var gate = ((AddTool) new GatesLibrary().getTool("AND Gate")).getFactory();
+    final var attrs = gate.createAttributeSet();
+    final var generator = (AbstractHdlGeneratorFactory) gate.getHDLGenerator(attrs);
+    // the gate's ports depend on its number of inputs and are only known while writing
+    for (final var nrOfInputs : new int[] {3, 2}) {
+      attrs.setValue(GateAttributes.ATTR_INPUTS, nrOfInputs);
+      final var comp = gate.createComponent(Location.create(100, 100, false), attrs);
+      final var expected = nrOfInputs == 3
+          ? Set.of("input1", "input2", "input3", "result")
+          : Set.of("input1", "input2", "result");
+      assertEquals(expected, generator.getPortMap(nets, new netlistComponent(comp)).keySet());
+    }
+  }
 }
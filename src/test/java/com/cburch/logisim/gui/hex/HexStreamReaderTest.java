@@ -0,0 +1,98 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.gui.hex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cburch.logisim.std.memory.MemContents;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class HexStreamReaderTest {
+
+  @TempDir File tempDir;
+
+  private File write(String name, String text) throws IOException {
+    final var file = new File(tempDir, name);
+    Files.write(file.toPath(), text.getBytes(StandardCharsets.US_ASCII));
+    return file;
+  }
+
+  /** Loads <code>file</code> once with each reader and checks that both give the same words. */
+  private MemContents compareWithLegacy(File file, String desc, int addrBits, int width)
+      throws IOException {
+    final var streamed = MemContents.create(addrBits, width, true);
+    final var legacy = MemContents.create(addrBits, width, true);
+    try {
+      assertTrue(HexFile.open(streamed, file, desc));
+      HexFile.streamingReader = false;
+      assertTrue(HexFile.open(legacy, file, desc));
+    } finally {
+      HexFile.streamingReader = true;
+    }
+    for (long addr = 0; addr <= legacy.getLastOffset(); addr++) {
+      assertEquals(legacy.get(addr), streamed.get(addr), "address " + addr);
+    }
+    return streamed;
+  }
+
+  @Test
+  void largeImagesMatchLegacyReaderInEveryFormat() throws IOException {
+    final var rng = new Random(12);
+    final var src = MemContents.create(14, 24, true);
+    for (long addr = 0; addr <= src.getLastOffset(); addr++) {
+      // runs of repeated values exercise the run-length encoding of the raw formats
+      src.set(addr, (addr & 0x100) != 0 ? 0x5a5a5a : rng.nextInt(1 << 24));
+    }
+    for (final var desc : HexFile.formatDescriptions) {
+      if (desc.startsWith("ASCII")) continue; // left to HexReader
+      final var file = new File(tempDir, "image.dat");
+      HexFile.save(file, src, desc);
+      final var loaded = compareWithLegacy(file, desc, 14, 24);
+      assertEquals(src.get(src.getLastOffset()), loaded.get(loaded.getLastOffset()), desc);
+    }
+  }
+
+  @Test
+  void toleratesCommentsBlankLinesAndCrLf() throws IOException {
+    final var text = "v3.0 hex words addressed\r\n"
+        + "# leading comment\r\n"
+        + "\r\n"
+        + "00: 1 2 3 4 # trailing comment\r\n"
+        + "10: ff fe fd\r\n";
+    final var loaded = compareWithLegacy(write("crlf.txt", text), null, 8, 8);
+    assertEquals(4, loaded.get(3));
+    assertEquals(0xfd, loaded.get(0x12));
+  }
+
+  @Test
+  void autodetectsRawRunLengths() throws IOException {
+    final var loaded = compareWithLegacy(write("raw.txt", "v2.0 raw\n3*7 1 2\n4096*a b\n"), null, 13, 8);
+    assertEquals(7, loaded.get(2));
+    assertEquals(0xa, loaded.get(4100));
+    assertEquals(0xb, loaded.get(4101));
+  }
+
+  @Test
+  void leavesMalformedInputToLegacyReader() throws IOException {
+    final var garbage = write("bad.txt", "v3.0 hex words plain\n1 2 zz\n");
+    assertNull(HexStreamReader.read(garbage, "v3.0 hex words plain", 8, 8));
+    assertNotNull(HexStreamReader.read(write("ok.txt", "v3.0 hex words plain\n1 2 3\n"),
+        "v3.0 hex words plain", 8, 8));
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.gui.log;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cburch.logisim.circuit.CircuitMutation;
+import com.cburch.logisim.circuit.CircuitState;
+import com.cburch.logisim.comp.Component;
+import com.cburch.logisim.data.BitWidth;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.data.Value;
+import com.cburch.logisim.file.Loader;
+import com.cburch.logisim.file.LogisimFile;
+import com.cburch.logisim.instance.StdAttr;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.std.wiring.Pin;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LogThreadTest {
+
+  @TempDir Path tempDir;
+
+  private CircuitState state;
+  private Component pin;
+
+  private Model createModel() {
+    final var file = LogisimFile.createNew(new Loader(null), null);
+    final var project = new Project(file);
+    final var circuit = file.getMainCircuit();
+    circuit.setProject(project);
+    project.setCurrentCircuit(circuit);
+    state = project.getCircuitState();
+
+    final var attrs = Pin.FACTORY.createAttributeSet();
+    attrs.setValue(StdAttr.WIDTH, BitWidth.create(4));
+    attrs.setValue(StdAttr.LABEL, "bus");
+    pin = Pin.FACTORY.createComponent(Location.create(100, 100, true), attrs);
+    final var mutation = new CircuitMutation(circuit);
+    mutation.add(pin);
+    mutation.execute();
+    drive(0);
+    return new Model(state);
+  }
+
+  private void drive(int value) {
+    Pin.FACTORY.driveInputPin(state.getInstanceState(pin), Value.createKnown(4, value));
+  }
+
+  /** Logs the pin stepping through the given values to the file. */
+  private void log(Path path, int... values) throws Exception {
+    final var model = createModel();
+    model.setSelected(true);
+    model.setFile(path.toFile());
+    for (final var v : values) {
+      drive(v);
+      model.propagationCompleted(false, true, true);
+    }
+    model.setSelected(false); // waits for the file to be written
+  }
+
+  @Test
+  void textLogHasOneLinePerStep() throws Exception {
+    final var path = tempDir.resolve("log.txt");
+    log(path, 5, 5, 9);
+    final var lines = Files.readAllLines(path);
+    assertTrue(lines.get(0).startsWith("# mode: "));
+    assertEquals("bus[3..0]", lines.get(1));
+    assertEquals(
+        List.of("0000", "0101", "0101", "1001"),
+        lines.subList(2, lines.size()).stream().map(l -> l.substring(0, l.indexOf('\t'))).toList());
+  }
+
+  @Test
+  void vcdLogOnlyHasValueChanges() throws Exception {
+    final var path = tempDir.resolve("log.vcd");
+    log(path, 5, 5, 5, 9, 9);
+    final var lines = Files.readAllLines(path);
+    final var body = lines.subList(lines.indexOf("$enddefinitions $end") + 1, lines.size());
+    assertTrue(lines.contains("$var wire 4 ! bus[3..0] $end"));
+    // a step lasts 5us, and the end of the last one is marked
+    assertEquals(List.of("#0", "b0000 !", "#5000", "b0101 !", "#20000", "b1001 !", "#30000"), body);
+  }
+
+  @Test
+  void binaryLogStartsWithItsSignature() throws Exception {
+    final var path = tempDir.resolve("log" + BinaryLogSink.EXTENSION);
+    log(path, 1, 2, 3);
+    final var bytes = Files.readAllBytes(path);
+    assertArrayEquals(BinaryLogSink.MAGIC, Arrays.copyOf(bytes, BinaryLogSink.MAGIC.length));
+    assertEquals('M', bytes[BinaryLogSink.MAGIC.length]);
+  }
+
+  @Test
+  void identifiersAreUnique() {
+    final var ids = new HashSet<String>();
+    for (var i = 0; i < 20000; i++) assertTrue(ids.add(VcdLogSink.identifier(i)));
+    assertEquals("!", VcdLogSink.identifier(0));
+    assertEquals("!!", VcdLogSink.identifier(94));
+  }
+}
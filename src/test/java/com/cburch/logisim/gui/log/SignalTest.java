@@ -10,10 +10,13 @@
 package com.cburch.logisim.gui.log;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import com.cburch.logisim.data.BitWidth;
 import com.cburch.logisim.data.Value;
 import org.junit.jupiter.api.Test;
 
@@ -32,4 +35,65 @@ class SignalTest {
     assertNull(signal.getValue(10));
     assertEquals(10, signal.getEndTime());
   }
+
+  @Test
+  void limitedHistoryKeepsTheMostRecentSamples() {
+    final var info = mock(SignalInfo.class);
+    when(info.getWidth()).thenReturn(8);
+    final var signal = new Signal(0, info, Value.createKnown(8, 0), 2, 0, 1000);
+    for (var i = 1; i < 5000; i++) signal.extend(Value.createKnown(8, i & 0xff), 2);
+
+    assertEquals(8000, signal.omittedDataTime());
+    assertNull(signal.getValue(7999));
+    for (var i = 4000; i < 5000; i++) {
+      assertEquals(Value.createKnown(8, i & 0xff), signal.getValue(2L * i));
+      assertEquals(Value.createKnown(8, i & 0xff), signal.getValue(2L * i + 1));
+    }
+    assertEquals(10000, signal.getEndTime());
+
+    final var iter = signal.new Iterator(9001);
+    assertEquals(9001, iter.time);
+    assertEquals(1, iter.duration);
+    assertEquals(Value.createKnown(8, 4500 & 0xff), iter.value);
+  }
+
+  @Test
+  void valuesWiderThanTheSignalAreKept() {
+    final var info = mock(SignalInfo.class);
+    when(info.getWidth()).thenReturn(8);
+    final var signal = new Signal(0, info, Value.createKnown(8, 3), 1, 0, 0);
+    signal.extend(Value.createKnown(64, -1L), 1);
+    signal.extend(Value.createKnown(8, 5), 1);
+
+    // once the signal is widened, the wide sample shows in full
+    when(info.getWidth()).thenReturn(64);
+    assertEquals(Value.createKnown(64, 3), signal.getValue(0));
+    assertEquals(Value.createKnown(64, -1L), signal.getValue(1));
+    assertEquals(Value.createKnown(64, 5), signal.getValue(2));
+  }
+
+  @Test
+  void summaryDescribesAllValuesInRange() {
+    final var info = mock(SignalInfo.class);
+    when(info.getWidth()).thenReturn(4);
+    final var signal = new Signal(0, info, Value.createKnown(4, 7), 1, 0, 0);
+    for (var i = 1; i < 3000; i++) signal.extend(Value.createKnown(4, 3 + i % 5), 1);
+    signal.extend(Value.createUnknown(BitWidth.create(4)), 1);
+    signal.extend(Value.createKnown(4, 1), 1);
+
+    final var summary = new Signal.Summary();
+    assertTrue(signal.summarize(1, 2999, summary));
+    assertEquals(2997, summary.transitions);
+    assertEquals(3, summary.min);
+    assertEquals(7, summary.max);
+    assertFalse(summary.unknown);
+
+    assertTrue(signal.summarize(2990, 5000, summary));
+    assertEquals(11, summary.transitions);
+    assertTrue(summary.unknown);
+    assertFalse(summary.error);
+    assertEquals(1, summary.min);
+
+    assertFalse(signal.summarize(3002, 4000, summary));
+  }
 }
@@ -10,11 +10,28 @@
 package com.cburch.logisim.gui.start;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
+import com.cburch.logisim.circuit.CircuitMutation;
+import com.cburch.logisim.comp.EndData;
+import com.cburch.logisim.data.BitWidth;
+import com.cburch.logisim.data.Location;
 import com.cburch.logisim.data.TestVector;
+import com.cburch.logisim.data.Value;
+import com.cburch.logisim.file.Loader;
+import com.cburch.logisim.file.LogisimFile;
+import com.cburch.logisim.instance.Instance;
+import com.cburch.logisim.instance.StdAttr;
+import com.cburch.logisim.proj.Project;
+import com.cburch.logisim.std.arith.ArithmeticLibrary;
+import com.cburch.logisim.std.arith.Comparator;
+import com.cburch.logisim.std.wiring.Pin;
+import com.cburch.logisim.std.wiring.WiringLibrary;
+import com.cburch.logisim.tools.AddTool;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -49,4 +66,54 @@ public class TtyInterfaceTest {
     assertEquals(4, vector.columnWidth[1].getWidth());
     assertEquals(2, vector.data.size());
   }
+
+  @Test
+  public void testParallelTableMatchesSequentialTable() {
+    final var loader = new Loader(null);
+    final var file = LogisimFile.createNew(loader, null);
+    final var proj = new Project(file);
+    final var circuit = file.getMainCircuit();
+    circuit.setProject(proj);
+
+    // a 5-bit comparator has 1024 rows, which are split over several blocks
+    // the file is copied for the parallel workers, so it has to hold the libraries it uses
+    final var arithmetic = loader.getBuiltin().getLibrary(ArithmeticLibrary._ID);
+    file.addLibrary(arithmetic);
+    file.addLibrary(loader.getBuiltin().getLibrary(WiringLibrary._ID));
+    final var factory = ((AddTool) arithmetic.getTool(Comparator._ID)).getFactory();
+    final var attrs = factory.createAttributeSet();
+    attrs.setValue(StdAttr.WIDTH, BitWidth.create(5));
+    final var comparator = factory.createComponent(
+        Location.create(300, 300, true), attrs);
+    final var mutation = new CircuitMutation(circuit);
+    mutation.add(comparator);
+    final var inputPins = new ArrayList<Instance>();
+    final var outputPins = new ArrayList<Instance>();
+    var inputCount = 0;
+    for (final var end : comparator.getEnds()) {
+      final var output = end.getType() == EndData.OUTPUT_ONLY;
+      final var pinAttrs = Pin.FACTORY.createAttributeSet();
+      if (output) pinAttrs.setValue(Pin.ATTR_TYPE, Pin.OUTPUT);
+      pinAttrs.setValue(StdAttr.WIDTH, end.getWidth());
+      final var pin = Pin.FACTORY.createComponent(end.getLocation(), pinAttrs);
+      mutation.add(pin);
+      (output ? outputPins : inputPins).add(Instance.getInstanceFor(pin));
+      if (!output) inputCount += end.getWidth().getWidth();
+    }
+    mutation.execute();
+    final var pinList = new ArrayList<Instance>(inputPins);
+    pinList.addAll(outputPins);
+
+    final var sequential = new ArrayList<ArrayList<Value>>();
+    TtyInterface.computeTable(
+        proj, circuit, inputPins, outputPins, pinList, inputCount, 1, sequential::add);
+    final var parallel = new ArrayList<ArrayList<Value>>();
+    TtyInterface.computeTable(
+        proj, circuit, inputPins, outputPins, pinList, inputCount, 4, parallel::add);
+
+    assertEquals(1 << inputCount, sequential.size());
+    assertEquals(sequential, parallel);
+    // equal and unequal inputs must give different comparator outputs
+    assertNotEquals(sequential.get(0), sequential.get(1));
+  }
 }
@@ -0,0 +1,140 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.gui.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestBatchTest {
+
+  @TempDir File tempDir;
+
+  private File writeManifest(String content) throws IOException {
+    final var manifest = new File(tempDir, "manifest.txt");
+    try (final var writer = new FileWriter(manifest)) {
+      writer.write(content);
+    }
+    return manifest;
+  }
+
+  @Test
+  public void testParseManifest() throws IOException {
+    final var manifest = writeManifest("""
+        # comment
+        adder.circ, adder_test.txt
+
+        alu.circ,ALU,alu_test.txt
+        alu.circ,,main_test.txt
+        """);
+    final var entries = TestBatch.parseManifest(manifest);
+    assertEquals(3, entries.size());
+
+    assertEquals(2, entries.get(0).line());
+    assertEquals(new File(tempDir, "adder.circ"), entries.get(0).circFile());
+    assertNull(entries.get(0).circuitName());
+    assertEquals(new File(tempDir, "adder_test.txt"), entries.get(0).vectorFile());
+
+    assertEquals("ALU", entries.get(1).circuitName());
+    assertEquals(new File(tempDir, "alu_test.txt"), entries.get(1).vectorFile());
+    assertNull(entries.get(2).circuitName());
+  }
+
+  @Test
+  public void testMalformedManifestLine() throws IOException {
+    final var manifest = writeManifest("a.circ,b.txt\nonly_one_field\n");
+    final var e = assertThrows(IOException.class, () -> TestBatch.parseManifest(manifest));
+    assertTrue(e.getMessage().contains("2"));
+  }
+
+  @Test
+  public void testMissingCircuitFileIsReportedAsError() throws IOException {
+    final var manifest = writeManifest("missing.circ,missing.txt\n");
+    final var results = TestBatch.runAll(TestBatch.parseManifest(manifest), Map.of(), 2);
+    assertEquals(1, results.size());
+    assertTrue(results.get(0).error() != null);
+    assertTrue(!results.get(0).isSuccess());
+  }
+
+  @Test
+  public void testCsvEscaping() throws IOException {
+    final var entry = new TestBatch.Entry(1, new File("a,b.circ"), null, new File("v.txt"));
+    final var result = new TestBatch.Result(entry, 3, 1, "bad \"value\"", List.of(), 2_000_000);
+    final var out = new StringWriter();
+    TestBatch.writeCsv(List.of(result), out);
+    final var lines = out.toString().split("\n");
+    assertEquals(2, lines.length);
+    assertEquals("\"a,b.circ\",,v.txt,3,1,\"bad \"\"value\"\"\",2", lines[1]);
+  }
+
+  @Test
+  public void testVectorsAreEvaluatedConcurrently() throws IOException {
+    final var circ = new File(tempDir, "inverter.circ");
+    try (final var writer = new FileWriter(circ)) {
+      writer.write("""
+          <?xml version="1.0" encoding="UTF-8" standalone="no"?>
+          <project source="4.0.0dev" version="1.0">
+          <lib desc="#Wiring" name="0"/>
+          <lib desc="#Gates" name="1"/>
+          <main name="main"/>
+          <circuit name="main">
+            <comp lib="0" loc="(170,100)" name="Pin">
+              <a name="label" val="a"/>
+            </comp>
+            <comp lib="1" loc="(200,100)" name="NOT Gate"/>
+            <comp lib="0" loc="(200,100)" name="Pin">
+              <a name="facing" val="west"/>
+              <a name="label" val="y"/>
+              <a name="type" val="output"/>
+            </comp>
+          </circuit>
+          </project>
+          """);
+    }
+    try (final var writer = new FileWriter(new File(tempDir, "pass.txt"))) {
+      writer.write("a y\n0 1\n1 0\n");
+    }
+    try (final var writer = new FileWriter(new File(tempDir, "fail.txt"))) {
+      writer.write("a y\n0 1\n1 0\n1 1\n0 0\n");
+    }
+    final var manifest = new StringBuilder();
+    for (var i = 0; i < 8; i++) {
+      manifest.append(i % 2 == 0 ? "inverter.circ,pass.txt\n" : "inverter.circ,fail.txt\n");
+    }
+    final var entries = TestBatch.parseManifest(writeManifest(manifest.toString()));
+
+    final var results = TestBatch.runAll(entries, Map.of(), 4);
+    assertEquals(8, results.size());
+    for (var i = 0; i < results.size(); i++) {
+      final var result = results.get(i);
+      assertNull(result.error());
+      assertEquals(entries.get(i), result.entry());
+      if (i % 2 == 0) {
+        assertEquals(2, result.passed());
+        assertEquals(0, result.failed());
+        assertTrue(result.isSuccess());
+      } else {
+        assertEquals(2, result.passed());
+        assertEquals(2, result.failed());
+        assertEquals(2, result.failures().size());
+      }
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.soc.data;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cburch.logisim.instance.InstanceComponent;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SocBusSlaveIndexTest {
+
+  private record Slave(int start, int size) implements SocBusSlaveInterface {
+    @Override
+    public boolean canHandleTransaction(SocBusTransaction trans) {
+      final var addr = SocSupport.convUnsignedInt(trans.getAddress());
+      final var first = SocSupport.convUnsignedInt(start);
+      return addr >= first && addr < first + size;
+    }
+
+    @Override
+    public void handleTransaction(SocBusTransaction trans) {}
+
+    @Override
+    public Integer getStartAddress() {
+      return start;
+    }
+
+    @Override
+    public Integer getMemorySize() {
+      return size;
+    }
+
+    @Override
+    public String getName() {
+      return "slave";
+    }
+
+    @Override
+    public void registerListener(SocBusSlaveListener l) {}
+
+    @Override
+    public void removeListener(SocBusSlaveListener l) {}
+
+    @Override
+    public InstanceComponent getComponent() {
+      return null;
+    }
+  }
+
+  @Test
+  void findsTheSlaveOfEachAddress() {
+    final var memory = new Slave(0, 0x1000);
+    final var pio = new Slave(0x2000, 24);
+    final var top = new Slave(0xFFFFFFF0, 16);
+    final var index = new SocBusSlaveIndex(List.of(top, pio, memory));
+    assertFalse(index.hasOverlaps());
+    assertSame(memory, index.find(0));
+    assertSame(memory, index.find(0xFFF));
+    assertNull(index.find(0x1000));
+    assertSame(pio, index.find(0x2000));
+    assertSame(pio, index.find(0x2017));
+    assertNull(index.find(0x2018));
+    assertSame(top, index.find(0xFFFFFFF0));
+    assertSame(top, index.find(0xFFFFFFFF));
+    assertNull(index.find(0x80000000));
+  }
+
+  @Test
+  void overlappingAddressesHaveNoSlave() {
+    final var memory = new Slave(0, 0x1000);
+    final var pio = new Slave(0x800, 24);
+    final var index = new SocBusSlaveIndex(List.of(memory, pio));
+    assertTrue(index.hasOverlaps());
+    assertSame(memory, index.find(0x7FC));
+    assertNull(index.find(0x800));
+    assertNull(index.find(0x817));
+    assertSame(memory, index.find(0x818));
+  }
+
+  @Test
+  void emptyBusHasNoSlaves() {
+    final var index = new SocBusSlaveIndex(List.of());
+    assertNull(index.find(0));
+    assertNull(new SocBusSlaveIndex(List.of(new Slave(0x100, 0))).find(0x100));
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.soc.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TraceBufferTest {
+
+  @Test
+  void keepsTheLastInstructionsMostRecentFirst() {
+    final var buffer = new TraceBuffer(3);
+    assertTrue(buffer.getTraces().isEmpty());
+    for (var pc = 0; pc < 20; pc += 4) buffer.add(pc, pc + 1, "nop", false);
+    assertEquals(3, buffer.size());
+    final var traces = buffer.getTraces();
+    assertEquals(3, traces.size());
+    assertEquals(16, traces.get(0).getProgramCounter());
+    assertEquals(8, traces.get(2).getProgramCounter());
+  }
+
+  @Test
+  void errorsMarkTheLastInstruction() {
+    final var buffer = new TraceBuffer(2);
+    buffer.add(0, 0, "nop", false);
+    buffer.add(4, 0, "nop", false);
+    buffer.setLastError();
+    assertTrue(buffer.getTraces().get(0).hasError());
+    buffer.add(8, 0, "nop", false);
+    assertTrue(buffer.getTraces().get(1).hasError());
+    buffer.clear();
+    assertEquals(0, buffer.size());
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.soc.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.cburch.logisim.soc.rv32im.RV32imState;
+import org.junit.jupiter.api.Test;
+
+class InstructionCacheTest {
+  private static final int ADD = 0x003100b3; // add ra,sp,gp
+  private static final int ADDI = 0x00128293; // addi t0,t0,1
+
+  private final InstructionCache cache = new InstructionCache(16);
+
+  private InstructionCache.Entry put(int pc, int instruction) {
+    RV32imState.ASSEMBLER.decode(instruction);
+    return cache.put(pc, instruction, RV32imState.ASSEMBLER.getExeUnit());
+  }
+
+  @Test
+  void cachedInstructionsAreFoundByPc() {
+    final var add = put(0x100, ADD);
+    final var addi = put(0x104, ADDI);
+    assertSame(add, cache.get(0x100));
+    assertSame(addi, cache.get(0x104));
+    assertNull(cache.get(0x108));
+    assertEquals(ADD, add.getInstruction());
+    assertEquals(RV32imState.ASSEMBLER.getExeUnit().getAsmInstruction(), addi.getAsmInstruction());
+  }
+
+  @Test
+  void entriesDecodeTheirOwnInstruction() {
+    final var add = put(0x100, ADD);
+    put(0x104, ADD + (1 << 7)); // add sp,sp,gp, same execution unit
+    assertEquals(ADD, add.decode().getBinInstruction());
+  }
+
+  @Test
+  void writesDropOnlyTheWrittenInstruction() {
+    put(0x100, ADD);
+    put(0x104, ADDI);
+    cache.invalidate(0x106); // a half word store in the second instruction
+    assertNotNull(cache.get(0x100));
+    assertNull(cache.get(0x104));
+    cache.invalidate(0x100 + 16 * 4); // maps to the same entry, but is not cached
+    assertNotNull(cache.get(0x100));
+  }
+
+  @Test
+  void conflictingInstructionsReplaceEachOther() {
+    put(0x100, ADD);
+    final var other = put(0x100 + 16 * 4, ADDI);
+    assertNull(cache.get(0x100));
+    assertSame(other, cache.get(0x100 + 16 * 4));
+    cache.clear();
+    assertNull(cache.get(0x100 + 16 * 4));
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.std.memory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cburch.logisim.comp.ComponentEvent;
+import com.cburch.logisim.comp.ComponentListener;
+import com.cburch.logisim.data.Location;
+import com.cburch.logisim.gui.hex.HexFile;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MemContentsMappedTest {
+
+  @TempDir
+  Path tempDir;
+
+  /** Packs 20-bit words into a little-endian bit stream, for addresses 0..count-1. */
+  private File writeImage(int count) throws IOException {
+    final var bytes = new byte[(20 * count + 7) / 8];
+    for (var i = 0; i < count; i++) {
+      final var word = expected(i);
+      for (var bit = 0; bit < 20; bit++) {
+        if ((word >> bit & 1) == 0) continue;
+        final var pos = 20 * i + bit;
+        bytes[pos >> 3] |= (byte) (1 << (pos & 7));
+      }
+    }
+    final var file = tempDir.resolve("image.bin");
+    Files.write(file, bytes);
+    return file.toFile();
+  }
+
+  private static long expected(int addr) {
+    return (addr * 0x10101L + 7) & 0xfffff;
+  }
+
+  @Test
+  void readsThroughToFile() throws IOException {
+    final var count = 10000; // spans three pages, the last one partially
+    final var contents = MemContents.createMapped(writeImage(count), 16, 20);
+    for (var addr = 0; addr < count; addr++) {
+      assertEquals(expected(addr), contents.get(addr));
+    }
+    assertEquals(0, contents.get(count));
+    assertEquals(0, contents.get(contents.getLastOffset()));
+    assertTrue(contents.isBackingFileCurrent());
+  }
+
+  @Test
+  void writesCopyPagesAndLeaveFileAndClonesAlone() throws IOException {
+    final var image = writeImage(5000);
+    final var before = Files.readAllBytes(image.toPath());
+    final var contents = MemContents.createMapped(image, 16, 20);
+    final var copy = contents.clone();
+
+    contents.set(4100, 0x12345);
+    contents.fill(10, 5, 0);
+
+    assertEquals(0x12345, contents.get(4100));
+    assertEquals(0, contents.get(12));
+    assertEquals(expected(4101), contents.get(4101));
+    assertEquals(expected(4100), copy.get(4100));
+    assertEquals(expected(12), copy.get(12));
+    assertFalse(contents.isBackingFileCurrent());
+    assertTrue(copy.isBackingFileCurrent());
+    assertArrayEquals(before, Files.readAllBytes(image.toPath()));
+  }
+
+  @Test
+  void romAttributeRefersToFileUntilEdited() throws IOException {
+    final var image = writeImage(300);
+    final var attr = Rom.CONTENTS_ATTR;
+    final var contents = MemContents.createMapped(image, 10, 20);
+
+    final var saved = attr.toStandardString(contents);
+    assertTrue(saved.endsWith("file: " + image.getPath()));
+    final var loaded = attr.parse(saved);
+    assertNotNull(loaded);
+    assertEquals(image, loaded.getBackingFile());
+    assertEquals(expected(299), loaded.get(299));
+
+    loaded.set(0, 1);
+    final var inline = attr.parse(attr.toStandardString(loaded));
+    assertEquals(null, inline.getBackingFile());
+    assertEquals(1, inline.get(0));
+    assertEquals(expected(299), inline.get(299));
+  }
+
+  @Test
+  void romListensOnlyToItsCurrentContents() throws Exception {
+    final var rom = new Rom();
+    final var attrs = rom.createAttributeSet();
+    final var comp = rom.createComponent(Location.create(100, 100, true), attrs);
+    final var invalidations = new AtomicInteger();
+    comp.addComponentListener(new ComponentListener() {
+      @Override
+      public void componentInvalidated(ComponentEvent e) {
+        invalidations.incrementAndGet();
+      }
+    });
+    final var first = attrs.getValue(Rom.CONTENTS_ATTR);
+    final var second = MemContents.create(8, 8, false);
+    attrs.setValue(Rom.CONTENTS_ATTR, second);
+    attrs.setValue(Rom.CONTENTS_ATTR, second);
+    invalidations.set(0);
+
+    // the listener only invalidates the ROM on the event dispatch thread
+    SwingUtilities.invokeAndWait(() -> first.set(1, 1));
+    assertEquals(0, invalidations.get());
+    SwingUtilities.invokeAndWait(() -> second.set(1, 1));
+    assertEquals(1, invalidations.get());
+  }
+
+  @Test
+  void mapsImagesSavedByHexFile() throws IOException {
+    final var heap = MemContents.create(6, 20, false);
+    for (var addr = 0; addr < 64; addr++) heap.set(addr, expected(addr));
+    final var image = tempDir.resolve("saved.bin").toFile();
+    HexFile.save(image, heap, "Binary data little-endian");
+    final var mapped = MemContents.createMapped(image, 6, 20);
+    for (var addr = 0; addr < 64; addr++) {
+      assertEquals(heap.get(addr), mapped.get(addr));
+    }
+  }
+
+  @Test
+  void referenceIsStoredRelativeToProject() throws IOException {
+    final var image = writeImage(100);
+    final var attr = Rom.CONTENTS_ATTR;
+    final var saved = attr.toStandardString(tempDir.toFile(),
+        MemContents.createMapped(image, 8, 20));
+    assertEquals("addr/data: 8 20\nfile: image.bin", saved);
+
+    final var warnings = new ArrayList<String>();
+    final var loaded = attr.parse(tempDir.toFile(), saved, warnings);
+    assertTrue(warnings.isEmpty());
+    assertEquals(image.getAbsoluteFile(), loaded.getBackingFile().getAbsoluteFile());
+    assertEquals(expected(42), loaded.get(42));
+  }
+
+  @Test
+  void missingImageKeepsReference() {
+    final var attr = Rom.CONTENTS_ATTR;
+    final var warnings = new ArrayList<String>();
+    final var loaded = attr.parse(tempDir.toFile(), "addr/data: 8 20\nfile: lost.bin", warnings);
+    assertEquals(1, warnings.size());
+    assertNotNull(loaded);
+    assertEquals(0, loaded.get(3));
+    assertTrue(loaded.isBackingFileCurrent());
+    assertEquals("addr/data: 8 20\nfile: lost.bin", attr.toStandardString(tempDir.toFile(), loaded));
+
+    // still referenced after a change of the word size, but no longer once edited
+    loaded.setDimensions(8, 16);
+    assertTrue(loaded.isBackingFileCurrent());
+    loaded.set(3, 5);
+    assertFalse(loaded.isBackingFileCurrent());
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Logisim-evolution - digital logic design tool and simulator
+ * Copyright by the Logisim-evolution developers
+ *
+ * https://github.com/logisim-evolution/
+ *
+ * This is free software released under GNU GPLv3 license
+ */
+
+package com.cburch.logisim.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class TimeWheelQueueTest {
+
+  /** Tests that nodes come out ordered by timeKey and then by serialNumber. */
+  @Test
+  public void testOrderMatchesPriorityQueue() {
+    final var queue = new TimeWheelQueue<QNode>(4);
+    final var reference = new PriorityQueue<QNode>();
+    final var rand = new Random(42);
+    var clock = 0;
+    var serial = 0;
+    for (var round = 0; round < 2000; round++) {
+      final var adds = rand.nextInt(5);
+      for (var i = 0; i < adds; i++) {
+        final var node = new QNode(clock + 1 + rand.nextInt(40), serial++);
+        queue.add(node);
+        reference.add(node);
+      }
+      assertEquals(reference.size(), queue.size());
+      if (!reference.isEmpty()) {
+        clock = reference.peek().timeKey;
+        assertSame(reference.peek(), queue.peek());
+        assertSame(reference.remove(), queue.remove());
+      }
+    }
+    while (!reference.isEmpty()) {
+      assertSame(reference.remove(), queue.remove());
+    }
+    assertTrue(queue.isEmpty());
+    assertNull(queue.peek());
+    assertNull(queue.remove());
+  }
+
+  /** Tests that the ring grows when timeKeys span more than its capacity. */
+  @Test
+  public void testGrowAndEarlierTimeKey() {
+    final var queue = new TimeWheelQueue<QNode>(4);
+    final var late = new QNode(100, 0);
+    final var early = new QNode(10, 1);
+    final var middle = new QNode(50, 2);
+    queue.add(late);
+    queue.add(early);
+    queue.add(middle);
+    assertTrue(queue.capacity() > 90);
+    assertSame(early, queue.remove());
+    assertSame(middle, queue.remove());
+    assertSame(late, queue.remove());
+    assertTrue(queue.isEmpty());
+  }
+
+  /** Tests that a node can be reused after it has been removed. */
+  @Test
+  public void testReuseAndClear() {
+    final var queue = new TimeWheelQueue<QNode>();
+    final var node = new QNode(5, 0);
+    queue.add(node);
+    queue.add(new QNode(5, 1));
+    assertSame(node, queue.remove());
+    node.reuse(7, 2);
+    queue.add(node);
+    assertEquals(5, queue.remove().timeKey);
+    assertSame(node, queue.remove());
+    queue.add(new QNode(3, 3));
+    queue.clear();
+    assertEquals(0, queue.size());
+    assertNull(queue.peek());
+  }
+}